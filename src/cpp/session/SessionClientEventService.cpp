@@ -24,10 +24,13 @@
 #include <core/Thread.hpp>
 #include <core/system/System.hpp>
 #include <core/Macros.hpp>
+#include <core/SafeConvert.hpp>
 
 
 #include <core/http/Request.hpp>
 
+#include <session/SessionConsoleProcess.hpp>
+#include <session/SessionConsoleProcessSocket.hpp>
 #include <session/SessionOptions.hpp>
 #include <session/SessionHttpConnectionListener.hpp>
 #include <session/SessionClientEventService.hpp>
@@ -113,6 +116,9 @@ void ClientEventService::stop()
    
 void ClientEventService::setClientId(const std::string& clientId, bool clearEvents)
 {
+   // any event socket belongs to the previous client
+   closeEventSocket();
+
    LOCK_MUTEX(mutex_)
    {
       clientId_ = clientId.c_str(); // avoid ref count
@@ -137,6 +143,181 @@ std::string ClientEventService::clientId()
    return std::string();
 }
 
+Error ClientEventService::listenForEventSocket(std::string* pHandle, int* pPort)
+{
+   // share the terminals' websocket server (and so its port)
+   console_process::ConsoleProcessSocket& socket =
+         console_process::consoleProcessSocket();
+   Error error = socket.ensureServerRunning();
+   if (error)
+      return error;
+
+   // only one client can be connected at a time
+   closeEventSocket();
+
+   std::string handle = core::system::generateUuid(false);
+   console_process::ConsoleProcessSocketConnectionCallbacks callbacks;
+   callbacks.onReceivedInput = boost::bind(
+            &ClientEventService::onEventSocketInput, this, handle, _1);
+   callbacks.onConnectionClosed = boost::bind(
+            &ClientEventService::onEventSocketClosed, this, handle);
+   error = socket.listen(handle, callbacks);
+   if (error)
+      return error;
+
+   LOCK_MUTEX(mutex_)
+   {
+      eventSocketHandle_ = handle;
+   }
+   END_LOCK_MUTEX
+
+   *pHandle = handle;
+   *pPort = socket.port();
+   return Success();
+}
+
+bool ClientEventService::eventSocketConnected()
+{
+   LOCK_MUTEX(mutex_)
+   {
+      return eventSocketConnected_;
+   }
+   END_LOCK_MUTEX
+
+   // keep compiler happy
+   return false;
+}
+
+void ClientEventService::closeEventSocket()
+{
+   std::string handle;
+   LOCK_MUTEX(mutex_)
+   {
+      handle = eventSocketHandle_;
+      eventSocketHandle_.clear();
+      eventSocketConnected_ = false;
+      eventSocketResend_ = false;
+   }
+   END_LOCK_MUTEX
+
+   if (!handle.empty())
+      console_process::consoleProcessSocket().stopListening(handle);
+}
+
+// called on the websocket thread with the id of the last event the client
+// has seen: first when it connects, then to acknowledge each batch
+void ClientEventService::onEventSocketInput(const std::string& handle,
+                                            const std::string& input)
+{
+   int lastClientEventIdSeen = safe_convert::stringTo<int>(input, -1);
+   LOCK_MUTEX(mutex_)
+   {
+      if (handle != eventSocketHandle_)
+         return;
+
+      // the first message means the client is ready for events, including
+      // any it missed while (re)connecting
+      if (!eventSocketConnected_)
+      {
+         eventSocketConnected_ = true;
+         eventSocketResend_ = true;
+      }
+      eventSocketLastEventIdSeen_ = lastClientEventIdSeen;
+   }
+   END_LOCK_MUTEX
+
+   erasePreviouslyDeliveredEvents(lastClientEventIdSeen);
+}
+
+// called on the websocket thread
+void ClientEventService::onEventSocketClosed(const std::string& handle)
+{
+   LOCK_MUTEX(mutex_)
+   {
+      if (handle != eventSocketHandle_)
+         return;
+   }
+   END_LOCK_MUTEX
+
+   closeEventSocket();
+}
+
+void ClientEventService::sendEventSocketEvents(
+      const boost::posix_time::time_duration& batchDelay,
+      const boost::posix_time::time_duration& maxTotalBatchDelay,
+      int* pNextEventId)
+{
+   ClientEventQueue& clientEventQueue = session::clientEventQueue();
+
+   bool resend = false;
+   LOCK_MUTEX(mutex_)
+   {
+      resend = eventSocketResend_;
+   }
+   END_LOCK_MUTEX
+
+   // wait for events; only for a second at a time so that we notice
+   // requests for events from a client that has fallen back to polling
+   if (!resend && !clientEventQueue.hasEvents() &&
+       !clientEventQueue.waitForEvent(boost::posix_time::seconds(1)))
+   {
+      return;
+   }
+
+   // wait for additional events that occur in rapid succession (as when
+   // responding to a request for events)
+   boost::system_time maxBatchDelayTime =
+                  boost::get_system_time() + maxTotalBatchDelay;
+   while ( clientEventQueue.waitForEvent(batchDelay) &&
+           (boost::get_system_time() < maxBatchDelayTime) )
+   {
+   }
+
+   std::vector<ClientEvent> events;
+   clientEventQueue.remove(&events);
+
+   // events are numbered and kept until acknowledged even if the socket
+   // has since been closed; the next request for events will include them
+   std::string handle;
+   json::Array frame;
+   LOCK_MUTEX(mutex_)
+   {
+      *pNextEventId = std::max(*pNextEventId, eventSocketLastEventIdSeen_ + 1);
+
+      // on (re)connection, send events the client hasn't acknowledged
+      if (eventSocketResend_)
+      {
+         for (const json::Value& event : clientEvents_)
+            frame.push_back(event);
+         eventSocketResend_ = false;
+      }
+
+      for (const ClientEvent& clientEvent : events)
+      {
+         json::Object event;
+         clientEvent.asJsonObject((*pNextEventId)++, &event);
+         clientEvents_.push_back(event);
+         frame.push_back(event);
+      }
+
+      handle = eventSocketHandle_;
+   }
+   END_LOCK_MUTEX
+
+   if (handle.empty() || frame.isEmpty())
+      return;
+
+   // if this fails the events remain unacknowledged, and so will be delivered
+   // when the client reconnects or polls for events
+   Error error = console_process::consoleProcessSocket().sendText(
+            handle, frame.write());
+   if (error)
+   {
+      LOG_ERROR(error);
+      closeEventSocket();
+   }
+}
+
 void ClientEventService::erasePreviouslyDeliveredEvents(int lastClientEventIdSeen)
 {
    LOCK_MUTEX(mutex_)
@@ -211,6 +392,30 @@ void ClientEventService::run()
       bool stopServer = false;
       while (!stopServer || clientEventQueue.hasEvents())
       {
+         // while a client is connected to the event socket, push events to
+         // it as they arrive; a request for events means the client has
+         // fallen back to polling, so stop using the socket and service that
+         if (eventSocketConnected())
+         {
+            if (httpConnectionListener().eventsConnectionQueue()
+                                        .peekNextConnectionUri().empty())
+            {
+               try
+               {
+                  sendEventSocketEvents(batchDelay,
+                                        maxTotalBatchDelay,
+                                        &nextEventId);
+               }
+               catch(const boost::thread_interrupted&)
+               {
+                  stopServer = true;
+               }
+               continue;
+            }
+
+            closeEventSocket();
+         }
+
          boost::shared_ptr<HttpConnection> ptrConnection;
          try
          {
@@ -432,6 +432,7 @@ bool ConsoleProcess::onContinue(core::system::ProcessOperations& ops)
       interruptChild_ = false;
    }
 
+   bool sendBuffer = false;
    LOCK_MUTEX(inputOutputQueueMutex_)
    {
       if (procInfo_->getTrackEnv())
@@ -451,6 +452,9 @@ bool ConsoleProcess::onContinue(core::system::ProcessOperations& ops)
       // capture weak reference to the callbacks so websocket callback
       // can use them
       pOps_ = ops.weak_from_this();
+
+      sendBuffer = bufferRequested_;
+      bufferRequested_ = false;
    }
    END_LOCK_MUTEX
 
@@ -464,6 +468,11 @@ bool ConsoleProcess::onContinue(core::system::ProcessOperations& ops)
       saveConsoleProcesses();
    }
 
+   // the saved buffer is read here rather than on the websocket thread, as
+   // it is written to from this thread
+   if (sendBuffer)
+      sendSavedBuffer();
+
    pid_ = ops.getPid();
 
    // continue
@@ -674,6 +683,18 @@ void ConsoleProcess::onExit(int exitCode)
    }
    saveConsoleProcesses();
 
+   // onContinue won't be called again to send a buffer requested since the
+   // last time it was
+   bool sendBuffer = false;
+   LOCK_MUTEX(inputOutputQueueMutex_)
+   {
+      sendBuffer = bufferRequested_;
+      bufferRequested_ = false;
+   }
+   END_LOCK_MUTEX
+   if (sendBuffer)
+      sendSavedBuffer();
+
    json::Object data;
    data["handle"] = handle();
    data["exitCode"] = exitCode;
@@ -918,6 +939,7 @@ ConsoleProcessSocketConnectionCallbacks ConsoleProcess::createConsoleProcessSock
    cb.onReceivedInput = boost::bind(&ConsoleProcess::onReceivedInput, ConsoleProcess::shared_from_this(), _1);
    cb.onConnectionOpened = boost::bind(&ConsoleProcess::onConnectionOpened, ConsoleProcess::shared_from_this());
    cb.onConnectionClosed = boost::bind(&ConsoleProcess::onConnectionClosed, ConsoleProcess::shared_from_this());
+   cb.onReceivedBufferRequest = boost::bind(&ConsoleProcess::onReceivedBufferRequest, ConsoleProcess::shared_from_this());
    return cb;
 }
 
@@ -949,6 +971,33 @@ void ConsoleProcess::onConnectionOpened()
 {
 }
 
+// client asked for the saved buffer over the websocket; the buffer is sent
+// from onContinue while the process is running; called on different thread
+void ConsoleProcess::onReceivedBufferRequest()
+{
+   bool running = false;
+   LOCK_MUTEX(inputOutputQueueMutex_)
+   {
+      running = started_ && !procInfo_->getZombie();
+      if (running)
+         bufferRequested_ = true;
+   }
+   END_LOCK_MUTEX
+
+   // nothing writes to the saved buffer of a process that isn't running
+   // (e.g. a zombie), so it's safe to send from here, and onContinue would
+   // never get to it
+   if (!running)
+      sendSavedBuffer();
+}
+
+void ConsoleProcess::sendSavedBuffer()
+{
+   Error error = s_terminalSocket.sendBuffer(handle(), procInfo_->getFullSavedBuffer());
+   if (error)
+      LOG_ERROR(error);
+}
+
 void ConsoleProcess::saveEnvironment(const std::string& env)
 {
    if (env.empty())
@@ -1004,6 +1053,11 @@ core::json::Array processesAsJson(SerializationMode serialMode)
    return allProcessesAsJson(serialMode);
 }
 
+ConsoleProcessSocket& consoleProcessSocket()
+{
+   return s_terminalSocket;
+}
+
 Error initialize()
 {
    return internalInitialize();
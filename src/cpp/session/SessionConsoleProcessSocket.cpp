@@ -295,6 +295,12 @@ Error ConsoleProcessSocket::sendText(const std::string& terminalHandle,
    return sendRawText(terminalHandle, ConsoleProcessSocketPacket::textPacket(message));
 }
 
+Error ConsoleProcessSocket::sendBuffer(const std::string& terminalHandle,
+                                       const std::string& buffer)
+{
+   return sendRawText(terminalHandle, ConsoleProcessSocketPacket::bufferPacket(buffer));
+}
+
 Error ConsoleProcessSocket::sendPong(const std::string& terminalHandle)
 {
    return sendRawText(terminalHandle, ConsoleProcessSocketPacket::keepAlivePacket());
@@ -329,6 +335,11 @@ void ConsoleProcessSocket::onMessage(terminalServer* s,
    {
       sendPong(handle);
    }
+   else if (ConsoleProcessSocketPacket::isBufferRequest(payload))
+   {
+      if (details.connectionCallbacks_.onReceivedBufferRequest)
+         details.connectionCallbacks_.onReceivedBufferRequest();
+   }
    else if (details.connectionCallbacks_.onReceivedInput)
    {
       details.connectionCallbacks_.onReceivedInput(ConsoleProcessSocketPacket::getMessage(payload));
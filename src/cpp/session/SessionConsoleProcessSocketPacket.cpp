@@ -21,6 +21,7 @@ namespace console_process {
 
 const std::string ConsoleProcessSocketPacket::kKeepAlivePrefix = "b";
 const std::string ConsoleProcessSocketPacket::kTextPrefix = "a";
+const std::string ConsoleProcessSocketPacket::kBufferPrefix = "c";
 
 /* static */
 std::string ConsoleProcessSocketPacket::textPacket(const std::string& text)
@@ -53,6 +54,18 @@ std::string ConsoleProcessSocketPacket::getMessage(const std::string& text)
    }
 }
 
+/* static */
+std::string ConsoleProcessSocketPacket::bufferPacket(const std::string& buffer)
+{
+   return kBufferPrefix + buffer;
+}
+
+/* static */
+bool ConsoleProcessSocketPacket::isBufferRequest(const std::string& text)
+{
+   return text == kBufferPrefix;
+}
+
 } // namespace console_process
 } // namespace session
 } // namespace rstudio
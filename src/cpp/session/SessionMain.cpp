@@ -358,6 +358,31 @@ Error ping(const core::json::JsonRpcRequest& request,
    return Success();
 }
 
+Error connectEventSocket(const core::json::JsonRpcRequest& request,
+                         json::JsonRpcResponse* pResponse)
+{
+   // the event socket relies on the same websocket support as the Terminal;
+   // without it (or if it fails) we return no result and the client
+   // continues to poll for events
+   if (!options().allowTerminalWebsockets())
+      return Success();
+
+   std::string handle;
+   int port = 0;
+   Error error = clientEventService().listenForEventSocket(&handle, &port);
+   if (error)
+   {
+      LOG_ERROR(error);
+      return Success();
+   }
+
+   json::Object result;
+   result["handle"] = handle;
+   result["port"] = port;
+   pResponse->setResult(result);
+   return Success();
+}
+
 Error startClientEventService()
 {
    return clientEventService().start(rsession::persistentState().activeClientId());
@@ -473,6 +498,7 @@ Error rInit(const rstudio::r::session::RInitInfo& rInitInfo)
       (bind(registerRpcMethod, kConsoleInput, bufferConsoleInput))
       (bind(registerRpcMethod, "suspend_for_restart", suspendForRestart))
       (bind(registerRpcMethod, "ping", ping))
+      (bind(registerRpcMethod, "connect_event_socket", connectEventSocket))
 
       // signal handlers
       (registerSignalHandlers)
@@ -14,6 +14,9 @@
  */
 
 #include <string>
+#include <vector>
+
+#include <boost/make_shared.hpp>
 
 #include "SessionRpc.hpp"
 #include "SessionHttpMethods.hpp"
@@ -38,6 +41,8 @@ namespace {
 
 // json rpc methods
 core::json::JsonRpcAsyncMethods* s_pJsonRpcMethods = nullptr;
+
+const char * const kMultiplex = "multiplex";
    
 void endHandleRpcRequestDirect(boost::shared_ptr<HttpConnection> ptrConnection,
                          boost::posix_time::ptime executeStartTime,
@@ -103,6 +108,147 @@ void endHandleRpcRequestIndirect(
    module_context::enqueClientEvent(evt);
 }
 
+// sub-requests of a multiplexed request; these are executed one at a time,
+// each once the previous one has completed, so that they take effect in the
+// order the client issued them
+struct MultiplexedRequest
+{
+   MultiplexedRequest() : next(0) {}
+
+   std::vector<json::JsonRpcRequest> requests;
+   std::size_t next;
+   json::Array responses;
+   std::vector<json::JsonRpcResponse> afterResponses;
+   json::JsonRpcFunctionContinuation continuation;
+};
+
+void executeNextMultiplexedRequest(
+      boost::shared_ptr<MultiplexedRequest> pMultiplexed);
+
+void runAfterResponses(std::vector<json::JsonRpcResponse> responses)
+{
+   for (json::JsonRpcResponse& response : responses)
+      response.runAfterResponse();
+}
+
+void endMultiplexedRequest(boost::shared_ptr<MultiplexedRequest> pMultiplexed,
+                           const core::Error& executeError,
+                           json::JsonRpcResponse* pJsonRpcResponse)
+{
+   // errors replace the response (as they do for a direct request)
+   json::JsonRpcResponse errorResponse;
+   if (executeError)
+   {
+      errorResponse.setError(executeError);
+      pJsonRpcResponse = &errorResponse;
+   }
+   else if (pJsonRpcResponse->hasAfterResponse())
+   {
+      pMultiplexed->afterResponses.push_back(*pJsonRpcResponse);
+   }
+
+   pMultiplexed->responses.push_back(pJsonRpcResponse->getRawResponse());
+   executeNextMultiplexedRequest(pMultiplexed);
+}
+
+void executeNextMultiplexedRequest(
+      boost::shared_ptr<MultiplexedRequest> pMultiplexed)
+{
+   // all done; respond with the raw response of each sub-request and
+   // run their after response functions once it has been sent
+   if (pMultiplexed->next == pMultiplexed->requests.size())
+   {
+      json::JsonRpcResponse response;
+      response.setResult(pMultiplexed->responses);
+      if (!pMultiplexed->afterResponses.empty())
+      {
+         response.setAfterResponse(
+               boost::bind(runAfterResponses, pMultiplexed->afterResponses));
+      }
+      pMultiplexed->continuation(Success(), &response);
+      return;
+   }
+
+   const json::JsonRpcRequest& request =
+         pMultiplexed->requests[pMultiplexed->next++];
+
+   auto it = s_pJsonRpcMethods->find(request.method);
+   if (it == s_pJsonRpcMethods->end())
+   {
+      Error executeError = Error(json::errc::MethodNotFound, ERROR_LOCATION);
+      executeError.addProperty("method", request.method);
+      LOG_ERROR(executeError);
+
+      endMultiplexedRequest(pMultiplexed, executeError, nullptr);
+      return;
+   }
+
+   std::pair<bool, json::JsonRpcAsyncFunction> reg = it->second;
+   json::JsonRpcAsyncFunction handlerFunction = reg.second;
+   if (reg.first)
+   {
+      // direct return
+      handlerFunction(request,
+                      boost::bind(endMultiplexedRequest,
+                                  pMultiplexed,
+                                  _1,
+                                  _2));
+   }
+   else
+   {
+      // indirect return (asyncHandle style); the handle is returned now and
+      // we move on without waiting for the method to complete
+      std::string handle = core::system::generateUuid(true);
+      json::JsonRpcResponse response;
+      response.setAsyncHandle(handle);
+      response.setField(kEventsPending, "false");
+      pMultiplexed->responses.push_back(response.getRawResponse());
+
+      handlerFunction(request,
+                      boost::bind(endHandleRpcRequestIndirect,
+                                  handle,
+                                  _1,
+                                  _2));
+
+      executeNextMultiplexedRequest(pMultiplexed);
+   }
+}
+
+// execute a batch of requests sent by the client as one; params is an array
+// of request objects (in the same form as the body of a single request) and
+// the result is an array of their responses
+void handleMultiplexedRequest(
+      const json::JsonRpcRequest& request,
+      const json::JsonRpcFunctionContinuation& continuation)
+{
+   boost::shared_ptr<MultiplexedRequest> pMultiplexed =
+         boost::make_shared<MultiplexedRequest>();
+   pMultiplexed->continuation = continuation;
+
+   for (const json::Value& value : request.params)
+   {
+      json::JsonRpcRequest subRequest;
+      Error error = json::parseJsonRpcRequest(value.write(), &subRequest);
+      if (!error && subRequest.method == kMultiplex)
+         error = Error(json::errc::InvalidRequest, ERROR_LOCATION);
+      if (error)
+      {
+         json::JsonRpcResponse response;
+         continuation(error, &response);
+         return;
+      }
+
+      // sub-requests were validated along with the enclosing request
+      subRequest.clientId = request.clientId;
+      subRequest.version = request.version;
+      subRequest.clientVersion = request.clientVersion;
+      subRequest.isBackgroundConnection = request.isBackgroundConnection;
+      pMultiplexed->requests.push_back(subRequest);
+   }
+
+   executeNextMultiplexedRequest(pMultiplexed);
+}
+
 void saveJsonResponse(const core::Error& error, core::json::JsonRpcResponse *pSrc,
                       core::Error *pError,      core::json::JsonRpcResponse *pDest)
 {
@@ -316,6 +462,12 @@ Error initialize()
    // the OS to clean up memory itself after the process is gone)
    s_pJsonRpcMethods = new core::json::JsonRpcAsyncMethods;
 
+   // register the method used to batch requests
+   s_pJsonRpcMethods->insert(
+         std::make_pair(kMultiplex,
+                        std::make_pair(true, json::JsonRpcAsyncFunction(
+                                                handleMultiplexedRequest))));
+
    RS_REGISTER_CALL_METHOD(rs_invokeRpc);
 
    return Success();
@@ -41,7 +41,12 @@ ClientEventService& clientEventService();
 class ClientEventService : boost::noncopyable
 {
 private:
-   ClientEventService() {}
+   ClientEventService()
+      : eventSocketConnected_(false),
+        eventSocketResend_(false),
+        eventSocketLastEventIdSeen_(-1)
+   {
+   }
    friend ClientEventService& clientEventService();
 
 public:
@@ -54,9 +59,22 @@ public:
 
    std::string clientId();
 
+   // listen for the client on a websocket over which events will be pushed
+   // (instead of the client polling for them); the client connects to the
+   // returned handle and port, then sends the id of the last event it saw
+   core::Error listenForEventSocket(std::string* pHandle, int* pPort);
+
 private:
    void run();
 
+   bool eventSocketConnected();
+   void sendEventSocketEvents(const boost::posix_time::time_duration& batchDelay,
+                              const boost::posix_time::time_duration& maxTotalBatchDelay,
+                              int* pNextEventId);
+   void closeEventSocket();
+   void onEventSocketInput(const std::string& handle, const std::string& input);
+   void onEventSocketClosed(const std::string& handle);
+
    void erasePreviouslyDeliveredEvents(int lastClientEventIdSeen);
    bool havePendingClientEvents();
    void addClientEvent(const core::json::Object& eventObject);
@@ -69,6 +87,15 @@ private:
 
    std::string clientId_;
    core::json::Array clientEvents_;
+
+   // event socket state (guarded by mutex_); the socket is served by the
+   // same websocket server as terminals. events sent over the socket stay in
+   // clientEvents_ until the client acknowledges them, so they can be resent
+   // if it reconnects (or picked up by polling if it falls back to that)
+   std::string eventSocketHandle_;
+   bool eventSocketConnected_;
+   bool eventSocketResend_;
+   int eventSocketLastEventIdSeen_;
 };
    
   
@@ -225,6 +225,8 @@ private:
    ConsoleProcessSocketConnectionCallbacks createConsoleProcessSocketConnectionCallbacks();
    void onConnectionOpened();
    void onConnectionClosed();
+   void onReceivedBufferRequest();
+   void sendSavedBuffer();
 
    void saveEnvironment(const std::string& env);
    static void loadEnvironment(const std::string& handle, core::system::Options* pEnv);
@@ -247,6 +249,10 @@ private:
    int newCols_ = -1; // -1 = no change
    int newRows_ = -1; // -1 = no change
 
+   // Whether the client asked for the saved buffer over the websocket;
+   // guarded by inputOutputQueueMutex_
+   bool bufferRequested_ = false;
+
    // Last known PID of associated process
    PidType pid_ = -1;
 
@@ -280,6 +286,11 @@ private:
 };
 
 core::json::Array processesAsJson(SerializationMode serialMode);
+
+// the websocket server shared by terminals and the client event stream
+class ConsoleProcessSocket;
+ConsoleProcessSocket& consoleProcessSocket();
+
 core::Error initialize();
 
 } // namespace console_process
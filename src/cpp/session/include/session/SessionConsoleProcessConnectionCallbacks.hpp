@@ -33,6 +33,9 @@ struct ConsoleProcessSocketConnectionCallbacks
    // invoked when input arrives on the socket
    boost::function<void (const std::string& input)> onReceivedInput;
 
+   // invoked when the client asks for the saved buffer
+   boost::function<void ()> onReceivedBufferRequest;
+
    // invoked when connection opens
    boost::function<void()> onConnectionOpened;
 
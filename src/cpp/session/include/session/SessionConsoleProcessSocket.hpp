@@ -89,6 +89,10 @@ public:
    core::Error sendText(const std::string& terminalHandle,
                         const std::string& message);
 
+   // send saved terminal buffer to client
+   core::Error sendBuffer(const std::string& terminalHandle,
+                          const std::string& buffer);
+
    // send keepalive response to client; we're not using low-level WebSocket
    // ping/pong as that isn't accessible from JavaScript apps; so we're just doing a
    // simple message exchange to keep proxies from killing an idle terminal
@@ -29,8 +29,10 @@ namespace console_process {
  * First character is a method indicator, as follows:
  *    "a" = send text, e.g. "aHello"
  *    "b" = ping/pong, e.g. "b"
+ *    "c" = buffer; sent without a payload by the client to request the saved
+ *          terminal buffer, which the server returns after the "c"
  *
- * Only the "send text" method has a payload (everything after the "a").
+ * Only the "send text" and server-sent "buffer" methods have a payload.
  *
  * See TerminalSocketPacket in Java code for client-side of this.
  */
@@ -49,8 +51,15 @@ public:
    // extract text from packet (empty string if unable to comply)
    static std::string getMessage(const std::string& text);
 
+   // create packet holding the saved terminal buffer
+   static std::string bufferPacket(const std::string& buffer);
+
+   // is this packet a request for the saved terminal buffer?
+   static bool isBufferRequest(const std::string& text);
+
 private:
    static const std::string kKeepAlivePrefix;
+   static const std::string kBufferPrefix;
    static const std::string kTextPrefix;
 };
 
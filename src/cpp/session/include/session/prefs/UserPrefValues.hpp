@@ -151,6 +151,7 @@ namespace prefs {
 #define kRainbowParentheses "rainbow_parentheses"
 #define kConsoleLineLengthLimit "console_line_length_limit"
 #define kConsoleMaxLines "console_max_lines"
+#define kConsoleVirtualizedOutput "console_virtualized_output"
 #define kAnsiConsoleMode "ansi_console_mode"
 #define kAnsiConsoleModeOff "off"
 #define kAnsiConsoleModeOn "on"
@@ -230,6 +231,7 @@ namespace prefs {
 #define kShowTerminalTab "show_terminal_tab"
 #define kTerminalLocalEcho "terminal_local_echo"
 #define kTerminalWebsockets "terminal_websockets"
+#define kEventWebsockets "event_websockets"
 #define kTerminalCloseBehavior "terminal_close_behavior"
 #define kTerminalCloseBehaviorAlways "always"
 #define kTerminalCloseBehaviorClean "clean"
@@ -346,6 +348,7 @@ namespace prefs {
 #define kScreenreaderConsoleAnnounceLimit "screenreader_console_announce_limit"
 #define kFileMonitorIgnoredComponents "file_monitor_ignored_components"
 #define kInstallPkgDepsIndividually "install_pkg_deps_individually"
+#define kBatchRpcRequests "batch_rpc_requests"
 #define kGraphicsBackend "graphics_backend"
 #define kGraphicsBackendDefault "default"
 #define kGraphicsBackendCairo "cairo"
@@ -814,6 +817,12 @@ public:
    int consoleMaxLines();
    core::Error setConsoleMaxLines(int val);
 
+   /**
+    * Whether to keep Console output in memory and render only the lines near the visible region of the Console, which is faster with large amounts of output.
+    */
+   bool consoleVirtualizedOutput();
+   core::Error setConsoleVirtualizedOutput(bool val);
+
    /**
     * How to treat ANSI escape codes in the console.
     */
@@ -1144,6 +1153,12 @@ public:
    bool terminalWebsockets();
    core::Error setTerminalWebsockets(bool val);
 
+   /**
+    * Whether to receive events from the R session over a websocket, rather than by polling, when possible.
+    */
+   bool eventWebsockets();
+   core::Error setEventWebsockets(bool val);
+
    /**
     * Whether to close the terminal pane after the shell exits.
     */
@@ -1546,6 +1561,12 @@ public:
    bool installPkgDepsIndividually();
    core::Error setInstallPkgDepsIndividually(bool val);
 
+   /**
+    * Whether to combine server requests made at the same time into a single request.
+    */
+   bool batchRpcRequests();
+   core::Error setBatchRpcRequests(bool val);
+
    /**
     * R graphics backend.
     */
@@ -630,12 +630,39 @@ void setFileLocalParseOptions(const std::wstring& rCode,
    applyOptions(options, pOptions);
 }
 
+// Blank out the given rows of some code ([first, last) pairs, in order),
+// keeping their newlines so that positions in the other rows are unchanged.
+std::wstring blankRows(const std::wstring& rCode,
+                       const std::vector< std::pair<int, int> >& rows)
+{
+   std::wstring blanked;
+   blanked.reserve(rCode.size());
+   
+   int row = 0;
+   auto it = rows.begin();
+   for (wchar_t ch : rCode)
+   {
+      while (it != rows.end() && row >= it->second)
+         ++it;
+      
+      if (ch == L'\n' || it == rows.end() || row < it->first)
+         blanked.push_back(ch);
+      
+      if (ch == L'\n')
+         ++row;
+   }
+   
+   return blanked;
+}
+
 } // end anonymous namespace
 
 ParseResults parse(const std::wstring& rCode,
                    const FilePath& origin,
                    const std::string& documentId = std::string(),
-                   bool isExplicit = false)
+                   bool isExplicit = false,
+                   const std::vector< std::pair<int, int> >& skipRows =
+                      std::vector< std::pair<int, int> >())
 {
    ParseResults results;
    ParseOptions options;
@@ -663,7 +690,12 @@ ParseResults parse(const std::wstring& rCode,
    if (noLint)
       return ParseResults();
    
-   results = rparser::parse(origin, rCode, options);
+   // lint options are read from the whole document, even if only some of
+   // it is linted
+   if (skipRows.empty())
+      results = rparser::parse(origin, rCode, options);
+   else
+      results = rparser::parse(origin, blankRows(rCode, skipRows), options);
    
    ParseNode* pRoot = results.parseTree();
    if (!pRoot)
@@ -779,11 +811,13 @@ Error lintRSourceDocument(const json::JsonRpcRequest& request,
    std::string documentPath;
    bool showMarkersTab = false;
    bool isExplicit = false;
+   json::Array jsonSkipRows;
    Error error = json::readParams(request.params,
                                   &documentId,
                                   &documentPath,
                                   &showMarkersTab,
-                                  &isExplicit);
+                                  &isExplicit,
+                                  &jsonSkipRows);
    
    if (error)
    {
@@ -791,6 +825,28 @@ Error lintRSourceDocument(const json::JsonRpcRequest& request,
       return error;
    }
    
+   // Rows the client already has lint for (and which haven't changed since),
+   // as { start, end } objects in order. These rows are left out of the
+   // parse, so their lint isn't reported again.
+   std::vector< std::pair<int, int> > skipRows;
+   for (const json::Value& value : jsonSkipRows)
+   {
+      int start = 0, end = 0;
+      if (value.isObject() &&
+          !json::readObject(value.getObject(), "start", start, "end", end) &&
+          start < end &&
+          (skipRows.empty() || skipRows.back().second <= start))
+      {
+         skipRows.push_back(std::make_pair(start, end));
+      }
+      else
+      {
+         // lint the whole document if the rows don't make sense
+         skipRows.clear();
+         break;
+      }
+   }
+   
    // Try to get the contents from the database
    boost::shared_ptr<SourceDocument> pDoc(new SourceDocument());
    error = get(documentId, pDoc);
@@ -817,7 +873,8 @@ Error lintRSourceDocument(const json::JsonRpcRequest& request,
             string_utils::utf8ToWide(content),
             origin,
             documentId,
-            isExplicit);
+            isExplicit,
+            skipRows);
    
    pResponse->setResult(lintAsJson(results.lint()));
    
@@ -33,6 +33,7 @@
 #include <shared_core/FilePath.hpp>
 #include <core/FileInfo.hpp>
 #include <core/FileSerializer.hpp>
+#include <core/Hash.hpp>
 #include <core/StringUtils.hpp>
 #include <core/text/TemplateFilter.hpp>
 #include <core/r_util/RProjectFile.hpp>
@@ -536,16 +537,20 @@ Error saveDocumentDiff(const json::JsonRpcRequest& request,
    std::string id;
    json::Value jsonPath, jsonType, jsonEncoding, jsonFoldSpec, jsonChunkOutput;
    
-   // This is a chunk of text that should be inserted into the
-   // current document. It replaces the subrange [offset, offset+length).
-   std::string replacement;
-   int offset, length;
+   // These are the changes to make to the current document, in order.
+   // Each replaces the subrange [offset, offset+length) of the current
+   // document with the given text; the ranges don't overlap.
+   json::Array changes;
    bool valid;
    
    // This is the expected hash of the current document. If the
    // current hash value is different than this value, then the
    // document cannot be patched and the request should be discarded.
    std::string hash;
+
+   // This is the expected hash of the document once patched (may be null).
+   // If the patched document has a different hash, it isn't saved.
+   json::Value jsonNewHash;
    
    // read params
    Error error = json::readParams(request.params,
@@ -555,11 +560,10 @@ Error saveDocumentDiff(const json::JsonRpcRequest& request,
                                   &jsonEncoding,
                                   &jsonFoldSpec,
                                   &jsonChunkOutput,
-                                  &replacement,
-                                  &offset,
-                                  &length,
+                                  &changes,
                                   &valid,
-                                  &hash);
+                                  &hash,
+                                  &jsonNewHash);
    if (error)
       return error;
    
@@ -595,8 +599,44 @@ Error saveDocumentDiff(const json::JsonRpcRequest& request,
       {
          // the offsets we receive are in bytes, so we can replace the contents
          // of the string directly at the supplied offset + length (the contents
-         // string itself is already UTF-8 encoded)
-         contents.replace(offset, length, replacement);
+         // string itself is already UTF-8 encoded). apply the changes from
+         // last to first so the offsets of those not yet applied still hold
+         std::size_t limit = contents.size();
+         for (auto it = changes.rbegin(); it != changes.rend(); ++it)
+         {
+            if (!(*it).isObject())
+               return Success();
+
+            int offset = 0, length = 0;
+            std::string replacement;
+            error = json::readObject((*it).getObject(),
+                                     "offset", offset,
+                                     "length", length,
+                                     "text", replacement);
+            if (error)
+            {
+               LOG_ERROR(error);
+               return Success();
+            }
+
+            // a change that doesn't fit the document (or overlaps the one
+            // after it) means the client's view of it is out of date
+            if (offset < 0 || length < 0 ||
+                static_cast<std::size_t>(offset) + length > limit)
+            {
+               return Success();
+            }
+
+            contents.replace(offset, length, replacement);
+            limit = offset;
+         }
+
+         // if the client knows what the result should be, check it
+         if (json::isType<std::string>(jsonNewHash) &&
+             hash::crc32Hash(contents) != jsonNewHash.getString())
+         {
+            return Success();
+         }
       }
 
       // track if we're updating the document contents
@@ -998,6 +998,19 @@ core::Error UserPrefValues::setConsoleMaxLines(int val)
    return writePref("console_max_lines", val);
 }
 
+/**
+ * Whether to keep Console output in memory and render only the lines near the visible region of the Console, which is faster with large amounts of output.
+ */
+bool UserPrefValues::consoleVirtualizedOutput()
+{
+   return readPref<bool>("console_virtualized_output");
+}
+
+core::Error UserPrefValues::setConsoleVirtualizedOutput(bool val)
+{
+   return writePref("console_virtualized_output", val);
+}
+
 /**
  * How to treat ANSI escape codes in the console.
  */
@@ -1713,6 +1726,19 @@ core::Error UserPrefValues::setTerminalWebsockets(bool val)
    return writePref("terminal_websockets", val);
 }
 
+/**
+ * Whether to receive events from the R session over a websocket, rather than by polling, when possible.
+ */
+bool UserPrefValues::eventWebsockets()
+{
+   return readPref<bool>("event_websockets");
+}
+
+core::Error UserPrefValues::setEventWebsockets(bool val)
+{
+   return writePref("event_websockets", val);
+}
+
 /**
  * Whether to close the terminal pane after the shell exits.
  */
@@ -2584,6 +2610,19 @@ core::Error UserPrefValues::setInstallPkgDepsIndividually(bool val)
    return writePref("install_pkg_deps_individually", val);
 }
 
+/**
+ * Whether to combine server requests made at the same time into a single request.
+ */
+bool UserPrefValues::batchRpcRequests()
+{
+   return readPref<bool>("batch_rpc_requests");
+}
+
+core::Error UserPrefValues::setBatchRpcRequests(bool val)
+{
+   return writePref("batch_rpc_requests", val);
+}
+
 /**
  * R graphics backend.
  */
@@ -2701,6 +2740,7 @@ std::vector<std::string> UserPrefValues::allKeys()
       kRainbowParentheses,
       kConsoleLineLengthLimit,
       kConsoleMaxLines,
+      kConsoleVirtualizedOutput,
       kAnsiConsoleMode,
       kShowInlineToolbarForRCodeChunks,
       kHighlightCodeChunks,
@@ -2756,6 +2796,7 @@ std::vector<std::string> UserPrefValues::allKeys()
       kShowTerminalTab,
       kTerminalLocalEcho,
       kTerminalWebsockets,
+      kEventWebsockets,
       kTerminalCloseBehavior,
       kTerminalTrackEnvironment,
       kTerminalBellStyle,
@@ -2823,6 +2864,7 @@ std::vector<std::string> UserPrefValues::allKeys()
       kScreenreaderConsoleAnnounceLimit,
       kFileMonitorIgnoredComponents,
       kInstallPkgDepsIndividually,
+      kBatchRpcRequests,
       kGraphicsBackend,
       kGraphicsAntialiasing,
       kBrowserFixedWidthFonts,
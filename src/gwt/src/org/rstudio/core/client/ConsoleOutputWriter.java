@@ -24,6 +24,7 @@ import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.Node;
 import com.google.gwt.dom.client.SpanElement;
+import com.google.gwt.user.client.ui.ScrollPanel;
 
 /**
  * Displays R Console output to user, with special behaviors for regular output
@@ -52,8 +53,32 @@ public class ConsoleOutputWriter
       return output_.getElement();
    }
 
+   /**
+    * Switches to virtualized output, in which output is retained by the
+    * virtual console and only the lines near the visible region of the given
+    * viewport are rendered. Must be called before any output is written.
+    *
+    * @param viewport The scroll panel containing the output widget
+    */
+   public void setVirtualized(ScrollPanel viewport)
+   {
+      viewport_ = viewport;
+   }
+
+   public boolean isVirtualized()
+   {
+      return viewport_ != null;
+   }
+
    public void clearConsoleOutput()
    {
+      if (virtualized_ != null)
+      {
+         // clearing discards everything, as far as getNewRange() goes
+         discarded_ += virtualConsole_.getLength();
+         virtualized_.detach();
+         virtualized_ = null;
+      }
       output_.setText("");
       virtualConsole_ = null;
       lines_ = 0;
@@ -90,6 +115,15 @@ public class ConsoleOutputWriter
 
       Element outEl = output_.getElement();
 
+      // in virtualized mode, a single console retains all output for
+      // rendering on demand
+      if (virtualConsole_ == null && isVirtualized())
+      {
+         virtualConsole_ = vcFactory_.create(null);
+         virtualConsole_.setRetainRanges(true);
+         virtualized_ = new VirtualizedConsoleOutput(outEl, virtualConsole_, viewport_);
+      }
+
       // create trailing output console if it doesn't already exist 
       if (virtualConsole_ == null)
       {
@@ -100,10 +134,10 @@ public class ConsoleOutputWriter
          virtualConsole_ = vcFactory_.create(trailing);
       }
 
-      int oldLineCount = DomUtils.countLines(virtualConsole_.getParent(), true);
       virtualConsole_.submit(text, className, isError, ariaLiveAnnounce);
-      int newLineCount = DomUtils.countLines(virtualConsole_.getParent(), true);
-      lines_ += newLineCount - oldLineCount;
+      updateLineCount();
+      if (virtualized_ != null)
+         virtualized_.onOutput();
 
       return ignoreLineCount ? true : !trimExcess();
    }
@@ -114,7 +148,21 @@ public class ConsoleOutputWriter
          return false;  // No limit in effect
 
       int linesToTrim = lines_ - maxLines_;
-      if (linesToTrim > 0)
+      if (linesToTrim > 0 && virtualized_ != null)
+      {
+         // discarding lines rebuilds the retained output, so do it in
+         // batches rather than a few lines at a time
+         if (linesToTrim >= Math.max(MIN_VIRTUALIZED_TRIM, maxLines_ / 10))
+         {
+            int length = virtualConsole_.getLength();
+            virtualConsole_.discardLines(linesToTrim);
+            discarded_ += length - virtualConsole_.getLength();
+            virtualized_.onLinesDiscarded(linesToTrim);
+            lines_ -= linesToTrim;
+         }
+         return true;
+      }
+      else if (linesToTrim > 0)
       {
          lines_ -= DomUtils.trimLines(getElement(), linesToTrim);
          return true;
@@ -133,9 +181,60 @@ public class ConsoleOutputWriter
          return virtualConsole_.getNewElements();
    }
 
+   /**
+    * In virtualized output, where getNewElements() has no elements to
+    * return, gets the output added by the last submit instead.
+    *
+    * @return the [start, end) offsets of the output, counted from the start
+    *    of all output written (including any since discarded), or null if
+    *    output isn't virtualized or the last submit added nothing
+    */
+   public int[] getNewRange()
+   {
+      if (virtualized_ == null || virtualConsole_.getChangedFrom() < 0)
+         return null;
+      return new int[] {
+            discarded_ + virtualConsole_.getChangedFrom(),
+            discarded_ + virtualConsole_.getLength()
+      };
+   }
+
+   /**
+    * Shows the given element in place of a range of virtualized output, as
+    * returned by getNewRange().
+    *
+    * @return whether the output was replaced; it can't be if it has since
+    *    been discarded
+    */
+   public boolean replaceOutput(int[] range, Element element)
+   {
+      if (virtualized_ == null)
+         return false;
+
+      int start = range[0] - discarded_;
+      int end = range[1] - discarded_;
+      if (start < 0 || end > virtualConsole_.getLength())
+         return false;
+
+      virtualized_.replaceRange(start, end, element);
+      return true;
+   }
+
    public void ensureStartingOnNewLine()
    {
-      if (virtualConsole_ != null)
+      if (virtualized_ != null)
+      {
+         int length = virtualConsole_.getLength();
+         if (length > 0 && !virtualConsole_.getText(length - 1, length).equals("\n"))
+         {
+            virtualConsole_.submit("\n");
+            updateLineCount();
+            virtualized_.onOutput();
+         }
+         // the console is retained, but starts a fresh slate for styling
+         virtualConsole_.reset();
+      }
+      else if (virtualConsole_ != null)
       {
          Node child = virtualConsole_.getParent().getLastChild();
          if (child != null &&
@@ -143,6 +242,7 @@ public class ConsoleOutputWriter
              !Element.as(child).getInnerText().endsWith("\n"))
          {
             virtualConsole_.submit("\n");
+            updateLineCount();
          }
          // clear the virtual console so we start with a fresh slate
          virtualConsole_ = null;
@@ -154,6 +254,17 @@ public class ConsoleOutputWriter
       return lines_;
    }
 
+   /**
+    * Apply the newlines added and removed by the most recent submit to the
+    * virtual console to our running line count; this is proportional to the
+    * size of the submitted text rather than the size of the output buffer.
+    */
+   private void updateLineCount()
+   {
+      lines_ += virtualConsole_.getNewlinesAdded() -
+                virtualConsole_.getNewlinesRemoved();
+   }
+
    public String getNewText()
    {
       if (virtualConsole_ == null)
@@ -162,8 +273,25 @@ public class ConsoleOutputWriter
          return virtualConsole_.getNewText();
    }
 
+   /**
+    * Finds and selects the next occurrence of the given text in virtualized
+    * output; the browser's own find only sees the lines currently rendered.
+    *
+    * @return whether a match was found
+    */
+   public boolean find(String term, boolean forward)
+   {
+      return virtualized_ != null && virtualized_.find(term, forward);
+   }
+
    public void focusEnd()
    {
+      if (virtualized_ != null)
+      {
+         virtualized_.focusEnd();
+         return;
+      }
+
       Node lastChild = output_.getElement().getLastChild();
       if (lastChild == null)
          return;
@@ -176,4 +304,12 @@ public class ConsoleOutputWriter
    private final PreWidget output_;
    private VirtualConsole virtualConsole_;
    private VirtualConsoleFactory vcFactory_;
+   private ScrollPanel viewport_;
+   private VirtualizedConsoleOutput virtualized_;
+
+   // characters of virtualized output discarded so far, so that ranges
+   // handed out by getNewRange() stay valid as earlier lines are trimmed
+   private int discarded_ = 0;
+
+   private static final int MIN_VIRTUALIZED_TRIM = 100;
 }
@@ -146,6 +146,8 @@ public class ElementIds
    public final static String SELECT_ALL_BUTTON = "select_all";
    public final static String SELECT_NONE_BUTTON = "select_none";
    public final static String ABOUT_MANAGE_LICENSE_BUTTON = "about_manage_license";
+   public final static String RPC_METRICS_EXPORT_BUTTON = "rpc_metrics_export";
+   public final static String RPC_METRICS_RESET_BUTTON = "rpc_metrics_reset";
    public final static String TEXT_SOURCE_BUTTON = "text_source";
    public final static String TEXT_SOURCE_BUTTON_DROPDOWN = "text_source_dropdown";
    public final static String EMPTY_DOC_BUTTON = "empty_doc";
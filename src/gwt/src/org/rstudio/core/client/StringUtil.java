@@ -1255,6 +1255,84 @@ public class StringUtil
       return ((crc ^ (-1)) >>> 0).toString(16);
    }-*/;
 
+   /**
+    * Computes the CRC32 checksum of the UTF-8 encoding of a string; this is
+    * the same value the session computes for a document's contents (see
+    * hash::crc32Hash).
+    *
+    * @param str The string on which to compute the checksum
+    * @return The checksum value, as a decimal string
+    */
+   public static native String crc32Utf8(String str)/*-{
+      var genCrc32Table = function()
+      {
+         var c, crcTable = [];
+         for (var n = 0; n < 256; n++)
+         {
+            c = n;
+            for (var k = 0; k < 8; k++)
+            {
+                c = ((c&1) ? (0xEDB88320 ^ (c >>> 1)) : (c >>> 1));
+            }
+            crcTable[n] = c;
+         }
+         return crcTable;
+      }
+
+      var crcTable = $wnd.rs_crc32Table || ($wnd.rs_crc32Table = genCrc32Table());
+      var crc = 0 ^ (-1);
+
+      var update = function(b)
+      {
+         crc = (crc >>> 8) ^ crcTable[(crc ^ b) & 0xFF];
+      }
+
+      // encode each character as UTF-8 as we go, rather than allocating an
+      // encoded copy of the string
+      for (var i = 0; i < str.length; i++)
+      {
+         var c = str.charCodeAt(i);
+         if (c >= 0xD800 && c < 0xDC00 && i + 1 < str.length)
+         {
+            var d = str.charCodeAt(i + 1);
+            if (d >= 0xDC00 && d < 0xE000)
+            {
+               c = 0x10000 + ((c - 0xD800) << 10) + (d - 0xDC00);
+               i++;
+            }
+         }
+
+         // lone surrogates are encoded as the replacement character
+         if (c >= 0xD800 && c < 0xE000)
+            c = 0xFFFD;
+
+         if (c < 0x80)
+         {
+            update(c);
+         }
+         else if (c < 0x800)
+         {
+            update(0xC0 | (c >> 6));
+            update(0x80 | (c & 0x3F));
+         }
+         else if (c < 0x10000)
+         {
+            update(0xE0 | (c >> 12));
+            update(0x80 | ((c >> 6) & 0x3F));
+            update(0x80 | (c & 0x3F));
+         }
+         else
+         {
+            update(0xF0 | (c >> 18));
+            update(0x80 | ((c >> 12) & 0x3F));
+            update(0x80 | ((c >> 6) & 0x3F));
+            update(0x80 | (c & 0x3F));
+         }
+      }
+
+      return String((crc ^ (-1)) >>> 0);
+   }-*/;
+
    // Count newlines in a string
    public static native int newlineCount(String str) /*-{
       return (str.match(/\n/g)||[]).length;
@@ -15,16 +15,13 @@
 package org.rstudio.core.client;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
-import java.util.TreeSet;
 
 import com.google.inject.Provider;
 import com.google.inject.assistedinject.Assisted;
+import org.rstudio.core.client.container.ChunkedText;
+import org.rstudio.core.client.container.OffsetMap;
 import org.rstudio.core.client.regex.Match;
 import org.rstudio.core.client.regex.Pattern;
 import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
@@ -89,6 +86,28 @@ public class VirtualConsole
       formfeed();
    }
 
+   /**
+    * Retain styled ranges and a line index even though the console has no
+    * parent element, so that the output can be rendered on demand (see
+    * VirtualizedConsoleOutput). Must be called before any output is submitted.
+    */
+   public void setRetainRanges(boolean retainRanges)
+   {
+      retainRanges_ = retainRanges;
+   }
+
+   /**
+    * Starts a fresh segment of output at the end of the buffer, forgetting
+    * any ANSI styling or partial ANSI code carried over from earlier output.
+    */
+   public void reset()
+   {
+      clearPartialAnsiCode();
+      ansi_ = null;
+      ansiCodeStyles_ = new AnsiCode.AnsiClazzes();
+      cursor_ = output_.length();
+   }
+
    private void backspace()
    {
       clearPartialAnsiCode();
@@ -118,7 +137,11 @@ public class VirtualConsole
    private void formfeed()
    {
       clearPartialAnsiCode();
-      output_.setLength(0);
+      linesRemoved_ += lineCount_;
+      lineCount_ = 0;
+      newlines_.clear();
+      changedFrom_ = 0;
+      output_.clear();
       cursor_ = 0;
       class_.clear();
       if (parent_ != null)
@@ -130,32 +153,20 @@ public class VirtualConsole
       partialAnsiCode_ = null;
    }
 
-   /**
-    * Debugging aid
-    * @param entry
-    * @return diagnostic string summarizing the Entry
-    */
-   private String debugDumpClassEntry(Entry<Integer, ClassRange> entry)
-   {
-      if (entry == null)
-         return("[null]");
-      else
-         return("[" + entry.getKey() + "]=" + entry.getValue().debugDump());
-   }
-
    /**
     * Debugging aid
     */
    @SuppressWarnings("unused")
-   private void debugDumpClassMap(String name, Map<Integer, ClassRange> map)
+   private void debugDumpClassMap(String name, OffsetMap<ClassRange> map)
    {
       Debug.logToConsole("Dumping " + name);
       if (map == null)
          Debug.logToConsole("null");
       else
-         for (Map.Entry<Integer, ClassRange> entry : map.entrySet())
+         for (int i = 0; i < map.size(); i++)
          {
-            Debug.logToConsole(name + debugDumpClassEntry(entry));
+            Debug.logToConsole(name + "[" + map.keyAt(i) + "]=" +
+                               map.valueAt(i).debugDump());
          }
       Debug.logToConsole("Done dumping " + name);
    }
@@ -192,6 +203,139 @@ public class VirtualConsole
    {
       return parent_;
    }
+
+   /**
+    * @return number of newlines currently held by the virtual console
+    */
+   public int getLineCount()
+   {
+      return lineCount_;
+   }
+
+   // The accessors below describe the retained output model, and are only
+   // meaningful when ranges are being retained (see setRetainRanges)
+
+   /**
+    * @return offset of the first character of the given line
+    */
+   public int getLineStart(int line)
+   {
+      return line == 0 ? 0 : newlines_.get(line - 1) + 1;
+   }
+
+   /**
+    * @return offset just past the last character of the given line, excluding
+    *    its terminating newline (if any)
+    */
+   public int getLineEnd(int line)
+   {
+      return line < newlines_.size() ? newlines_.get(line) : output_.length();
+   }
+
+   /**
+    * @return the line containing the character at the given offset
+    */
+   public int getLineForOffset(int offset)
+   {
+      int index = Collections.binarySearch(newlines_, offset);
+      return index >= 0 ? index : -(index + 1);
+   }
+
+   /**
+    * @return the raw (untruncated) output between the given offsets
+    */
+   public String getText(int start, int end)
+   {
+      return output_.substring(start, end);
+   }
+
+   /**
+    * @return lowest offset modified by the last submit() call, or -1 if
+    *    nothing was modified
+    */
+   public int getChangedFrom()
+   {
+      return changedFrom_;
+   }
+
+   public interface RangeVisitor
+   {
+      void visit(String text, String clazz);
+   }
+
+   /**
+    * Visits the styled runs of output between the given offsets, in order.
+    */
+   public void visitRanges(int start, int end, RangeVisitor visitor)
+   {
+      if (start >= end)
+         return;
+
+      // start from the range containing the start offset, or else the first
+      // range (which must follow it)
+      int index = Math.max(0, class_.floorIndex(start));
+      if (index >= class_.size() || class_.keyAt(index) >= end)
+      {
+         visitor.visit(output_.substring(start, end), null);
+         return;
+      }
+
+      for (; index < class_.size() && class_.keyAt(index) < end; index++)
+      {
+         ClassRange range = class_.valueAt(index);
+         int l = Math.max(start, class_.keyAt(index));
+         int r = Math.min(end, class_.keyAt(index) + range.length);
+         if (l < r)
+            visitor.visit(output_.substring(l, r), range.clazz);
+      }
+   }
+
+   /**
+    * Discards the given number of lines from the start of the retained output,
+    * e.g. to enforce a maximum number of lines. Offsets and line numbers of
+    * the remaining output shift accordingly.
+    */
+   public void discardLines(int lines)
+   {
+      lines = Math.min(lines, newlines_.size());
+      if (lines <= 0)
+         return;
+
+      int offset = newlines_.get(lines - 1) + 1;
+      output_.deleteFirst(offset);
+      cursor_ = Math.max(0, cursor_ - offset);
+
+      List<Integer> remaining = newlines_.subList(lines, newlines_.size());
+      for (int i = 0; i < remaining.size(); i++)
+         remaining.set(i, remaining.get(i) - offset);
+      newlines_.subList(0, lines).clear();
+      lineCount_ -= lines;
+
+      int count = class_.size();
+      int[] starts = new int[count];
+      List<ClassRange> ranges = new ArrayList<>(count);
+      for (int i = 0; i < count; i++)
+      {
+         starts[i] = class_.keyAt(i);
+         ranges.add(class_.valueAt(i));
+      }
+
+      class_.clear();
+      for (int i = 0; i < count; i++)
+      {
+         ClassRange range = ranges.get(i);
+         int start = starts[i];
+         if (start + range.length <= offset)
+            continue;
+         if (start < offset)
+         {
+            range.trimLeft(offset - start);
+            start = offset;
+         }
+         range.start = start - offset;
+         class_.put(range.start, range);
+      }
+   }
    
    /**
     * Appends text to the end of the virtual console.
@@ -203,8 +347,7 @@ public class VirtualConsole
     */
    private void appendText(String text, String clazz, boolean forceNewRange)
    {
-      Entry <Integer, ClassRange> last = class_.lastEntry();
-      ClassRange range = last.getValue();
+      ClassRange range = class_.valueAt(class_.size() - 1);
       if (!forceNewRange && StringUtil.equals(range.clazz, clazz))
       {
          // just append to the existing output stream
@@ -214,7 +357,8 @@ public class VirtualConsole
       {
          // create a new output range with this class
          final ClassRange newRange = new ClassRange(cursor_, clazz, text);
-         parent_.appendChild(newRange.element);
+         if (parent_ != null)
+            parent_.appendChild(newRange.element);
          class_.put(cursor_, newRange);
       }
    }
@@ -229,21 +373,12 @@ public class VirtualConsole
       int start = range.start;
       int end = start + range.length;
       
-      Entry<Integer, ClassRange> left = class_.floorEntry(start);
-      Entry<Integer, ClassRange> right = class_.floorEntry(end);
-
-      // create a view into the map representing the ranges that this class
-      // overlaps
-      SortedMap<Integer, ClassRange> view = null;
-      if (left != null && right != null)
-         view = class_.subMap(left.getKey(), true, right.getKey(), true);
-      else if (left == null && right != null)
-         view = class_.tailMap(right.getKey(), true);
-      else if (left != null)
-         view = class_.headMap(left.getKey(), true);
+      // find the ranges that this one overlaps
+      int left = class_.floorIndex(start);
+      int right = class_.floorIndex(end);
 
       // if no overlapping ranges exist, we can just create a new one
-      if (view == null)
+      if (right < 0)
       {
          class_.put(start, range);
          if (parent_ != null)
@@ -251,19 +386,22 @@ public class VirtualConsole
          return;
       }
 
-      // accumulators for actions to take after we finish iterating over the
-      // overlapping ranges (we don't do this in place to avoid invalidating
-      // iterators)
-      Set<Integer> deletions = new TreeSet<>();
-      List<ClassRange> insertions = new ArrayList<>();
-      Map<Integer, Integer> moves = new TreeMap<>();
+      int first = left >= 0 ? left : right;
+      int last = left >= 0 ? right : class_.size() - 1;
+
+      // actions to take after we finish iterating over the overlapping ranges
+      // (we don't do this in place to avoid shifting the ranges being
+      // iterated); the buffers are reused to avoid allocating on every
+      // overwrite
+      pendingCount_ = 0;
+      insertions_.clear();
 
       boolean haveInsertedRange = false;
 
-      for (Entry<Integer, ClassRange> entry: view.entrySet())
+      for (int i = first; i <= last; i++)
       {
-         ClassRange overlap = entry.getValue();
-         int l = entry.getKey();
+         ClassRange overlap = class_.valueAt(i);
+         int l = class_.keyAt(i);
          int r = l + overlap.length;
          boolean matches = StringUtil.equals(range.clazz, overlap.clazz);
          if (start >= l && start < r && end >= r) 
@@ -280,7 +418,7 @@ public class VirtualConsole
             {
                // reduce the original range and add ours
                overlap.trimRight(delta);
-               insertions.add(range);
+               insertions_.add(range);
                haveInsertedRange = true;
                if (parent_ != null)
                   parent_.insertAfter(range.element, overlap.element);
@@ -301,11 +439,11 @@ public class VirtualConsole
                range.clearText();
                if (haveInsertedRange)
                {
-                  insertions.remove(range);
+                  insertions_.remove(range);
                   haveInsertedRange = false;
                }
 
-               moves.put(l, start);
+               addPending(l, start);
             }
             else
             {
@@ -313,10 +451,10 @@ public class VirtualConsole
                overlap.trimLeft(delta);
 
                if (!range.text().isEmpty())
-                  insertions.add(range);
+                  insertions_.add(range);
 
                // move the shortened range to its new start position
-               moves.put(l, overlap.start);
+               addPending(l, overlap.start);
 
                if (parent_ != null && !range.text().isEmpty())
                   parent_.insertBefore(range.element, overlap.element);
@@ -326,7 +464,7 @@ public class VirtualConsole
          else if (l > start && r < end)
          {
             // this range is fully overwritten, just delete it
-            deletions.add(l);
+            addPending(l, DELETED);
             if (parent_ != null)
                parent_.removeChild(overlap.element);
          }
@@ -347,7 +485,7 @@ public class VirtualConsole
                overlap.trimRight(amountTrimmed);
                
                // insert the new range
-               insertions.add(range);
+               insertions_.add(range);
                if (parent_ != null)
                   parent_.insertAfter(range.element, overlap.element);
                
@@ -356,30 +494,54 @@ public class VirtualConsole
                      end,
                      overlap.clazz,
                      text.substring((text.length() - (amountTrimmed - range.length))));
-               insertions.add(remainder);
+               insertions_.add(remainder);
                if (parent_ != null)
                   parent_.insertAfter(remainder.element, range.element);
             }
          }
       }
       
-      // process accumulated actions
-      for (Integer key: deletions)
+      // process accumulated actions: deletions, then moves, then insertions
+      for (int i = 0; i < pendingCount_; i++)
       {
-         class_.remove(key);
+         if (pendingTargets_[i] == DELETED)
+            class_.remove(pendingKeys_[i]);
       }
 
-      for (Integer key: moves.keySet())
+      for (int i = 0; i < pendingCount_; i++)
       {
-         ClassRange moved = class_.get(key);
-         class_.remove(key);
-         class_.put(moves.get(key), moved);
+         if (pendingTargets_[i] == DELETED)
+            continue;
+         ClassRange moved = class_.get(pendingKeys_[i]);
+         class_.remove(pendingKeys_[i]);
+         class_.put(pendingTargets_[i], moved);
       }
 
-      for (ClassRange val: insertions)
+      for (ClassRange val: insertions_)
       {
          class_.put(val.start, val);
       }
+      insertions_.clear();
+   }
+
+   /**
+    * Records that the range starting at the given offset should be moved to
+    * the target offset (or deleted) once iteration is complete.
+    */
+   private void addPending(int key, int target)
+   {
+      if (pendingCount_ == pendingKeys_.length)
+      {
+         int[] keys = new int[pendingCount_ * 2];
+         int[] targets = new int[pendingCount_ * 2];
+         System.arraycopy(pendingKeys_, 0, keys, 0, pendingCount_);
+         System.arraycopy(pendingTargets_, 0, targets, 0, pendingCount_);
+         pendingKeys_ = keys;
+         pendingTargets_ = targets;
+      }
+      pendingKeys_[pendingCount_] = key;
+      pendingTargets_[pendingCount_] = target;
+      pendingCount_++;
    }
    
    /**
@@ -397,8 +559,9 @@ public class VirtualConsole
       int start = cursor_;
       int end = cursor_ + text.length();
       
-      // real-time output if we have a parent
-      if (parent_ != null)
+      // real-time output if we have a parent (or are retaining ranges for
+      // deferred rendering)
+      if (parent_ != null || retainRanges_)
       {
          // short circuit common case in which we're just adding output
          if (cursor_ == output_.length() && !class_.isEmpty())
@@ -407,8 +570,51 @@ public class VirtualConsole
             insertText(new ClassRange(start, clazz, text));
       }
 
-      output_.replace(start, end, text);
+      // keep line accounting in step with the buffer; only the overwritten
+      // region and the new text need to be examined
+      int removed = countNewlines(output_, start, Math.min(end, output_.length()));
+      int added = countNewlines(text, 0, text.length());
+      linesRemoved_ += removed;
+      linesAdded_ += added;
+      lineCount_ += added - removed;
+
+      output_.write(start, text);
       cursor_ += text.length();
+
+      if (retainRanges_)
+      {
+         changedFrom_ = changedFrom_ < 0 ? start : Math.min(changedFrom_, start);
+         if (removed > 0 || added > 0)
+            indexNewlines(start, end, text);
+      }
+   }
+
+   /**
+    * Updates the line index after the region [start, end) was replaced with
+    * the given text. Since overwrites never shift later output, only entries
+    * within the region change.
+    */
+   private void indexNewlines(int start, int end, String text)
+   {
+      int lo = getLineForOffset(start);
+      int hi = getLineForOffset(end);
+      newlines_.subList(lo, hi).clear();
+
+      List<Integer> inserted = new ArrayList<>();
+      for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1))
+         inserted.add(start + i);
+      newlines_.addAll(lo, inserted);
+   }
+
+   private static int countNewlines(CharSequence text, int start, int end)
+   {
+      int count = 0;
+      for (int i = start; i < end; i++)
+      {
+         if (text.charAt(i) == '\n')
+            count++;
+      }
+      return count;
    }
    
    public void submit(String data)
@@ -438,6 +644,10 @@ public class VirtualConsole
       captureNewElements_ = forceNewRange;
       newElements_.clear();
 
+      linesAdded_ = 0;
+      linesRemoved_ = 0;
+      changedFrom_ = -1;
+
       newText_ = ariaLiveAnnounce && prefs_.screenReaderEnabled() ? new StringBuilder() : null;
 
       // If previous submit ended with an incomplete ANSI code, add new data
@@ -610,6 +820,20 @@ public class VirtualConsole
       return newText_ == null ? "" : newText_.toString();
    }
 
+   // Number of newlines written by last submit() call, including any that
+   // were subsequently removed by overwrites or a form feed in the same call
+   public int getNewlinesAdded()
+   {
+      return linesAdded_;
+   }
+
+   // Number of newlines removed by last submit() call, either overwritten
+   // (e.g. following a carriage return) or cleared by a form feed
+   public int getNewlinesRemoved()
+   {
+      return linesRemoved_;
+   }
+
    private class ClassRange
    {
       public ClassRange(int pos, String className, String text)
@@ -617,6 +841,16 @@ public class VirtualConsole
          clazz  = className;
          start = pos;
          length = text.length();
+
+         // ranges retained without a parent keep their text in the model
+         // rather than in a span
+         if (parent_ == null)
+         {
+            element = null;
+            text_ = text;
+            return;
+         }
+
          element = Document.get().createSpanElement();
          if (className != null)
             element.addClassName(clazz);
@@ -632,48 +866,53 @@ public class VirtualConsole
       {
          length -= delta;
          start += delta;
-         element.setInnerText(element.getInnerText().substring(delta));
+         setText(text().substring(delta));
       }
       
       public void trimRight(int delta)
       {
          length -= delta;
-         String text = element.getInnerText();
-         element.setInnerText(text.substring(0, text.length() - delta));
+         String text = text();
+         setText(text.substring(0, text.length() - delta));
       }
       
       public void appendLeft(String content, int delta)
       {
          length += content.length() - delta;
          start -= (content.length() - delta);
-         element.setInnerText(content + 
-               element.getInnerText().substring(delta));
+         setText(content + text().substring(delta));
       }
       
       public void appendRight(String content, int delta)
       {
          length += content.length() - delta;
          String text = text();
-         element.setInnerText(text.substring(0,
-               text.length() - delta) + content);
+         setText(text.substring(0, text.length() - delta) + content);
       }
       
       public void overwrite(String content, int pos)
       {
-         String text = element.getInnerText();
-         element.setInnerText(
-               text.substring(0, pos) + content +
-               text.substring(pos + content.length()));
+         String text = text();
+         setText(text.substring(0, pos) + content +
+                 text.substring(pos + content.length()));
       }
       
       public String text()
       {
-         return element.getInnerText();
+         return element == null ? text_ : element.getInnerText();
       }
       
       public void clearText()
       {
-         element.setInnerText("");
+         setText("");
+      }
+
+      private void setText(String text)
+      {
+         if (element == null)
+            text_ = text;
+         else
+            element.setInnerText(text);
       }
 
       public String debugDump()
@@ -686,13 +925,23 @@ public class VirtualConsole
       public int length;
       public int start;
       public final SpanElement element;
+      private String text_;
    }
 
    private static final Pattern CONTROL = Pattern.create("[\r\b\f\n]");
+
+   // pending target marking a range for deletion rather than a move
+   private static final int DELETED = -1;
    
-   private final StringBuilder output_ = new StringBuilder();
-   private final TreeMap<Integer, ClassRange> class_ = new TreeMap<>();
+   private final ChunkedText output_ = new ChunkedText();
+   private final OffsetMap<ClassRange> class_ = new OffsetMap<>();
    private final Element parent_;
+
+   // Actions accumulated by insertText (see addPending)
+   private int[] pendingKeys_ = new int[8];
+   private int[] pendingTargets_ = new int[8];
+   private int pendingCount_ = 0;
+   private final List<ClassRange> insertions_ = new ArrayList<>();
    
    private int cursor_ = 0;
    private AnsiCode ansi_;
@@ -705,6 +954,18 @@ public class VirtualConsole
    
    private StringBuilder newText_;
 
+   // Newlines currently in output_, and added/removed by last submit call
+   private int lineCount_ = 0;
+   private int linesAdded_ = 0;
+   private int linesRemoved_ = 0;
+
+   // Output model retained for deferred rendering (see setRetainRanges); the
+   // offsets of each newline in output_, and lowest offset changed by the
+   // last submit call
+   private boolean retainRanges_ = false;
+   private final List<Integer> newlines_ = new ArrayList<>();
+   private int changedFrom_ = -1;
+
    // Injected ----
    private final Preferences prefs_;
 }
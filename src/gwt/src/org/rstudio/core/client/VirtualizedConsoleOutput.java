@@ -0,0 +1,530 @@
+/*
+ * VirtualizedConsoleOutput.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rstudio.core.client.container.HeightIndex;
+import org.rstudio.core.client.dom.DomUtils;
+import org.rstudio.core.client.widget.BottomScrollPanel;
+
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.dom.client.DivElement;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.SpanElement;
+import com.google.gwt.dom.client.Style.Display;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.ui.ScrollPanel;
+
+/**
+ * Renders the output held by a VirtualConsole (which must be retaining its
+ * ranges) into a container element, keeping only the lines near the viewport
+ * in the DOM. Lines scrolled out of view are recycled for newly visible ones,
+ * and spacer elements above and below stand in for the lines that are not
+ * rendered, using measured line heights where available.
+ *
+ * While a selection exists in the output, the rendered window only grows, so
+ * that the browser's selection (and hence copy) remains intact.
+ *
+ * Ranges of output can be replaced with an element, such as the ConsoleError
+ * widget shown for errors with traceback information; the element is shown
+ * in place of the lines the range covers whenever they're rendered.
+ */
+public class VirtualizedConsoleOutput
+{
+   public VirtualizedConsoleOutput(Element container,
+                                   VirtualConsole console,
+                                   ScrollPanel viewport)
+   {
+      container_ = container;
+      console_ = console;
+      viewport_ = viewport;
+
+      topSpacer_ = createSpacer();
+      body_ = Document.get().createDivElement();
+      body_.getStyle().setDisplay(Display.BLOCK);
+      bottomSpacer_ = createSpacer();
+
+      container_.appendChild(topSpacer_);
+      container_.appendChild(body_);
+      container_.appendChild(bottomSpacer_);
+
+      scrollHandler_ = viewport_.addScrollHandler(new ScrollHandler()
+      {
+         @Override
+         public void onScroll(ScrollEvent event)
+         {
+            scheduleRender();
+         }
+      });
+   }
+
+   public void detach()
+   {
+      scrollHandler_.removeHandler();
+   }
+
+   /**
+    * Invalidates the rendered lines touched by the last submit to the
+    * console, and schedules a render.
+    */
+   public void onOutput()
+   {
+      int changedFrom = console_.getChangedFrom();
+      if (changedFrom >= 0)
+         invalidateFrom(console_.getLineForOffset(changedFrom));
+      scheduleRender();
+   }
+
+   /**
+    * Adjusts for lines discarded from the start of the console.
+    */
+   public void onLinesDiscarded(int lines)
+   {
+      heights_.removeFirst(lines);
+      releaseAll();
+      findLine_ = -1;
+
+      // forget replacements for lines that are (even partly) gone
+      List<Replacement> replacements = new ArrayList<>();
+      for (Replacement replacement : replacements_)
+      {
+         if (replacement.startLine >= lines)
+         {
+            replacement.startLine -= lines;
+            replacement.endLine -= lines;
+            replacements.add(replacement);
+         }
+      }
+      replacements_ = replacements;
+
+      scheduleRender();
+   }
+
+   /**
+    * Shows the given element in place of the output between the given
+    * offsets; any output preceding the start offset on its line is still
+    * shown, followed by the element.
+    */
+   public void replaceRange(int start, int end, Element element)
+   {
+      if (end <= start)
+         return;
+
+      int startLine = console_.getLineForOffset(start);
+      replacements_.add(new Replacement(
+            startLine,
+            start - console_.getLineStart(startLine),
+            console_.getLineForOffset(end - 1),
+            element));
+      invalidateFrom(startLine);
+      scheduleRender();
+   }
+
+   /**
+    * Scrolls to and selects the next occurrence of the given text, searching
+    * the entire output rather than just the rendered lines.
+    *
+    * @return whether a match was found
+    */
+   public boolean find(String term, boolean forward)
+   {
+      if (StringUtil.isNullOrEmpty(term))
+         return false;
+
+      int rows = getRowCount();
+      if (rows == 0)
+         return false;
+
+      // resume from the last match, so that later matches on its line are
+      // found too; the search wraps around to that line's earlier matches
+      String needle = term.toLowerCase();
+      boolean resume = findLine_ >= 0 && findLine_ < rows;
+      int line = resume ? findLine_ : (forward ? 0 : rows - 1);
+      for (int i = 0; i <= rows; i++, line = (line + (forward ? 1 : -1) + rows) % rows)
+      {
+         String text = getLineText(line).toLowerCase();
+         int index;
+         if (i == 0 && resume)
+         {
+            index = forward ?
+                  text.indexOf(needle, findOffset_ + 1) :
+                  findOffset_ > 0 ? text.lastIndexOf(needle, findOffset_ - 1) : -1;
+         }
+         else
+         {
+            index = forward ? text.indexOf(needle) : text.lastIndexOf(needle);
+         }
+         if (index < 0)
+            continue;
+
+         findLine_ = line;
+         findOffset_ = index;
+         scrollToLine(line);
+         render();
+
+         // text shown by a replacement element can't be selected by offset
+         Element rendered = getRenderedLine(line);
+         if (rendered != null && getReplacement(line) == null)
+         {
+            DomUtils.setSelectionOffsets(rendered,
+                                         index,
+                                         index + needle.length());
+         }
+         return true;
+      }
+
+      return false;
+   }
+
+   /**
+    * Scrolls to the end of the output and focuses the last line.
+    */
+   public void focusEnd()
+   {
+      int rows = getRowCount();
+      if (rows == 0)
+         return;
+
+      scrollToLine(rows - 1);
+      render();
+      Element last = getRenderedLine(rows - 1);
+      if (last != null)
+      {
+         last.setTabIndex(-1);
+         last.focus();
+      }
+   }
+
+   private void scheduleRender()
+   {
+      if (renderPending_)
+         return;
+
+      renderPending_ = true;
+      AnimationScheduler.get().requestAnimationFrame(
+            new AnimationScheduler.AnimationCallback()
+      {
+         @Override
+         public void execute(double timestamp)
+         {
+            if (renderPending_)
+               render();
+         }
+      });
+   }
+
+   private void render()
+   {
+      renderPending_ = false;
+
+      int rows = getRowCount();
+      heights_.resize(rows);
+      if (rows == 0)
+      {
+         releaseAll();
+         updateSpacers();
+         return;
+      }
+
+      // compute the window of lines to render, in container coordinates; if
+      // the viewport is following the end of the output, render the end
+      boolean pinned = isPinnedToBottom();
+      int viewTop = pinned ?
+            heights_.getTotalHeight() - viewport_.getOffsetHeight() :
+            viewport_.getElement().getAbsoluteTop() - container_.getAbsoluteTop();
+      int viewBottom = viewTop + viewport_.getOffsetHeight();
+      int first = heights_.indexAt(viewTop - OVERSCAN_PX);
+      int last = heights_.indexAt(viewBottom + OVERSCAN_PX);
+
+      // don't recycle lines holding a selection
+      boolean hasSelection = !lines_.isEmpty() &&
+            DomUtils.selectionExists() &&
+            DomUtils.isSelectionInElement(container_);
+      if (hasSelection)
+      {
+         first = Math.min(first, firstRendered_);
+         last = Math.max(last, firstRendered_ + lines_.size() - 1);
+      }
+
+      // drop rendered lines outside the new window (or the whole window if
+      // they don't overlap)
+      if (lines_.isEmpty() ||
+          last < firstRendered_ ||
+          first > firstRendered_ + lines_.size() - 1)
+      {
+         releaseAll();
+         firstRendered_ = first;
+      }
+      else
+      {
+         while (firstRendered_ < first)
+         {
+            release(lines_.remove(0));
+            firstRendered_++;
+         }
+         while (firstRendered_ + lines_.size() - 1 > last)
+            release(lines_.remove(lines_.size() - 1));
+      }
+
+      // add lines missing at either end of the window
+      while (firstRendered_ > first)
+      {
+         firstRendered_--;
+         Element line = acquire();
+         body_.insertFirst(line);
+         lines_.add(0, line);
+         fill(line, firstRendered_);
+      }
+      while (firstRendered_ + lines_.size() - 1 < last)
+      {
+         Element line = acquire();
+         body_.appendChild(line);
+         lines_.add(line);
+         fill(line, firstRendered_ + lines_.size() - 1);
+      }
+
+      // refresh lines changed since they were rendered
+      if (invalidFrom_ >= 0)
+      {
+         for (int i = Math.max(invalidFrom_, firstRendered_) - firstRendered_;
+              i < lines_.size();
+              i++)
+         {
+            fill(lines_.get(i), firstRendered_ + i);
+         }
+         invalidFrom_ = -1;
+      }
+
+      // record measured heights (lines may wrap); the first measurement of a
+      // single line also gives us a better estimate for unrendered lines
+      for (int i = 0; i < lines_.size(); i++)
+      {
+         int height = lines_.get(i).getOffsetHeight();
+         if (height <= 0)
+         {
+            // lines hidden by a replacement take up no space
+            if (isHidden(firstRendered_ + i))
+               heights_.set(firstRendered_ + i, 0);
+            continue;
+         }
+         if (!measuredDefault_ || height < heights_.getDefaultHeight())
+         {
+            measuredDefault_ = true;
+            heights_.setDefaultHeight(height);
+         }
+         heights_.set(firstRendered_ + i, height);
+      }
+
+      updateSpacers();
+
+      if (pinned)
+         ((BottomScrollPanel) viewport_).scrollToBottom();
+   }
+
+   private boolean isPinnedToBottom()
+   {
+      return viewport_ instanceof BottomScrollPanel &&
+             ((BottomScrollPanel) viewport_).isScrolledToBottom();
+   }
+
+   private void updateSpacers()
+   {
+      int top = lines_.isEmpty() ? 0 : heights_.getOffset(firstRendered_);
+      int bottom = heights_.getTotalHeight() - (lines_.isEmpty() ?
+            0 : heights_.getOffset(firstRendered_ + lines_.size()));
+      topSpacer_.getStyle().setHeight(top, Unit.PX);
+      bottomSpacer_.getStyle().setHeight(bottom, Unit.PX);
+   }
+
+   private void fill(final Element line, int index)
+   {
+      line.setInnerText("");
+      line.getStyle().setProperty("minHeight",
+            heights_.getDefaultHeight() + "px");
+      line.getStyle().clearDisplay();
+
+      int start = console_.getLineStart(index);
+      int end = console_.getLineEnd(index);
+      Replacement replacement = getReplacement(index);
+      if (replacement != null)
+      {
+         if (index != replacement.startLine)
+         {
+            line.getStyle().setDisplay(Display.NONE);
+            return;
+         }
+         end = start + replacement.startColumn;
+      }
+
+      console_.visitRanges(
+            start,
+            end,
+            new VirtualConsole.RangeVisitor()
+      {
+         @Override
+         public void visit(String text, String clazz)
+         {
+            SpanElement span = Document.get().createSpanElement();
+            if (clazz != null)
+               span.setClassName(clazz);
+            span.setInnerText(text);
+            line.appendChild(span);
+         }
+      });
+
+      if (replacement != null)
+         line.appendChild(replacement.element);
+   }
+
+   /**
+    * @return the replacement covering the given line, if any
+    */
+   private Replacement getReplacement(int line)
+   {
+      for (Replacement replacement : replacements_)
+      {
+         if (line >= replacement.startLine && line <= replacement.endLine)
+            return replacement;
+      }
+      return null;
+   }
+
+   private boolean isHidden(int line)
+   {
+      Replacement replacement = getReplacement(line);
+      return replacement != null && line != replacement.startLine;
+   }
+
+   private void invalidateFrom(int line)
+   {
+      invalidFrom_ = invalidFrom_ < 0 ? line : Math.min(invalidFrom_, line);
+   }
+
+   private void scrollToLine(int line)
+   {
+      heights_.resize(getRowCount());
+      int containerTop = container_.getAbsoluteTop() -
+                         viewport_.getElement().getAbsoluteTop() +
+                         viewport_.getVerticalScrollPosition();
+      int target = containerTop + heights_.getOffset(line) -
+                   viewport_.getOffsetHeight() / 2;
+      viewport_.setVerticalScrollPosition(Math.max(0, target));
+   }
+
+   private Element getRenderedLine(int line)
+   {
+      int index = line - firstRendered_;
+      if (index < 0 || index >= lines_.size())
+         return null;
+      return lines_.get(index);
+   }
+
+   private String getLineText(int line)
+   {
+      return console_.getText(console_.getLineStart(line),
+                              console_.getLineEnd(line));
+   }
+
+   /**
+    * @return number of displayed lines; a trailing newline doesn't start a
+    *    new (empty) line until more output arrives
+    */
+   private int getRowCount()
+   {
+      int lines = console_.getLineCount();
+      return console_.getLength() > console_.getLineStart(lines) ?
+            lines + 1 : lines;
+   }
+
+   private Element acquire()
+   {
+      if (pool_.isEmpty())
+         return Document.get().createDivElement();
+      return pool_.remove(pool_.size() - 1);
+   }
+
+   private void release(Element line)
+   {
+      line.removeFromParent();
+      line.removeAttribute("tabIndex");
+      if (pool_.size() < MAX_POOL_SIZE)
+         pool_.add(line);
+   }
+
+   private void releaseAll()
+   {
+      for (Element line : lines_)
+         release(line);
+      lines_.clear();
+      firstRendered_ = 0;
+      invalidFrom_ = -1;
+   }
+
+   private static class Replacement
+   {
+      Replacement(int startLine, int startColumn, int endLine, Element element)
+      {
+         this.startLine = startLine;
+         this.startColumn = startColumn;
+         this.endLine = endLine;
+         this.element = element;
+      }
+
+      int startLine;
+      final int startColumn;
+      int endLine;
+      final Element element;
+   }
+
+   private static DivElement createSpacer()
+   {
+      DivElement spacer = Document.get().createDivElement();
+      spacer.getStyle().setDisplay(Display.BLOCK);
+      spacer.getStyle().setHeight(0, Unit.PX);
+      return spacer;
+   }
+
+   private final Element container_;
+   private final VirtualConsole console_;
+   private final ScrollPanel viewport_;
+   private final HandlerRegistration scrollHandler_;
+
+   private final DivElement topSpacer_;
+   private final DivElement body_;
+   private final DivElement bottomSpacer_;
+
+   // rendered lines, in order, starting with line firstRendered_
+   private final List<Element> lines_ = new ArrayList<>();
+   private final List<Element> pool_ = new ArrayList<>();
+   private int firstRendered_ = 0;
+   private int invalidFrom_ = -1;
+
+   private final HeightIndex heights_ = new HeightIndex(DEFAULT_LINE_HEIGHT_PX);
+   private boolean measuredDefault_ = false;
+   private boolean renderPending_ = false;
+   private int findLine_ = -1;
+   private int findOffset_ = -1;
+   private List<Replacement> replacements_ = new ArrayList<>();
+
+   private static final int DEFAULT_LINE_HEIGHT_PX = 16;
+   private static final int OVERSCAN_PX = 800;
+   private static final int MAX_POOL_SIZE = 200;
+}
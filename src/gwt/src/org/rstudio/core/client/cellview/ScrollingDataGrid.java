@@ -17,13 +17,20 @@ package org.rstudio.core.client.cellview;
 
 import org.rstudio.core.client.widget.RStudioDataGrid;
 
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.dom.client.TableRowElement;
+import com.google.gwt.user.cellview.client.DataGrid;
 import com.google.gwt.user.client.ui.HeaderPanel;
 import com.google.gwt.user.client.ui.ScrollPanel;
 import com.google.gwt.view.client.ProvidesKey;
 
 // this class extends GWT's DataGrid with a single method that gives us access
 // to the scrolling panel used by the grid, which we need in order to
-// manipulate the scroll position directly (e.g. to save and restore it)
+// manipulate the scroll position directly (e.g. to save and restore it).
+//
+// it can also render just the rows scrolled into view (see
+// enableVirtualScrolling), for grids that may hold many thousands of rows
 public class ScrollingDataGrid<T> extends RStudioDataGrid<T>
 {
    public ScrollingDataGrid(int pageSize, ProvidesKey<T> keyProvider)
@@ -31,8 +38,121 @@ public class ScrollingDataGrid<T> extends RStudioDataGrid<T>
       super(pageSize, keyProvider);
    }
 
+   public ScrollingDataGrid(int pageSize,
+                            DataGrid.Resources resources,
+                            ProvidesKey<T> keyProvider)
+   {
+      super(pageSize, resources, keyProvider);
+   }
+
    public ScrollPanel getScrollPanel() {
       HeaderPanel header = (HeaderPanel) getWidget();
       return (ScrollPanel) header.getContentWidget();
    }
+
+   /**
+    * Renders only a page of rows around those scrolled into view, rather
+    * than every row; the page size is the number of rows rendered at once.
+    * The page is moved as the grid is scrolled, and the space that the rows
+    * outside it would take is reserved with margins on the table (estimated
+    * from the height of the rendered rows), so the scrollbar still reflects
+    * all the rows.
+    */
+   public void enableVirtualScrolling()
+   {
+      if (virtualScrolling_)
+         return;
+      virtualScrolling_ = true;
+
+      getScrollPanel().addScrollHandler(event -> updateVirtualPage());
+      addRowCountChangeHandler(event -> updateVirtualPage());
+      addRedrawHandler(() -> updateVirtualMargins());
+   }
+
+   /**
+    * @return whether the row at the given (absolute) index is rendered
+    */
+   public boolean isRowRendered(int row)
+   {
+      return row >= getPageStart() &&
+             row < getPageStart() + getVisibleItemCount();
+   }
+
+   /**
+    * Scrolls the row at the given (absolute) index into view, rendering it
+    * first if necessary.
+    */
+   public void scrollRowIntoView(int row)
+   {
+      if (!isRowRendered(row) && virtualScrolling_ && rowHeight_ > 0)
+      {
+         // scrolling moves the page to include the row
+         getScrollPanel().setVerticalScrollPosition(row * rowHeight_);
+         updateVirtualPage();
+      }
+
+      if (isRowRendered(row))
+      {
+         TableRowElement rowEl = getRowElement(row - getPageStart());
+         if (rowEl != null)
+            rowEl.scrollIntoView();
+      }
+   }
+
+   private void updateVirtualPage()
+   {
+      int rowCount = getRowCount();
+      int pageSize = getPageSize();
+      int pageStart = getPageStart();
+
+      if (rowCount <= pageSize)
+      {
+         pageStart = 0;
+      }
+      else if (rowHeight_ > 0)
+      {
+         ScrollPanel scrollPanel = getScrollPanel();
+         int firstRow = scrollPanel.getVerticalScrollPosition() / rowHeight_;
+         int rowsInView = scrollPanel.getOffsetHeight() / rowHeight_ + 1;
+
+         // move the page only once the rows in view get near its edges (or
+         // leave it altogether), so it doesn't have to be re-rendered on
+         // every scroll
+         int buffer = pageSize / 4;
+         boolean nearStart = firstRow < pageStart + buffer && pageStart > 0;
+         boolean nearEnd = firstRow + rowsInView > pageStart + pageSize - buffer &&
+                           pageStart + pageSize < rowCount;
+         if (nearStart || nearEnd)
+         {
+            // center the page on the rows in view
+            pageStart = firstRow + rowsInView / 2 - pageSize / 2;
+         }
+         pageStart = Math.max(0, Math.min(pageStart, rowCount - pageSize));
+      }
+
+      if (pageStart != getPageStart())
+         setVisibleRange(pageStart, pageSize);
+
+      updateVirtualMargins();
+   }
+
+   private void updateVirtualMargins()
+   {
+      Element table = getTableBodyElement().getParentElement();
+      int renderedRows = getVisibleItemCount();
+      int renderedHeight = getTableBodyElement().getOffsetHeight();
+      if (renderedRows > 0 && renderedHeight > 0)
+         rowHeight_ = Math.max(1, renderedHeight / renderedRows);
+
+      int rowsBefore = getPageStart();
+      int rowsAfter = Math.max(0, getRowCount() - getPageStart() - renderedRows);
+
+      table.getStyle().setMarginTop(rowsBefore * rowHeight_, Unit.PX);
+      table.getStyle().setMarginBottom(rowsAfter * rowHeight_, Unit.PX);
+   }
+
+   private boolean virtualScrolling_ = false;
+
+   // estimated height of each row, in pixels (0 until rows are rendered)
+   private int rowHeight_ = 0;
 }
@@ -0,0 +1,139 @@
+/*
+ * ChunkedText.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.container;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A text buffer stored as a list of fixed-size chunks, supporting the edits
+ * a console makes: overwriting (and extending past the end of) existing text,
+ * and discarding text from the start. Since chunks don't change size, the
+ * chunk holding any offset is found directly, and an overwrite only copies
+ * the chunks it touches rather than the entire buffer.
+ */
+public class ChunkedText implements CharSequence
+{
+   @Override
+   public int length()
+   {
+      return length_;
+   }
+
+   @Override
+   public char charAt(int index)
+   {
+      int pos = base_ + index;
+      return chunks_.get(pos / CHUNK_SIZE).charAt(pos % CHUNK_SIZE);
+   }
+
+   @Override
+   public CharSequence subSequence(int start, int end)
+   {
+      return substring(start, end);
+   }
+
+   public String substring(int start, int end)
+   {
+      int pos = base_ + start;
+      int stop = base_ + end;
+      if (pos == stop)
+         return "";
+
+      // fast path for text within a single chunk
+      if (pos / CHUNK_SIZE == (stop - 1) / CHUNK_SIZE)
+      {
+         return chunks_.get(pos / CHUNK_SIZE).substring(
+               pos % CHUNK_SIZE, (stop - 1) % CHUNK_SIZE + 1);
+      }
+
+      StringBuilder result = new StringBuilder(end - start);
+      while (pos < stop)
+      {
+         int offset = pos % CHUNK_SIZE;
+         int count = Math.min(CHUNK_SIZE - offset, stop - pos);
+         result.append(chunks_.get(pos / CHUNK_SIZE), offset, offset + count);
+         pos += count;
+      }
+      return result.toString();
+   }
+
+   /**
+    * Writes text at the given offset (which may be at most the current
+    * length), replacing any existing text it covers.
+    */
+   public void write(int start, String text)
+   {
+      int pos = base_ + start;
+      for (int i = 0; i < text.length(); )
+      {
+         int index = pos / CHUNK_SIZE;
+         int offset = pos % CHUNK_SIZE;
+         if (index == chunks_.size())
+            chunks_.add(new StringBuilder());
+
+         StringBuilder chunk = chunks_.get(index);
+         int count = Math.min(CHUNK_SIZE - offset, text.length() - i);
+         chunk.replace(offset,
+                       Math.min(offset + count, chunk.length()),
+                       text.substring(i, i + count));
+         i += count;
+         pos += count;
+      }
+      length_ = Math.max(length_, start + text.length());
+   }
+
+   /**
+    * Discards the given number of characters from the start of the text;
+    * offsets of the remaining text shift accordingly.
+    */
+   public void deleteFirst(int count)
+   {
+      if (count >= length_)
+      {
+         clear();
+         return;
+      }
+
+      base_ += count;
+      length_ -= count;
+      while (base_ >= CHUNK_SIZE)
+      {
+         chunks_.remove(0);
+         base_ -= CHUNK_SIZE;
+      }
+   }
+
+   public void clear()
+   {
+      chunks_.clear();
+      base_ = 0;
+      length_ = 0;
+   }
+
+   @Override
+   public String toString()
+   {
+      return substring(0, length_);
+   }
+
+   // all chunks but the last are full; base_ is the offset of the start of
+   // the text within the first chunk
+   private final List<StringBuilder> chunks_ = new ArrayList<>();
+   private int base_ = 0;
+   private int length_ = 0;
+
+   private static final int CHUNK_SIZE = 1024;
+}
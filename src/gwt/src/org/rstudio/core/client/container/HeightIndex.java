@@ -0,0 +1,174 @@
+/*
+ * HeightIndex.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.container;
+
+/**
+ * Tracks the heights of a list of rows for windowed (virtualized) rendering.
+ * Rows are added with an estimated height, which can be replaced with the
+ * measured height once the row has been rendered. Backed by a Fenwick tree,
+ * so updates, offset queries, and finding the row at a given offset are all
+ * O(log n).
+ */
+public class HeightIndex
+{
+   public HeightIndex(int defaultHeight)
+   {
+      defaultHeight_ = defaultHeight;
+   }
+
+   public int size()
+   {
+      return size_;
+   }
+
+   public int getDefaultHeight()
+   {
+      return defaultHeight_;
+   }
+
+   public void setDefaultHeight(int defaultHeight)
+   {
+      defaultHeight_ = defaultHeight;
+   }
+
+   /**
+    * Grows or shrinks the index to the given number of rows; new rows get
+    * the default height.
+    */
+   public void resize(int size)
+   {
+      if (size < size_)
+      {
+         // tree nodes for the remaining rows only cover remaining rows, so
+         // truncation is free
+         size_ = size;
+         return;
+      }
+
+      ensureCapacity(size);
+      while (size_ < size)
+      {
+         int n = ++size_;
+         heights_[n - 1] = defaultHeight_;
+         tree_[n] = defaultHeight_ + sum(n - 1) - sum(n - (n & -n));
+      }
+   }
+
+   public int get(int index)
+   {
+      return heights_[index];
+   }
+
+   public void set(int index, int height)
+   {
+      int delta = height - heights_[index];
+      if (delta == 0)
+         return;
+
+      heights_[index] = height;
+      for (int i = index + 1; i <= size_; i += i & -i)
+         tree_[i] += delta;
+   }
+
+   /**
+    * @return the combined height of all rows before the given row
+    */
+   public int getOffset(int index)
+   {
+      return sum(index);
+   }
+
+   public int getTotalHeight()
+   {
+      return sum(size_);
+   }
+
+   /**
+    * @return the row containing the given offset, clamped to the valid rows
+    *    (-1 if there are no rows)
+    */
+   public int indexAt(int offset)
+   {
+      if (size_ == 0)
+         return -1;
+      if (offset <= 0)
+         return 0;
+
+      int pos = 0;
+      int step = Integer.highestOneBit(size_);
+      for (; step > 0; step >>= 1)
+      {
+         int next = pos + step;
+         if (next <= size_ && tree_[next] <= offset)
+         {
+            pos = next;
+            offset -= tree_[next];
+         }
+      }
+
+      return Math.min(pos, size_ - 1);
+   }
+
+   /**
+    * Removes rows from the start of the index. This rebuilds the index, so
+    * callers should batch removals where possible.
+    */
+   public void removeFirst(int count)
+   {
+      count = Math.min(count, size_);
+      if (count <= 0)
+         return;
+
+      size_ -= count;
+      System.arraycopy(heights_, count, heights_, 0, size_);
+      for (int i = 1; i <= size_; i++)
+         tree_[i] = heights_[i - 1];
+      for (int i = 1; i <= size_; i++)
+      {
+         int parent = i + (i & -i);
+         if (parent <= size_)
+            tree_[parent] += tree_[i];
+      }
+   }
+
+   private int sum(int count)
+   {
+      int result = 0;
+      for (int i = count; i > 0; i -= i & -i)
+         result += tree_[i];
+      return result;
+   }
+
+   private void ensureCapacity(int size)
+   {
+      if (size < heights_.length)
+         return;
+
+      int capacity = Math.max(size + 1, heights_.length * 2);
+      int[] heights = new int[capacity];
+      int[] tree = new int[capacity + 1];
+      System.arraycopy(heights_, 0, heights, 0, size_);
+      System.arraycopy(tree_, 0, tree, 0, size_ + 1);
+      heights_ = heights;
+      tree_ = tree;
+   }
+
+   private int defaultHeight_;
+   private int size_ = 0;
+   private int[] heights_ = new int[INITIAL_CAPACITY];
+   private int[] tree_ = new int[INITIAL_CAPACITY + 1];
+
+   private static final int INITIAL_CAPACITY = 64;
+}
@@ -0,0 +1,177 @@
+/*
+ * OffsetMap.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.container;
+
+/**
+ * An ordered map from int offsets to values, for tracking ranges of a text
+ * buffer by their start offsets. Entries are kept in sorted arrays with a gap
+ * at the most recent edit, so lookups are O(log n) and, since edits tend to
+ * cluster (e.g. repeated overwrites of the last line of output), inserting
+ * or removing an entry near the previous edit moves only the entries
+ * between the two. Neither lookups nor edits allocate, other than when the
+ * arrays grow.
+ */
+public class OffsetMap<V>
+{
+   public int size()
+   {
+      return keys_.length - (gapEnd_ - gapStart_);
+   }
+
+   public boolean isEmpty()
+   {
+      return size() == 0;
+   }
+
+   public void clear()
+   {
+      keys_ = new int[INITIAL_CAPACITY];
+      values_ = new Object[INITIAL_CAPACITY];
+      gapStart_ = 0;
+      gapEnd_ = INITIAL_CAPACITY;
+   }
+
+   public int keyAt(int index)
+   {
+      return keys_[physical(index)];
+   }
+
+   @SuppressWarnings("unchecked")
+   public V valueAt(int index)
+   {
+      return (V) values_[physical(index)];
+   }
+
+   /**
+    * @return index of the entry with the greatest key less than or equal to
+    *    the given key, or -1 if there is no such entry
+    */
+   public int floorIndex(int key)
+   {
+      int lo = 0;
+      int hi = size() - 1;
+      while (lo <= hi)
+      {
+         int mid = (lo + hi) >>> 1;
+         if (keyAt(mid) <= key)
+            lo = mid + 1;
+         else
+            hi = mid - 1;
+      }
+      return hi;
+   }
+
+   public V get(int key)
+   {
+      int index = floorIndex(key);
+      if (index < 0 || keyAt(index) != key)
+         return null;
+      return valueAt(index);
+   }
+
+   /**
+    * Adds an entry, replacing the value of any existing entry with the
+    * same key.
+    */
+   public void put(int key, V value)
+   {
+      int index = floorIndex(key);
+      if (index >= 0 && keyAt(index) == key)
+      {
+         values_[physical(index)] = value;
+         return;
+      }
+
+      index++;
+      if (gapStart_ == gapEnd_)
+         grow();
+      moveGap(index);
+      keys_[gapStart_] = key;
+      values_[gapStart_] = value;
+      gapStart_++;
+   }
+
+   /**
+    * @return the value removed, or null if there was no entry with the key
+    */
+   public V remove(int key)
+   {
+      int index = floorIndex(key);
+      if (index < 0 || keyAt(index) != key)
+         return null;
+
+      V value = valueAt(index);
+      moveGap(index);
+      values_[gapEnd_] = null;
+      gapEnd_++;
+      return value;
+   }
+
+   private int physical(int index)
+   {
+      return index < gapStart_ ? index : index + (gapEnd_ - gapStart_);
+   }
+
+   private void moveGap(int index)
+   {
+      if (index < gapStart_)
+      {
+         // shift the entries between the index and the gap to after the gap
+         int count = gapStart_ - index;
+         int gapEnd = gapEnd_ - count;
+         System.arraycopy(keys_, index, keys_, gapEnd, count);
+         System.arraycopy(values_, index, values_, gapEnd, count);
+         for (int i = index, n = Math.min(gapStart_, gapEnd); i < n; i++)
+            values_[i] = null;
+         gapStart_ = index;
+         gapEnd_ = gapEnd;
+      }
+      else if (index > gapStart_)
+      {
+         // shift the entries between the gap and the index to before the gap
+         int count = index - gapStart_;
+         System.arraycopy(keys_, gapEnd_, keys_, gapStart_, count);
+         System.arraycopy(values_, gapEnd_, values_, gapStart_, count);
+         for (int i = Math.max(gapEnd_, index), n = gapEnd_ + count; i < n; i++)
+            values_[i] = null;
+         gapStart_ += count;
+         gapEnd_ += count;
+      }
+   }
+
+   private void grow()
+   {
+      int capacity = keys_.length * 2;
+      int tail = keys_.length - gapEnd_;
+      int[] keys = new int[capacity];
+      Object[] values = new Object[capacity];
+      System.arraycopy(keys_, 0, keys, 0, gapStart_);
+      System.arraycopy(values_, 0, values, 0, gapStart_);
+      System.arraycopy(keys_, gapEnd_, keys, capacity - tail, tail);
+      System.arraycopy(values_, gapEnd_, values, capacity - tail, tail);
+      keys_ = keys;
+      values_ = values;
+      gapEnd_ = capacity - tail;
+   }
+
+   private int[] keys_ = new int[INITIAL_CAPACITY];
+   private Object[] values_ = new Object[INITIAL_CAPACITY];
+
+   // the gap occupies [gapStart_, gapEnd_) of the arrays
+   private int gapStart_ = 0;
+   private int gapEnd_ = INITIAL_CAPACITY;
+
+   private static final int INITIAL_CAPACITY = 16;
+}
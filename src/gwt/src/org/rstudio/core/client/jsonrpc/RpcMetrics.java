@@ -0,0 +1,323 @@
+/*
+ * RpcMetrics.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.jsonrpc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.json.client.JSONNumber;
+import com.google.gwt.json.client.JSONObject;
+
+/**
+ * Aggregate metrics for every RPC method called since startup (or the last
+ * reset). Unlike RequestLog, which keeps the last few requests in full, only
+ * counts and fixed-size histograms are kept for each method, so memory use
+ * doesn't grow with the number of requests.
+ */
+public class RpcMetrics
+{
+   /**
+    * A histogram with logarithmically sized buckets, so that percentiles are
+    * accurate to within GROWTH (10%) of the true value over any range.
+    */
+   public static class Histogram
+   {
+      public Histogram(double maxValue)
+      {
+         counts_ = new int[bucketFor(maxValue) + 1];
+      }
+
+      public void record(double value)
+      {
+         count_++;
+         sum_ += value;
+         max_ = Math.max(max_, value);
+         counts_[Math.min(bucketFor(value), counts_.length - 1)]++;
+      }
+
+      public int getCount()
+      {
+         return count_;
+      }
+
+      public double getSum()
+      {
+         return sum_;
+      }
+
+      public double getMax()
+      {
+         return max_;
+      }
+
+      public double getMean()
+      {
+         return count_ == 0 ? 0 : sum_ / count_;
+      }
+
+      /**
+       * @param percentile the percentile, from 0 to 100
+       * @return (an upper bound on) the value at the given percentile
+       */
+      public double getPercentile(double percentile)
+      {
+         if (count_ == 0)
+            return 0;
+
+         double rank = Math.max(1, Math.ceil(percentile / 100 * count_));
+         int seen = 0;
+         for (int i = 0; i < counts_.length; i++)
+         {
+            seen += counts_[i];
+            if (seen >= rank)
+               return Math.min(Math.pow(GROWTH, i), max_);
+         }
+         return max_;
+      }
+
+      public JSONObject toJson()
+      {
+         JSONObject json = new JSONObject();
+         json.put("count", new JSONNumber(count_));
+         json.put("mean", new JSONNumber(getMean()));
+         json.put("p50", new JSONNumber(getPercentile(50)));
+         json.put("p95", new JSONNumber(getPercentile(95)));
+         json.put("p99", new JSONNumber(getPercentile(99)));
+         json.put("max", new JSONNumber(max_));
+         json.put("total", new JSONNumber(sum_));
+         return json;
+      }
+
+      // bucket i holds values in (GROWTH^(i-1), GROWTH^i]
+      private static int bucketFor(double value)
+      {
+         if (value <= 1)
+            return 0;
+         return (int) Math.ceil(Math.log(value) / LOG_GROWTH);
+      }
+
+      private final int[] counts_;
+      private int count_ = 0;
+      private double sum_ = 0;
+      private double max_ = 0;
+
+      private static final double GROWTH = 1.1;
+      private static final double LOG_GROWTH = Math.log(GROWTH);
+   }
+
+   public static class MethodMetrics
+   {
+      private MethodMetrics(String method)
+      {
+         method_ = method;
+      }
+
+      public String getMethod()
+      {
+         return method_;
+      }
+
+      public Histogram getLatency()
+      {
+         return latency_;
+      }
+
+      public Histogram getRequestSize()
+      {
+         return requestSize_;
+      }
+
+      public Histogram getResponseSize()
+      {
+         return responseSize_;
+      }
+
+      public int getErrors()
+      {
+         return errors_;
+      }
+
+      public int getCancelled()
+      {
+         return cancelled_;
+      }
+
+      public int getRetries()
+      {
+         return retries_;
+      }
+
+      public int getPeakConcurrency()
+      {
+         return peakConcurrency_;
+      }
+
+      public JSONObject toJson()
+      {
+         JSONObject json = new JSONObject();
+         json.put("count", new JSONNumber(latency_.getCount()));
+         json.put("errors", new JSONNumber(errors_));
+         json.put("cancelled", new JSONNumber(cancelled_));
+         json.put("retries", new JSONNumber(retries_));
+         json.put("peak_concurrency", new JSONNumber(peakConcurrency_));
+         json.put("latency_ms", latency_.toJson());
+         json.put("request_size", requestSize_.toJson());
+         json.put("response_size", responseSize_.toJson());
+         return json;
+      }
+
+      private final String method_;
+      private final Histogram latency_ = new Histogram(MAX_LATENCY_MS);
+      private final Histogram requestSize_ = new Histogram(MAX_SIZE);
+      private final Histogram responseSize_ = new Histogram(MAX_SIZE);
+      private int errors_ = 0;
+      private int cancelled_ = 0;
+      private int retries_ = 0;
+      private int active_ = 0;
+      private int peakConcurrency_ = 0;
+   }
+
+   /**
+    * Records the start of a request.
+    *
+    * @return the start time, to be passed to requestCompleted
+    */
+   public static double requestStarted(String method)
+   {
+      MethodMetrics metrics = getMetrics(method);
+      metrics.active_++;
+      metrics.peakConcurrency_ = Math.max(metrics.peakConcurrency_,
+                                          metrics.active_);
+      active_++;
+      peakConcurrency_ = Math.max(peakConcurrency_, active_);
+      return Duration.currentTimeMillis();
+   }
+
+   /**
+    * Records the completion of a request. Sizes are in characters of the
+    * JSON request and response text.
+    */
+   public static void requestCompleted(String method,
+                                       double startTime,
+                                       int requestSize,
+                                       int responseSize,
+                                       boolean error)
+   {
+      MethodMetrics metrics = getMetrics(method);
+      metrics.latency_.record(Duration.currentTimeMillis() - startTime);
+      metrics.requestSize_.record(requestSize);
+      metrics.responseSize_.record(responseSize);
+      if (error)
+         metrics.errors_++;
+      finished(metrics);
+   }
+
+   public static void requestCancelled(String method)
+   {
+      MethodMetrics metrics = getMetrics(method);
+      metrics.cancelled_++;
+      finished(metrics);
+   }
+
+   public static void retryAttempted(String method)
+   {
+      getMetrics(method).retries_++;
+   }
+
+   /**
+    * @return metrics for each method called, in descending order of total
+    *    time spent waiting for responses
+    */
+   public static List<MethodMetrics> getMethodMetrics()
+   {
+      List<MethodMetrics> metrics = new ArrayList<>(methods_.values());
+      Collections.sort(metrics, (a, b) ->
+            Double.compare(b.latency_.getSum(), a.latency_.getSum()));
+      return metrics;
+   }
+
+   public static int getPeakConcurrency()
+   {
+      return peakConcurrency_;
+   }
+
+   public static double getStartTime()
+   {
+      return startTime_;
+   }
+
+   public static JSONObject toJson()
+   {
+      JSONObject methods = new JSONObject();
+      for (MethodMetrics metrics : getMethodMetrics())
+         methods.put(metrics.getMethod(), metrics.toJson());
+
+      JSONObject json = new JSONObject();
+      json.put("start_time", new JSONNumber(startTime_));
+      json.put("end_time", new JSONNumber(Duration.currentTimeMillis()));
+      json.put("peak_concurrency", new JSONNumber(peakConcurrency_));
+      json.put("methods", methods);
+      return json;
+   }
+
+   /**
+    * Discards all metrics; requests in progress are still tracked for
+    * concurrency but will be recorded against fresh counters.
+    */
+   public static void reset()
+   {
+      HashMap<String, MethodMetrics> methods = new HashMap<>();
+      for (MethodMetrics metrics : methods_.values())
+      {
+         if (metrics.active_ > 0)
+         {
+            MethodMetrics fresh = new MethodMetrics(metrics.method_);
+            fresh.active_ = fresh.peakConcurrency_ = metrics.active_;
+            methods.put(metrics.method_, fresh);
+         }
+      }
+      methods_ = methods;
+      peakConcurrency_ = active_;
+      startTime_ = Duration.currentTimeMillis();
+   }
+
+   private static MethodMetrics getMetrics(String method)
+   {
+      MethodMetrics metrics = methods_.get(method);
+      if (metrics == null)
+      {
+         metrics = new MethodMetrics(method);
+         methods_.put(method, metrics);
+      }
+      return metrics;
+   }
+
+   private static void finished(MethodMetrics metrics)
+   {
+      metrics.active_ = Math.max(0, metrics.active_ - 1);
+      active_ = Math.max(0, active_ - 1);
+   }
+
+   private static HashMap<String, MethodMetrics> methods_ = new HashMap<>();
+   private static int active_ = 0;
+   private static int peakConcurrency_ = 0;
+   private static double startTime_ = Duration.currentTimeMillis();
+
+   private static final double MAX_LATENCY_MS = 60 * 60 * 1000;
+   private static final double MAX_SIZE = 1024 * 1024 * 1024;
+}
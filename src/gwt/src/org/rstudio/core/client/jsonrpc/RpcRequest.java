@@ -69,23 +69,7 @@ public class RpcRequest
       final RpcRequestCallback requestCallback = callback;
       
       // build json request object
-      JSONObject request = new JSONObject();
-      request.put("method", new JSONString(method_));
-      if ( params_ != null )
-         request.put("params", params_);  
-      if ( kwparams_ != null)
-         request.put("kwparams", kwparams_);
-      
-      // add src window if we have it
-      if (sourceWindow_ != null)
-         request.put("sourceWnd", sourceWindow_);
-      
-      // add client id if we have it
-      if (clientId_ != null)
-         request.put("clientId", clientId_);
-
-      // add client version
-      request.put("clientVersion", clientVersion_);
+      JSONObject request = toJson();
       
       // configure request builder
       RequestBuilder builder = new RequestBuilder(RequestBuilder.POST, url_);
@@ -114,6 +98,8 @@ public class RpcRequest
          requestLogEntry_ = RequestLog.log(requestId,
                                            redactLog_ ? "[REDACTED]"
                                                       : requestString);
+         requestSize_ = requestString.length();
+         metricsStartTime_ = RpcMetrics.requestStarted(method_);
 
          request_ = builder.sendRequest(requestString, new RequestCallback() {
             
@@ -121,6 +107,7 @@ public class RpcRequest
             {      
                requestLogEntry_.logResponse(ResponseType.Error,
                                            exception.getLocalizedMessage());
+               recordMetrics(0, true);
                // ERROR: Request failed
                RpcError error = RpcError.create(
                                           RpcError.TRANSMISSION_ERROR,
@@ -144,6 +131,7 @@ public class RpcRequest
                         Debug.log("Response: " + responseText);
                      requestLogEntry_.logResponse(ResponseType.Normal,
                                                  responseText);
+                     recordMetrics(responseText.length(), false);
                      rpcResponse = RpcResponse.parse(responseText);
                      
                      // response received and validated, process it!
@@ -177,6 +165,7 @@ public class RpcRequest
                  
                   requestLogEntry_.logResponse(ResponseType.Unknown,
                                               message);
+                  recordMetrics(response.getText().length(), true);
                   RpcError error = RpcError.create(
                                              RpcError.TRANSMISSION_ERROR,
                                              message);
@@ -193,6 +182,7 @@ public class RpcRequest
         
          if (requestLogEntry_ != null)
             requestLogEntry_.logResponse(ResponseType.Unknown, message);
+         recordMetrics(0, true);
          
          RpcError error = RpcError.create(RpcError.TRANSMISSION_ERROR,
                                           message);
@@ -200,6 +190,31 @@ public class RpcRequest
       }
    }
    
+   /**
+    * @return the body of the request, as sent to the server
+    */
+   public JSONObject toJson()
+   {
+      JSONObject request = new JSONObject();
+      request.put("method", new JSONString(method_));
+      if ( params_ != null )
+         request.put("params", params_);  
+      if ( kwparams_ != null)
+         request.put("kwparams", kwparams_);
+      
+      // add src window if we have it
+      if (sourceWindow_ != null)
+         request.put("sourceWnd", sourceWindow_);
+      
+      // add client id if we have it
+      if (clientId_ != null)
+         request.put("clientId", clientId_);
+
+      // add client version
+      request.put("clientVersion", clientVersion_);
+      return request;
+   }
+
    public void cancel()
    {
       if (request_ != null)
@@ -213,6 +228,42 @@ public class RpcRequest
          requestLogEntry_.logResponse(ResponseType.Cancelled, "Cancelled");
          requestLogEntry_ = null;
       }
+
+      if (metricsStartTime_ >= 0)
+      {
+         RpcMetrics.requestCancelled(method_);
+         metricsStartTime_ = -1;
+      }
+
+      if (batch_ != null)
+      {
+         batch_.cancel(this);
+         batch_ = null;
+      }
+   }
+
+   /**
+    * Records that the request is to be sent as part of the given batch, so
+    * that cancelling it also cancels it within the batch.
+    */
+   void setBatch(RpcRequestBatch batch)
+   {
+      batch_ = batch;
+   }
+
+   private void recordMetrics(int responseSize, boolean error)
+   {
+      // only the first outcome of each send counts (e.g. not a late response
+      // to a cancelled request)
+      if (metricsStartTime_ < 0)
+         return;
+
+      RpcMetrics.requestCompleted(method_,
+                                  metricsStartTime_,
+                                  requestSize_,
+                                  responseSize,
+                                  error);
+      metricsStartTime_ = -1;
    }
 
    public String getUrl()
@@ -290,5 +341,8 @@ public class RpcRequest
    final private boolean refreshCredentials_;
    private Request request_ = null;
    private RequestLogEntry requestLogEntry_ = null;
+   private int requestSize_ = 0;
+   private double metricsStartTime_ = -1;
+   private RpcRequestBatch batch_ = null;
 
 }
@@ -0,0 +1,201 @@
+/*
+ * RpcRequestBatch.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.jsonrpc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsonUtils;
+import com.google.gwt.json.client.JSONArray;
+import com.google.gwt.json.client.JSONObject;
+
+/**
+ * A group of requests sent to the server as a single multiplexed request.
+ * The server executes them in order and responds with an array holding the
+ * response to each, which is passed on to that request's callback as though
+ * it had been sent on its own.
+ *
+ * Each request is also recorded in RpcMetrics under its own method, as well
+ * as the batch being recorded under the multiplex method. A request that is
+ * cancelled is still sent with (or remains part of) the batch, but its
+ * response is dropped.
+ */
+public class RpcRequestBatch
+{
+   public void add(RpcRequest request, RpcRequestCallback callback)
+   {
+      requests_.add(request);
+      callbacks_.add(callback);
+      cancelled_.add(false);
+      request.setBatch(this);
+   }
+
+   public int size()
+   {
+      return requests_.size();
+   }
+
+   public RpcRequest getRequest(int index)
+   {
+      return requests_.get(index);
+   }
+
+   public RpcRequestCallback getCallback(int index)
+   {
+      return callbacks_.get(index);
+   }
+
+   public boolean isCancelled(int index)
+   {
+      return cancelled_.get(index);
+   }
+
+   /**
+    * Cancels a request in the batch (called by RpcRequest.cancel).
+    */
+   void cancel(RpcRequest request)
+   {
+      int index = requests_.indexOf(request);
+      if (index == -1 || cancelled_.get(index))
+         return;
+
+      cancelled_.set(index, true);
+      if (startTimes_ != null && startTimes_[index] >= 0)
+      {
+         RpcMetrics.requestCancelled(request.getMethod());
+         startTimes_[index] = -1;
+      }
+   }
+
+   /**
+    * Creates the multiplexed request.
+    *
+    * @param url the url of the multiplex method
+    */
+   public RpcRequest createRequest(String url,
+                                   String clientId,
+                                   String clientVersion)
+   {
+      // a batch is only sent again to retry it after it failed as a whole
+      if (startTimes_ != null)
+      {
+         for (int i = 0; i < requests_.size(); i++)
+         {
+            if (cancelled_.get(i))
+               continue;
+            recordCompleted(i, 0, true);
+            RpcMetrics.retryAttempted(requests_.get(i).getMethod());
+         }
+      }
+
+      JSONArray params = new JSONArray();
+      startTimes_ = new double[requests_.size()];
+      requestSizes_ = new int[requests_.size()];
+      for (int i = 0; i < requests_.size(); i++)
+      {
+         JSONObject request = requests_.get(i).toJson();
+         params.set(i, request);
+         requestSizes_[i] = request.toString().length();
+         startTimes_[i] = cancelled_.get(i) ?
+               -1 : RpcMetrics.requestStarted(requests_.get(i).getMethod());
+      }
+
+      return new RpcRequest(url,
+                            METHOD,
+                            params,
+                            null,
+                            false,
+                            null,
+                            null,
+                            clientId,
+                            clientVersion,
+                            true);
+   }
+
+   /**
+    * Passes each response in the result of the multiplexed request to the
+    * callback of the corresponding request.
+    */
+   public void dispatch(RpcResponse response)
+   {
+      JsArray<RpcResponse> responses = response.getResult();
+      if (responses == null || responses.length() != requests_.size())
+      {
+         dispatchError(RpcError.create(
+               RpcError.TRANSMISSION_ERROR,
+               "Unexpected response to multiplexed request"));
+         return;
+      }
+
+      for (int i = 0; i < requests_.size(); i++)
+      {
+         RpcResponse result = responses.get(i);
+         recordCompleted(i,
+                         JsonUtils.stringify(result).length(),
+                         result.getError() != null);
+      }
+      startTimes_ = null;
+
+      for (int i = 0; i < requests_.size(); i++)
+      {
+         if (!cancelled_.get(i))
+            callbacks_.get(i).onResponseReceived(requests_.get(i), responses.get(i));
+      }
+   }
+
+   /**
+    * Reports an error affecting the whole batch to every request's callback.
+    */
+   public void dispatchError(RpcError error)
+   {
+      if (startTimes_ != null)
+      {
+         for (int i = 0; i < requests_.size(); i++)
+            recordCompleted(i, 0, true);
+         startTimes_ = null;
+      }
+
+      for (int i = 0; i < requests_.size(); i++)
+      {
+         if (!cancelled_.get(i))
+            callbacks_.get(i).onError(requests_.get(i), error);
+      }
+   }
+
+   private void recordCompleted(int index, int responseSize, boolean error)
+   {
+      // (cancelled requests were recorded when they were cancelled)
+      if (startTimes_[index] < 0)
+         return;
+
+      RpcMetrics.requestCompleted(requests_.get(index).getMethod(),
+                                  startTimes_[index],
+                                  requestSizes_[index],
+                                  responseSize,
+                                  error);
+   }
+
+   public static final String METHOD = "multiplex";
+
+   private final List<RpcRequest> requests_ = new ArrayList<>();
+   private final List<RpcRequestCallback> callbacks_ = new ArrayList<>();
+   private final List<Boolean> cancelled_ = new ArrayList<>();
+
+   // metrics for the requests in the batch as last sent (null if the batch
+   // isn't awaiting a response)
+   private double[] startTimes_;
+   private int[] requestSizes_;
+}
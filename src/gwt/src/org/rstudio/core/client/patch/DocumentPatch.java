@@ -0,0 +1,76 @@
+/*
+ * DocumentPatch.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.patch;
+
+import com.google.gwt.json.client.JSONArray;
+import com.google.gwt.json.client.JSONNumber;
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.json.client.JSONString;
+
+/**
+ * A set of replacements to make to a document, as sent to the server by
+ * save_document_diff. Offsets and lengths are in bytes of the UTF-8 encoded
+ * document; replacements must be added in order and must not overlap.
+ */
+public class DocumentPatch
+{
+   public void add(int offset, int length, String text)
+   {
+      JSONObject change = new JSONObject();
+      change.put("offset", new JSONNumber(offset));
+      change.put("length", new JSONNumber(length));
+      change.put("text", new JSONString(text));
+      changes_.set(changes_.size(), change);
+   }
+
+   public boolean isEmpty()
+   {
+      return changes_.size() == 0;
+   }
+
+   public JSONArray toJson()
+   {
+      return changes_;
+   }
+
+   /**
+    * @return the number of bytes in the UTF-8 encoding of str, between
+    *    from (inclusive) and to (exclusive)
+    */
+   public static int utf8Length(String str, int from, int to)
+   {
+      int length = 0;
+      for (int i = from; i < to; i++)
+      {
+         char c = str.charAt(i);
+         if (c < 0x80)
+            length += 1;
+         else if (c < 0x800)
+            length += 2;
+         else if (Character.isHighSurrogate(c) && i + 1 < to &&
+                  Character.isLowSurrogate(str.charAt(i + 1)))
+         {
+            // surrogate pairs encode a single 4 byte character
+            length += 4;
+            i++;
+         }
+         else
+            length += 3;
+      }
+      return length;
+   }
+
+   private final JSONArray changes_ = new JSONArray();
+}
@@ -164,6 +164,17 @@ public class SubstringDiff
       return length_;
    }
    
+   /**
+    * @return the diff as a patch to the original value
+    */
+   public DocumentPatch asPatch()
+   {
+      DocumentPatch patch = new DocumentPatch();
+      if (!isEmpty())
+         patch.add(offset_, length_, replacement_);
+      return patch;
+   }
+
    public boolean isEmpty()
    {
       return length_ == 0 && replacement_.length() == 0;
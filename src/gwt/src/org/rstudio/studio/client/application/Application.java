@@ -59,6 +59,7 @@ import org.rstudio.studio.client.application.model.SessionSerializationAction;
 import org.rstudio.studio.client.application.ui.AboutDialog;
 import org.rstudio.studio.client.application.ui.RTimeoutOptions;
 import org.rstudio.studio.client.application.ui.RequestLogVisualization;
+import org.rstudio.studio.client.application.ui.RpcMetricsDialog;
 import org.rstudio.studio.client.common.GlobalDisplay;
 import org.rstudio.studio.client.common.SuperDevMode;
 import org.rstudio.studio.client.common.mathjax.MathJaxLoader;
@@ -475,6 +476,12 @@ public class Application implements ApplicationEventHandlers
       });
    }
 
+   @Handler
+   public void onShowRpcMetrics()
+   {
+      new RpcMetricsDialog().showModal();
+   }
+
    @Handler
    public void onLogFocusedElement()
    {
@@ -0,0 +1,157 @@
+/*
+ * RpcMetricsDialog.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.application.ui;
+
+import java.util.Date;
+
+import com.google.gwt.aria.client.Roles;
+import com.google.gwt.i18n.client.DateTimeFormat;
+import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
+import com.google.gwt.safehtml.shared.SafeHtmlUtils;
+import com.google.gwt.user.client.ui.HTML;
+import com.google.gwt.user.client.ui.HasHorizontalAlignment;
+import com.google.gwt.user.client.ui.ScrollPanel;
+import com.google.gwt.user.client.ui.Widget;
+import org.rstudio.core.client.ElementIds;
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.core.client.jsonrpc.RpcMetrics;
+import org.rstudio.core.client.jsonrpc.RpcMetrics.Histogram;
+import org.rstudio.core.client.jsonrpc.RpcMetrics.MethodMetrics;
+import org.rstudio.core.client.widget.ModalDialogBase;
+import org.rstudio.core.client.widget.ShowContentDialog;
+import org.rstudio.core.client.widget.ThemedButton;
+import org.rstudio.studio.client.server.remote.ClientEventDispatcher;
+import org.rstudio.studio.client.server.remote.ClientEventDispatcher.DispatchStats;
+
+/**
+ * Shows the aggregate RPC metrics collected by RpcMetrics, with the most
+ * expensive methods (by total latency) first, followed by the time spent
+ * dispatching each type of server event.
+ */
+public class RpcMetricsDialog extends ModalDialogBase
+{
+   public RpcMetricsDialog()
+   {
+      super(Roles.getDialogRole());
+      setText("RPC Metrics");
+
+      content_ = new HTML();
+      scrollPanel_ = new ScrollPanel(content_);
+      scrollPanel_.setSize("800px", "450px");
+
+      setButtonAlignment(HasHorizontalAlignment.ALIGN_CENTER);
+      addLeftButton(new ThemedButton("Export JSON...", event ->
+      {
+         String json = RpcMetrics.toJson().toString();
+         new ShowContentDialog("RPC Metrics (JSON)",
+                               SafeHtmlUtils.htmlEscape(json)).showModal();
+      }), ElementIds.RPC_METRICS_EXPORT_BUTTON);
+      addLeftButton(new ThemedButton("Reset", event ->
+      {
+         RpcMetrics.reset();
+         ClientEventDispatcher.resetDispatchStats();
+         refresh();
+      }), ElementIds.RPC_METRICS_RESET_BUTTON);
+      addOkButton(new ThemedButton("Close", event -> closeDialog()));
+
+      refresh();
+   }
+
+   @Override
+   protected Widget createMainWidget()
+   {
+      return scrollPanel_;
+   }
+
+   private void refresh()
+   {
+      SafeHtmlBuilder html = new SafeHtmlBuilder();
+      html.appendEscaped("Since " + DateTimeFormat.getFormat(
+            DateTimeFormat.PredefinedFormat.DATE_TIME_MEDIUM).format(
+                  new Date((long) RpcMetrics.getStartTime())) +
+            "; peak concurrent requests: " + RpcMetrics.getPeakConcurrency());
+
+      html.appendHtmlConstant("<table style=\"width: 100%; text-align: right\">");
+      html.appendHtmlConstant("<tr>");
+      for (String header : HEADERS)
+         html.appendHtmlConstant("<th>").appendEscaped(header).appendHtmlConstant("</th>");
+      html.appendHtmlConstant("</tr>");
+
+      for (MethodMetrics metrics : RpcMetrics.getMethodMetrics())
+      {
+         Histogram latency = metrics.getLatency();
+         html.appendHtmlConstant("<tr><td style=\"text-align: left\">")
+             .appendEscaped(metrics.getMethod())
+             .appendHtmlConstant("</td>");
+         appendCell(html, String.valueOf(latency.getCount()));
+         appendCell(html, String.valueOf(metrics.getErrors()));
+         appendCell(html, String.valueOf(metrics.getRetries()));
+         appendCell(html, formatMs(latency.getPercentile(50)));
+         appendCell(html, formatMs(latency.getPercentile(95)));
+         appendCell(html, formatMs(latency.getPercentile(99)));
+         appendCell(html, formatMs(latency.getSum()));
+         appendCell(html, StringUtil.formatFileSize(
+               (long) metrics.getRequestSize().getMean()));
+         appendCell(html, StringUtil.formatFileSize(
+               (long) metrics.getResponseSize().getMean()));
+         appendCell(html, String.valueOf(metrics.getPeakConcurrency()));
+         html.appendHtmlConstant("</tr>");
+      }
+      html.appendHtmlConstant("</table>");
+
+      html.appendHtmlConstant("<h3>").appendEscaped("Server Events").appendHtmlConstant("</h3>");
+      html.appendHtmlConstant("<table style=\"width: 100%; text-align: right\">");
+      html.appendHtmlConstant("<tr>");
+      for (String header : EVENT_HEADERS)
+         html.appendHtmlConstant("<th>").appendEscaped(header).appendHtmlConstant("</th>");
+      html.appendHtmlConstant("</tr>");
+
+      for (DispatchStats stats : ClientEventDispatcher.getDispatchStats())
+      {
+         html.appendHtmlConstant("<tr><td style=\"text-align: left\">")
+             .appendEscaped(stats.getType())
+             .appendHtmlConstant("</td>");
+         appendCell(html, String.valueOf(stats.getCount()));
+         appendCell(html, formatMs(stats.getTotalMillis()));
+         appendCell(html, formatMs(stats.getTotalMillis() / stats.getCount()));
+         html.appendHtmlConstant("</tr>");
+      }
+      html.appendHtmlConstant("</table>");
+
+      content_.setHTML(html.toSafeHtml());
+   }
+
+   private static void appendCell(SafeHtmlBuilder html, String value)
+   {
+      html.appendHtmlConstant("<td>").appendEscaped(value).appendHtmlConstant("</td>");
+   }
+
+   private static String formatMs(double ms)
+   {
+      return Math.round(ms) + " ms";
+   }
+
+   private final HTML content_;
+   private final ScrollPanel scrollPanel_;
+
+   private static final String[] HEADERS = {
+         "Method", "Calls", "Errors", "Retries", "p50", "p95", "p99",
+         "Total", "Avg Request", "Avg Response", "Peak Concurrent"
+   };
+
+   private static final String[] EVENT_HEADERS = {
+         "Event", "Dispatched", "Total", "Average"
+   };
+}
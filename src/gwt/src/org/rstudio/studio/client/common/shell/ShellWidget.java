@@ -28,6 +28,7 @@ import org.rstudio.core.client.dom.DomUtils;
 import org.rstudio.core.client.jsonrpc.RpcObjectList;
 import org.rstudio.core.client.widget.BottomScrollPanel;
 import org.rstudio.core.client.widget.FontSizer;
+import org.rstudio.core.client.widget.OperationWithInput;
 import org.rstudio.core.client.widget.PreWidget;
 import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.application.AriaLiveService;
@@ -236,6 +237,9 @@ public class ShellWidget extends Composite implements ShellDisplay,
       scrollPanel_.addClickHandler(secondaryInputHandler);
       scrollPanel_.addKeyDownHandler(secondaryInputHandler);
 
+      if (prefs_ != null && prefs_.consoleVirtualizedOutput().getValue())
+         output_.setVirtualized(scrollPanel_);
+
       secondaryInputHandler.setInput(editor);
 
       resizeCommand_ = new TimeBufferedCommand(5)
@@ -315,15 +319,22 @@ public class ShellWidget extends Composite implements ShellDisplay,
       // Pick up the elements emitted to the console by this call. If we get 
       // extended information for this error, we'll need to swap out the simple 
       // error elements for the extended error element. 
+      // Virtualized output has no elements to swap out, so we pick up the
+      // range of output to show the extended error element in place of.
       List<Element> newElements = output_.getNewElements();
-      if (!newElements.isEmpty())
+      int[] newRange = output_.getNewRange();
+      if (!newElements.isEmpty() || newRange != null)
       {
          if (clearErrors_)
          {
             errorNodes_.clear();
+            errorRanges_.clear();
             clearErrors_ = false;
          }
-         errorNodes_.put(error, newElements);
+         if (newRange != null)
+            errorRanges_.put(error, newRange);
+         else
+            errorNodes_.put(error, newElements);
       }
    }
    
@@ -362,6 +373,19 @@ public class ShellWidget extends Composite implements ShellDisplay,
          scrollPanel_.onContentSizeChanged();
          errorNodes_.remove(error);
       }
+      else if (errorRanges_.containsKey(error))
+      {
+         clearPendingInput();
+         ConsoleError errorWidget = new ConsoleError(
+               traceInfo, getErrorClass(), this, command);
+   
+         if (expand)
+            errorWidget.setTracebackVisible(true);
+         
+         if (output_.replaceOutput(errorRanges_.get(error), errorWidget.getElement()))
+            scrollPanel_.onContentSizeChanged();
+         errorRanges_.remove(error);
+      }
    }
    
    @Override
@@ -648,6 +672,11 @@ public class ShellWidget extends Composite implements ShellDisplay,
          if (event.getSource() == input_)
             return;
 
+         // virtualized output renders only the lines near the viewport, so
+         // the browser's find can't see most of it; search the output here
+         if (output_.isVirtualized() && handleFindKey(event))
+            return;
+
          // Filter out some keystrokes you might reasonably expect to keep
          // focus inside the output pane
          switch (event.getNativeKeyCode())
@@ -677,6 +706,38 @@ public class ShellWidget extends Composite implements ShellDisplay,
          delegateEvent(input_.asWidget(), event);
       }
       
+      private boolean handleFindKey(KeyDownEvent event)
+      {
+         boolean modified = event.isControlKeyDown() || event.isMetaKeyDown();
+         int keyCode = event.getNativeKeyCode();
+         if (keyCode == 'F' && modified)
+         {
+            event.preventDefault();
+            RStudioGinjector.INSTANCE.getGlobalDisplay().promptForText(
+                  "Find in Console",
+                  "Find:",
+                  findTerm_,
+                  new OperationWithInput<String>()
+                  {
+                     @Override
+                     public void execute(String term)
+                     {
+                        findTerm_ = term;
+                        output_.find(findTerm_, true);
+                     }
+                  });
+            return true;
+         }
+         else if ((keyCode == KeyCodes.KEY_F3 || (keyCode == 'G' && modified)) &&
+                  !StringUtil.isNullOrEmpty(findTerm_))
+         {
+            event.preventDefault();
+            output_.find(findTerm_, !event.isShiftKeyDown());
+            return true;
+         }
+         return false;
+      }
+
       @Override
       public void onPaste(PasteEvent event)
       {
@@ -690,6 +751,7 @@ public class ShellWidget extends Composite implements ShellDisplay,
       }
 
       private AceEditor input_;
+      private String findTerm_ = "";
       private final Timer inputFocus_ = new Timer()
       {
          @Override
@@ -1014,6 +1076,7 @@ public class ShellWidget extends Composite implements ShellDisplay,
 
    // A list of errors that have occurred between console prompts. 
    private final Map<String, List<Element>> errorNodes_ = new TreeMap<>();
+   private final Map<String, int[]> errorRanges_ = new TreeMap<>();
    private boolean clearErrors_ = false;
 
    private static final String KEYWORD_CLASS_NAME = ConsoleResources.KEYWORD_CLASS_NAME;
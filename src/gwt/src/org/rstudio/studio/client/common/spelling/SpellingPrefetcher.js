@@ -17,6 +17,10 @@ var SpellingPrefetcher;
 (function () {
     "use strict";
 
+    // Typo fields holding the loaded dictionary, copied to the worker
+    var DICTIONARY_FIELDS = ['rules', 'dictionaryTable', 'compoundRules', 'compoundRuleCodes',
+                             'replacementTable', 'flags', 'loaded'];
+
     SpellingPrefetcher = function(typoJsCode) {
         if (typeof(Worker) === "undefined" || typeof(URL) === "undefined" || typeof(Blob) === "undefined")
             return;
@@ -32,6 +36,11 @@ var SpellingPrefetcher;
          *  sake due to our unique runtime environment in a Desktop deployment
          *  See: https://stackoverflow.com/questions/5408406/web-workers-without-a-separate-javascript-file
          *  If interested in deeper research
+         *
+         *  Messages are either a dictionary, sent once whenever one is
+         *  loaded, or a request to check or suggest corrections for a list
+         *  of words, which is answered with the request's id and a map from
+         *  each word to its result.
          */
         var blobURL = URL.createObjectURL(new Blob(['(', ""+
 "           function(){"+
@@ -40,17 +49,18 @@ var SpellingPrefetcher;
 ""+
 "              onmessage = function(event) {"+
 "                 if (event.target.origin !== '" + window.origin + "') return;"+
-"                 var inTypo = event.data;"+
-"                 "+
-"                 ['rules', 'dictionaryTable', 'compoundRules', 'compoundRuleCodes', 'replacementTable',"+
-"                  'flags', 'memoized', 'loaded'].forEach(function(e) { typo[e] = inTypo[e] });"+
+"                 var message = event.data;"+
+"                 if (message.type === 'dictionary') {"+
+"                    " + JSON.stringify(DICTIONARY_FIELDS) + ".forEach(function(e) { typo[e] = message.typo[e] });"+
+"                    typo.memoized = {};"+
+"                    return;"+
+"                 }"+
 ""+
-"                 var s = {};"+
-"                 inTypo.inputwords.forEach(function(word) {"+
-"                    typo.suggest(word);"+
-"                    s[word] = typo.memoized[word];"+
+"                 var results = {};"+
+"                 message.words.forEach(function(word) {"+
+"                    results[word] = message.type === 'check' ? typo.check(word) : typo.suggest(word);"+
 "                 });"+
-"                 this.postMessage(s);"+
+"                 this.postMessage({ id: message.id, results: results });"+
 "              }"+
 "           }",
             ')()'], {type: 'application/javascript'}));
@@ -59,40 +69,52 @@ var SpellingPrefetcher;
         /*
          * End Worker Definition
         */
+
+        // Worker output consumer; hands results to the callback of the
+        // request they answer
+        this.nextId = 0;
+        this.callbacks = {};
+        var self = this;
+        this.w.onmessage = function (event) {
+            if (!event.data)
+                return;
+
+            var callback = self.callbacks[event.data.id];
+            delete self.callbacks[event.data.id];
+            if (callback)
+                callback(event.data.results);
+        };
     };
 
     SpellingPrefetcher.prototype = {
-        prefetch : function (words, typojs) {
-            if (!this.w || !words || !typojs)
+        isAvailable : function () {
+            return !!this.w;
+        },
+
+        setDictionary : function (typojs) {
+            if (!this.w || !typojs)
                 return;
 
-            // Worker output consumer, bound to local typojs parameter
-            this.w.onmessage = function (event) {
-                if (!!event.data) {
-                    var suggestions = event.data;
+            var dictionary = {};
+            DICTIONARY_FIELDS.forEach(function(e) { dictionary[e] = typojs[e] });
+            this.w.postMessage({ type: 'dictionary', typo: dictionary });
+        },
 
-                    for (var s in suggestions) {
-                        if (suggestions.hasOwnProperty(s) && typeof suggestions[s] !== 'function') {
-                            typojs.memoized[s] = suggestions[s];
-                        }
-                    }
-                }
-            };
+        check : function (words, callback) {
+            this.request('check', words, callback);
+        },
 
-            // Only run worker on words we know we don't have memoized
-            // Possibly premature optimization but it can catch some cases
-            // where we're calling on only already fetched data
-            typojs.inputwords = [];
-            words = words.split(',');
-            words.forEach(function(w) {
-               if (!typojs.memoized.hasOwnProperty(w)) {
-                   typojs.inputwords.push(w);
-               }
-            });
+        suggest : function (words, callback) {
+            this.request('suggest', words, callback);
+        },
+
+        request : function (type, words, callback) {
+            if (!this.w || !words || words.length === 0)
+                return;
 
-            // Run Worker
-            if (typojs.inputwords.length > 0)
-                this.w.postMessage(typojs);
+            var id = this.nextId++;
+            this.callbacks[id] = callback;
+            this.w.postMessage({ type: type, id: id, words: words });
         }
     }
 })();
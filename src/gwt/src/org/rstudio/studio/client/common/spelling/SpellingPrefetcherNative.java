@@ -15,6 +15,8 @@
 
 package org.rstudio.studio.client.common.spelling;
 
+import org.rstudio.core.client.jsinterop.JsConsumerWithArg;
+
 import jsinterop.annotations.JsPackage;
 import jsinterop.annotations.JsType;
 
@@ -23,6 +25,13 @@ public class SpellingPrefetcherNative
 {
    SpellingPrefetcherNative(String typoJsCode) {}
 
-   public native void prefetch(String words, Object typoNative);
-}
+   // false if the browser doesn't support workers
+   public native boolean isAvailable();
+
+   // copy a loaded dictionary to the worker; used by subsequent requests
+   public native void setDictionary(TypoNative typoNative);
 
+   public native void check(String[] words, JsConsumerWithArg<SpellingWorkerResults> callback);
+
+   public native void suggest(String[] words, JsConsumerWithArg<SpellingWorkerResults> callback);
+}
@@ -0,0 +1,94 @@
+/*
+ * SpellingResultCache.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+package org.rstudio.studio.client.common.spelling;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// A bounded, least-recently-used cache of what the dictionaries say about
+// words: whether each is spelled correctly, and the suggested corrections
+// for those that aren't. Either may not be known yet.
+public class SpellingResultCache
+{
+   public static class Result
+   {
+      public Boolean correct;
+      public String[] suggestions;
+   }
+
+   public SpellingResultCache(final int capacity)
+   {
+      results_ = new LinkedHashMap<String, Result>(16, 0.75f, true)
+      {
+         @Override
+         protected boolean removeEldestEntry(Map.Entry<String, Result> eldest)
+         {
+            return size() > capacity;
+         }
+      };
+   }
+
+   /**
+    * @return whether the word is spelled correctly, or null if not known
+    */
+   public Boolean isCorrect(String word)
+   {
+      Result result = results_.get(word);
+      return result == null ? null : result.correct;
+   }
+
+   /**
+    * @return suggested corrections for the word, or null if not known
+    */
+   public String[] getSuggestions(String word)
+   {
+      Result result = results_.get(word);
+      return result == null ? null : result.suggestions;
+   }
+
+   public void setCorrect(String word, boolean correct)
+   {
+      ensureResult(word).correct = correct;
+   }
+
+   public void setSuggestions(String word, String[] suggestions)
+   {
+      ensureResult(word).suggestions = suggestions;
+   }
+
+   public void invalidate(String word)
+   {
+      results_.remove(word);
+   }
+
+   public void clear()
+   {
+      results_.clear();
+   }
+
+   private Result ensureResult(String word)
+   {
+      Result result = results_.get(word);
+      if (result == null)
+      {
+         result = new Result();
+         results_.put(word, result);
+      }
+      return result;
+   }
+
+   private final LinkedHashMap<String, Result> results_;
+}
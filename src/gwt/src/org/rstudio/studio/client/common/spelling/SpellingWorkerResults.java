@@ -0,0 +1,36 @@
+/*
+ * SpellingWorkerResults.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+package org.rstudio.studio.client.common.spelling;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
+
+// The results of a check or suggest request made to the spelling worker,
+// keyed by word
+public class SpellingWorkerResults extends JavaScriptObject
+{
+   protected SpellingWorkerResults()
+   {
+   }
+
+   public final native boolean isCorrect(String word) /*-{
+      return !!this[word];
+   }-*/;
+
+   public final native JsArrayString getSuggestions(String word) /*-{
+      return this[word] || [];
+   }-*/;
+}
@@ -30,12 +30,12 @@ import com.google.inject.Inject;
 
 import org.rstudio.core.client.CommandWithArg;
 import org.rstudio.core.client.ExternalJavaScriptLoader;
+import org.rstudio.core.client.JsVectorInteger;
+import org.rstudio.core.client.js.JsUtil;
 import org.rstudio.core.client.Mutable;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.jsonrpc.RequestLog;
 import org.rstudio.core.client.jsonrpc.RequestLogEntry;
-import org.rstudio.core.client.regex.Match;
-import org.rstudio.core.client.regex.Pattern;
 import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.common.spelling.model.SpellCheckerResult;
 import org.rstudio.studio.client.server.ServerRequestCallback;
@@ -82,10 +82,14 @@ public class TypoSpellChecker
                   typoNative_ = typo;
                   loadedDict_ = language_;
                   typoLoaded_ = true;
+                  updateWorkerDictionary();
                }
                else
                   customTypoNative_.put(language_, typo);
 
+               // results from the previous dictionaries no longer apply
+               results_.clear();
+
                aff.clear();
                dic.clear();
                alive_ = false;
@@ -224,6 +228,7 @@ public class TypoSpellChecker
          spellingWorkerInitialized_ = true;
          ExternalJavaScriptLoader.Callback loadSpellingWorker = () -> {
             spellingPrefetcherNative_ = new SpellingPrefetcherNative(RES.typoJsCode().getText());
+            updateWorkerDictionary();
          };
          new ExternalJavaScriptLoader(
             SpellingPrefetcherResources.INSTANCE.spellingprefetcherjs().getSafeUri().asString()
@@ -247,15 +252,15 @@ public class TypoSpellChecker
          loadCustomDictionaries(customDictionaries);
    }
 
-   // Check the spelling of a single word, directly returning an
-   // array of suggestions for corrections. The array is empty if the
-   // word is deemed correct by the dictionary
-   public boolean checkSpelling(String word)
+   // Check the spelling of a single word, if that can be done without
+   // waiting on the spelling worker. Returns null if the dictionary has yet
+   // to be consulted about the word; use lookUpSpelling to do so.
+   public Boolean checkSpellingIfKnown(String word)
    {
-      return domainSpecificWords_.contains(word.toLowerCase()) ||
-         allIgnoredWords_.contains(word) ||
-         typoNative_.check(word) ||
-         checkCustomDicts(word);
+      if (domainSpecificWords_.contains(word.toLowerCase()) || isWordIgnored(word))
+         return true;
+
+      return results_.isCorrect(word);
    }
 
    // go through all of the custom dictionaries and check the word
@@ -273,6 +278,50 @@ public class TypoSpellChecker
       return false;
    }
 
+   /**
+    * Consult the dictionaries about the spelling of words, via the spelling
+    * worker if there is one. The results are cached for checkSpellingIfKnown.
+    *
+    * @param words the words to check
+    * @param callback receives whether each word is spelled correctly; may be
+    *    invoked before this method returns
+    */
+   public void lookUpSpelling(final List<String> words,
+                              final CommandWithArg<HashMap<String, Boolean>> callback)
+   {
+      final HashMap<String, Boolean> results = new HashMap<>();
+      if (words.isEmpty() || typoNative_ == null)
+      {
+         callback.execute(results);
+         return;
+      }
+
+      if (!isWorkerReady())
+      {
+         for (String word : words)
+         {
+            boolean correct = typoNative_.check(word) || checkCustomDicts(word);
+            results_.setCorrect(word, correct);
+            results.put(word, correct);
+         }
+         callback.execute(results);
+         return;
+      }
+
+      final String dictionary = loadedDict_;
+      spellingPrefetcherNative_.check(words.toArray(new String[0]), (SpellingWorkerResults response) ->
+      {
+         for (String word : words)
+         {
+            boolean correct = response.isCorrect(word) || checkCustomDicts(word);
+            if (StringUtil.equals(dictionary, loadedDict_))
+               results_.setCorrect(word, correct);
+            results.put(word, correct);
+         }
+         callback.execute(results);
+      });
+   }
+
    public void checkSpelling(List<String> words, final ServerRequestCallback<SpellCheckerResult> callback)
    {
       // If realtime is turned off call the backend spellchecker because we haven't loaded a
@@ -288,37 +337,36 @@ public class TypoSpellChecker
       // allocate results
       final SpellCheckerResult spellCheckerResult = new SpellCheckerResult();
 
-      // if not checking any words, return
-      if (words.isEmpty())
-      {
-         callback.onResponseReceived(spellCheckerResult);
-         return;
-      }
-
+      // sort out the words we already know about, and look up the rest
+      ArrayList<String> unknownWords = new ArrayList<>();
       for (String word : words)
       {
-         if (isWordIgnored(word))
-         {
+         Boolean correct = checkSpellingIfKnown(word);
+         if (correct == null)
+            unknownWords.add(word);
+         else if (correct)
             spellCheckerResult.getCorrect().add(word);
-         }
          else
+            spellCheckerResult.getIncorrect().add(word);
+      }
+
+      lookUpSpelling(unknownWords, (HashMap<String, Boolean> results) ->
+      {
+         for (Map.Entry<String, Boolean> result : results.entrySet())
          {
-            if (typoNative_.check(word) || checkCustomDicts(word))
-            {
-               spellCheckerResult.getCorrect().add(word);
-            }
+            if (result.getValue())
+               spellCheckerResult.getCorrect().add(result.getKey());
             else
-            {
-               spellCheckerResult.getIncorrect().add(word);
-            }
+               spellCheckerResult.getIncorrect().add(result.getKey());
          }
-      }
-      callback.onResponseReceived(spellCheckerResult);
+         callback.onResponseReceived(spellCheckerResult);
+      });
    }
 
    public void addToUserDictionary(final String word)
    {
       userDictionary_.append(word);
+      results_.invalidate(word);
       context_.invalidateWord(word);
    }
 
@@ -327,6 +375,7 @@ public class TypoSpellChecker
       contextDictionary_.add(word);
       context_.writeDictionary(contextDictionary_);
       updateIgnoredWordsIndex();
+      results_.invalidate(word);
       context_.invalidateWord(word);
    }
 
@@ -337,15 +386,41 @@ public class TypoSpellChecker
       spellingService_.suggestionList(word, callback);
    }
 
-   public String[] suggestionList(String word)
+   // Get suggested corrections for a word, via the spelling worker if
+   // there is one; the callback may be invoked before this method returns
+   public void suggestionList(final String word, final CommandWithArg<String[]> callback)
    {
       if (typoNative_ == null)
       {
-         return new String[0];
+         callback.execute(new String[0]);
+         return;
+      }
+
+      String[] suggestions = results_.getSuggestions(word);
+      if (suggestions != null)
+      {
+         callback.execute(suggestions);
+         return;
+      }
+
+      if (!isWorkerReady())
+      {
+         suggestions = typoNative_.suggest(word);
+         results_.setSuggestions(word, suggestions);
+         callback.execute(suggestions);
+         return;
       }
 
-      return typoNative_.suggest(word);
+      final String dictionary = loadedDict_;
+      spellingPrefetcherNative_.suggest(new String[] { word }, (SpellingWorkerResults response) ->
+      {
+         String[] result = JsUtil.toStringArray(response.getSuggestions(word));
+         if (StringUtil.equals(dictionary, loadedDict_))
+            results_.setSuggestions(word, result);
+         callback.execute(result);
+      });
    }
+
    private boolean isWordIgnored(String word)
    {
       return (allIgnoredWords_.contains(word) ||
@@ -432,48 +507,169 @@ public class TypoSpellChecker
       }
    }
 
+   // Have the spelling worker compute suggestions for misspelled words in
+   // the background, so they're ready if asked for
    public void prefetchWords(ArrayList<String> words)
    {
-      if (spellingWorkerInitialized_)
+      if (!isWorkerReady())
+         return;
+
+      ArrayList<String> unknownWords = new ArrayList<>();
+      for (String word : words)
       {
-         spellingPrefetcherNative_.prefetch(String.join(",", words), typoNative_);
+         if (results_.getSuggestions(word) == null)
+            unknownWords.add(word);
       }
+      if (unknownWords.isEmpty())
+         return;
+
+      final String dictionary = loadedDict_;
+      spellingPrefetcherNative_.suggest(unknownWords.toArray(new String[0]), (SpellingWorkerResults response) ->
+      {
+         if (!StringUtil.equals(dictionary, loadedDict_))
+            return;
+
+         for (String word : unknownWords)
+            results_.setSuggestions(word, JsUtil.toStringArray(response.getSuggestions(word)));
+      });
    }
 
-   public boolean shouldCheckSpelling(DocDisplay dd, Range r)
+   private static boolean isWorkerReady()
    {
-      String word = dd.getTextForRange(r);
-      // Don't worry about pathologically long words
-      if (r.getEnd().getColumn() - r.getStart().getColumn() > 250)
-         return false;
+      return typoLoaded_ &&
+             spellingPrefetcherNative_ != null &&
+             StringUtil.equals(workerDictionary_, loadedDict_);
+   }
 
-      if (isWordIgnored(word))
-         return false;
+   // copy the loaded dictionary to the spelling worker, if both are ready
+   private static void updateWorkerDictionary()
+   {
+      if (typoNative_ == null ||
+          spellingPrefetcherNative_ == null ||
+          !spellingPrefetcherNative_.isAvailable())
+      {
+         return;
+      }
+
+      spellingPrefetcherNative_.setDictionary(typoNative_);
+      workerDictionary_ = loadedDict_;
+   }
 
+   public boolean shouldCheckSpelling(DocDisplay dd, Range r)
+   {
       // Don't spellcheck yaml
       Scope s = ((AceEditor)dd).getScopeAtPosition(r.getStart());
       if (s != null && s.isYaml())
          return false;
 
-      // This will capture all braced text in a way that the
-      // highlight rules don't and shouldn't.
-      int start = r.getStart().getColumn();
-      int end = start + word.length();
       String line = dd.getLine(r.getStart().getRow());
-      Pattern p =  Pattern.create("\\{[^\\{\\}]*" + word + "[^\\{\\}]*\\}");
-      Match m = p.match(line, 0);
-      while (m != null)
+      return shouldCheckWord(line, getBracedSpans(line), r);
+   }
+
+   /**
+    * Filter words down to those that should be spell checked. Equivalent to
+    * calling shouldCheckSpelling on each word, but the line text, YAML scope
+    * and braced spans are computed once per line rather than once per word.
+    *
+    * @param dd the document the words are in
+    * @param words the words, in document order
+    * @param maxWords the maximum number of ranges to return
+    * @return the ranges of the words to spell check
+    */
+   public ArrayList<Range> getRangesToCheck(DocDisplay dd,
+                                            Iterable<Range> words,
+                                            int maxWords)
+   {
+      ArrayList<Range> ranges = new ArrayList<>();
+
+      int row = -1;
+      String line = null;
+      JsVectorInteger bracedSpans = null;
+      boolean isYaml = false;
+      for (Range r : words)
       {
-         // ensure that the match is the specific word we're looking
-         // at to fix edge cases such as {asdf}asdf
-         if (m.getIndex() < start &&
-             (m.getIndex() + m.getValue().length()) > end)
-            return false;
+         if (r.getStart().getRow() != row)
+         {
+            row = r.getStart().getRow();
+            line = dd.getLine(row);
+            bracedSpans = getBracedSpans(line);
+
+            Scope s = ((AceEditor)dd).getScopeAtPosition(r.getStart());
+            isYaml = s != null && s.isYaml();
+         }
+
+         if (isYaml || !shouldCheckWord(line, bracedSpans, r))
+            continue;
 
-         m = m.nextMatch();
+         ranges.add(r);
+         if (ranges.size() >= maxWords)
+            break;
       }
 
-      return true;
+      return ranges;
+   }
+
+   private boolean shouldCheckWord(String line, JsVectorInteger bracedSpans, Range r)
+   {
+      int start = r.getStart().getColumn();
+      int end = r.getEnd().getColumn();
+
+      // Don't worry about pathologically long words
+      if (end - start > 250)
+         return false;
+
+      if (isWordIgnored(line.substring(start, Math.min(end, line.length()))))
+         return false;
+
+      // Don't spellcheck braced text (e.g. {#sec-id} or {.class}), which the
+      // highlight rules don't and shouldn't capture
+      return !isBraced(bracedSpans, start, end);
+   }
+
+   /**
+    * Find the brace-delimited spans on a line that contain no other braces.
+    *
+    * @param line the line to search
+    * @return the columns of the opening and closing brace of each span, as
+    *    consecutive pairs
+    */
+   public static JsVectorInteger getBracedSpans(String line)
+   {
+      JsVectorInteger spans = JsVectorInteger.createVector().cast();
+      int open = -1;
+      for (int i = 0, n = line.length(); i < n; i++)
+      {
+         char ch = line.charAt(i);
+         if (ch == '{')
+         {
+            open = i;
+         }
+         else if (ch == '}' && open != -1)
+         {
+            spans.push(open);
+            spans.push(i);
+            open = -1;
+         }
+      }
+      return spans;
+   }
+
+   /**
+    * @param spans the spans returned by getBracedSpans
+    * @param start the first column of a word
+    * @param end the column following the word
+    * @return whether the word is within one of the spans
+    */
+   public static boolean isBraced(JsVectorInteger spans, int start, int end)
+   {
+      for (int i = 0, n = spans.length(); i < n; i += 2)
+      {
+         if (spans.get(i) >= start)
+            return false;
+         if (spans.get(i + 1) >= end)
+            return true;
+      }
+      return false;
    }
 
    /*
@@ -503,6 +699,10 @@ public class TypoSpellChecker
 
    private static SpellingPrefetcherNative spellingPrefetcherNative_;
    private static boolean spellingWorkerInitialized_ = false;
+   private static String workerDictionary_;
+
+   // what the dictionaries say about words, shared by all documents
+   private static final SpellingResultCache results_ = new SpellingResultCache(10000);
 
    private static String loadedDict_;
    private static boolean typoLoaded_ = false;
@@ -521,4 +721,3 @@ public class TypoSpellChecker
    private SpellingService spellingService_;
    private UserPrefs userPrefs_;
 }
-
@@ -94,7 +94,7 @@ public class AppCommandPaletteItem extends BasePaletteItem<AppCommandPaletteEntr
    }
    
    @Override
-   public boolean matchesSearch(String[] keywords)
+   public String getSearchText()
    {
       String prefix = "";
 
@@ -104,8 +104,7 @@ public class AppCommandPaletteItem extends BasePaletteItem<AppCommandPaletteEntr
          prefix = command_.getContext().toString() + " ";
       }
 
-      // Matches if the label matches
-      return super.labelMatchesSearch(prefix + label_, keywords);
+      return withKeysSearchText(prefix + label_, keys_);
    }
 
    @Override
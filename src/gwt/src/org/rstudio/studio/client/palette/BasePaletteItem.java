@@ -14,6 +14,9 @@
  */
 package org.rstudio.studio.client.palette;
 
+import java.util.List;
+
+import org.rstudio.core.client.command.KeySequence;
 import org.rstudio.studio.client.palette.events.PaletteItemInvokedEvent;
 import org.rstudio.studio.client.palette.events.PaletteItemInvokedEvent.Handler;
 import org.rstudio.studio.client.palette.model.CommandPaletteItem;
@@ -72,17 +75,22 @@ public abstract class BasePaletteItem<T extends Widget> implements CommandPalett
       return handlers_.addHandler(PaletteItemInvokedEvent.TYPE, handler);
    }
 
-   protected boolean labelMatchesSearch(String label, String[] keywords)
+   /**
+    * Appends the text of the given keyboard shortcuts to an item's search
+    * text, so that items can also be found by their shortcuts.
+    */
+   protected String withKeysSearchText(String text, List<KeySequence> keys)
    {
-      String hay = label.toLowerCase();
-      for (String needle: keywords)
+      if (keys == null)
+         return text;
+      
+      StringBuilder builder = new StringBuilder(text);
+      for (KeySequence key: keys)
       {
-         if (!hay.contains(needle))
-         {
-            return false;
-         }
+         builder.append(" ");
+         builder.append(key.toString(true));
       }
-      return true;
+      return builder.toString();
    }
 
    public abstract T createWidget();
@@ -52,9 +52,9 @@ public class RAddinPaletteItem extends BasePaletteItem<RAddinCommandPaletteEntry
    }
 
    @Override
-   public boolean matchesSearch(String[] keywords)
+   public String getSearchText()
    {
-      return super.labelMatchesSearch(addin_.getPackage() + " " + label_, keywords);
+      return withKeysSearchText(addin_.getPackage() + " " + label_, keys_);
    }
 
    @Override
@@ -59,9 +59,9 @@ public class UserPrefPaletteItem extends BasePaletteItem<UserPrefPaletteEntry>
    }
 
    @Override
-   public boolean matchesSearch(String[] keywords)
+   public String getSearchText()
    {
-      return super.labelMatchesSearch("setting " + val_.getTitle(), keywords);
+      return "setting " + val_.getTitle();
    }
 
    @Override
@@ -0,0 +1,211 @@
+/*
+ * CommandPaletteIndex.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+package org.rstudio.studio.client.palette.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A search index over the items in the command palette. It is built once,
+ * when the palette opens. Each item's search text is lowercased and split
+ * into words up front. Searches rank the matching items by how closely the
+ * keywords match them.
+ */
+public class CommandPaletteIndex
+{
+   private static class Entry
+   {
+      Entry(CommandPaletteItem item, int ordinal)
+      {
+         this.item = item;
+         this.ordinal = ordinal;
+         this.text = item.getSearchText().toLowerCase();
+
+         // record where each word of the text starts
+         List<Integer> starts = new ArrayList<Integer>();
+         for (int i = 0; i < text.length(); i++)
+         {
+            if (Character.isLetterOrDigit(text.charAt(i)) &&
+                (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1))))
+            {
+               starts.add(i);
+            }
+         }
+         this.wordStarts = new int[starts.size()];
+         for (int i = 0; i < wordStarts.length; i++)
+            wordStarts[i] = starts.get(i);
+      }
+
+      final CommandPaletteItem item;
+      final int ordinal;
+      final String text;
+      final int[] wordStarts;
+      int score;
+   }
+
+   /**
+    * Adds items to the index; items are ranked in the order they were added
+    * when they match equally well.
+    */
+   public void addAll(List<CommandPaletteItem> items)
+   {
+      for (CommandPaletteItem item: items)
+      {
+         if (item != null)
+            entries_.add(new Entry(item, entries_.size()));
+      }
+
+      // any earlier results are missing the new items
+      lastKeywords_ = null;
+      lastMatches_ = null;
+   }
+
+   /**
+    * Splits search text into the (lowercased) keywords to search for.
+    */
+   public static String[] parseKeywords(String text)
+   {
+      List<String> keywords = new ArrayList<String>();
+      for (String keyword: text.toLowerCase().split("\\s+"))
+      {
+         if (!keyword.isEmpty())
+            keywords.add(keyword);
+      }
+      return keywords.toArray(new String[keywords.size()]);
+   }
+
+   /**
+    * Finds the items matching all of the given keywords.
+    *
+    * @param keywords The keywords, as returned by parseKeywords
+    *
+    * @return The matching items, best matches first
+    */
+   public List<CommandPaletteItem> search(String[] keywords)
+   {
+      // if the keywords only narrow the last search (e.g. the user typed
+      // another character), only the items that matched it can match
+      List<Entry> candidates = entries_;
+      if (lastMatches_ != null && narrows(lastKeywords_, keywords))
+         candidates = lastMatches_;
+
+      List<Entry> matches = new ArrayList<Entry>();
+      for (Entry entry: candidates)
+      {
+         entry.score = score(entry, keywords);
+         if (entry.score > 0)
+            matches.add(entry);
+      }
+
+      lastKeywords_ = keywords;
+      lastMatches_ = matches;
+
+      List<Entry> ranked = new ArrayList<Entry>(matches);
+      Collections.sort(ranked, (a, b) ->
+      {
+         if (a.score != b.score)
+            return b.score - a.score;
+         return a.ordinal - b.ordinal;
+      });
+
+      List<CommandPaletteItem> items = new ArrayList<CommandPaletteItem>(ranked.size());
+      for (Entry entry: ranked)
+         items.add(entry.item);
+      return items;
+   }
+
+   /**
+    * @return Whether every item matching the keywords must also match the
+    *    previous keywords
+    */
+   private static boolean narrows(String[] previous, String[] keywords)
+   {
+      if (keywords.length < previous.length)
+         return false;
+      for (int i = 0; i < previous.length; i++)
+      {
+         if (!keywords[i].startsWith(previous[i]))
+            return false;
+      }
+      return true;
+   }
+
+   /**
+    * @return The item's score for the keywords (higher is better), or 0 if
+    *    it doesn't match all of them
+    */
+   private static int score(Entry entry, String[] keywords)
+   {
+      // everything matches when there's nothing to search for
+      int total = 1;
+      for (String keyword: keywords)
+      {
+         int score = scoreKeyword(entry, keyword);
+         if (score == 0)
+            return 0;
+         total += score;
+      }
+      return total;
+   }
+
+   private static int scoreKeyword(Entry entry, String keyword)
+   {
+      // best: the start of a word
+      for (int start: entry.wordStarts)
+      {
+         if (entry.text.startsWith(keyword, start))
+            return SCORE_WORD_PREFIX;
+      }
+
+      // next best: anywhere in the text
+      if (entry.text.contains(keyword))
+         return SCORE_SUBSTRING;
+
+      // otherwise, fuzzy match the keyword's characters in order, starting
+      // at the start of a word (e.g. "nwfl" matches "New File")
+      for (int start: entry.wordStarts)
+      {
+         if (entry.text.charAt(start) == keyword.charAt(0) &&
+             isSubsequence(keyword, entry.text, start))
+         {
+            return SCORE_FUZZY;
+         }
+      }
+      return 0;
+   }
+
+   private static boolean isSubsequence(String keyword, String text, int from)
+   {
+      int pos = from;
+      for (int i = 0; i < keyword.length(); i++)
+      {
+         pos = text.indexOf(keyword.charAt(i), pos);
+         if (pos == -1)
+            return false;
+         pos++;
+      }
+      return true;
+   }
+
+   private final List<Entry> entries_ = new ArrayList<Entry>();
+   private String[] lastKeywords_;
+   private List<Entry> lastMatches_;
+
+   private static final int SCORE_WORD_PREFIX = 3;
+   private static final int SCORE_SUBSTRING = 2;
+   private static final int SCORE_FUZZY = 1;
+}
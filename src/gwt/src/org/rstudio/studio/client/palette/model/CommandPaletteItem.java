@@ -55,13 +55,12 @@ public interface CommandPaletteItem extends IsWidget, HasHandlers
    HandlerRegistration addInvokeHandler(PaletteItemInvokedEvent.Handler handler);
 
    /**
-    * Does this item match the given search keywords?
+    * The text searches are matched against (e.g. the item's label and any
+    * keyboard shortcuts).
     * 
-    * @param keywords The keywords to match on
-    * 
-    * @return True if the palette item matches; false otherwise
+    * @return The search text for the item
     */
-   boolean matchesSearch(String[] keywords);
+   String getSearchText();
 
    /**
     * Turns on search highlighting for the item.
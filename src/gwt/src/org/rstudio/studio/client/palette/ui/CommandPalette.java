@@ -16,7 +16,9 @@
 package org.rstudio.studio.client.palette.ui;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.rstudio.core.client.DebouncedCommand;
 import org.rstudio.core.client.ElementIds;
@@ -27,6 +29,7 @@ import org.rstudio.core.client.widget.AriaLiveStatusWidget;
 import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.application.events.AriaLiveStatusEvent.Severity;
 import org.rstudio.studio.client.palette.model.CommandPaletteEntrySource;
+import org.rstudio.studio.client.palette.model.CommandPaletteIndex;
 import org.rstudio.studio.client.palette.model.CommandPaletteItem;
 import org.rstudio.studio.client.palette.model.CommandPaletteItem.InvocationSource;
 
@@ -41,6 +44,7 @@ import com.google.gwt.resources.client.CssResource;
 import com.google.gwt.uibinder.client.UiBinder;
 import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.user.client.ui.Composite;
+import com.google.gwt.user.client.ui.FlowPanel;
 import com.google.gwt.user.client.ui.HTMLPanel;
 import com.google.gwt.user.client.ui.ScrollPanel;
 import com.google.gwt.user.client.ui.TextBox;
@@ -79,14 +83,15 @@ public class CommandPalette extends Composite
    {
       initWidget(uiBinder.createAndBindUi(this));
 
-      items_ = new ArrayList<>();
+      index_ = new CommandPaletteIndex();
+      matches_ = new ArrayList<>();
       visible_ = new ArrayList<>();
       host_ = host;
       selected_ = -1;
       attached_ = false;
       pageSize_ = 0;
       sources_ = sources;
-      needles_ = new String[0];
+      keywords_ = new String[0];
       registrations_ = new HandlerRegistrations();
       styles_.ensureInjected();
       
@@ -163,7 +168,7 @@ public class CommandPalette extends Composite
             if (!StringUtil.equals(searchText_, searchText))
             {
                searchText_ = searchText;
-               needles_ = searchBox_.getText().toLowerCase().split("\\s+");
+               keywords_ = CommandPaletteIndex.parseKeywords(searchText);
                applyFilter_.nudge();
             }
          }
@@ -225,6 +230,16 @@ public class CommandPalette extends Composite
          }
       });
       
+      // Index the items from all our sources; this is cheap compared to
+      // rendering them, which is done a page at a time
+      for (CommandPaletteEntrySource source: sources_)
+      {
+         List<CommandPaletteItem> items = source.getCommandPaletteItems();
+         if (items != null)
+            index_.addAll(items);
+      }
+      matches_ = index_.search(keywords_);
+
       // Render the first page of elements
       renderNextPage();
       
@@ -245,7 +260,7 @@ public class CommandPalette extends Composite
    private void computePageSize()
    {
       // Find the first visible entry (we can't measure an invisible one)
-      for (CommandPaletteItem item: items_)
+      for (CommandPaletteItem item: visible_)
       {
          Widget entry = item.asWidget();
          if (entry.isVisible())
@@ -277,16 +292,50 @@ public class CommandPalette extends Composite
     */
    private void applyFilter()
    {
-      // Clear the command list and render marker in preparation for a re-render
-      commandList_.clear();
-      renderedItem_ = 0;
       if (selected_ >= 0)
          visible_.get(selected_).setSelected(false);
-      visible_.clear();
-
       selected_ = -1;
+
+      // Rank the matching items; the index narrows the previous results when
+      // the search text was just extended
+      matches_ = index_.search(keywords_);
       
-      // Render the next page of command entries
+      // Work out the first page of rows to show
+      List<CommandPaletteItem> visible = new ArrayList<>();
+      int idx = 0;
+      while (idx < matches_.size() && visible.size() < RENDER_PAGE_SIZE)
+      {
+         CommandPaletteItem item = matches_.get(idx++);
+         if (renderItem(item))
+            visible.add(item);
+      }
+      renderedMatch_ = idx;
+      
+      // Diff against the rows already shown: remove the rows that no longer
+      // match, and move or add the rest into place, so that rows which are
+      // still shown are not re-rendered
+      Set<CommandPaletteItem> keep = new HashSet<>(visible);
+      for (CommandPaletteItem item: visible_)
+      {
+         if (!keep.contains(item))
+            commandList_.remove(item.asWidget());
+      }
+      for (int i = 0; i < visible.size(); i++)
+      {
+         Widget widget = visible.get(i).asWidget();
+         if (i >= commandList_.getWidgetCount() || 
+             commandList_.getWidget(i) != widget)
+         {
+            commandList_.insert(widget, i);
+         }
+      }
+      visible_.clear();
+      visible_.addAll(visible);
+      
+      if (!visible_.isEmpty())
+         selectNewCommand(0);
+      
+      // Render the rest of the matches a page at a time
       renderNextPage();
    }
    
@@ -406,68 +455,26 @@ public class CommandPalette extends Composite
     */
    private void renderNextPage()
    {
-      // If we haven't already pulled items from all our sources and we have
-      // less than a page of data left, pull in data from the next source.
-      if (renderedSource_ < sources_.size() &&
-          items_.size() - renderedItem_ < RENDER_PAGE_SIZE)
-      {
-         // Read the next non-null data source
-         List<CommandPaletteItem> items = null;
-         do
-         {
-            items = sources_.get(renderedSource_).getCommandPaletteItems();
-            renderedSource_++;
-         } while (items == null);
-            
-         items_.addAll(items);
-      }
-      
       // Set initial conditions for render loop
       int rendered = 0;
-      int idx = renderedItem_;
+      int idx = renderedMatch_;
 
       // Main render loop; render items until we have rendered a full page
-      while (idx < items_.size() && rendered < RENDER_PAGE_SIZE)
+      while (idx < matches_.size() && rendered < RENDER_PAGE_SIZE)
       {
-         CommandPaletteItem item = items_.get(idx);
-
-         // Render this item if non-null and matches the search keywords, if we
-         // have them
-         if (item != null && (needles_.length == 0 || item.matchesSearch(needles_)))
+         CommandPaletteItem item = matches_.get(idx);
+         if (renderItem(item))
          {
-            // Remember whether this item has been rendered
-            boolean isRendered = item.isRendered();
-            
-            // Render the item to a widget (this is the expensive step)
-            Widget widget = item.asWidget();
-            if (widget != null)
-            {
-               // Add and highlight the item
-               commandList_.add(item.asWidget());
-               visible_.add(item);
-               item.setSearchHighlight(needles_);
-               
-               // If we just added the first widget to the box, select it
-               if (visible_.size() == 1)
-               {
-                  selectNewCommand(0);
-               }
-               rendered++;
-            }
+            // Add the item
+            commandList_.add(item.asWidget());
+            visible_.add(item);
             
-            // Attach an invocation handler if this is the first time we've
-            // rendered this item
-            if (!isRendered)
+            // If we just added the first widget to the box, select it
+            if (visible_.size() == 1)
             {
-               registrations_.add(item.addInvokeHandler((evt) ->
-               {
-                  if (evt.getItem().dismissOnInvoke())
-                  {
-                     host_.dismiss();
-                  }
-                  evt.getItem().invoke(InvocationSource.Mouse);
-               }));
+               selectNewCommand(0);
             }
+            rendered++;
          }
          
          // Advance to next command palette item
@@ -475,10 +482,10 @@ public class CommandPalette extends Composite
       }
       
       // Save our place so we'll start rendering at the next page
-      renderedItem_ = idx;
+      renderedMatch_ = idx;
       
       // If we didn't render everything, schedule another pass
-      if (renderedItem_ < items_.size() || renderedSource_ < sources_.size())
+      if (renderedMatch_ < matches_.size())
       {
          // Don't populate while user is typing as dumping more elements into
          // the DOM is distracting (plus the additional elements will be
@@ -497,19 +504,55 @@ public class CommandPalette extends Composite
       }
    }
    
+   /**
+    * Renders an item to a widget (if it hasn't been already) and highlights
+    * the search keywords in it.
+    * 
+    * @param item The item to render
+    * 
+    * @return Whether the item has a widget to show
+    */
+   private boolean renderItem(CommandPaletteItem item)
+   {
+      // Remember whether this item has been rendered
+      boolean isRendered = item.isRendered();
+      
+      // Render the item to a widget (this is the expensive step)
+      Widget widget = item.asWidget();
+      if (widget == null)
+         return false;
+      
+      item.setSearchHighlight(keywords_);
+      
+      // Attach an invocation handler if this is the first time we've
+      // rendered this item
+      if (!isRendered)
+      {
+         registrations_.add(item.addInvokeHandler((evt) ->
+         {
+            if (evt.getItem().dismissOnInvoke())
+            {
+               host_.dismiss();
+            }
+            evt.getItem().invoke(InvocationSource.Mouse);
+         }));
+      }
+      return true;
+   }
+   
    private final Host host_;
    private final List<CommandPaletteEntrySource> sources_;
-   private final List<CommandPaletteItem> items_;
+   private final CommandPaletteIndex index_;
    private final List<CommandPaletteItem> visible_;
+   private List<CommandPaletteItem> matches_;
    private final HandlerRegistrations registrations_;
    private int selected_;
    private String searchText_;
-   private String[] needles_;
+   private String[] keywords_;
    private boolean attached_;
    private int pageSize_;
    
-   private int renderedItem_; // The index of the last rendered item
-   private int renderedSource_ = 0; // The index of the last rendered data source
+   private int renderedMatch_; // The index of the last rendered match
    private final int RENDER_PAGE_SIZE = 50;
 
    DebouncedCommand applyFilter_ = new DebouncedCommand(100)
@@ -522,7 +565,7 @@ public class CommandPalette extends Composite
    };
 
    @UiField public TextBox searchBox_;
-   @UiField public HTMLPanel commandList_;
+   @UiField public FlowPanel commandList_;
    @UiField AriaLiveStatusWidget resultsCount_;
    @UiField HTMLPanel noResults_;
    @UiField ScrollPanel scroller_;
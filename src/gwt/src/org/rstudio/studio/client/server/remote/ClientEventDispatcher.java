@@ -15,12 +15,14 @@
 package org.rstudio.studio.client.server.remote;
 
 
+import com.google.gwt.core.client.Duration;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.RepeatingCommand;
 
+import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.events.ExecuteAppCommandEvent;
 import org.rstudio.core.client.events.HighlightEvent;
 import org.rstudio.core.client.files.FileSystemItem;
@@ -202,7 +204,12 @@ import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEve
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent.Reason;
 import org.rstudio.studio.client.workbench.views.viewer.events.ViewerNavigateEvent;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class ClientEventDispatcher 
 {
@@ -227,871 +234,1002 @@ public class ClientEventDispatcher
             public boolean execute()
             {
                final int MAX_EVENTS_AT_ONCE = 200;
-               for (int i = 0;
-                    i < MAX_EVENTS_AT_ONCE && pendingEvents_.size() > 0;
-                    i++)
+               int processed = 0;
+               while (processed < MAX_EVENTS_AT_ONCE && !pendingEvents_.isEmpty())
                {
-                  ClientEvent currentEvent = pendingEvents_.remove(0);
+                  ClientEvent currentEvent = pendingEvents_.poll();
+                  processed++;
+
+                  // merge a run of console output into a single write
+                  if (isConsoleOutput(currentEvent))
+                  {
+                     StringBuilder text = null;
+                     while (processed < MAX_EVENTS_AT_ONCE &&
+                            canCoalesce(currentEvent, pendingEvents_.peek()))
+                     {
+                        if (text == null)
+                           text = new StringBuilder(
+                                 currentEvent.<ConsoleText>getData().text);
+                        text.append(pendingEvents_.poll().<ConsoleText>getData().text);
+                        processed++;
+                     }
+
+                     if (text != null)
+                        currentEvent = coalesced(currentEvent, text.toString());
+                  }
+
                   dispatchEvent(currentEvent);
                }
-               return pendingEvents_.size() > 0;
+               return !pendingEvents_.isEmpty();
             }
          });
       }
    }
+
+   /**
+    * @return whether the event is (non-error) console output; errors are
+    *    never merged, since the shell matches each error's text exactly when
+    *    attaching its traceback
+    */
+   private static boolean isConsoleOutput(ClientEvent event)
+   {
+      return StringUtil.equals(event.getType(), ClientEvent.ConsoleOutput);
+   }
+
+   /**
+    * @return whether the next event is console output that can be written
+    *    along with (i.e. is for the same console as) the given event
+    */
+   private static boolean canCoalesce(ClientEvent event, ClientEvent next)
+   {
+      if (next == null || !isConsoleOutput(next))
+         return false;
+
+      return StringUtil.equals(event.<ConsoleText>getData().console,
+                               next.<ConsoleText>getData().console);
+   }
+
+   private static ClientEvent coalesced(ClientEvent event, String text)
+   {
+      ConsoleText data = new ConsoleText();
+      data.text = text;
+      data.console = event.<ConsoleText>getData().console;
+      return ClientEvent.create(event.getId(), event.getType(), data);
+   }
    
+   /**
+    * Decodes a server event of a particular type and dispatches the
+    * corresponding event on the client's event bus.
+    */
+   private interface Handler
+   {
+      void dispatch(ClientEvent event, EventBus eventBus);
+   }
+
+   /**
+    * Number of events of a given type dispatched, and the total time spent in
+    * their handlers.
+    */
+   public static class DispatchStats
+   {
+      private DispatchStats(String type)
+      {
+         type_ = type;
+      }
+
+      public String getType()
+      {
+         return type_;
+      }
+
+      public int getCount()
+      {
+         return count_;
+      }
+
+      public double getTotalMillis()
+      {
+         return totalMillis_;
+      }
+
+      private final String type_;
+      private int count_ = 0;
+      private double totalMillis_ = 0;
+   }
+
+   /**
+    * @return dispatch statistics for each event type seen since startup (or
+    *    the last reset), most expensive first; shown in RpcMetricsDialog
+    */
+   public static List<DispatchStats> getDispatchStats()
+   {
+      List<DispatchStats> stats = new ArrayList<>(DISPATCH_STATS.values());
+      Collections.sort(stats, (a, b) ->
+            Double.compare(b.getTotalMillis(), a.getTotalMillis()));
+      return stats;
+   }
+
+   public static void resetDispatchStats()
+   {
+      DISPATCH_STATS.clear();
+   }
+
    private void dispatchEvent(ClientEvent event) 
    { 
       String type = event.getType();
+      Handler handler = HANDLER_REGISTRY.get(type);
+      if (handler == null)
+      {
+         GWT.log("WARNING: Server event not dispatched: " + type, null);
+         return;
+      }
+
+      double start = Duration.currentTimeMillis();
       try
       {
-         if (type == ClientEvent.Busy)
-         {
-            boolean busy = event.<Bool>getData().getValue();
-            eventBus_.dispatchEvent(new BusyEvent(busy));
-         }
-         else if (type == ClientEvent.ConsoleOutput)
-         {
-            ConsoleText output = event.getData();
-            eventBus_.dispatchEvent(new ConsoleWriteOutputEvent(output));
-         }
-         else if (type == ClientEvent.ConsoleError)
-         {
-            ConsoleText error = event.getData();
-            eventBus_.dispatchEvent(new ConsoleWriteErrorEvent(error));
-         }
-         else if (type == ClientEvent.ConsoleWritePrompt)
-         {
-            String prompt = event.getData();
-            eventBus_.dispatchEvent(new ConsoleWritePromptEvent(prompt));
-         }
-         else if (type == ClientEvent.ConsoleWriteInput)
-         {
-            ConsoleText input = event.getData();
-            eventBus_.dispatchEvent(new ConsoleWriteInputEvent(input));
-         }
-         else if (type == ClientEvent.ConsolePrompt)
-         {
-            ConsolePrompt prompt = event.getData();
-            eventBus_.dispatchEvent(new ConsolePromptEvent(prompt));
-         }
-         else if (type == ClientEvent.ShowEditor)
-         {
-            ShowEditorData data = event.getData();
-            eventBus_.dispatchEvent(new ShowEditorEvent(data));
-         }
-         else if (type == ClientEvent.FileChanged)
-         {
-            FileChange fileChange = event.getData();
-            eventBus_.dispatchEvent(new FileChangeEvent(fileChange));
-         }
-         else if (type == ClientEvent.WorkingDirChanged)
-         {
-            String path = event.getData();
-            eventBus_.dispatchEvent(new WorkingDirChangedEvent(path));
-         }
-         else if (type == ClientEvent.ShowHelp)
-         {
-            String helpUrl = event.getData();
-            eventBus_.dispatchEvent(new ShowHelpEvent(helpUrl));
-         }
-         else if (type == ClientEvent.ShowErrorMessage)
-         {
-            ErrorMessage errorMessage = event.getData();
-            eventBus_.dispatchEvent(new ShowErrorMessageEvent(errorMessage));
-         }
-         else if (type == ClientEvent.ChooseFile)
-         {
-            boolean newFile = event.<Bool>getData().getValue();
-            eventBus_.dispatchEvent(new ChooseFileEvent(newFile));
-         }
-         else if (type == ClientEvent.BrowseUrl)
-         {
-            BrowseUrlInfo urlInfo = event.getData();
-            eventBus_.dispatchEvent(new BrowseUrlEvent(urlInfo));
-         }
-         else if (type == ClientEvent.PlotsStateChanged)
-         {
-            PlotsState plotsState = event.getData();
-            eventBus_.dispatchEvent(new PlotsChangedEvent(plotsState));
-         }
-         else if (type == ClientEvent.PackageStateChanged)
-         {
-            PackageState newState = event.getData();
-            eventBus_.dispatchEvent(new PackageStateChangedEvent(newState));
-         }
-         else if (type == ClientEvent.PackageStatusChanged)
-         {
-            PackageStatus status = event.getData();
-            eventBus_.dispatchEvent(new PackageStatusChangedEvent(status));
-         }
-         else if (type == ClientEvent.Locator)
-         {
-            eventBus_.dispatchEvent(new LocatorEvent());
-         }
-         else if (type == ClientEvent.ConsoleResetHistory)
-         {
-            ConsoleResetHistory reset = event.getData();
-            eventBus_.dispatchEvent(new ConsoleResetHistoryEvent(reset));
-         }
-         else if (type == ClientEvent.SessionSerialization)
-         {
-            SessionSerializationAction action = event.getData();
-            eventBus_.dispatchEvent(new SessionSerializationEvent(action));
-         }
-         else if (type == ClientEvent.HistoryEntriesAdded)
-         {
-            RpcObjectList<HistoryEntry> entries = event.getData();
-            eventBus_.dispatchEvent(new HistoryEntriesAddedEvent(entries));
-         }
-         else if (type == ClientEvent.QuotaStatus)
-         {
-            QuotaStatus quotaStatus = event.getData();
-            eventBus_.dispatchEvent(new QuotaStatusEvent(quotaStatus));
-         }
-         else if (type == ClientEvent.FileEdit)
-         {
-            FileSystemItem file = event.getData();
-            eventBus_.dispatchEvent(new FileEditEvent(file));
-         }
-         else if (type == ClientEvent.ShowContent)
-         {
-            ContentItem content = event.getData();
-            eventBus_.dispatchEvent(new ShowContentEvent(content));
-         }
-         else if (type == ClientEvent.ShowData)
-         {
-            DataItem data = event.getData();
-            eventBus_.dispatchEvent(new ShowDataEvent(data));
-         }
-         else if (type == ClientEvent.AbendWarning)
-         {            
-            eventBus_.dispatchEvent(new SessionAbendWarningEvent());
-         }
-         else if (type == ClientEvent.ShowWarningBar)
-         {
-            eventBus_.dispatchEvent(new ShowWarningBarEvent(event.getData()));
-         }
-         else if (type == ClientEvent.OpenProjectError)
-         {
-            OpenProjectError error = event.getData();
-            eventBus_.dispatchEvent(new OpenProjectErrorEvent(error));
-         }
-         else if (type == ClientEvent.VcsRefresh)
-         {
-            JsObject data = event.getData();
-            eventBus_.dispatchEvent(new VcsRefreshEvent(Reason.NA,
-                                                    data.getInteger("delay")));
-         }
-         else if (type == ClientEvent.AskPass)
-         {
-            AskPassEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new AskPassEvent(data));
-         }
-         else if (type == ClientEvent.ConsoleProcessOutput)
-         {
-            ServerConsoleOutputEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ServerConsoleOutputEvent(data.getHandle(),
-                                                            data.getOutput()));
-         }
-         else if (type == ClientEvent.ConsoleProcessPrompt)
-         {
-            ServerConsolePromptEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ServerConsolePromptEvent(data.getHandle(),
-                                                             data.getPrompt()));
-         }
-         else if (type == ClientEvent.ConsoleProcessCreated)
-         {
-            ConsoleProcessCreatedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ConsoleProcessCreatedEvent(data));
-         }
-         else if (type == ClientEvent.ConsoleProcessExit)
-         {
-            ServerProcessExitEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ServerProcessExitEvent(data.getHandle(),
-                                                          data.getExitCode()));
-         }
-         else if (type == ClientEvent.HTMLPreviewStartedEvent)
-         {
-            HTMLPreviewStartedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new HTMLPreviewStartedEvent(data));
-         }
-         else if (type == ClientEvent.HTMLPreviewOutputEvent)
-         {
-            String output = event.getData();
-            eventBus_.dispatchEvent(new HTMLPreviewOutputEvent(output));
-         }
-         else if (type == ClientEvent.HTMLPreviewCompletedEvent)
-         {
-            HTMLPreviewResult result = event.getData();
-            eventBus_.dispatchEvent(new HTMLPreviewCompletedEvent(result));
-         }
-         else if (type == ClientEvent.CompilePdfStartedEvent)
-         {
-            CompilePdfStartedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new CompilePdfStartedEvent(data));
-         }
-         else if (type == ClientEvent.CompilePdfOutputEvent)
-         {
-            CompileOutput output = event.getData();
-            eventBus_.dispatchEvent(new CompilePdfOutputEvent(output));
-         }
-         else if (type == ClientEvent.CompilePdfErrorsEvent)
-         {
-            JsArray<SourceMarker> data = event.getData();
-            eventBus_.dispatchEvent(new CompilePdfErrorsEvent(data));
-         }
-         else if (type == ClientEvent.CompilePdfCompletedEvent)
-         {
-            CompilePdfResult result = event.getData();
-            eventBus_.dispatchEvent(new CompilePdfCompletedEvent(result));
-         }
-         else if (type == ClientEvent.SynctexEditFile)
-         {
-            SourceLocation sourceLocation = event.getData();
-            eventBus_.dispatchEvent(new SynctexEditFileEvent(sourceLocation));
-         }
-         else if (type == ClientEvent.FindResult)
-         {
-            FindResultEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new FindResultEvent(
-                  data.getHandle(), data.getResults().toArrayList()));
-         }
-         else if (type == ClientEvent.FindOperationEnded)
-         {
-            String data = event.getData();
-            eventBus_.dispatchEvent(new FindOperationEndedEvent(data));
-         }
-         else if (type == ClientEvent.ReplaceResult)
-         {
-            ReplaceResultEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ReplaceResultEvent(
-                   data.getHandle(), data.getResults().toArrayList()));
-         }
-         else if (type == ClientEvent.ReplaceProgress)
-         {
-            ReplaceProgressEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(
-               new ReplaceProgressEvent(data.getTotalReplaceCount(), data.getReplacedCount()));
-         }
-         else if (type == ClientEvent.RPubsUploadStatus)
-         {
-            RPubsUploadStatusEvent.Status status = event.getData();
-            eventBus_.dispatchEvent(new RPubsUploadStatusEvent(status));
-         }
-         else if (type == ClientEvent.BuildStarted)
-         {
-            BuildStartedEvent.Data buildStartedData = event.getData();
-            eventBus_.dispatchEvent(new BuildStartedEvent(buildStartedData));
-         }
-         else if (type == ClientEvent.BuildOutput)
-         {
-            CompileOutput data = event.getData();
-            eventBus_.dispatchEvent(new BuildOutputEvent(data));
-         }
-         else if (type == ClientEvent.BuildCompleted)
-         {
-            BuildCompletedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new BuildCompletedEvent(data));
-         }
-         else if (type == ClientEvent.BuildErrors)
-         {
-            BuildErrorsEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new BuildErrorsEvent(data));
-         }
-         else if (type == ClientEvent.DirectoryNavigate)
-         {
-            DirectoryNavigateEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new DirectoryNavigateEvent(data));
-         }
-         else if (type == ClientEvent.DeferredInitCompleted)
-         {
-            eventBus_.dispatchEvent(new DeferredInitCompletedEvent());
-         }
-         else if (type == ClientEvent.PlotsZoomSizeChanged)
-         {
-            PlotsZoomSizeChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new PlotsZoomSizeChangedEvent(data));
-         }
-         else if (type == ClientEvent.SourceCppStarted)
-         {
-            eventBus_.dispatchEvent(new SourceCppStartedEvent());
-         }
-         else if (type == ClientEvent.SourceCppCompleted)
-         {
-            SourceCppState state = event.getData();
-            eventBus_.dispatchEvent(new SourceCppCompletedEvent(state));
-         }
-         else if (type == ClientEvent.LoadedPackageUpdates)
-         {
-            String installCmd = event.getData();
-            eventBus_.dispatchEvent(new LoadedPackageUpdatesEvent(installCmd));
-         }
-         else if (type == ClientEvent.ActivatePane)
-         {
-            String pane = event.getData();
-            eventBus_.dispatchEvent(new ActivatePaneEvent(pane));
-         }
-         else if (type == ClientEvent.ShowPresentationPane)
-         {
-            PresentationState state = event.getData();
-            eventBus_.dispatchEvent(new ShowPresentationPaneEvent(state));
-         }
-         else if (type == ClientEvent.EnvironmentRefresh)
-         {
-            eventBus_.dispatchEvent(new EnvironmentRefreshEvent());
-         }
-         else if (type == ClientEvent.ListChanged)
-         {
-            eventBus_.dispatchEvent(new ListChangedEvent(event.<JsObject>getData()));
-         }
-         else if (type == ClientEvent.UserPrefsChanged)
-         {
-            PrefLayer data = event.getData();
-            eventBus_.dispatchEvent(new UserPrefsChangedEvent(data));
-         }
-         else if (type == ClientEvent.UserStateChanged)
-         {
-            PrefLayer data = event.getData();
-            eventBus_.dispatchEvent(new UserStateChangedEvent(data));
-         }
-         else if (type == ClientEvent.ContextDepthChanged) {
-            EnvironmentContextData data = event.getData();
-            eventBus_.dispatchEvent(new ContextDepthChangedEvent(data, true));
-         }
-         else if (type == ClientEvent.HandleUnsavedChanges)
-         {
-            eventBus_.dispatchEvent(new HandleUnsavedChangesEvent());
-         }
-         else if (type == ClientEvent.Quit)
-         {
-            QuitEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new QuitEvent(data));
-         }
-         else if (type == ClientEvent.Suicide)
-         {
-            // NOTE: we don't explicitly stop listening for events here
-            // for the reasons cited above in ClientEvent.Quit
-            
-            // fire event
-            String message = event.getData();
-            eventBus_.dispatchEvent(new SuicideEvent(message));
-         }
-         else if (type == ClientEvent.SaveActionChanged)
-         {
-            SaveAction action = event.getData();
-            eventBus_.dispatchEvent(new SaveActionChangedEvent(action));
-         }
-         else if (type == ClientEvent.EnvironmentAssigned)
-         {
-            RObject objectInfo = event.getData();
-            eventBus_.dispatchEvent(new EnvironmentObjectAssignedEvent(objectInfo));
-         }
-         else if (type == ClientEvent.EnvironmentRemoved)
-         {
-            String objectName = event.getData();
-            eventBus_.dispatchEvent(new EnvironmentObjectRemovedEvent(objectName));
-         }
-         else if (type == ClientEvent.EnvironmentChanged)
-         {
-            EnvironmentChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new EnvironmentChangedEvent(data));
-         }
-         else if (type == ClientEvent.BrowserLineChanged)
-         {
-            LineData lineData = event.getData();
-            eventBus_.dispatchEvent(new BrowserLineChangedEvent(lineData));
-         }
-         else if (type == ClientEvent.PackageLoaded)
-         {
-            eventBus_.dispatchEvent(new PackageLoadedEvent(
-                  (String)event.getData()));
-         }
-         else if (type == ClientEvent.PackageUnloaded)
-         {
-            eventBus_.dispatchEvent(new PackageUnloadedEvent(
-                  (String)event.getData()));
-         }
-         else if (type == ClientEvent.PresentationPaneRequestCompleted)
-         {
-            eventBus_.dispatchEvent(new PresentationPaneRequestCompletedEvent());
-         }
-         else if (type == ClientEvent.UnhandledError)
-         {
-            UnhandledError err = event.getData();
-            eventBus_.dispatchEvent(new UnhandledErrorEvent(err));
-         }
-         else if (type == ClientEvent.ErrorHandlerChanged)
-         {
-            ErrorHandlerChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ErrorHandlerChangedEvent(data));
-         }
-         else if (type == ClientEvent.ViewerNavigate)
-         {
-            ViewerNavigateEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ViewerNavigateEvent(data));
-         }
-         else if (type == ClientEvent.SourceExtendedTypeDetected)
-         {
-            SourceExtendedTypeDetectedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new SourceExtendedTypeDetectedEvent(data));
-         }
-         else if (type == ClientEvent.ShinyViewer)
-         {
-            ShinyApplicationParams data = event.getData();
-            eventBus_.dispatchEvent(new ShinyApplicationStatusEvent(data, true));
-         }
-         else if (type == ClientEvent.DebugSourceCompleted)
-         {
-            DebugSourceResult result = (DebugSourceResult)event.getData();
-            eventBus_.dispatchEvent(new DebugSourceCompletedEvent(result));
-         }
-         else if (type == ClientEvent.RmdRenderStarted)
-         {
-            RmdRenderStartedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RmdRenderStartedEvent(data));
-         }
-         else if (type == ClientEvent.RmdRenderOutput)
-         {
-            CompileOutput data = event.getData();
-            eventBus_.dispatchEvent(new RmdRenderOutputEvent(data));
-         }
-         else if (type == ClientEvent.RmdRenderCompleted)
-         {
-            RmdRenderResult result = event.getData();
-            eventBus_.dispatchEvent(new RmdRenderCompletedEvent(result));
-         }
-         else if (type == ClientEvent.RmdShinyDocStarted)
-         {
-            RmdShinyDocInfo docInfo = event.getData();
-            eventBus_.dispatchEvent(new RmdShinyDocStartedEvent(docInfo));
-         }
-         else if (type == ClientEvent.RSConnectDeploymentOutput)
-         {
-            CompileOutput output = event.getData();
-            eventBus_.dispatchEvent(new RSConnectDeploymentOutputEvent(output));
-         }
-         else if (type == ClientEvent.RSConnectDeploymentCompleted)
-         {
-            String url = event.getData();
-            eventBus_.dispatchEvent(new RSConnectDeploymentCompletedEvent(url));
-         }
-         else if (type == ClientEvent.RSConnectDeploymentFailed)
-         {
-            RSConnectDeploymentFailedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RSConnectDeploymentFailedEvent(data));
-         }
-         else if (type == ClientEvent.UserPrompt)
-         {
-            UserPrompt prompt = event.getData();
-            eventBus_.dispatchEvent(new UserPromptEvent(prompt));
-         }
-         else if (type == ClientEvent.InstallRtools)
-         {
-            InstallRtoolsEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new InstallRtoolsEvent(data));
-         }
-         else if (type == ClientEvent.InstallShiny)
-         {
-            String userAction = event.getData();
-            eventBus_.dispatchEvent(new InstallShinyEvent(userAction));
-         }
-         else if (type == ClientEvent.SuspendAndRestart)
-         {
-            SuspendAndRestartEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new SuspendAndRestartEvent(data));
-         }
-         else if (type == ClientEvent.DataViewChanged)
-         {
-            DataViewChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new DataViewChangedEvent(data));
-         }
-         else if (type == ClientEvent.ViewFunction)
-         {
-            SearchPathFunctionDefinition data = event.getData();
-            eventBus_.dispatchEvent(new CodeBrowserNavigationEvent(
-                  data, null, false, true));
-         }
-         else if (type == ClientEvent.MarkersChanged)
-         {
-            MarkersChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new MarkersChangedEvent(data));
-         }
-         else if (type == ClientEvent.EnableRStudioConnect)
-         {
-            EnableRStudioConnectUIEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new EnableRStudioConnectUIEvent(data));
-         }
-         else if (type == ClientEvent.UpdateGutterMarkers)
-         {
-            LintEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new LintEvent(data));
-         }
-         else if (type == ClientEvent.SnippetsChanged)
-         {
-            SnippetsChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new SnippetsChangedEvent(data));
-         }
-         else if (type == ClientEvent.JumpToFunction)
-         {
-            JumpToFunctionEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new JumpToFunctionEvent(data));
-         }
-         else if (type == ClientEvent.CollabEditStarted)
-         {
-            CollabEditStartParams params = event.getData();
-            eventBus_.dispatchEvent(new CollabEditStartedEvent(params));
-         }
-         else if (type == ClientEvent.SessionCountChanged)
-         {
-            SessionCountChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new SessionCountChangedEvent(data));
-         }
-         else if (type == ClientEvent.SessionLabelChanged)
-         {
-            SessionLabelChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new SessionLabelChangedEvent(data));
-         }
-         else if (type == ClientEvent.CollabEditEnded)
-         {
-            CollabEditEndedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new CollabEditEndedEvent(data));
-         }
-         else if (type == ClientEvent.ProjectUsersChanged)
-         {
-            ProjectUserChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ProjectUserChangedEvent(data));
-         }
-         else if (type == ClientEvent.RVersionsChanged)
-         {
-            RVersionsInfo versions = event.getData();
-            eventBus_.dispatchEvent(new RVersionsChangedEvent(versions));
-         }
-         else if (type == ClientEvent.ShinyGadgetDialog)
-         {
-            ShinyGadgetDialogEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ShinyGadgetDialogEvent(data));
-         }
-         else if (type == ClientEvent.RmdParamsReady)
-         {
-            String paramsFile = event.getData();
-            eventBus_.dispatchEvent(new RmdParamsReadyEvent(paramsFile));
-         }
-         else if (type == ClientEvent.RegisterUserCommand)
-         {
-            RegisterUserCommandEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RegisterUserCommandEvent(data));
-         }
-         else if (type == ClientEvent.SendToConsole)
-         {
-            SendToConsoleEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new SendToConsoleEvent(data));
-         }
-         else if (type == ClientEvent.UserFollowStarted)
-         {
-            ProjectUser user = event.getData();
-            eventBus_.dispatchEvent(new FollowUserEvent(user, true));
-         }
-         else if (type == ClientEvent.UserFollowEnded)
-         {
-            ProjectUser user = event.getData();
-            eventBus_.dispatchEvent(new FollowUserEvent(user, false));
-         }
-         else if (type == ClientEvent.ProjectAccessRevoked)
-         {
-            eventBus_.dispatchEvent(new ProjectAccessRevokedEvent());
-         }
-         else if (type == ClientEvent.CollabEditSaved)
-         {
-            CollabEditSavedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new CollabEditSavedEvent(data));
-         }
-         else if (type == ClientEvent.AddinRegistryUpdated)
-         {
-            RAddins data = event.getData();
-            eventBus_.dispatchEvent(new AddinRegistryUpdatedEvent(data));
-         }
-         else if (type == ClientEvent.ChunkOutput)
-         {
-            RmdChunkOutput data = event.getData();
-            eventBus_.dispatchEvent(new RmdChunkOutputEvent(data));
-         }
-         else if (type == ClientEvent.ChunkOutputFinished)
-         {
-            RmdChunkOutputFinishedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RmdChunkOutputFinishedEvent(data));
-         }
-         else if (type == ClientEvent.RprofStarted)
-         {
-            eventBus_.dispatchEvent(new RprofEvent(RprofEvent.RprofEventType.START, null));
-         }
-         else if (type == ClientEvent.RprofStopped)
-         {
-            eventBus_.dispatchEvent(new RprofEvent(RprofEvent.RprofEventType.STOP, null));
-         }
-         else if (type == ClientEvent.RprofCreated)
-         {
-            RprofEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RprofEvent(RprofEvent.RprofEventType.CREATE, data));
-         }
-         else if (type == ClientEvent.EditorCommand)
-         {
-            EditorCommandEvent.Data data = event.getData();
-            EditorCommandEvent payload = new EditorCommandEvent(data);
-            eventBus_.dispatchEvent(new EditorCommandDispatchEvent(payload));
-         }
-         else if (type == ClientEvent.PreviewRmd)
-         {
-            PreviewRmdEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new PreviewRmdEvent(data));
-         }
-         else if (type == ClientEvent.WebsiteFileSaved)
-         {
-            FileSystemItem fsi = event.getData();
-            eventBus_.dispatchEvent(new WebsiteFileSavedEvent(fsi));
-         }
-         else if (type == ClientEvent.ChunkPlotRefreshed)
-         {
-            ChunkPlotRefreshedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ChunkPlotRefreshedEvent(data));
-         }
-         else if (type == ClientEvent.ChunkPlotRefreshFinished)
-         {
-            ChunkPlotRefreshFinishedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ChunkPlotRefreshFinishedEvent(data));
-         }
-         else if (type == ClientEvent.ReloadWithLastChanceSave)
-         {
-            eventBus_.dispatchEvent(new ReloadWithLastChanceSaveEvent());
-         }
-         else if (type == ClientEvent.ConnectionUpdated)
-         {
-            ConnectionUpdatedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ConnectionUpdatedEvent(data));
-         }
-         else if (type == ClientEvent.EnableConnections)
-         {
-            eventBus_.dispatchEvent(new EnableConnectionsEvent());
-         }
-         else if (type == ClientEvent.ConnectionListChanged)
-         {
-            JsArray<Connection> connections = event.getData();
-            eventBus_.dispatchEvent(new ConnectionListChangedEvent(connections));
-         }
-         else if (type == ClientEvent.ActiveConnectionsChanged)
-         {
-            JsArray<ConnectionId> connections = event.getData();
-            eventBus_.dispatchEvent(new ActiveConnectionsChangedEvent(connections));
-         }
-         else if (type == ClientEvent.ConnectionOpened)
-         {
-            Connection connection = event.getData();
-            eventBus_.dispatchEvent(new ConnectionOpenedEvent(connection));
-         }
-         else if (type == ClientEvent.NotebookRangeExecuted)
-         {
-            NotebookRangeExecutedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new NotebookRangeExecutedEvent(data));
-         }
-         else if (type == ClientEvent.ChunkExecStateChanged)
-         {
-            ChunkExecStateChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ChunkExecStateChangedEvent(data));
-         }
-         else if (type == ClientEvent.NavigateShinyFrame)
-         {
-            ShinyFrameNavigatedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ShinyFrameNavigatedEvent(data));
-         }
-         else if (type == ClientEvent.UpdateNewConnectionDialog)
-         {
-            NewConnectionDialogUpdatedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new NewConnectionDialogUpdatedEvent(data));
-         }
-         else if (type == ClientEvent.ProjectTemplateRegistryUpdated)
-         {
-            ProjectTemplateRegistry data = event.getData();
-            eventBus_.dispatchEvent(new ProjectTemplateRegistryUpdatedEvent(data));
-         }
-         else if (type == ClientEvent.TerminalSubProcs)
-         {
-            TerminalSubprocEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new TerminalSubprocEvent(data));
-         }
-         else if (type == ClientEvent.PackageExtensionIndexingCompleted)
-         {
-            PackageProvidedExtensions.Data data = event.getData();
-            eventBus_.dispatchEvent(new PackageExtensionIndexingCompletedEvent(data));
-         }
-         else if (type == ClientEvent.RStudioAPIShowDialog)
-         {
-            RStudioAPIShowDialogEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RStudioAPIShowDialogEvent(data));
-         }
-         else if (type == ClientEvent.ObjectExplorerEvent)
-         {
-            ObjectExplorerEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ObjectExplorerEvent(data));
-         }
-         else if (type == ClientEvent.SendToTerminal)
-         {
-            SendToTerminalEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new SendToTerminalEvent(data));
-         }
-         else if (type == ClientEvent.ClearTerminal)
-         {
-            ClearTerminalEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ClearTerminalEvent(data));
-         }
-         else if (type == ClientEvent.AddTerminal)
-         {
-            AddTerminalEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new AddTerminalEvent(data));
-         }
-         else if (type == ClientEvent.RemoveTerminal)
-         {
-            RemoveTerminalEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RemoveTerminalEvent(data));
-         }
-         else if (type == ClientEvent.ActivateTerminal)
-         {
-            ActivateNamedTerminalEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ActivateNamedTerminalEvent(data));
-         }
-         else if (type == ClientEvent.TerminalCwd)
-         {
-            TerminalCwdEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new TerminalCwdEvent(data));
-         }
-         else if (type == ClientEvent.AdminNotification)
-         {
-            AdminNotification notification = event.getData();
-            eventBus_.dispatchEvent(new AdminNotificationEvent(notification));
-         }
-         else if (type == ClientEvent.RequestDocumentSave)
-         {
-            RequestDocumentSaveEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RequestDocumentSaveEvent(data));
-         }
-         else if (type == ClientEvent.RequestOpenProject)
-         {
-            RequestOpenProjectEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RequestOpenProjectEvent(data));
-         }
-         else if (type == ClientEvent.OpenFileDialog)
-         {
-            OpenFileDialogEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new OpenFileDialogEvent(data));
-         }
-         else if (type == ClientEvent.ShowPageViewer)
-         {
-            HTMLPreviewParams params = event.getData();
-            eventBus_.dispatchEvent(new ShowPageViewerEvent(params));
-         }
-         else if (type == ClientEvent.AskSecret)
-         {
-            AskSecretEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new AskSecretEvent(data));
-         }
-         else if (type == ClientEvent.TestsStarted)
-         {
-            TestsStartedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new TestsStartedEvent(data));
-         }
-         else if (type == ClientEvent.TestsOutput)
-         {
-            CompileOutput data = event.getData();
-            eventBus_.dispatchEvent(new TestsOutputEvent(data));
-         }
-         else if (type == ClientEvent.TestsCompleted)
-         {
-            TestsResult result = event.getData();
-            eventBus_.dispatchEvent(new TestsCompletedEvent(result));
-         }
-         else if (type == ClientEvent.JobUpdated)
-         {
-            JobUpdate data = event.getData();
-            eventBus_.dispatchEvent(new JobUpdatedEvent(data));
-         }
-         else if (type == ClientEvent.JobRefresh)
-         {
-            JobState data = event.getData();
-            eventBus_.dispatchEvent(new JobRefreshEvent(data));
-         }
-         else if (type == ClientEvent.JobOutput)
-         {
-            JobOutputEvent.Data output = event.getData();
-            eventBus_.dispatchEvent(new JobOutputEvent(output));
-         }
-         else if (type == ClientEvent.DataOutputCompleted)
-         {
-            DataOutputResult result = event.getData();
-            eventBus_.dispatchEvent(new DataOutputCompletedEvent(result));
-         }
-         else if (type == ClientEvent.NewDocumentWithCode)
-         {
-            NewDocumentWithCodeEvent.Data result = event.getData();
-            eventBus_.dispatchEvent(new NewDocumentWithCodeEvent(result));
-         }
-         else if (type == ClientEvent.AvailablePackagesReady)
-         {
-            AvailablePackagesReadyEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new AvailablePackagesReadyEvent(data));
-         }
-         else if (type == ClientEvent.PlumberViewer)
-         {
-            PlumberAPIParams data = event.getData();
-            eventBus_.dispatchEvent(new PlumberAPIStatusEvent(data, true));
-         }
-         else if (type == ClientEvent.ComputeThemeColors)
-         {
-            eventBus_.dispatchEvent(new ComputeThemeColorsEvent());
-         }
-         else if (type == ClientEvent.RequestDocumentClose)
-         {
-            RequestDocumentCloseEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RequestDocumentCloseEvent(data));
-         }
-         else if (type == ClientEvent.ExecuteAppCommand)
-         {
-            ExecuteAppCommandEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ExecuteAppCommandEvent(data));
-         }
-         else if (type == ClientEvent.HighlightUi)
-         {
-            HighlightEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new HighlightEvent(data));
-         }
-         else if (type == ClientEvent.TutorialCommand)
-         {
-            TutorialCommandEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new TutorialCommandEvent(data));
-         }
-         else if (type == ClientEvent.TutorialLaunch)
-         {
-            TutorialLaunchEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new TutorialLaunchEvent(data));
-         }
-         else if (type == ClientEvent.ReticulateEvent)
-         {
-            ReticulateEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ReticulateEvent(data));
-         }
-         else
-         {
-            GWT.log("WARNING: Server event not dispatched: " + type, null);
-         }
+         handler.dispatch(event, eventBus_);
       }
       catch(Throwable e)
       {
          GWT.log("WARNING: Exception occurred dispatching event: " + type, e);
       }
+
+      DispatchStats stats = DISPATCH_STATS.get(type);
+      if (stats == null)
+      {
+         stats = new DispatchStats(type);
+         DISPATCH_STATS.put(type, stats);
+      }
+      stats.count_++;
+      stats.totalMillis_ += Duration.currentTimeMillis() - start;
+   }
+
+   private static Map<String, Handler> createHandlers()
+   {
+      Map<String, Handler> handlers = new HashMap<>();
+      handlers.put(ClientEvent.Busy, (event, eventBus) ->
+      {
+         boolean busy = event.<Bool>getData().getValue();
+         eventBus.dispatchEvent(new BusyEvent(busy));
+      });
+      handlers.put(ClientEvent.ConsoleOutput, (event, eventBus) ->
+      {
+         ConsoleText output = event.getData();
+         eventBus.dispatchEvent(new ConsoleWriteOutputEvent(output));
+      });
+      handlers.put(ClientEvent.ConsoleError, (event, eventBus) ->
+      {
+         ConsoleText error = event.getData();
+         eventBus.dispatchEvent(new ConsoleWriteErrorEvent(error));
+      });
+      handlers.put(ClientEvent.ConsoleWritePrompt, (event, eventBus) ->
+      {
+         String prompt = event.getData();
+         eventBus.dispatchEvent(new ConsoleWritePromptEvent(prompt));
+      });
+      handlers.put(ClientEvent.ConsoleWriteInput, (event, eventBus) ->
+      {
+         ConsoleText input = event.getData();
+         eventBus.dispatchEvent(new ConsoleWriteInputEvent(input));
+      });
+      handlers.put(ClientEvent.ConsolePrompt, (event, eventBus) ->
+      {
+         ConsolePrompt prompt = event.getData();
+         eventBus.dispatchEvent(new ConsolePromptEvent(prompt));
+      });
+      handlers.put(ClientEvent.ShowEditor, (event, eventBus) ->
+      {
+         ShowEditorData data = event.getData();
+         eventBus.dispatchEvent(new ShowEditorEvent(data));
+      });
+      handlers.put(ClientEvent.FileChanged, (event, eventBus) ->
+      {
+         FileChange fileChange = event.getData();
+         eventBus.dispatchEvent(new FileChangeEvent(fileChange));
+      });
+      handlers.put(ClientEvent.WorkingDirChanged, (event, eventBus) ->
+      {
+         String path = event.getData();
+         eventBus.dispatchEvent(new WorkingDirChangedEvent(path));
+      });
+      handlers.put(ClientEvent.ShowHelp, (event, eventBus) ->
+      {
+         String helpUrl = event.getData();
+         eventBus.dispatchEvent(new ShowHelpEvent(helpUrl));
+      });
+      handlers.put(ClientEvent.ShowErrorMessage, (event, eventBus) ->
+      {
+         ErrorMessage errorMessage = event.getData();
+         eventBus.dispatchEvent(new ShowErrorMessageEvent(errorMessage));
+      });
+      handlers.put(ClientEvent.ChooseFile, (event, eventBus) ->
+      {
+         boolean newFile = event.<Bool>getData().getValue();
+         eventBus.dispatchEvent(new ChooseFileEvent(newFile));
+      });
+      handlers.put(ClientEvent.BrowseUrl, (event, eventBus) ->
+      {
+         BrowseUrlInfo urlInfo = event.getData();
+         eventBus.dispatchEvent(new BrowseUrlEvent(urlInfo));
+      });
+      handlers.put(ClientEvent.PlotsStateChanged, (event, eventBus) ->
+      {
+         PlotsState plotsState = event.getData();
+         eventBus.dispatchEvent(new PlotsChangedEvent(plotsState));
+      });
+      handlers.put(ClientEvent.PackageStateChanged, (event, eventBus) ->
+      {
+         PackageState newState = event.getData();
+         eventBus.dispatchEvent(new PackageStateChangedEvent(newState));
+      });
+      handlers.put(ClientEvent.PackageStatusChanged, (event, eventBus) ->
+      {
+         PackageStatus status = event.getData();
+         eventBus.dispatchEvent(new PackageStatusChangedEvent(status));
+      });
+      handlers.put(ClientEvent.Locator, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new LocatorEvent());
+      });
+      handlers.put(ClientEvent.ConsoleResetHistory, (event, eventBus) ->
+      {
+         ConsoleResetHistory reset = event.getData();
+         eventBus.dispatchEvent(new ConsoleResetHistoryEvent(reset));
+      });
+      handlers.put(ClientEvent.SessionSerialization, (event, eventBus) ->
+      {
+         SessionSerializationAction action = event.getData();
+         eventBus.dispatchEvent(new SessionSerializationEvent(action));
+      });
+      handlers.put(ClientEvent.HistoryEntriesAdded, (event, eventBus) ->
+      {
+         RpcObjectList<HistoryEntry> entries = event.getData();
+         eventBus.dispatchEvent(new HistoryEntriesAddedEvent(entries));
+      });
+      handlers.put(ClientEvent.QuotaStatus, (event, eventBus) ->
+      {
+         QuotaStatus quotaStatus = event.getData();
+         eventBus.dispatchEvent(new QuotaStatusEvent(quotaStatus));
+      });
+      handlers.put(ClientEvent.FileEdit, (event, eventBus) ->
+      {
+         FileSystemItem file = event.getData();
+         eventBus.dispatchEvent(new FileEditEvent(file));
+      });
+      handlers.put(ClientEvent.ShowContent, (event, eventBus) ->
+      {
+         ContentItem content = event.getData();
+         eventBus.dispatchEvent(new ShowContentEvent(content));
+      });
+      handlers.put(ClientEvent.ShowData, (event, eventBus) ->
+      {
+         DataItem data = event.getData();
+         eventBus.dispatchEvent(new ShowDataEvent(data));
+      });
+      handlers.put(ClientEvent.AbendWarning, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new SessionAbendWarningEvent());
+      });
+      handlers.put(ClientEvent.ShowWarningBar, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new ShowWarningBarEvent(event.getData()));
+      });
+      handlers.put(ClientEvent.OpenProjectError, (event, eventBus) ->
+      {
+         OpenProjectError error = event.getData();
+         eventBus.dispatchEvent(new OpenProjectErrorEvent(error));
+      });
+      handlers.put(ClientEvent.VcsRefresh, (event, eventBus) ->
+      {
+         JsObject data = event.getData();
+         eventBus.dispatchEvent(new VcsRefreshEvent(Reason.NA,
+                                                data.getInteger("delay")));
+      });
+      handlers.put(ClientEvent.AskPass, (event, eventBus) ->
+      {
+         AskPassEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new AskPassEvent(data));
+      });
+      handlers.put(ClientEvent.ConsoleProcessOutput, (event, eventBus) ->
+      {
+         ServerConsoleOutputEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ServerConsoleOutputEvent(data.getHandle(),
+                                                        data.getOutput()));
+      });
+      handlers.put(ClientEvent.ConsoleProcessPrompt, (event, eventBus) ->
+      {
+         ServerConsolePromptEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ServerConsolePromptEvent(data.getHandle(),
+                                                         data.getPrompt()));
+      });
+      handlers.put(ClientEvent.ConsoleProcessCreated, (event, eventBus) ->
+      {
+         ConsoleProcessCreatedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ConsoleProcessCreatedEvent(data));
+      });
+      handlers.put(ClientEvent.ConsoleProcessExit, (event, eventBus) ->
+      {
+         ServerProcessExitEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ServerProcessExitEvent(data.getHandle(),
+                                                      data.getExitCode()));
+      });
+      handlers.put(ClientEvent.HTMLPreviewStartedEvent, (event, eventBus) ->
+      {
+         HTMLPreviewStartedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new HTMLPreviewStartedEvent(data));
+      });
+      handlers.put(ClientEvent.HTMLPreviewOutputEvent, (event, eventBus) ->
+      {
+         String output = event.getData();
+         eventBus.dispatchEvent(new HTMLPreviewOutputEvent(output));
+      });
+      handlers.put(ClientEvent.HTMLPreviewCompletedEvent, (event, eventBus) ->
+      {
+         HTMLPreviewResult result = event.getData();
+         eventBus.dispatchEvent(new HTMLPreviewCompletedEvent(result));
+      });
+      handlers.put(ClientEvent.CompilePdfStartedEvent, (event, eventBus) ->
+      {
+         CompilePdfStartedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new CompilePdfStartedEvent(data));
+      });
+      handlers.put(ClientEvent.CompilePdfOutputEvent, (event, eventBus) ->
+      {
+         CompileOutput output = event.getData();
+         eventBus.dispatchEvent(new CompilePdfOutputEvent(output));
+      });
+      handlers.put(ClientEvent.CompilePdfErrorsEvent, (event, eventBus) ->
+      {
+         JsArray<SourceMarker> data = event.getData();
+         eventBus.dispatchEvent(new CompilePdfErrorsEvent(data));
+      });
+      handlers.put(ClientEvent.CompilePdfCompletedEvent, (event, eventBus) ->
+      {
+         CompilePdfResult result = event.getData();
+         eventBus.dispatchEvent(new CompilePdfCompletedEvent(result));
+      });
+      handlers.put(ClientEvent.SynctexEditFile, (event, eventBus) ->
+      {
+         SourceLocation sourceLocation = event.getData();
+         eventBus.dispatchEvent(new SynctexEditFileEvent(sourceLocation));
+      });
+      handlers.put(ClientEvent.FindResult, (event, eventBus) ->
+      {
+         FindResultEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new FindResultEvent(
+              data.getHandle(), data.getResults().toArrayList()));
+      });
+      handlers.put(ClientEvent.FindOperationEnded, (event, eventBus) ->
+      {
+         String data = event.getData();
+         eventBus.dispatchEvent(new FindOperationEndedEvent(data));
+      });
+      handlers.put(ClientEvent.ReplaceResult, (event, eventBus) ->
+      {
+         ReplaceResultEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ReplaceResultEvent(
+               data.getHandle(), data.getResults().toArrayList()));
+      });
+      handlers.put(ClientEvent.ReplaceProgress, (event, eventBus) ->
+      {
+         ReplaceProgressEvent.Data data = event.getData();
+         eventBus.dispatchEvent(
+            new ReplaceProgressEvent(data.getTotalReplaceCount(), data.getReplacedCount()));
+      });
+      handlers.put(ClientEvent.RPubsUploadStatus, (event, eventBus) ->
+      {
+         RPubsUploadStatusEvent.Status status = event.getData();
+         eventBus.dispatchEvent(new RPubsUploadStatusEvent(status));
+      });
+      handlers.put(ClientEvent.BuildStarted, (event, eventBus) ->
+      {
+         BuildStartedEvent.Data buildStartedData = event.getData();
+         eventBus.dispatchEvent(new BuildStartedEvent(buildStartedData));
+      });
+      handlers.put(ClientEvent.BuildOutput, (event, eventBus) ->
+      {
+         CompileOutput data = event.getData();
+         eventBus.dispatchEvent(new BuildOutputEvent(data));
+      });
+      handlers.put(ClientEvent.BuildCompleted, (event, eventBus) ->
+      {
+         BuildCompletedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new BuildCompletedEvent(data));
+      });
+      handlers.put(ClientEvent.BuildErrors, (event, eventBus) ->
+      {
+         BuildErrorsEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new BuildErrorsEvent(data));
+      });
+      handlers.put(ClientEvent.DirectoryNavigate, (event, eventBus) ->
+      {
+         DirectoryNavigateEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new DirectoryNavigateEvent(data));
+      });
+      handlers.put(ClientEvent.DeferredInitCompleted, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new DeferredInitCompletedEvent());
+      });
+      handlers.put(ClientEvent.PlotsZoomSizeChanged, (event, eventBus) ->
+      {
+         PlotsZoomSizeChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new PlotsZoomSizeChangedEvent(data));
+      });
+      handlers.put(ClientEvent.SourceCppStarted, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new SourceCppStartedEvent());
+      });
+      handlers.put(ClientEvent.SourceCppCompleted, (event, eventBus) ->
+      {
+         SourceCppState state = event.getData();
+         eventBus.dispatchEvent(new SourceCppCompletedEvent(state));
+      });
+      handlers.put(ClientEvent.LoadedPackageUpdates, (event, eventBus) ->
+      {
+         String installCmd = event.getData();
+         eventBus.dispatchEvent(new LoadedPackageUpdatesEvent(installCmd));
+      });
+      handlers.put(ClientEvent.ActivatePane, (event, eventBus) ->
+      {
+         String pane = event.getData();
+         eventBus.dispatchEvent(new ActivatePaneEvent(pane));
+      });
+      handlers.put(ClientEvent.ShowPresentationPane, (event, eventBus) ->
+      {
+         PresentationState state = event.getData();
+         eventBus.dispatchEvent(new ShowPresentationPaneEvent(state));
+      });
+      handlers.put(ClientEvent.EnvironmentRefresh, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new EnvironmentRefreshEvent());
+      });
+      handlers.put(ClientEvent.ListChanged, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new ListChangedEvent(event.<JsObject>getData()));
+      });
+      handlers.put(ClientEvent.UserPrefsChanged, (event, eventBus) ->
+      {
+         PrefLayer data = event.getData();
+         eventBus.dispatchEvent(new UserPrefsChangedEvent(data));
+      });
+      handlers.put(ClientEvent.UserStateChanged, (event, eventBus) ->
+      {
+         PrefLayer data = event.getData();
+         eventBus.dispatchEvent(new UserStateChangedEvent(data));
+      });
+      handlers.put(ClientEvent.ContextDepthChanged, (event, eventBus) ->
+      {
+         EnvironmentContextData data = event.getData();
+         eventBus.dispatchEvent(new ContextDepthChangedEvent(data, true));
+      });
+      handlers.put(ClientEvent.HandleUnsavedChanges, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new HandleUnsavedChangesEvent());
+      });
+      handlers.put(ClientEvent.Quit, (event, eventBus) ->
+      {
+         QuitEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new QuitEvent(data));
+      });
+      handlers.put(ClientEvent.Suicide, (event, eventBus) ->
+      {
+         // NOTE: we don't explicitly stop listening for events here
+         // for the reasons cited above in ClientEvent.Quit
+
+         // fire event
+         String message = event.getData();
+         eventBus.dispatchEvent(new SuicideEvent(message));
+      });
+      handlers.put(ClientEvent.SaveActionChanged, (event, eventBus) ->
+      {
+         SaveAction action = event.getData();
+         eventBus.dispatchEvent(new SaveActionChangedEvent(action));
+      });
+      handlers.put(ClientEvent.EnvironmentAssigned, (event, eventBus) ->
+      {
+         RObject objectInfo = event.getData();
+         eventBus.dispatchEvent(new EnvironmentObjectAssignedEvent(objectInfo));
+      });
+      handlers.put(ClientEvent.EnvironmentRemoved, (event, eventBus) ->
+      {
+         String objectName = event.getData();
+         eventBus.dispatchEvent(new EnvironmentObjectRemovedEvent(objectName));
+      });
+      handlers.put(ClientEvent.EnvironmentChanged, (event, eventBus) ->
+      {
+         EnvironmentChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new EnvironmentChangedEvent(data));
+      });
+      handlers.put(ClientEvent.BrowserLineChanged, (event, eventBus) ->
+      {
+         LineData lineData = event.getData();
+         eventBus.dispatchEvent(new BrowserLineChangedEvent(lineData));
+      });
+      handlers.put(ClientEvent.PackageLoaded, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new PackageLoadedEvent(
+              (String)event.getData()));
+      });
+      handlers.put(ClientEvent.PackageUnloaded, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new PackageUnloadedEvent(
+              (String)event.getData()));
+      });
+      handlers.put(ClientEvent.PresentationPaneRequestCompleted, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new PresentationPaneRequestCompletedEvent());
+      });
+      handlers.put(ClientEvent.UnhandledError, (event, eventBus) ->
+      {
+         UnhandledError err = event.getData();
+         eventBus.dispatchEvent(new UnhandledErrorEvent(err));
+      });
+      handlers.put(ClientEvent.ErrorHandlerChanged, (event, eventBus) ->
+      {
+         ErrorHandlerChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ErrorHandlerChangedEvent(data));
+      });
+      handlers.put(ClientEvent.ViewerNavigate, (event, eventBus) ->
+      {
+         ViewerNavigateEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ViewerNavigateEvent(data));
+      });
+      handlers.put(ClientEvent.SourceExtendedTypeDetected, (event, eventBus) ->
+      {
+         SourceExtendedTypeDetectedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new SourceExtendedTypeDetectedEvent(data));
+      });
+      handlers.put(ClientEvent.ShinyViewer, (event, eventBus) ->
+      {
+         ShinyApplicationParams data = event.getData();
+         eventBus.dispatchEvent(new ShinyApplicationStatusEvent(data, true));
+      });
+      handlers.put(ClientEvent.DebugSourceCompleted, (event, eventBus) ->
+      {
+         DebugSourceResult result = (DebugSourceResult)event.getData();
+         eventBus.dispatchEvent(new DebugSourceCompletedEvent(result));
+      });
+      handlers.put(ClientEvent.RmdRenderStarted, (event, eventBus) ->
+      {
+         RmdRenderStartedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RmdRenderStartedEvent(data));
+      });
+      handlers.put(ClientEvent.RmdRenderOutput, (event, eventBus) ->
+      {
+         CompileOutput data = event.getData();
+         eventBus.dispatchEvent(new RmdRenderOutputEvent(data));
+      });
+      handlers.put(ClientEvent.RmdRenderCompleted, (event, eventBus) ->
+      {
+         RmdRenderResult result = event.getData();
+         eventBus.dispatchEvent(new RmdRenderCompletedEvent(result));
+      });
+      handlers.put(ClientEvent.RmdShinyDocStarted, (event, eventBus) ->
+      {
+         RmdShinyDocInfo docInfo = event.getData();
+         eventBus.dispatchEvent(new RmdShinyDocStartedEvent(docInfo));
+      });
+      handlers.put(ClientEvent.RSConnectDeploymentOutput, (event, eventBus) ->
+      {
+         CompileOutput output = event.getData();
+         eventBus.dispatchEvent(new RSConnectDeploymentOutputEvent(output));
+      });
+      handlers.put(ClientEvent.RSConnectDeploymentCompleted, (event, eventBus) ->
+      {
+         String url = event.getData();
+         eventBus.dispatchEvent(new RSConnectDeploymentCompletedEvent(url));
+      });
+      handlers.put(ClientEvent.RSConnectDeploymentFailed, (event, eventBus) ->
+      {
+         RSConnectDeploymentFailedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RSConnectDeploymentFailedEvent(data));
+      });
+      handlers.put(ClientEvent.UserPrompt, (event, eventBus) ->
+      {
+         UserPrompt prompt = event.getData();
+         eventBus.dispatchEvent(new UserPromptEvent(prompt));
+      });
+      handlers.put(ClientEvent.InstallRtools, (event, eventBus) ->
+      {
+         InstallRtoolsEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new InstallRtoolsEvent(data));
+      });
+      handlers.put(ClientEvent.InstallShiny, (event, eventBus) ->
+      {
+         String userAction = event.getData();
+         eventBus.dispatchEvent(new InstallShinyEvent(userAction));
+      });
+      handlers.put(ClientEvent.SuspendAndRestart, (event, eventBus) ->
+      {
+         SuspendAndRestartEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new SuspendAndRestartEvent(data));
+      });
+      handlers.put(ClientEvent.DataViewChanged, (event, eventBus) ->
+      {
+         DataViewChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new DataViewChangedEvent(data));
+      });
+      handlers.put(ClientEvent.ViewFunction, (event, eventBus) ->
+      {
+         SearchPathFunctionDefinition data = event.getData();
+         eventBus.dispatchEvent(new CodeBrowserNavigationEvent(
+              data, null, false, true));
+      });
+      handlers.put(ClientEvent.MarkersChanged, (event, eventBus) ->
+      {
+         MarkersChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new MarkersChangedEvent(data));
+      });
+      handlers.put(ClientEvent.EnableRStudioConnect, (event, eventBus) ->
+      {
+         EnableRStudioConnectUIEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new EnableRStudioConnectUIEvent(data));
+      });
+      handlers.put(ClientEvent.UpdateGutterMarkers, (event, eventBus) ->
+      {
+         LintEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new LintEvent(data));
+      });
+      handlers.put(ClientEvent.SnippetsChanged, (event, eventBus) ->
+      {
+         SnippetsChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new SnippetsChangedEvent(data));
+      });
+      handlers.put(ClientEvent.JumpToFunction, (event, eventBus) ->
+      {
+         JumpToFunctionEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new JumpToFunctionEvent(data));
+      });
+      handlers.put(ClientEvent.CollabEditStarted, (event, eventBus) ->
+      {
+         CollabEditStartParams params = event.getData();
+         eventBus.dispatchEvent(new CollabEditStartedEvent(params));
+      });
+      handlers.put(ClientEvent.SessionCountChanged, (event, eventBus) ->
+      {
+         SessionCountChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new SessionCountChangedEvent(data));
+      });
+      handlers.put(ClientEvent.SessionLabelChanged, (event, eventBus) ->
+      {
+         SessionLabelChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new SessionLabelChangedEvent(data));
+      });
+      handlers.put(ClientEvent.CollabEditEnded, (event, eventBus) ->
+      {
+         CollabEditEndedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new CollabEditEndedEvent(data));
+      });
+      handlers.put(ClientEvent.ProjectUsersChanged, (event, eventBus) ->
+      {
+         ProjectUserChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ProjectUserChangedEvent(data));
+      });
+      handlers.put(ClientEvent.RVersionsChanged, (event, eventBus) ->
+      {
+         RVersionsInfo versions = event.getData();
+         eventBus.dispatchEvent(new RVersionsChangedEvent(versions));
+      });
+      handlers.put(ClientEvent.ShinyGadgetDialog, (event, eventBus) ->
+      {
+         ShinyGadgetDialogEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ShinyGadgetDialogEvent(data));
+      });
+      handlers.put(ClientEvent.RmdParamsReady, (event, eventBus) ->
+      {
+         String paramsFile = event.getData();
+         eventBus.dispatchEvent(new RmdParamsReadyEvent(paramsFile));
+      });
+      handlers.put(ClientEvent.RegisterUserCommand, (event, eventBus) ->
+      {
+         RegisterUserCommandEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RegisterUserCommandEvent(data));
+      });
+      handlers.put(ClientEvent.SendToConsole, (event, eventBus) ->
+      {
+         SendToConsoleEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new SendToConsoleEvent(data));
+      });
+      handlers.put(ClientEvent.UserFollowStarted, (event, eventBus) ->
+      {
+         ProjectUser user = event.getData();
+         eventBus.dispatchEvent(new FollowUserEvent(user, true));
+      });
+      handlers.put(ClientEvent.UserFollowEnded, (event, eventBus) ->
+      {
+         ProjectUser user = event.getData();
+         eventBus.dispatchEvent(new FollowUserEvent(user, false));
+      });
+      handlers.put(ClientEvent.ProjectAccessRevoked, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new ProjectAccessRevokedEvent());
+      });
+      handlers.put(ClientEvent.CollabEditSaved, (event, eventBus) ->
+      {
+         CollabEditSavedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new CollabEditSavedEvent(data));
+      });
+      handlers.put(ClientEvent.AddinRegistryUpdated, (event, eventBus) ->
+      {
+         RAddins data = event.getData();
+         eventBus.dispatchEvent(new AddinRegistryUpdatedEvent(data));
+      });
+      handlers.put(ClientEvent.ChunkOutput, (event, eventBus) ->
+      {
+         RmdChunkOutput data = event.getData();
+         eventBus.dispatchEvent(new RmdChunkOutputEvent(data));
+      });
+      handlers.put(ClientEvent.ChunkOutputFinished, (event, eventBus) ->
+      {
+         RmdChunkOutputFinishedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RmdChunkOutputFinishedEvent(data));
+      });
+      handlers.put(ClientEvent.RprofStarted, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new RprofEvent(RprofEvent.RprofEventType.START, null));
+      });
+      handlers.put(ClientEvent.RprofStopped, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new RprofEvent(RprofEvent.RprofEventType.STOP, null));
+      });
+      handlers.put(ClientEvent.RprofCreated, (event, eventBus) ->
+      {
+         RprofEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RprofEvent(RprofEvent.RprofEventType.CREATE, data));
+      });
+      handlers.put(ClientEvent.EditorCommand, (event, eventBus) ->
+      {
+         EditorCommandEvent.Data data = event.getData();
+         EditorCommandEvent payload = new EditorCommandEvent(data);
+         eventBus.dispatchEvent(new EditorCommandDispatchEvent(payload));
+      });
+      handlers.put(ClientEvent.PreviewRmd, (event, eventBus) ->
+      {
+         PreviewRmdEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new PreviewRmdEvent(data));
+      });
+      handlers.put(ClientEvent.WebsiteFileSaved, (event, eventBus) ->
+      {
+         FileSystemItem fsi = event.getData();
+         eventBus.dispatchEvent(new WebsiteFileSavedEvent(fsi));
+      });
+      handlers.put(ClientEvent.ChunkPlotRefreshed, (event, eventBus) ->
+      {
+         ChunkPlotRefreshedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ChunkPlotRefreshedEvent(data));
+      });
+      handlers.put(ClientEvent.ChunkPlotRefreshFinished, (event, eventBus) ->
+      {
+         ChunkPlotRefreshFinishedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ChunkPlotRefreshFinishedEvent(data));
+      });
+      handlers.put(ClientEvent.ReloadWithLastChanceSave, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new ReloadWithLastChanceSaveEvent());
+      });
+      handlers.put(ClientEvent.ConnectionUpdated, (event, eventBus) ->
+      {
+         ConnectionUpdatedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ConnectionUpdatedEvent(data));
+      });
+      handlers.put(ClientEvent.EnableConnections, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new EnableConnectionsEvent());
+      });
+      handlers.put(ClientEvent.ConnectionListChanged, (event, eventBus) ->
+      {
+         JsArray<Connection> connections = event.getData();
+         eventBus.dispatchEvent(new ConnectionListChangedEvent(connections));
+      });
+      handlers.put(ClientEvent.ActiveConnectionsChanged, (event, eventBus) ->
+      {
+         JsArray<ConnectionId> connections = event.getData();
+         eventBus.dispatchEvent(new ActiveConnectionsChangedEvent(connections));
+      });
+      handlers.put(ClientEvent.ConnectionOpened, (event, eventBus) ->
+      {
+         Connection connection = event.getData();
+         eventBus.dispatchEvent(new ConnectionOpenedEvent(connection));
+      });
+      handlers.put(ClientEvent.NotebookRangeExecuted, (event, eventBus) ->
+      {
+         NotebookRangeExecutedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new NotebookRangeExecutedEvent(data));
+      });
+      handlers.put(ClientEvent.ChunkExecStateChanged, (event, eventBus) ->
+      {
+         ChunkExecStateChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ChunkExecStateChangedEvent(data));
+      });
+      handlers.put(ClientEvent.NavigateShinyFrame, (event, eventBus) ->
+      {
+         ShinyFrameNavigatedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ShinyFrameNavigatedEvent(data));
+      });
+      handlers.put(ClientEvent.UpdateNewConnectionDialog, (event, eventBus) ->
+      {
+         NewConnectionDialogUpdatedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new NewConnectionDialogUpdatedEvent(data));
+      });
+      handlers.put(ClientEvent.ProjectTemplateRegistryUpdated, (event, eventBus) ->
+      {
+         ProjectTemplateRegistry data = event.getData();
+         eventBus.dispatchEvent(new ProjectTemplateRegistryUpdatedEvent(data));
+      });
+      handlers.put(ClientEvent.TerminalSubProcs, (event, eventBus) ->
+      {
+         TerminalSubprocEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new TerminalSubprocEvent(data));
+      });
+      handlers.put(ClientEvent.PackageExtensionIndexingCompleted, (event, eventBus) ->
+      {
+         PackageProvidedExtensions.Data data = event.getData();
+         eventBus.dispatchEvent(new PackageExtensionIndexingCompletedEvent(data));
+      });
+      handlers.put(ClientEvent.RStudioAPIShowDialog, (event, eventBus) ->
+      {
+         RStudioAPIShowDialogEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RStudioAPIShowDialogEvent(data));
+      });
+      handlers.put(ClientEvent.ObjectExplorerEvent, (event, eventBus) ->
+      {
+         ObjectExplorerEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ObjectExplorerEvent(data));
+      });
+      handlers.put(ClientEvent.SendToTerminal, (event, eventBus) ->
+      {
+         SendToTerminalEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new SendToTerminalEvent(data));
+      });
+      handlers.put(ClientEvent.ClearTerminal, (event, eventBus) ->
+      {
+         ClearTerminalEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ClearTerminalEvent(data));
+      });
+      handlers.put(ClientEvent.AddTerminal, (event, eventBus) ->
+      {
+         AddTerminalEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new AddTerminalEvent(data));
+      });
+      handlers.put(ClientEvent.RemoveTerminal, (event, eventBus) ->
+      {
+         RemoveTerminalEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RemoveTerminalEvent(data));
+      });
+      handlers.put(ClientEvent.ActivateTerminal, (event, eventBus) ->
+      {
+         ActivateNamedTerminalEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ActivateNamedTerminalEvent(data));
+      });
+      handlers.put(ClientEvent.TerminalCwd, (event, eventBus) ->
+      {
+         TerminalCwdEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new TerminalCwdEvent(data));
+      });
+      handlers.put(ClientEvent.AdminNotification, (event, eventBus) ->
+      {
+         AdminNotification notification = event.getData();
+         eventBus.dispatchEvent(new AdminNotificationEvent(notification));
+      });
+      handlers.put(ClientEvent.RequestDocumentSave, (event, eventBus) ->
+      {
+         RequestDocumentSaveEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RequestDocumentSaveEvent(data));
+      });
+      handlers.put(ClientEvent.RequestOpenProject, (event, eventBus) ->
+      {
+         RequestOpenProjectEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RequestOpenProjectEvent(data));
+      });
+      handlers.put(ClientEvent.OpenFileDialog, (event, eventBus) ->
+      {
+         OpenFileDialogEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new OpenFileDialogEvent(data));
+      });
+      handlers.put(ClientEvent.ShowPageViewer, (event, eventBus) ->
+      {
+         HTMLPreviewParams params = event.getData();
+         eventBus.dispatchEvent(new ShowPageViewerEvent(params));
+      });
+      handlers.put(ClientEvent.AskSecret, (event, eventBus) ->
+      {
+         AskSecretEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new AskSecretEvent(data));
+      });
+      handlers.put(ClientEvent.TestsStarted, (event, eventBus) ->
+      {
+         TestsStartedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new TestsStartedEvent(data));
+      });
+      handlers.put(ClientEvent.TestsOutput, (event, eventBus) ->
+      {
+         CompileOutput data = event.getData();
+         eventBus.dispatchEvent(new TestsOutputEvent(data));
+      });
+      handlers.put(ClientEvent.TestsCompleted, (event, eventBus) ->
+      {
+         TestsResult result = event.getData();
+         eventBus.dispatchEvent(new TestsCompletedEvent(result));
+      });
+      handlers.put(ClientEvent.JobUpdated, (event, eventBus) ->
+      {
+         JobUpdate data = event.getData();
+         eventBus.dispatchEvent(new JobUpdatedEvent(data));
+      });
+      handlers.put(ClientEvent.JobRefresh, (event, eventBus) ->
+      {
+         JobState data = event.getData();
+         eventBus.dispatchEvent(new JobRefreshEvent(data));
+      });
+      handlers.put(ClientEvent.JobOutput, (event, eventBus) ->
+      {
+         JobOutputEvent.Data output = event.getData();
+         eventBus.dispatchEvent(new JobOutputEvent(output));
+      });
+      handlers.put(ClientEvent.DataOutputCompleted, (event, eventBus) ->
+      {
+         DataOutputResult result = event.getData();
+         eventBus.dispatchEvent(new DataOutputCompletedEvent(result));
+      });
+      handlers.put(ClientEvent.NewDocumentWithCode, (event, eventBus) ->
+      {
+         NewDocumentWithCodeEvent.Data result = event.getData();
+         eventBus.dispatchEvent(new NewDocumentWithCodeEvent(result));
+      });
+      handlers.put(ClientEvent.AvailablePackagesReady, (event, eventBus) ->
+      {
+         AvailablePackagesReadyEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new AvailablePackagesReadyEvent(data));
+      });
+      handlers.put(ClientEvent.PlumberViewer, (event, eventBus) ->
+      {
+         PlumberAPIParams data = event.getData();
+         eventBus.dispatchEvent(new PlumberAPIStatusEvent(data, true));
+      });
+      handlers.put(ClientEvent.ComputeThemeColors, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new ComputeThemeColorsEvent());
+      });
+      handlers.put(ClientEvent.RequestDocumentClose, (event, eventBus) ->
+      {
+         RequestDocumentCloseEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RequestDocumentCloseEvent(data));
+      });
+      handlers.put(ClientEvent.ExecuteAppCommand, (event, eventBus) ->
+      {
+         ExecuteAppCommandEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ExecuteAppCommandEvent(data));
+      });
+      handlers.put(ClientEvent.HighlightUi, (event, eventBus) ->
+      {
+         HighlightEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new HighlightEvent(data));
+      });
+      handlers.put(ClientEvent.TutorialCommand, (event, eventBus) ->
+      {
+         TutorialCommandEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new TutorialCommandEvent(data));
+      });
+      handlers.put(ClientEvent.TutorialLaunch, (event, eventBus) ->
+      {
+         TutorialLaunchEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new TutorialLaunchEvent(data));
+      });
+      handlers.put(ClientEvent.ReticulateEvent, (event, eventBus) ->
+      {
+         ReticulateEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ReticulateEvent(data));
+      });
+      return handlers;
    }
    
 
    private final EventBus eventBus_;
 
-   private final ArrayList<ClientEvent> pendingEvents_ = new ArrayList<ClientEvent>();
+   private static final Map<String, Handler> HANDLER_REGISTRY = createHandlers();
+   private static final Map<String, DispatchStats> DISPATCH_STATS = new HashMap<>();
+
+   private final ArrayDeque<ClientEvent> pendingEvents_ = new ArrayDeque<>();
    
 
 }
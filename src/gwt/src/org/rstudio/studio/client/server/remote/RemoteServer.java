@@ -16,9 +16,12 @@
 package org.rstudio.studio.client.server.remote;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.google.gwt.json.client.*;
 import org.rstudio.core.client.BrowseCap;
@@ -33,11 +36,14 @@ import org.rstudio.core.client.jsonrpc.RequestLog;
 import org.rstudio.core.client.jsonrpc.RequestLogEntry;
 import org.rstudio.core.client.jsonrpc.RequestLogEntry.ResponseType;
 import org.rstudio.core.client.jsonrpc.RpcError;
+import org.rstudio.core.client.jsonrpc.RpcMetrics;
 import org.rstudio.core.client.jsonrpc.RpcObjectList;
 import org.rstudio.core.client.jsonrpc.RpcRequest;
+import org.rstudio.core.client.jsonrpc.RpcRequestBatch;
 import org.rstudio.core.client.jsonrpc.RpcRequestCallback;
 import org.rstudio.core.client.jsonrpc.RpcResponse;
 import org.rstudio.core.client.jsonrpc.RpcResponseHandler;
+import org.rstudio.core.client.patch.DocumentPatch;
 import org.rstudio.studio.client.application.ApplicationTutorialEvent;
 import org.rstudio.studio.client.application.Desktop;
 import org.rstudio.studio.client.application.events.*;
@@ -146,6 +152,7 @@ import org.rstudio.studio.client.workbench.model.TerminalOptions;
 import org.rstudio.studio.client.workbench.model.TexCapabilities;
 import org.rstudio.studio.client.workbench.model.WorkbenchMetrics;
 import org.rstudio.studio.client.workbench.prefs.model.SpellingPrefsContext;
+import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
 import org.rstudio.studio.client.workbench.projects.RenvAction;
 import org.rstudio.studio.client.workbench.snippets.model.SnippetData;
 import org.rstudio.studio.client.workbench.views.buildtools.model.BookdownFormats;
@@ -209,11 +216,13 @@ import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.JsArrayInteger;
 import com.google.gwt.core.client.JsArrayNumber;
 import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.http.client.URL;
 import com.google.gwt.user.client.Random;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
+import com.sksamuel.gwt.websockets.Websocket;
 
 @Singleton
 public class RemoteServer implements Server
@@ -222,9 +231,11 @@ public class RemoteServer implements Server
    public RemoteServer(Session session, 
                        EventBus eventBus,
                        final SatelliteManager satelliteManager,
-                       Provider<ConsoleProcessFactory> pConsoleProcessFactory)
+                       Provider<ConsoleProcessFactory> pConsoleProcessFactory,
+                       Provider<UserPrefs> pUserPrefs)
    {
       pConsoleProcessFactory_ = pConsoleProcessFactory;
+      pUserPrefs_ = pUserPrefs;
       clientId_ = null;
       disconnected_ = false;
       listeningForEvents_ = false;
@@ -2100,11 +2111,10 @@ public class RemoteServer implements Server
                                 String encoding,
                                 String foldSpec,
                                 JsArray<ChunkDefinition> chunkDefs,
-                                String replacement,
-                                int offset,
-                                int length,
+                                DocumentPatch patch,
                                 boolean valid,
                                 String hash,
+                                String newHash,
                                 ServerRequestCallback<String> requestCallback)
    {
       eventBus_.fireEvent(new ApplicationTutorialEvent(ApplicationTutorialEvent.FILE_SAVE));
@@ -2116,11 +2126,10 @@ public class RemoteServer implements Server
       params.set(3, encoding == null ? JSONNull.getInstance() : new JSONString(encoding));
       params.set(4, new JSONString(StringUtil.notNull(foldSpec)));
       params.set(5, chunkDefs == null ? JSONNull.getInstance() : new JSONObject(chunkDefs));
-      params.set(6, new JSONString(replacement));
-      params.set(7, new JSONNumber(offset));
-      params.set(8, new JSONNumber(length));
-      params.set(9, JSONBoolean.getInstance(valid));
-      params.set(10, new JSONString(hash));
+      params.set(6, patch.toJson());
+      params.set(7, JSONBoolean.getInstance(valid));
+      params.set(8, new JSONString(hash));
+      params.set(9, newHash == null ? JSONNull.getInstance() : new JSONString(newHash));
       sendRequest(RPC_SCOPE, SAVE_DOCUMENT_DIFF, params, requestCallback);
    }
 
@@ -3009,6 +3018,27 @@ public class RemoteServer implements Server
                          retryHandler);
    }
 
+   // begin pushing events over a websocket (the listener connects to it)
+   void connectEventSocket(
+         ServerRequestCallback<RemoteServerEventListener.EventSocketInfo> requestCallback)
+   {
+      sendRequest(RPC_SCOPE, CONNECT_EVENT_SOCKET, requestCallback);
+   }
+
+   boolean useEventSocket()
+   {
+      SessionInfo sessionInfo = session_.getSessionInfo();
+      return sessionInfo != null &&
+             sessionInfo.getAllowTerminalWebsockets() &&
+             Websocket.isSupported() &&
+             pUserPrefs_.get().eventWebsockets().getValue();
+   }
+
+   SessionInfo getSessionInfo()
+   {
+      return session_.getSessionInfo();
+   }
+
    void handleUnauthorizedError()
    {
       UnauthorizedEvent event = new UnauthorizedEvent();
@@ -3344,7 +3374,7 @@ public class RemoteServer implements Server
          return rpcRequest;
 
       // send the request
-      rpcRequest.send(new RpcRequestCallback() {
+      sendOrBatchRequest(scope, rpcRequest, new RpcRequestCallback() {
          public void onError(RpcRequest request, RpcError error)
          {
             // ignore errors if we are disconnected
@@ -3421,6 +3451,130 @@ public class RemoteServer implements Server
       return rpcRequest;
    }
    
+   // requests for batchable methods made in the same event loop turn are
+   // sent together (when enabled); others are sent immediately
+   private void sendOrBatchRequest(String scope,
+                                   RpcRequest request,
+                                   RpcRequestCallback callback)
+   {
+      if (!isBatchable(scope, request))
+      {
+         request.send(callback);
+         return;
+      }
+
+      if (pendingBatch_ == null || pendingBatch_.size() >= MAX_BATCH_SIZE)
+      {
+         final RpcRequestBatch batch = new RpcRequestBatch();
+         pendingBatch_ = batch;
+         Scheduler.get().scheduleFinally(() ->
+         {
+            if (pendingBatch_ == batch)
+               pendingBatch_ = null;
+
+            if (batch.size() == 1)
+            {
+               if (!batch.isCancelled(0))
+                  batch.getRequest(0).send(batch.getCallback(0));
+            }
+            else
+            {
+               sendBatchWithRetry(batch);
+            }
+         });
+      }
+      pendingBatch_.add(request, callback);
+   }
+
+   private boolean isBatchable(String scope, RpcRequest request)
+   {
+      // requests that shouldn't refresh credentials or appear in the request
+      // log are always sent on their own
+      if (!StringUtil.equals(scope, RPC_SCOPE) ||
+          !request.getRefreshCreds() ||
+          request.getRedactLog() ||
+          !BATCHABLE_METHODS.contains(request.getMethod()))
+      {
+         return false;
+      }
+
+      // user prefs are only available once the session has been initialized
+      if (session_.getSessionInfo() == null)
+         return false;
+
+      return pUserPrefs_.get().batchRpcRequests().getValue();
+   }
+
+   private void sendBatchWithRetry(final RpcRequestBatch batch)
+   {
+      // as with individual requests, resolve an error affecting the whole
+      // batch (e.g. expired credentials) then retry it one time
+      sendBatch(batch, new RetryHandler()
+      {
+         public void onRetry()
+         {
+            sendBatch(batch, null);
+         }
+
+         public void onModifiedRetry(RpcRequest modifiedRequest)
+         {
+            sendBatch(batch, null);
+         }
+
+         public void onError(RpcError error)
+         {
+            batch.dispatchError(error);
+         }
+      });
+   }
+
+   private void sendBatch(final RpcRequestBatch batch,
+                          final RetryHandler retryHandler)
+   {
+      if (isDisconnected(RPC_SCOPE))
+         return;
+
+      String url = getApplicationURL(RPC_SCOPE) + "/" + RpcRequestBatch.METHOD;
+      batch.createRequest(url, clientId_, clientVersion_).send(
+            new RpcRequestCallback()
+      {
+         public void onError(RpcRequest request, RpcError error)
+         {
+            onBatchError(batch, request, error, retryHandler);
+         }
+
+         public void onResponseReceived(RpcRequest request,
+                                        RpcResponse response)
+         {
+            if (isDisconnected(RPC_SCOPE))
+               return;
+
+            if (response.getError() != null)
+               onBatchError(batch, request, response.getError(), retryHandler);
+            else
+               batch.dispatch(response);
+         }
+      });
+   }
+
+   private void onBatchError(RpcRequestBatch batch,
+                             RpcRequest request,
+                             RpcError error,
+                             RetryHandler retryHandler)
+   {
+      if (isDisconnected(RPC_SCOPE))
+         return;
+
+      if (resolveRpcErrorAndRetry(request, error, retryHandler))
+         return;
+
+      // errors with global handlers (e.g. an invalid client id) are handled
+      // once for the batch; anything else is passed on to each request,
+      // just as if it had failed on its own
+      if (!handleRpcErrorInternally(error))
+         batch.dispatchError(error);
+   }
+
    private void ensureListeningForEvents()
    {
       // don't do this if we are disconnected
@@ -3474,6 +3628,7 @@ public class RemoteServer implements Server
                // allow retry on success, otherwise handle unauthorized error
                if (response == RemoteServerAuth.CREDENTIALS_UPDATE_SUCCESS)
                {
+                  RpcMetrics.retryAttempted(request.getMethod());
                   retryHandler.onRetry();
                }
                else
@@ -5563,6 +5718,7 @@ public class RemoteServer implements Server
                                    String documentPath,
                                    boolean showMarkersPane,
                                    boolean explicit,
+                                   JsArray<JsObject> skipRows,
                                    ServerRequestCallback<JsArray<LintItem>> requestCallback)
    {
       JSONArray params = new JSONArray();
@@ -5570,6 +5726,7 @@ public class RemoteServer implements Server
       params.set(1, new JSONString(documentPath));
       params.set(2, JSONBoolean.getInstance(showMarkersPane));
       params.set(3, JSONBoolean.getInstance(explicit));
+      params.set(4, skipRows == null ? new JSONArray() : new JSONArray(skipRows));
       sendRequest(RPC_SCOPE, LINT_R_SOURCE_DOCUMENT, params, requestCallback);
    }
    
@@ -6244,7 +6401,10 @@ public class RemoteServer implements Server
    private final RemoteServerAuth serverAuth_;
    private final RemoteServerEventListener serverEventListener_;
 
+   private RpcRequestBatch pendingBatch_;
+
    private final Provider<ConsoleProcessFactory> pConsoleProcessFactory_;
+   private final Provider<UserPrefs> pUserPrefs_;
 
    protected final Session session_;
    protected final EventBus eventBus_;
@@ -6269,6 +6429,7 @@ public class RemoteServer implements Server
    private static final String QUIT_SESSION = "quit_session";
    private static final String SUSPEND_FOR_RESTART = "suspend_for_restart";
    private static final String PING = "ping";
+   private static final String CONNECT_EVENT_SOCKET = "connect_event_socket";
 
    private static final String SET_WORKBENCH_METRICS = "set_workbench_metrics";
    private static final String SET_PREFS = "set_prefs";
@@ -6732,4 +6893,19 @@ public class RemoteServer implements Server
    
    private static final String XREF_INDEX_FOR_FILE = "xref_index_for_file";
    private static final String XREF_FOR_ID = "xref_for_id";
+
+   // read-only methods that are commonly called in bursts (e.g. when a
+   // session or project is opened) and so may be batched; methods the
+   // session handles specially (e.g. console_input) must never be added
+   private static final Set<String> BATCHABLE_METHODS = new HashSet<>(Arrays.asList(
+         GET_DOCUMENT_PROPERTIES,
+         GET_ENVIRONMENT_STATE,
+         GET_PACKAGE_STATE,
+         GET_PACKRAT_CONTEXT,
+         GET_TERMINAL_OPTIONS,
+         GIT_ALL_STATUS,
+         LIST_ENVIRONMENT,
+         LIST_FILES));
+
+   private static final int MAX_BATCH_SIZE = 32;
 }
@@ -15,12 +15,18 @@
 package org.rstudio.studio.client.server.remote;
 
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.core.client.JsArray;
+import com.google.gwt.json.client.JSONParser;
 import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.Window;
 import com.google.gwt.user.client.Window.ClosingEvent;
 import com.google.gwt.user.client.Window.ClosingHandler;
+import com.sksamuel.gwt.websockets.CloseEvent;
+import com.sksamuel.gwt.websockets.Websocket;
+import com.sksamuel.gwt.websockets.WebsocketListenerExt;
 
+import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.jsonrpc.RpcError;
 import org.rstudio.core.client.jsonrpc.RpcRequest;
 import org.rstudio.core.client.jsonrpc.RpcRequestCallback;
@@ -28,6 +34,9 @@ import org.rstudio.core.client.jsonrpc.RpcResponse;
 import org.rstudio.studio.client.application.events.*;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.model.SessionInfo;
+import org.rstudio.studio.client.workbench.views.terminal.TerminalSessionSocket;
+import org.rstudio.studio.client.workbench.views.terminal.TerminalSocketPacket;
 
 import java.util.HashMap;
 
@@ -49,6 +58,24 @@ class RemoteServerEventListener
       public final RpcRequestCallback callback;
    }
 
+   /**
+    * Where to connect to have events pushed over a websocket.
+    */
+   static class EventSocketInfo extends JavaScriptObject
+   {
+      protected EventSocketInfo()
+      {
+      }
+
+      public final native String getHandle() /*-{
+         return this.handle;
+      }-*/;
+
+      public final native int getPort() /*-{
+         return this.port;
+      }-*/;
+   }
+
    public RemoteServerEventListener(RemoteServer server,
                                     ClientEventHandler externalEventHandler)
    {
@@ -68,6 +95,25 @@ class RemoteServerEventListener
             doListen();
          }
       };
+
+      socketConnectTimer_ = new Timer() {
+         @Override
+         public void run()
+         {
+            closeSocket();
+            fallBackToPolling("timed out connecting");
+         }
+      };
+
+      // keep proxies from closing the socket while no events are flowing
+      socketKeepAliveTimer_ = new Timer() {
+         @Override
+         public void run()
+         {
+            if (socket_ != null)
+               socket_.send(TerminalSocketPacket.keepAlivePacket());
+         }
+      };
       
       // we take the liberty of stopping ourselves if the window is on 
       // the verge of being closed. this allows us to prevent the scenario:
@@ -137,6 +183,7 @@ class RemoteServerEventListener
    public void stop()
    {
       listenTimer_.cancel();
+      closeSocket();
       isListening_ = false;
       listenCount_ = 0;
       if (activeRequestCallback_ != null)
@@ -192,6 +239,12 @@ class RemoteServerEventListener
          start();
      } 
      
+     // events will be pushed over the socket (or will be once it connects)
+     else if (socket_ != null || socketConnecting_)
+     {
+        return;
+     }
+     
      // if we are listening then use the Watchdog to still make sure we 
      // receive the events even if it requires restarting
      else
@@ -248,6 +301,16 @@ class RemoteServerEventListener
       // abort if we are no longer running
       if (!isListening_)
          return;
+      
+      // prefer to have events pushed over a socket (nothing to do if that's
+      // already underway); fall back to polling if that's not possible
+      if (socket_ != null || socketConnecting_)
+         return;
+      if (!socketUnavailable_ && server_.useEventSocket())
+      {
+         connectSocket();
+         return;
+      }
           
       // setup request callback (save reference for cancellation)
       activeRequestCallback_ = new ServerRequestCallback<JsArray<ClientEvent>>() 
@@ -263,33 +326,7 @@ class RemoteServerEventListener
             if (cancelled())
                return;
             
-            try
-            {
-               // only process events if we are still listening
-               if (isListening_ && (events != null))
-               {
-                  for (int i=0; i<events.length(); i++)
-                  {
-                     // we can stop listening in the middle of dispatching
-                     // events (e.g. if we dispatch a Suicide event) so we 
-                     // need to check the listening_ flag before each event
-                     // is dispatched
-                     if (!isListening_)
-                        return;
-                     
-                     // dispatch event
-                     ClientEvent event = events.get(i);
-                     dispatchEvent(event);
-                     lastEventId_ = event.getId();
-                  }   
-               }
-            }
-            // catch all here to make sure that in all cases we call
-            // listen() again after processing
-            catch(Throwable e)
-            {
-               GWT.log("ERROR: Processing client events", e);
-            }
+            processEvents(events, false);
             
             // listen for more events
             listen();
@@ -372,6 +409,190 @@ class RemoteServerEventListener
    }
    
    
+   private void processEvents(JsArray<ClientEvent> events,
+                              boolean skipSeenEvents)
+   {
+      try
+      {
+         // only process events if we are still listening
+         if (isListening_ && (events != null))
+         {
+            for (int i=0; i<events.length(); i++)
+            {
+               // we can stop listening in the middle of dispatching
+               // events (e.g. if we dispatch a Suicide event) so we 
+               // need to check the listening_ flag before each event
+               // is dispatched
+               if (!isListening_)
+                  return;
+               
+               // events are resent over a socket when it reconnects if we
+               // hadn't yet acknowledged them
+               ClientEvent event = events.get(i);
+               if (skipSeenEvents && event.getId() <= lastEventId_)
+                  continue;
+
+               // dispatch event
+               dispatchEvent(event);
+               lastEventId_ = event.getId();
+            }   
+         }
+      }
+      // catch all here to make sure that in all cases we listen
+      // again after processing
+      catch(Throwable e)
+      {
+         GWT.log("ERROR: Processing client events", e);
+      }
+   }
+
+   private void connectSocket()
+   {
+      socketConnecting_ = true;
+      server_.connectEventSocket(new ServerRequestCallback<EventSocketInfo>()
+      {
+         @Override
+         public void onResponseReceived(EventSocketInfo info)
+         {
+            socketConnecting_ = false;
+            if (!isListening_ || socket_ != null)
+               return;
+
+            if (info == null)
+               fallBackToPolling("not available");
+            else
+               openSocket(info);
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            socketConnecting_ = false;
+            fallBackToPolling(error.getMessage());
+         }
+      });
+   }
+
+   private void openSocket(EventSocketInfo info)
+   {
+      String url = TerminalSessionSocket.getWebSocketUrl(
+            String.valueOf(info.getPort()), "events", info.getHandle());
+      if (url == null)
+      {
+         fallBackToPolling("unable to discover websocket protocol");
+         return;
+      }
+
+      final Websocket socket = new Websocket(url);
+      socket_ = socket;
+      socket.addListener(new WebsocketListenerExt()
+      {
+         @Override
+         public void onOpen()
+         {
+            if (socket_ != socket)
+               return;
+
+            socketConnectTimer_.cancel();
+            watchdog_.cancel();
+            socketOpen_ = true;
+
+            // tell the server where to resume from
+            acknowledgeEvents();
+
+            SessionInfo sessionInfo = server_.getSessionInfo();
+            if (sessionInfo != null && sessionInfo.getWebSocketPingInterval() > 0)
+            {
+               socketKeepAliveTimer_.scheduleRepeating(
+                     sessionInfo.getWebSocketPingInterval() * 1000);
+            }
+         }
+
+         @Override
+         public void onMessage(String msg)
+         {
+            if (socket_ != socket || TerminalSocketPacket.isKeepAlive(msg))
+               return;
+
+            JsArray<ClientEvent> events;
+            try
+            {
+               events = JSONParser.parseStrict(TerminalSocketPacket.getMessage(msg))
+                     .isArray().getJavaScriptObject().cast();
+            }
+            catch(Exception e)
+            {
+               Debug.logException(e);
+               return;
+            }
+
+            socketReconnectCount_ = 0;
+            processEvents(events, true);
+            acknowledgeEvents();
+         }
+
+         @Override
+         public void onClose(CloseEvent event)
+         {
+            if (socket_ != socket)
+               return;
+
+            // reconnect (resuming from the last event we saw) if we had
+            // been connected, otherwise assume sockets can't be used
+            boolean wasOpen = socketOpen_;
+            closeSocket();
+            if (!isListening_)
+               return;
+            if (wasOpen && socketReconnectCount_++ < MAX_SOCKET_RECONNECTS)
+               listen();
+            else
+               fallBackToPolling("connection closed");
+         }
+
+         @Override
+         public void onError()
+         {
+            if (socket_ != socket)
+               return;
+
+            closeSocket();
+            fallBackToPolling("connection error");
+         }
+      });
+
+      SessionInfo sessionInfo = server_.getSessionInfo();
+      if (sessionInfo != null && sessionInfo.getWebSocketConnectTimeout() > 0)
+         socketConnectTimer_.schedule(sessionInfo.getWebSocketConnectTimeout() * 1000);
+      socket.open();
+   }
+
+   private void acknowledgeEvents()
+   {
+      if (socket_ != null)
+         socket_.send(TerminalSocketPacket.textPacket(String.valueOf(lastEventId_)));
+   }
+
+   private void closeSocket()
+   {
+      Websocket socket = socket_;
+      socket_ = null;
+      socketOpen_ = false;
+      socketConnectTimer_.cancel();
+      socketKeepAliveTimer_.cancel();
+      if (socket != null)
+         socket.close();
+   }
+
+   // the socket couldn't be used; poll for events for the rest of this
+   // session (the server stops using the socket once we do)
+   private void fallBackToPolling(String reason)
+   {
+      Debug.log("Event socket unavailable (" + reason + "); polling for events");
+      socketUnavailable_ = true;
+      if (isListening_)
+         listen();
+   }
+
    private void dispatchEvent(ClientEvent event)
    {
       // do some special handling before calling the standard dispatcher
@@ -476,6 +697,14 @@ class RemoteServerEventListener
    private int listenErrorCount_;
    private boolean sessionWasQuit_;
    
+   private Websocket socket_;
+   private boolean socketConnecting_;
+   private boolean socketOpen_;
+   private boolean socketUnavailable_;
+   private int socketReconnectCount_;
+   private final Timer socketConnectTimer_;
+   private final Timer socketKeepAliveTimer_;
+
    private RpcRequest activeRequest_;
    private ServerRequestCallback<JsArray<ClientEvent>> activeRequestCallback_;
 
@@ -494,4 +723,6 @@ class RemoteServerEventListener
    // the completion occurs before we even finished making the request.
    private final HashMap<String, RpcResponse> asyncResponses_
          = new HashMap<String, RpcResponse>();
+
+   private static final int MAX_SOCKET_RECONNECTS = 5;
 }
@@ -1113,6 +1113,18 @@ public class UserPrefsAccessor extends Prefs
          1000);
    }
 
+   /**
+    * Whether to keep Console output in memory and render only the lines near the visible region of the Console, which is faster with large amounts of output.
+    */
+   public PrefValue<Boolean> consoleVirtualizedOutput()
+   {
+      return bool(
+         "console_virtualized_output",
+         "Render only visible Console output", 
+         "Whether to keep Console output in memory and render only the lines near the visible region of the Console, which is faster with large amounts of output.", 
+         false);
+   }
+
    /**
     * How to treat ANSI escape codes in the console.
     */
@@ -1839,6 +1851,18 @@ public class UserPrefsAccessor extends Prefs
          true);
    }
 
+   /**
+    * Whether to receive events from the R session over a websocket, rather than by polling, when possible.
+    */
+   public PrefValue<Boolean> eventWebsockets()
+   {
+      return bool(
+         "event_websockets",
+         "Use websockets for events", 
+         "Whether to receive events from the R session over a websocket, rather than by polling, when possible.", 
+         false);
+   }
+
    /**
     * Whether to close the terminal pane after the shell exits.
     */
@@ -2798,6 +2822,18 @@ public class UserPrefsAccessor extends Prefs
          true);
    }
 
+   /**
+    * Whether to combine server requests made at the same time into a single request.
+    */
+   public PrefValue<Boolean> batchRpcRequests()
+   {
+      return bool(
+         "batch_rpc_requests",
+         "Batch RPC requests", 
+         "Whether to combine server requests made at the same time into a single request.", 
+         false);
+   }
+
    /**
     * R graphics backend.
     */
@@ -3012,6 +3048,8 @@ public class UserPrefsAccessor extends Prefs
          consoleLineLengthLimit().setValue(layer, source.getInteger("console_line_length_limit"));
       if (source.hasKey("console_max_lines"))
          consoleMaxLines().setValue(layer, source.getInteger("console_max_lines"));
+      if (source.hasKey("console_virtualized_output"))
+         consoleVirtualizedOutput().setValue(layer, source.getBool("console_virtualized_output"));
       if (source.hasKey("ansi_console_mode"))
          ansiConsoleMode().setValue(layer, source.getString("ansi_console_mode"));
       if (source.hasKey("show_inline_toolbar_for_r_code_chunks"))
@@ -3122,6 +3160,8 @@ public class UserPrefsAccessor extends Prefs
          terminalLocalEcho().setValue(layer, source.getBool("terminal_local_echo"));
       if (source.hasKey("terminal_websockets"))
          terminalWebsockets().setValue(layer, source.getBool("terminal_websockets"));
+      if (source.hasKey("event_websockets"))
+         eventWebsockets().setValue(layer, source.getBool("event_websockets"));
       if (source.hasKey("terminal_close_behavior"))
          terminalCloseBehavior().setValue(layer, source.getString("terminal_close_behavior"));
       if (source.hasKey("terminal_track_environment"))
@@ -3256,6 +3296,8 @@ public class UserPrefsAccessor extends Prefs
          fileMonitorIgnoredComponents().setValue(layer, source.getObject("file_monitor_ignored_components"));
       if (source.hasKey("install_pkg_deps_individually"))
          installPkgDepsIndividually().setValue(layer, source.getBool("install_pkg_deps_individually"));
+      if (source.hasKey("batch_rpc_requests"))
+         batchRpcRequests().setValue(layer, source.getBool("batch_rpc_requests"));
       if (source.hasKey("graphics_backend"))
          graphicsBackend().setValue(layer, source.getString("graphics_backend"));
       if (source.hasKey("graphics_antialiasing"))
@@ -3341,6 +3383,7 @@ public class UserPrefsAccessor extends Prefs
       prefs.add(rainbowParentheses());
       prefs.add(consoleLineLengthLimit());
       prefs.add(consoleMaxLines());
+      prefs.add(consoleVirtualizedOutput());
       prefs.add(ansiConsoleMode());
       prefs.add(showInlineToolbarForRCodeChunks());
       prefs.add(highlightCodeChunks());
@@ -3396,6 +3439,7 @@ public class UserPrefsAccessor extends Prefs
       prefs.add(showTerminalTab());
       prefs.add(terminalLocalEcho());
       prefs.add(terminalWebsockets());
+      prefs.add(eventWebsockets());
       prefs.add(terminalCloseBehavior());
       prefs.add(terminalTrackEnvironment());
       prefs.add(terminalBellStyle());
@@ -3463,6 +3507,7 @@ public class UserPrefsAccessor extends Prefs
       prefs.add(screenreaderConsoleAnnounceLimit());
       prefs.add(fileMonitorIgnoredComponents());
       prefs.add(installPkgDepsIndividually());
+      prefs.add(batchRpcRequests());
       prefs.add(graphicsBackend());
       prefs.add(graphicsAntialiasing());
       prefs.add(browserFixedWidthFonts());
@@ -42,6 +42,7 @@ public class ConsolePreferencesPane extends PreferencesPane
       NumericValueWidget limitLengthPref =
          numericPref("Limit output line length to:", prefs_.consoleLineLengthLimit());
       add(nudgeRightPlus(limitLengthPref));
+      add(checkboxPref("Only render visible console output (requires restart)", prefs_.consoleVirtualizedOutput()));
 
       consoleColorMode_ = new SelectWidget(
          "ANSI Escape Codes:",
@@ -91,6 +92,7 @@ public class ConsolePreferencesPane extends PreferencesPane
    {
       consoleColorMode_.setValue(prefs_.ansiConsoleMode().getValue());
       initialHighlightConsoleErrors_ = prefs.highlightConsoleErrors().getValue();
+      initialVirtualizedOutput_ = prefs.consoleVirtualizedOutput().getValue();
    }
 
    @Override
@@ -99,9 +101,11 @@ public class ConsolePreferencesPane extends PreferencesPane
       RestartRequirement restartRequirement = super.onApply(prefs);
 
       prefs_.ansiConsoleMode().setGlobalValue(consoleColorMode_.getValue());
-      if (prefs_.highlightConsoleErrors().getValue() != initialHighlightConsoleErrors_)
+      if (prefs_.highlightConsoleErrors().getValue() != initialHighlightConsoleErrors_ ||
+          prefs_.consoleVirtualizedOutput().getValue() != initialVirtualizedOutput_)
       {
          initialHighlightConsoleErrors_ = prefs_.highlightConsoleErrors().getValue();
+         initialVirtualizedOutput_ = prefs_.consoleVirtualizedOutput().getValue();
          if (Desktop.isDesktop())
             restartRequirement.setDesktopRestartRequired(true);
          else
@@ -117,6 +121,7 @@ public class ConsolePreferencesPane extends PreferencesPane
    }
 
    private boolean initialHighlightConsoleErrors_;
+   private boolean initialVirtualizedOutput_;
    private final SelectWidget consoleColorMode_;
 
    // Injected
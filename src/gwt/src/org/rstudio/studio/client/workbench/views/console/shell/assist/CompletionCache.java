@@ -16,32 +16,103 @@ package org.rstudio.studio.client.workbench.views.console.shell.assist;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 
 import org.rstudio.core.client.JsVectorBoolean;
 import org.rstudio.core.client.JsVectorInteger;
 import org.rstudio.core.client.JsVectorString;
 import org.rstudio.core.client.StringUtil;
-import org.rstudio.core.client.container.SafeMap;
 import org.rstudio.studio.client.common.codetools.Completions;
-import org.rstudio.studio.client.common.codetools.RCompletionType;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.workbench.codesearch.CodeSearchOracle;
 
-import com.google.gwt.core.client.JsArrayBoolean;
-import com.google.gwt.core.client.JsArrayInteger;
 import com.google.gwt.core.client.JsArrayString;
 
 // This class should be used to cache completions during an active completion
 // session. For example, if one retrieves completions for the token 'rn',
 // and the user types 'rnorm', the completion cache should be able to satisfy
 // the intermediate completion requests for 'rno', 'rnor', and 'rnorm'.
+//
+// Cached lines are kept in a trie, so the longest cached prefix of a line is
+// found in a single pass over it. Each cached set of completions is indexed
+// once when stored, and remembers the completions matched by the last token
+// it was narrowed with; typing another character narrows those rather than
+// the whole set.
 public class CompletionCache
 {
+   private static class LineNode
+   {
+      public final HashMap<Character, LineNode> children = new HashMap<>();
+      public Entry entry;
+   }
+
+   private static class Entry
+   {
+      public Entry(String line, Completions completions)
+      {
+         line_ = line;
+         completions_ = completions;
+
+         JsArrayString names = completions.getCompletions();
+         int n = names.length();
+         names_ = new String[n];
+         lowerNames_ = new String[n];
+         masks_ = new int[n];
+         for (int i = 0; i < n; i++)
+         {
+            names_[i] = names.get(i);
+            lowerNames_[i] = names_[i].toLowerCase();
+            masks_[i] = charMask(lowerNames_[i]);
+         }
+      }
+
+      // indices of the completions that contain the (lowercased) token as a
+      // subsequence
+      public int[] match(String tokenLower)
+      {
+         int[] candidates = null;
+         int count = names_.length;
+         if (lastToken_ != null && tokenLower.startsWith(lastToken_))
+         {
+            candidates = lastMatches_;
+            count = lastMatches_.length;
+         }
+
+         int mask = charMask(tokenLower);
+         int[] matches = new int[count];
+         int matched = 0;
+         for (int i = 0; i < count; i++)
+         {
+            int index = candidates == null ? i : candidates[i];
+            if ((masks_[index] & mask) == mask &&
+                StringUtil.isSubsequence(lowerNames_[index], tokenLower))
+            {
+               matches[matched++] = index;
+            }
+         }
+
+         int[] result = new int[matched];
+         System.arraycopy(matches, 0, result, 0, matched);
+
+         lastToken_ = tokenLower;
+         lastMatches_ = result;
+         return result;
+      }
+
+      public final String line_;
+      public final Completions completions_;
+      public final String[] names_;
+      private final String[] lowerNames_;
+      private final int[] masks_;
+
+      private String lastToken_;
+      private int[] lastMatches_;
+   }
+
    public CompletionCache()
    {
-      cache_ = new SafeMap<String, Completions>();
+      root_ = new LineNode();
    }
    
    public boolean satisfyRequest(String line,
@@ -50,101 +121,81 @@ public class CompletionCache
       if (StringUtil.isNullOrEmpty(line))
          return false;
       
+      // find the longest cached prefix of the line
+      Entry entry = null;
+      LineNode node = root_;
       for (int i = 0, n = line.length(); i < n; i++)
       {
-         String substring = line.substring(0, n - i);
-         if (cache_.containsKey(substring))
-         {
-            Completions completions = narrow(line, substring, cache_.get(substring));
-            requestCallback.onResponseReceived(completions);
-            return true;
-         }
+         node = node.children.get(line.charAt(i));
+         if (node == null)
+            break;
+         if (node.entry != null)
+            entry = node.entry;
       }
       
-      return false;
+      if (entry == null)
+         return false;
+      
+      requestCallback.onResponseReceived(narrow(line, entry));
+      return true;
    }
    
    public void store(String token, Completions completions)
    {
-      cache_.put(token, completions);
+      if (StringUtil.isNullOrEmpty(token))
+         return;
+      
+      LineNode node = root_;
+      for (int i = 0, n = token.length(); i < n; i++)
+      {
+         char ch = token.charAt(i);
+         LineNode child = node.children.get(ch);
+         if (child == null)
+         {
+            child = new LineNode();
+            node.children.put(ch, child);
+         }
+         node = child;
+      }
+      node.entry = new Entry(token, completions);
    }
    
    public void flush()
    {
-      cache_.clear();
+      root_ = new LineNode();
    }
    
-   private Completions narrow(String line,
-                              String substring,
-                              Completions original)
+   private Completions narrow(String line, Entry entry)
    {
-      // no need to narrow when line + substring are equivalent
-      if (line.equals(substring))
+      // no need to narrow when line + cached line are equivalent
+      Completions original = entry.completions_;
+      if (line.equals(entry.line_))
          return original;
       
       // Construct the new completion token by taking the original
       // completion token, and adding the delta between the new line and
       // the original completion line used.
-      String token = original.getToken() + line.substring(substring.length());
-      
-      // Extract the vector elements of the completion string
-      JsArrayString completions = original.getCompletions();
-      JsArrayString packages    = original.getPackages();
-      JsArrayBoolean quote      = original.getQuote();
-      JsArrayInteger type       = original.getType();
-      JsArrayString meta        = original.getMeta();
+      final String token = original.getToken() + line.substring(entry.line_.length());
+      final int[] matches = entry.match(token.toLowerCase());
       
-      // Now, generate narrowed versions of the above
-      final JsVectorString completionsNarrow = JsVectorString.createVector().cast();
-      final JsVectorString packagesNarrow    = JsVectorString.createVector().cast();
-      final JsVectorBoolean quoteNarrow      = JsVectorBoolean.createVector().cast();
-      final JsVectorInteger typeNarrow       = JsVectorInteger.createVector().cast();
-      final JsVectorString metaNarrow        = JsVectorString.createVector().cast();
-      
-      for (int i = 0, n = completions.length(); i < n; i++)
+      // Score each match once up front, rather than on every comparison
+      final String[] names = entry.names_;
+      final int[] scores = new int[names.length];
+      List<Integer> indices = new ArrayList<>(matches.length);
+      for (int index : matches)
       {
-         boolean isSubsequence = StringUtil.isSubsequence(completions.get(i), token, true);
-         if (isSubsequence)
-         {
-            completionsNarrow.push(completions.get(i));
-            packagesNarrow.push(packages.get(i));
-            quoteNarrow.push(quote.get(i));
-            typeNarrow.push(type.get(i));
-            metaNarrow.push(meta.get(i));
-         }
+         scores[index] = CodeSearchOracle.scoreMatch(names[index], token, false);
+         indices.add(index);
       }
       
-      // Finally, sort these based on score
-      List<Integer> indices = new ArrayList<Integer>();
-      for (int i = 0, n = completionsNarrow.size(); i < n; i++)
-         indices.add(i);
-      
-      // Sort our indices vector
-      Collections.sort(indices, new Comparator<Integer>()
+      Collections.sort(indices, (lhs, rhs) ->
       {
-         @Override
-         public int compare(Integer lhs, Integer rhs)
-         {
-            int lhsType = typeNarrow.get(lhs);
-            int rhsType = typeNarrow.get(rhs);
-            
-            String lhsName = completionsNarrow.get(lhs);
-            String rhsName = completionsNarrow.get(rhs);
-            
-            int lhsScore = CodeSearchOracle.scoreMatch(lhsName, token, false);
-            int rhsScore = CodeSearchOracle.scoreMatch(rhsName, token, false);
-            
-            if (lhsType == RCompletionType.ARGUMENT) lhsType -= 3;
-            if (rhsType == RCompletionType.ARGUMENT) rhsType -= 3;
-            
-            if (lhsScore == rhsScore)
-               return lhsName.compareTo(rhsName);
-            
-            return lhsScore < rhsScore ? -1 : 1;
-         }
+         if (scores[lhs] == scores[rhs])
+            return names[lhs].compareTo(names[rhs]);
+         return scores[lhs] < scores[rhs] ? -1 : 1;
       });
       
-      // Finally, re-arrange our vectors.
+      // Extract the sorted vector elements of the completion string
       final JsVectorString completionsSorted = JsVectorString.createVector().cast();
       final JsVectorString packagesSorted    = JsVectorString.createVector().cast();
       final JsVectorBoolean quoteSorted      = JsVectorBoolean.createVector().cast();
@@ -154,11 +205,11 @@ public class CompletionCache
       for (int i = 0, n = indices.size(); i < n; i++)
       {
          int index = indices.get(i);
-         completionsSorted.push(completionsNarrow.get(index));
-         packagesSorted.push(packagesNarrow.get(index));
-         quoteSorted.push(quoteNarrow.get(index));
-         typeSorted.push(typeNarrow.get(index));
-         metaSorted.push(metaNarrow.get(index));
+         completionsSorted.push(names[index]);
+         packagesSorted.push(original.getPackages().get(index));
+         quoteSorted.push(original.getQuote().get(index));
+         typeSorted.push(original.getType().get(index));
+         metaSorted.push(original.getMeta().get(index));
       }
       
       // And return the completion result
@@ -177,5 +228,27 @@ public class CompletionCache
             original.getLanguage());
    }
    
-   private final SafeMap<String, Completions> cache_;
+   // A bitmask of the (lowercased) characters appearing in a string; a string
+   // can only contain another as a subsequence if its mask covers the other's
+   private static int charMask(String lower)
+   {
+      int mask = 0;
+      for (int i = 0, n = lower.length(); i < n; i++)
+      {
+         char ch = lower.charAt(i);
+         if (ch >= 'a' && ch <= 'z')
+            mask |= 1 << (ch - 'a');
+         else if (ch >= '0' && ch <= '9')
+            mask |= 1 << 26;
+         else if (ch == '.')
+            mask |= 1 << 27;
+         else if (ch == '_')
+            mask |= 1 << 28;
+         else
+            mask |= 1 << 29;
+      }
+      return mask;
+   }
+   
+   private LineNode root_;
 }
@@ -124,7 +124,21 @@ public class CompletionRequester
          // otherwise, produce a new completion list
          if (diff.length() > 0 && !diff.endsWith("::"))
          {
-            callback.onResponseReceived(narrow(cachedResult.token + diff, diff, cachedResult));
+            String newToken = cachedResult.token + diff;
+
+            // if the token just grew by a character, the result for the
+            // previous token holds every completion the new one can match
+            // (unless a '/' starts a new file name)
+            String previousDiff = diff.substring(0, diff.length() - 1);
+            CompletionResult previous = cachedCompletions_.get(previousDiff);
+            if (previous != null &&
+                previous.token.length() > 0 &&
+                !diff.endsWith("/"))
+            {
+               cachedResult = previous;
+            }
+
+            callback.onResponseReceived(narrow(newToken, diff, cachedResult));
             return true;
          }
       }
@@ -151,7 +165,7 @@ public class CompletionRequester
                                    final String diff,
                                    CompletionResult cachedResult)
    {
-      ArrayList<QualifiedName> newCompletions = new ArrayList<>();
+      final ArrayList<QualifiedName> newCompletions = new ArrayList<>();
       newCompletions.ensureCapacity(cachedResult.completions.size());
 
       // For completions that are files or directories, we need to post-process
@@ -180,34 +194,43 @@ public class CompletionRequester
          }
       }
 
-      newCompletions.sort(new Comparator<QualifiedName>()
+      // Score each completion once up front, rather than on every comparison
+      final int n = newCompletions.size();
+      final int[] scores = new int[n];
+      ArrayList<Integer> indices = new ArrayList<>(n);
+      for (int i = 0; i < n; i++)
       {
+         QualifiedName qname = newCompletions.get(i);
+         scores[i] = RCompletionType.isFileType(qname.type)
+               ? CodeSearchOracle.scoreMatch(basename(qname.name), tokenSub, true)
+               : CodeSearchOracle.scoreMatch(qname.name, token, false);
 
+         // Place arguments higher (give less penalty)
+         if (qname.type == RCompletionType.ARGUMENT)
+            scores[i] -= 3;
+
+         indices.add(i);
+      }
+
+      indices.sort(new Comparator<Integer>()
+      {
          @Override
-         public int compare(QualifiedName lhs, QualifiedName rhs)
+         public int compare(Integer lhs, Integer rhs)
          {
-            int lhsScore = RCompletionType.isFileType(lhs.type)
-                  ? CodeSearchOracle.scoreMatch(basename(lhs.name), tokenSub, true)
-                  : CodeSearchOracle.scoreMatch(lhs.name, token, false);
-            
-            int rhsScore = RCompletionType.isFileType(rhs.type)
-               ? CodeSearchOracle.scoreMatch(basename(rhs.name), tokenSub, true)
-               : CodeSearchOracle.scoreMatch(rhs.name, token, false);
-
-            // Place arguments higher (give less penalty)
-            if (lhs.type == RCompletionType.ARGUMENT) lhsScore -= 3;
-            if (rhs.type == RCompletionType.ARGUMENT) rhsScore -= 3;
-
-            if (lhsScore == rhsScore)
-               return lhs.compareTo(rhs);
-
-            return lhsScore < rhsScore ? -1 : 1;
+            if (scores[lhs] == scores[rhs])
+               return newCompletions.get(lhs).compareTo(newCompletions.get(rhs));
+
+            return scores[lhs] < scores[rhs] ? -1 : 1;
          }
       });
 
+      ArrayList<QualifiedName> sortedCompletions = new ArrayList<>(n);
+      for (int index : indices)
+         sortedCompletions.add(newCompletions.get(index));
+
       CompletionResult result = new CompletionResult(
             token,
-            newCompletions,
+            sortedCompletions,
             cachedResult.guessedFunctionName,
             cachedResult.suggestOnAccept,
             cachedResult.dontInsertParens);
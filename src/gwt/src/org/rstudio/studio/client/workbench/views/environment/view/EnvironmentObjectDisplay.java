@@ -42,6 +42,7 @@ public abstract class EnvironmentObjectDisplay
       boolean getAscendingSort();
       boolean getShowInternalFunctions();
       void setShowInternalFunctions(boolean hide);
+      List<RObjectEntry> getDisplayedObjects();
       public void fillEntryContents(RObjectEntry entry, int idx, 
                                     boolean drawProgress);
    }
@@ -50,8 +51,11 @@ public abstract class EnvironmentObjectDisplay
                                    EnvironmentObjectsObserver observer,
                                    String environmentName)
    {
-      super(EnvironmentObjects.MAX_ENVIRONMENT_OBJECTS, 
-            RObjectEntry.KEY_PROVIDER);
+      super(RENDERED_ROWS, RObjectEntry.KEY_PROVIDER);
+
+      // environments can hold many thousands of objects; render only those
+      // in view
+      enableVirtualScrolling();
 
       observer_ = observer;
       host_ = host;
@@ -109,4 +113,6 @@ public abstract class EnvironmentObjectDisplay
    protected Host host_;
    protected EnvironmentStyle environmentStyle_;
    protected String environmentName_ = "";
+
+   private static final int RENDERED_ROWS = 200;
 }
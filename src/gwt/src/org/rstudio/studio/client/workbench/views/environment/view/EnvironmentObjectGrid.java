@@ -91,7 +91,7 @@ public class EnvironmentObjectGrid extends EnvironmentObjectDisplay
       boolean hasFilter = !host_.getFilterText().isEmpty();
       ArrayList<String> selectedObjectNames = new ArrayList<>();
       ArrayList<String> filteredObjectNames = new ArrayList<>();
-      List<RObjectEntry> objects = getVisibleItems();
+      List<RObjectEntry> objects = host_.getDisplayedObjects();
       for (RObjectEntry object: objects)
       {
          if (object.visible)
@@ -233,7 +233,7 @@ public class EnvironmentObjectGrid extends EnvironmentObjectDisplay
    
    private void setSelectAll(boolean selected)
    {
-      List<RObjectEntry> objects = getVisibleItems();
+      List<RObjectEntry> objects = host_.getDisplayedObjects();
       for (RObjectEntry object: objects)
       {
          if (object.visible)
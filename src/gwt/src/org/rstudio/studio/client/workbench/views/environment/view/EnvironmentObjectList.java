@@ -106,7 +106,7 @@ public class EnvironmentObjectList extends EnvironmentObjectDisplay
 
       // If the view is filtered, return items that are visible.
       ArrayList<String> objectNames = new ArrayList<String>();
-      List<RObjectEntry> objects = getVisibleItems();
+      List<RObjectEntry> objects = host_.getDisplayedObjects();
       for (RObjectEntry object: objects)
       {
          if (object.visible)
@@ -17,6 +17,7 @@ package org.rstudio.studio.client.workbench.views.environment.view;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 
 import com.google.gwt.core.client.GWT;
@@ -54,8 +55,8 @@ public class EnvironmentObjects extends ResizeComposite
       {
          try
          {
-            if (row_ >= 0 && row_ <= objectDisplay_.getVisibleItemCount())
-               objectDisplay_.getRowElement(row_).scrollIntoView();
+            if (row_ >= 0 && row_ < objectDisplay_.getRowCount())
+               objectDisplay_.scrollRowIntoView(row_);
          }
          catch (Exception e)
          {
@@ -139,15 +140,13 @@ public class EnvironmentObjects extends ResizeComposite
 
    public void addObject(RObject obj)
    {
-      int idx = indexOfExistingObject(obj.getName());
       final RObjectEntry newEntry = entryFromRObject(obj);
-      boolean added = false;
+      final RObjectEntry oldEntry = objectsByName_.get(obj.getName());
+      boolean refillContents = false;
 
       // if the object is already in the environment, just update the value
-      if (idx >= 0)
+      if (oldEntry != null)
       {
-         final RObjectEntry oldEntry = objectDataProvider_.getList().get(idx);
-
          if (oldEntry.rObject.getType() == obj.getType())
          {
             // type hasn't changed
@@ -158,50 +157,56 @@ public class EnvironmentObjects extends ResizeComposite
                // refill it immediately. (another approach would be to push the
                // set of currently expanded objects to the server so these
                // objects would show up on the client already expanded)
-               fillEntryContents(newEntry, idx, false);
+               refillContents = true;
             }
             else
             {
                // contents aren't deferred, just use the expanded state directly
                newEntry.expanded = oldEntry.expanded;
             }
-            objectDataProvider_.getList().set(idx, newEntry);
-            added = true;
-         }
-         else
-         {
-            // types did change, do a full add/remove
-            objectDataProvider_.getList().remove(idx);
          }
-         
-      }
-      if (!added)
-      {
-         RObjectEntry entry = entryFromRObject(obj);
-         idx = indexOfNewObject(entry);
-         objectDataProvider_.getList().add(idx, entry);
+
       }
-      updateCategoryLeaders(true);
+
+      // update both the full set of objects and those displayed (the ones
+      // that match the filter)
+      putEntry(allObjects_, oldEntry, newEntry);
+      int idx = putEntry(objectDataProvider_.getList(),
+                         oldEntry != null && oldEntry.visible ? oldEntry : null,
+                         newEntry.visible ? newEntry : null);
+      objectsByName_.put(obj.getName(), newEntry);
+
+      if (refillContents)
+         fillEntryContents(newEntry, idx, false);
+
+      scheduleUpdateCategoryLeaders();
       
       // scroll into view
-      scrollTimer_.setRow(idx);
-      scrollTimer_.schedule(100);
+      if (idx >= 0)
+      {
+         scrollTimer_.setRow(idx);
+         scrollTimer_.schedule(100);
+      }
    }
 
    public void removeObject(String objName)
    {
-      int idx = indexOfExistingObject(objName);
-      if (idx >= 0)
-      {
-         objectDataProvider_.getList().remove(idx);
-      }
+      RObjectEntry entry = objectsByName_.remove(objName);
+      if (entry == null)
+         return;
+
+      putEntry(allObjects_, entry, null);
+      if (entry.visible)
+         putEntry(objectDataProvider_.getList(), entry, null);
 
-      updateCategoryLeaders(true);
+      scheduleUpdateCategoryLeaders();
    }
    
    public void clearObjects()
    {
       objectDataProvider_.getList().clear();
+      allObjects_.clear();
+      objectsByName_.clear();
    }
    
    public void clearSelection()
@@ -221,9 +226,16 @@ public class EnvironmentObjects extends ResizeComposite
          objectEntryList.add(entry);
       }
       Collections.sort(objectEntryList, objectSort_);
-
-      // push the list into the UI and update category leaders
-      objectDataProvider_.getList().addAll(objectEntryList);
+      for (RObjectEntry entry : objectEntryList)
+         objectsByName_.put(entry.rObject.getName(), entry);
+
+      // push the list into the UI and update category leaders (this is
+      // normally called with no objects, but keep them sorted if not)
+      boolean wasEmpty = allObjects_.isEmpty();
+      allObjects_.addAll(objectEntryList);
+      if (!wasEmpty)
+         Collections.sort(allObjects_, objectSort_);
+      refreshDisplayedObjects();
       updateCategoryLeaders(false);
 
       if (useStatePersistence())
@@ -298,23 +310,14 @@ public class EnvironmentObjects extends ResizeComposite
    {
       filterText_ = filterText.toLowerCase();
 
-      // Iterate over each entry in the list, and toggle its visibility based 
-      // on whether it matches the current filter text.
-      List<RObjectEntry> objects = objectDataProvider_.getList();
-      for (int i = 0; i < objects.size(); i++)
-      {
-         RObjectEntry entry = objects.get(i);
-         boolean visible = matchesFilter(entry.rObject);
-         // Redraw the object if its visibility status has changed, or if it's
-         // visible (for visible entries we need to update the search highlight)
-         if (visible != entry.visible || visible)
-         {
-            entry.visible = visible;
-            redrawRowSafely(i);
-         }
-      }
+      // Toggle the visibility of each entry based on whether it matches the
+      // current filter text, and display just those that do. Only the rows
+      // in view are (re)drawn, which updates their search highlight.
+      for (RObjectEntry entry : allObjects_)
+         entry.visible = matchesFilter(entry.rObject);
+      refreshDisplayedObjects();
 
-      updateCategoryLeaders(true);
+      updateCategoryLeaders(false);
    }
    
    public int getObjectDisplay()
@@ -407,7 +410,7 @@ public class EnvironmentObjects extends ResizeComposite
       }
 
       objectDisplayType_ = type;
-      Collections.sort(objectDataProvider_.getList(), objectSort_);
+      sortObjects();
       updateCategoryLeaders(false);
       objectDataProvider_.addDataDisplay(objectDisplay_);
 
@@ -492,7 +495,7 @@ public class EnvironmentObjects extends ResizeComposite
    {
       objectSort_.setSortColumn(col);
       observer_.setViewDirty();
-      Collections.sort(objectDataProvider_.getList(), objectSort_);
+      sortObjects();
    }
    
    @Override
@@ -511,14 +514,28 @@ public class EnvironmentObjects extends ResizeComposite
    {
       objectSort_.setAscending(ascending);
       observer_.setViewDirty();
-      Collections.sort(objectDataProvider_.getList(), objectSort_);
+      sortObjects();
    }
    
    public void setSort(int column, boolean ascending)
    {
+      // the list is always kept sorted, so there's nothing to do if the
+      // sort hasn't changed
+      if (column == objectSort_.getSortColumn() &&
+          ascending == objectSort_.getAscending())
+      {
+         return;
+      }
+
       objectSort_.setSortColumn(column);
       objectSort_.setAscending(ascending);
-      Collections.sort(objectDataProvider_.getList(), objectSort_);
+      sortObjects();
+   }
+
+   @Override
+   public List<RObjectEntry> getDisplayedObjects()
+   {
+      return objectDataProvider_.getList();
    }
 
    @Override
@@ -542,42 +559,130 @@ public class EnvironmentObjects extends ResizeComposite
 
    // Private methods: object management --------------------------------------
 
-   private int indexOfExistingObject(String objectName)
+   // returns the position of an entry in a list of entries. the lists are
+   // always kept sorted (by type, then name in the list view) and the sort
+   // order is total, so the entry can be found with a binary search
+   private int indexOfExistingObject(List<RObjectEntry> objects,
+                                     RObjectEntry entry)
    {
-      List<RObjectEntry> objects = objectDataProvider_.getList();
-
-      // find the position of the object in the list--we can't use binary
-      // search here since we're matching on names and the list isn't sorted
-      // by name (it's sorted by type, then name)
-      int index;
-      boolean foundObject = false;
-      for (index = 0; index < objects.size(); index++)
+      int idx = Collections.binarySearch(objects, entry, objectSort_);
+      if (idx >= 0)
       {
-         if (objects.get(index).rObject.getName() == objectName)
+         // distinct names can still collate equally; check each of the
+         // entries that compare equal to this one
+         for (int i = idx; i >= 0 && 
+              objectSort_.compare(objects.get(i), entry) == 0; i--)
+         {
+            if (objects.get(i) == entry)
+               return i;
+         }
+         for (int i = idx + 1; i < objects.size() && 
+              objectSort_.compare(objects.get(i), entry) == 0; i++)
          {
-            foundObject = true;
-            break;
+            if (objects.get(i) == entry)
+               return i;
          }
       }
 
-      return foundObject ? index : -1;
+      // not where it should be; shouldn't happen, but fall back on a scan
+      return objects.indexOf(entry);
    }
 
-   // returns the position a new object entry should occupy in the table
-   private int indexOfNewObject(RObjectEntry obj)
+   // returns the position a new object entry should occupy in a list of
+   // entries (after any entries that compare equal to it)
+   private int indexOfNewObject(List<RObjectEntry> objects, RObjectEntry obj)
    {
+      int low = 0;
+      int high = objects.size();
+      while (low < high)
+      {
+         int mid = (low + high) >>> 1;
+         if (objectSort_.compare(obj, objects.get(mid)) < 0)
+            high = mid;
+         else
+            low = mid + 1;
+      }
+      return low;
+   }
+
+   // returns whether an entry can replace the one at the given index without
+   // breaking the sort order
+   private boolean sortsAtIndex(List<RObjectEntry> objects,
+                                RObjectEntry entry,
+                                int idx)
+   {
+      return (idx == 0 || 
+              objectSort_.compare(objects.get(idx - 1), entry) <= 0) &&
+             (idx == objects.size() - 1 ||
+              objectSort_.compare(entry, objects.get(idx + 1)) <= 0);
+   }
+
+   // replaces oldEntry with newEntry in a list of entries (either may be null
+   // to just add or remove an entry), keeping the list sorted. the entry is
+   // replaced in place unless the new value changes where it sorts (e.g. its
+   // type or size changed), in which case it's moved. returns the index of
+   // newEntry, or -1 if there isn't one
+   private int putEntry(List<RObjectEntry> objects,
+                        RObjectEntry oldEntry,
+                        RObjectEntry newEntry)
+   {
+      int idx = oldEntry == null ? -1 : indexOfExistingObject(objects, oldEntry);
+      if (idx >= 0 && newEntry != null && sortsAtIndex(objects, newEntry, idx))
+      {
+         objects.set(idx, newEntry);
+         return idx;
+      }
+
+      if (idx >= 0)
+         objects.remove(idx);
+      if (newEntry == null)
+         return -1;
+
+      idx = indexOfNewObject(objects, newEntry);
+      objects.add(idx, newEntry);
+      return idx;
+   }
+
+   // displays the objects that match the filter; only those rows in view
+   // are rendered
+   private void refreshDisplayedObjects()
+   {
+      ArrayList<RObjectEntry> displayed = new ArrayList<RObjectEntry>();
+      for (RObjectEntry entry : allObjects_)
+      {
+         if (entry.visible)
+            displayed.add(entry);
+      }
+
       List<RObjectEntry> objects = objectDataProvider_.getList();
-      int numObjects = objects.size();
-      int idx;
-      // consider: can we use binary search here?
-      for (idx = 0; idx < numObjects; idx++)
+      objects.clear();
+      objects.addAll(displayed);
+   }
+
+   private void sortObjects()
+   {
+      Collections.sort(allObjects_, objectSort_);
+      Collections.sort(objectDataProvider_.getList(), objectSort_);
+   }
+
+   // category leaders are updated once after all the adds and removes in
+   // an event loop (e.g. when many objects are assigned in a loop), rather
+   // than once for each
+   private void scheduleUpdateCategoryLeaders()
+   {
+      if (categoryLeadersUpdatePending_)
+         return;
+
+      categoryLeadersUpdatePending_ = true;
+      Scheduler.get().scheduleFinally(new ScheduledCommand()
       {
-         if (objectSort_.compare(obj, objects.get(idx)) < 0)
+         @Override
+         public void execute()
          {
-            break;
+            categoryLeadersUpdatePending_ = false;
+            updateCategoryLeaders(true);
          }
-      }
-      return idx;
+      });
    }
 
    // after adds or removes, we need to tag the new category-leading objects
@@ -695,18 +800,19 @@ public class EnvironmentObjects extends ResizeComposite
             { 
                // loop through the objects in the list and check to see if each
                // is marked expanded in the persisted list of expanded objects
-               List<RObjectEntry> objects = objectDataProvider_.getList();
-               for (int idxObj = 0; idxObj < objects.size(); idxObj++)
+               for (int idxExpanded = 0;
+                    idxExpanded < deferredExpandedObjects_.length();
+                    idxExpanded++)
                {
-                  for (int idxExpanded = 0;
-                       idxExpanded < deferredExpandedObjects_.length();
-                       idxExpanded++)
+                  RObjectEntry entry = objectsByName_.get(
+                        deferredExpandedObjects_.get(idxExpanded));
+                  if (entry != null)
                   {
-                     if (objects.get(idxObj).rObject.getName() ==
-                         deferredExpandedObjects_.get(idxExpanded))
+                     entry.expanded = true;
+                     if (entry.visible)
                      {
-                        objects.get(idxObj).expanded = true;
-                        redrawRowSafely(idxObj);
+                        redrawRowSafely(indexOfExistingObject(
+                              objectDataProvider_.getList(), entry));
                      }
                   }
                }
@@ -733,16 +839,12 @@ public class EnvironmentObjects extends ResizeComposite
       return new RObjectEntry(obj, matchesFilter(obj));
    }
    
-   // for very large environments, the number of objects may exceed the number
-   // of physical rows; avoid redrawing rows outside the bounds of the
-   // container's physical limit
+   // only the rows in view (and a buffer around them) are rendered; avoid
+   // redrawing rows that aren't (they'll be drawn with their current state
+   // when scrolled into view)
    private void redrawRowSafely(int idx)
    {
-      boolean oob =
-            idx >= MAX_ENVIRONMENT_OBJECTS ||
-            idx >= objectDisplay_.getRowCount();
-
-      if (oob)
+      if (objectDisplay_ == null || !objectDisplay_.isRowRendered(idx))
          return;
             
       objectDisplay_.redrawRow(idx);
@@ -763,6 +865,9 @@ public class EnvironmentObjects extends ResizeComposite
 
    private ListDataProvider<RObjectEntry> objectDataProvider_;
    private RObjectEntrySort objectSort_;
+   private final ArrayList<RObjectEntry> allObjects_ = new ArrayList<>();
+   private final HashMap<String, RObjectEntry> objectsByName_ = new HashMap<>();
+   private boolean categoryLeadersUpdatePending_ = false;
 
    private EnvironmentObjectsObserver observer_;
    private int contextDepth_;
@@ -779,6 +884,4 @@ public class EnvironmentObjects extends ResizeComposite
    private boolean pendingCallFramePanelSize_ = false;
    private Integer deferredObjectDisplayType_ = new Integer(OBJECT_LIST_VIEW);
    private int gridRenderRetryCount_ = 0;
-   
-   public final static int MAX_ENVIRONMENT_OBJECTS = 1024;
 }
@@ -102,6 +102,14 @@ class RObjectEntrySort implements Comparator<RObjectEntry>
                                    second.getDisplayValue());
             break;
          }
+
+         // break ties by name so that the ordering is total; this lets
+         // EnvironmentObjects binary search for an object's position
+         if (result == 0 && sortColumn_ != ObjectGridColumn.COLUMN_NAME)
+         {
+            result = localeCompare(first.rObject.getName(),
+                                   second.rObject.getName());
+         }
       }
       return result;
    }
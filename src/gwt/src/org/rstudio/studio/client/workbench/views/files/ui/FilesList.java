@@ -15,8 +15,11 @@
 package org.rstudio.studio.client.workbench.views.files.ui;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.rstudio.core.client.Debug;
@@ -25,9 +28,9 @@ import org.rstudio.core.client.cellview.AriaLabeledCheckboxCell;
 import org.rstudio.core.client.cellview.ColumnSortInfo;
 import org.rstudio.core.client.cellview.LabeledBoolean;
 import org.rstudio.core.client.cellview.LinkColumn;
+import org.rstudio.core.client.cellview.ScrollingDataGrid;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.widget.OperationWithInput;
-import org.rstudio.core.client.widget.RStudioDataGrid;
 import org.rstudio.studio.client.ResizableHeader;
 import org.rstudio.studio.client.common.filetypes.FileIcon;
 import org.rstudio.studio.client.common.filetypes.FileIconResourceCell;
@@ -44,7 +47,6 @@ import com.google.gwt.event.logical.shared.ResizeEvent;
 import com.google.gwt.event.logical.shared.ResizeHandler;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 import com.google.gwt.safehtml.shared.SafeHtmlUtils;
-import com.google.gwt.user.cellview.client.DataGrid;
 import com.google.gwt.user.cellview.client.Column;
 import com.google.gwt.user.cellview.client.ColumnSortEvent;
 import com.google.gwt.user.cellview.client.ColumnSortList;
@@ -78,11 +80,13 @@ public class FilesList extends Composite
       sortHandler_ = new ColumnSortEvent.ListHandler<FileSystemItem>(
                                                       dataProvider_.getList());
       
-      // create cell table
-      filesDataGrid_ = new RStudioDataGrid<FileSystemItem>(
-                                          15,
+      // create cell table (directories can hold many thousands of files, so
+      // render only those in view)
+      filesDataGrid_ = new ScrollingDataGrid<FileSystemItem>(
+                                          RENDERED_ROWS,
                                           FilesListDataGridResources.INSTANCE,
                                           KEY_PROVIDER);
+      filesDataGrid_.enableVirtualScrolling();
       selectionModel_ = new MultiSelectionModel<FileSystemItem>(KEY_PROVIDER);
       filesDataGrid_.setSelectionModel(
          selectionModel_, 
@@ -379,6 +383,9 @@ public class FilesList extends Composite
    public void displayFiles(FileSystemItem containingPath, 
                             JsArray<FileSystemItem> files)
    {
+      // changes not yet applied were to the previous listing
+      pendingChanges_.clear();
+      
       // clear the selection
       selectNone();
       
@@ -386,12 +393,10 @@ public class FilesList extends Composite
       containingPath_ = containingPath;
       parentPath_ = containingPath_.getParentPath();
       
-      // set page size (+1 for parent path)
-      filesDataGrid_.setPageSize(files.length() + 1);
-      
       // get underlying list
       List<FileSystemItem> fileList = dataProvider_.getList();
       fileList.clear();
+      filesByPath_.clear();
             
       // add entry for parent path if we have one
       if (parentPath_ != null)
@@ -399,7 +404,11 @@ public class FilesList extends Composite
       
       // add files to table
       for (int i=0; i<files.length(); i++)
-         fileList.add(files.get(i));
+      {
+         FileSystemItem file = files.get(i);
+         fileList.add(file);
+         filesByPath_.put(file.getPath(), file);
+      }
            
       // apply sort list
       applyColumnSortList();
@@ -425,6 +434,9 @@ public class FilesList extends Composite
    
    public ArrayList<FileSystemItem> getSelectedFiles()
    {    
+      // don't include files we've been told were deleted
+      applyPendingChanges();
+      
       // first make sure there are no leftover items in the selected set
       Set<FileSystemItem> selectedSet = selectionModel_.getSelectedSet();
       selectedSet.retainAll(dataProvider_.getList());
@@ -434,67 +446,149 @@ public class FilesList extends Composite
    
    public void updateWithAction(FileChange viewAction)
    {        
-      final FileSystemItem file = viewAction.getFile();
-      final List<FileSystemItem> files = getFiles();
-      switch(viewAction.getType())
+      // changes tend to arrive in bursts (e.g. when switching git branches),
+      // so apply all those that arrive together at once
+      pendingChanges_.add(viewAction);
+      if (pendingChanges_.size() == 1)
+         Scheduler.get().scheduleDeferred(() -> applyPendingChanges());
+   }
+   
+   private void applyPendingChanges()
+   {
+      if (pendingChanges_.isEmpty())
+         return;
+      
+      if (containingPath_ == null)
       {
-      case FileChange.ADD:
-         if (file.getParentPath().equalTo(containingPath_))
+         pendingChanges_.clear();
+         return;
+      }
+      
+      // work out what each changed file should end up as in the list (null
+      // if it shouldn't be there)
+      Map<String, FileSystemItem> updates = new HashMap<>();
+      for (FileChange change : pendingChanges_)
+      {
+         FileSystemItem file = change.getFile();
+         String path = file.getPath();
+         boolean listed = updates.containsKey(path) ?
+               updates.get(path) != null :
+               filesByPath_.containsKey(path);
+         
+         switch(change.getType())
          {
-            int row = rowForFile(file);
-            if (row == -1)
-            {
-               files.add(file);
-               filesDataGrid_.setPageSize(files.size() + 1);
-            }
-            else
-            {
-               // since we eagerly perform renames at the client UI
-               // layer then sometimes an "added" file is really just
-               // a rename. in this case the file already exists due
-               // to the eager rename in the client but still needs its
-               // metadata updated
-               files.set(row, file);
-            }
+         case FileChange.ADD:
+            // since we eagerly perform renames at the client UI layer then
+            // sometimes an "added" file is really just a rename. in this
+            // case the file already exists due to the eager rename in the
+            // client but still needs its metadata updated
+            if (file.getParentPath().equalTo(containingPath_))
+               updates.put(path, file);
+            break;
+            
+         case FileChange.MODIFIED:
+            if (listed)
+               updates.put(path, file);
+            break;
+            
+         case FileChange.DELETE:
+            if (listed)
+               updates.put(path, null);
+            break;
+            
+         default:
+            Debug.log("Unexpected file change type: " + change.getType());
+            break;
          }
-         break;
+      }
+      pendingChanges_.clear();
+      
+      if (updates.isEmpty())
+         return;
+      
+      // take the changed files out of the list, then merge their new
+      // versions (sorted) back into it, since it's already sorted
+      List<FileSystemItem> files = getFiles();
+      List<FileSystemItem> retained = new ArrayList<>(files.size());
+      for (FileSystemItem file : files)
+      {
+         if (file == parentPath_ || !updates.containsKey(file.getPath()))
+            retained.add(file);
+      }
+      
+      List<FileSystemItem> updated = new ArrayList<>();
+      List<FileSystemItem> selected = new ArrayList<>();
+      for (Map.Entry<String, FileSystemItem> update : updates.entrySet())
+      {
+         FileSystemItem previous = filesByPath_.remove(update.getKey());
+         FileSystemItem file = update.getValue();
+         if (file == null)
+            continue;
          
-      case FileChange.MODIFIED:
+         updated.add(file);
+         filesByPath_.put(update.getKey(), file);
+         
+         // the selection model loses the selection state when we update
+         // the row, so save and restore it manually.
+         if (previous != null && selectionModel_.isSelected(previous))
+            selected.add(file);
+      }
+      
+      Comparator<FileSystemItem> comparator = getSortComparator();
+      Collections.sort(updated, comparator);
+      
+      List<FileSystemItem> merged =
+            new ArrayList<>(retained.size() + updated.size());
+      int i = 0, j = 0;
+      while (i < retained.size() || j < updated.size())
+      {
+         if (j == updated.size() ||
+             (i < retained.size() &&
+              comparator.compare(retained.get(i), updated.get(j)) <= 0))
          {
-            int row = rowForFile(file);
-            if (row != -1)
-            {
-               // the selection model loses the selection state when we update
-               // the row, so save and restore it manually.
-               boolean selected = selectionModel_.isSelected(file);
-               files.set(row, file);
-               selectionModel_.setSelected(file, selected);
-            }
+            merged.add(retained.get(i++));
          }
-         break;
- 
-      case FileChange.DELETE:
+         else
          {
-            int row = rowForFile(file);
-            if (row != -1)
-            {
-               files.remove(row);
-               
-               // if a file is deleted and then re-added within the same
-               // event loop (as occurs when gedit saves a text file) the
-               // table doesn't always update correctly (it has a duplicate
-               // of the item deleted / re-added). the call to flush overcomes
-               // this issue
-               dataProvider_.flush();
-            }
+            merged.add(updated.get(j++));
          }
-         break;
-      
-      default:
-         Debug.log("Unexpected file change type: " + viewAction.getType());
-         
-         break;
       }
+      
+      files.clear();
+      files.addAll(merged);
+      for (FileSystemItem file : selected)
+         selectionModel_.setSelected(file, true);
+      
+      // if a file is deleted and then re-added within the same event loop
+      // (as occurs when gedit saves a text file) the table doesn't always
+      // update correctly (it has a duplicate of the item deleted /
+      // re-added). the call to flush overcomes this issue
+      dataProvider_.flush();
+   }
+   
+   /**
+    * @return the order the list is currently sorted in (as applied by
+    *    sortHandler_)
+    */
+   @SuppressWarnings("unchecked")
+   private Comparator<FileSystemItem> getSortComparator()
+   {
+      ColumnSortList sortList = filesDataGrid_.getColumnSortList();
+      if (sortList.size() == 0)
+         return (arg0, arg1) -> 0;
+      
+      com.google.gwt.user.cellview.client.ColumnSortList.ColumnSortInfo sortInfo = sortList.get(0);
+      final Comparator<FileSystemItem> comparator = sortHandler_.getComparator(
+            (Column<FileSystemItem, ?>) sortInfo.getColumn());
+      if (comparator == null)
+         return (arg0, arg1) -> 0;
+      
+      final boolean ascending = sortInfo.isAscending();
+      return (arg0, arg1) ->
+      {
+         int diff = comparator.compare(arg0, arg1);
+         return ascending ? diff : -diff;
+      };
    }
    
    public void renameFile(FileSystemItem from, FileSystemItem to)
@@ -504,6 +598,8 @@ public class FilesList extends Composite
       {
          selectNone();
          getFiles().set(index, to);
+         filesByPath_.remove(from.getPath());
+         filesByPath_.put(to.getPath(), to);
       }
    }
    
@@ -512,16 +608,6 @@ public class FilesList extends Composite
       return dataProvider_.getList();
    }
    
-   private int rowForFile(FileSystemItem file)
-   {
-      List<FileSystemItem> files = getFiles();
-      for (int i=0; i<files.size(); i++)
-         if (files.get(i).equalTo(file))
-            return i;
-      
-      return -1;
-   }
-   
    private void applyColumnSortList()
    {
       applyingProgrammaticSort_ = true;
@@ -683,7 +769,7 @@ public class FilesList extends Composite
    private FileSystemItem containingPath_ = null;
    private FileSystemItem parentPath_ = null;
   
-   private final DataGrid<FileSystemItem> filesDataGrid_; 
+   private final ScrollingDataGrid<FileSystemItem> filesDataGrid_; 
    private final LinkColumn<FileSystemItem> nameColumn_;
    private final TextColumn<FileSystemItem> sizeColumn_;
    private final TextColumn<FileSystemItem> modifiedColumn_;
@@ -695,10 +781,17 @@ public class FilesList extends Composite
    private final MultiSelectionModel<FileSystemItem> selectionModel_;
    private final ListDataProvider<FileSystemItem> dataProvider_;
    private final ColumnSortEvent.ListHandler<FileSystemItem> sortHandler_;
+   
+   // the files listed (other than the parent path), by path
+   private final Map<String, FileSystemItem> filesByPath_ = new HashMap<>();
+   
+   // file changes received but not yet applied to the list
+   private final List<FileChange> pendingChanges_ = new ArrayList<>();
 
    private final Files.Display.Observer observer_;
    private final ResizeLayoutPanel layoutPanel_;
    
+   private static final int RENDERED_ROWS = 200;
    private static final int CHECK_COLUMN_WIDTH_PIXELS = 30;
    private static final int ICON_COLUMN_WIDTH_PIXELS = 26;
    private static final int SIZE_COLUMN_WIDTH_PIXELS = 80;
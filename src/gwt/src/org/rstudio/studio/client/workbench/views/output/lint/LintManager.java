@@ -16,6 +16,7 @@ package org.rstudio.studio.client.workbench.views.output.lint;
 
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.Invalidation;
+import org.rstudio.core.client.js.JsObject;
 import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.common.RetinaStyleInjector;
@@ -30,6 +31,7 @@ import org.rstudio.studio.client.workbench.views.output.lint.model.LintServerOpe
 import org.rstudio.studio.client.workbench.views.presentation.events.SourceFileSaveCompletedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.AceEditor;
 import org.rstudio.studio.client.workbench.views.source.editors.text.DocDisplay;
+import org.rstudio.studio.client.workbench.views.source.editors.text.Scope;
 import org.rstudio.studio.client.workbench.views.source.editors.text.TextEditingTarget;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceEditorNative;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
@@ -37,6 +39,7 @@ import org.rstudio.studio.client.workbench.views.source.editors.text.cpp.CppComp
 import org.rstudio.studio.client.workbench.views.source.editors.text.cpp.CppCompletionOperation;
 import org.rstudio.studio.client.workbench.views.source.editors.text.cpp.CppCompletionRequest;
 import org.rstudio.studio.client.workbench.views.source.model.CppDiagnostic;
+import org.rstudio.studio.client.workbench.views.source.model.DocumentDeltaTracker;
 
 import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.Scheduler;
@@ -126,6 +129,15 @@ public class LintManager
          }
       };
 
+      // Keep track of which rows have changed since R lint was requested
+      docDisplay_.addDocumentChangedHandler(event ->
+      {
+         if (rLintDeltas_ != null)
+            rLintDeltas_.onDocumentChanged(event.getEvent());
+         if (requestDeltas_ != null)
+            requestDeltas_.onDocumentChanged(event.getEvent());
+      });
+
       // Background linting
       docDisplay_.addValueChangeHandler(new ValueChangeHandler<Void>()
       {
@@ -258,6 +270,7 @@ public class LintManager
                         target_.getPath(),
                         context.showMarkers,
                         context.explicit,
+                        null,
                         new ServerRequestCallback<JsArray<LintItem>>()
                         {
                            @Override
@@ -294,49 +307,210 @@ public class LintManager
 
    private void performRLintServerRequest(final LintContext context)
    {
+      // When possible, reuse the lint we already have for the bodies of
+      // functions that haven't changed, and only have the server lint the
+      // rest of the document
+      final String lintPrefs = getRLintPrefs();
+      final JsArray<LintItem> reusedLint = JsArray.createArray().cast();
+      JsArray<JsObject> skipRows = null;
+      if (canReuseRLint(context, lintPrefs))
+      {
+         skipRows = JsArray.createArray().cast();
+         findUnchangedFunctionBodies(docDisplay_.getScopeTree(), skipRows);
+         reuseLint(rLint_, rLintDeltas_, skipRows, reusedLint);
+      }
+
+      final DocumentDeltaTracker deltas = new DocumentDeltaTracker(null);
+      requestDeltas_ = deltas;
 
       server_.lintRSourceDocument(
             target_.getId(),
             target_.getPath(),
             context.showMarkers,
             context.explicit,
+            skipRows,
             new ServerRequestCallback<JsArray<LintItem>>()
             {
                @Override
                public void onResponseReceived(JsArray<LintItem> lint)
                {
+                  if (requestDeltas_ == deltas)
+                     requestDeltas_ = null;
+
                   if (context.token.isInvalid())
                      return;
 
+                  for (int i = 0; i < reusedLint.length(); i++)
+                     lint.push(reusedLint.get(i));
+
+                  // explicit lint includes checks that background lint
+                  // doesn't do, so it shouldn't be reused for the latter
+                  rLint_ = context.explicit ? null : lint;
+                  rLintPrefs_ = lintPrefs;
+                  rLintDeltas_ = deltas;
+
                   showLint(context, lint);
                }
 
                @Override
                public void onError(ServerError error)
                {
+                  if (requestDeltas_ == deltas)
+                     requestDeltas_ = null;
+
                   Debug.logError(error);
                }
             });
    }
+
+   private boolean canReuseRLint(LintContext context, String lintPrefs)
+   {
+      // lint for the Markers pane, or requested explicitly, is always for the
+      // whole document; so is lint that looks for undefined symbols, since
+      // a function body can define symbols used elsewhere (with <<-), and
+      // lint that checks the arguments to function calls, since a call in an
+      // unchanged body can be to a function whose definition has changed
+      return rLint_ != null &&
+             !context.showMarkers &&
+             !context.explicit &&
+             target_.getTextFileType().isR() &&
+             !userPrefs_.warnIfNoSuchVariableInScope().getValue() &&
+             !userPrefs_.checkArgumentsToRFunctionCalls().getValue() &&
+             lintPrefs.equals(rLintPrefs_);
+   }
+
+   private String getRLintPrefs()
+   {
+      return userPrefs_.diagnosticsInRFunctionCalls().getValue() + "," +
+             userPrefs_.checkArgumentsToRFunctionCalls().getValue() + "," +
+             userPrefs_.checkUnexpectedAssignmentInFunctionCall().getValue() + "," +
+             userPrefs_.styleDiagnostics().getValue();
+   }
+
+   /**
+    * Finds the rows within the bodies of functions that haven't changed
+    * since the last R lint. Only whole rows between the braces are
+    * included, so that the rest of the document still parses without them.
+    */
+   private void findUnchangedFunctionBodies(JsArray<Scope> scopes,
+                                            JsArray<JsObject> skipRows)
+   {
+      for (int i = 0; i < scopes.length(); i++)
+      {
+         Scope scope = scopes.get(i);
+         if (!scope.isFunction())
+         {
+            findUnchangedFunctionBodies(scope.getChildren(), skipRows);
+            continue;
+         }
+
+         Position start = scope.getBodyStart();
+         Position end = scope.getEnd();
+         if (start == null || end == null)
+            continue;
+
+         if (rLintDeltas_.hasChanged(scope.getPreamble().getRow(), end.getRow()))
+            continue;
+
+         JsObject rows = getBodyRows(start,
+                                     end,
+                                     docDisplay_.getLine(start.getRow()),
+                                     docDisplay_.getLine(end.getRow()));
+         if (rows != null)
+            skipRows.push(rows);
+      }
+   }
+
+   /**
+    * Returns the rows strictly between the braces of a function body that
+    * starts and ends at the given positions, on the given lines; or null if
+    * the body can't be skipped without breaking the parse of the rest of the
+    * document.
+    */
+   static JsObject getBodyRows(Position start,
+                               Position end,
+                               String startLine,
+                               String endLine)
+   {
+      if (end.getRow() - start.getRow() < 2)
+         return null;
+
+      // the opening brace must end its row (save for a comment), and the
+      // closing brace must start its row
+      if (start.getColumn() >= startLine.length() ||
+          startLine.charAt(start.getColumn()) != '{' ||
+          end.getColumn() < 1 ||
+          end.getColumn() > endLine.length() ||
+          endLine.charAt(end.getColumn() - 1) != '}')
+      {
+         return null;
+      }
+
+      String afterStart = startLine.substring(start.getColumn() + 1).trim();
+      String beforeEnd = endLine.substring(0, end.getColumn() - 1).trim();
+      if (!(afterStart.isEmpty() || afterStart.startsWith("#")) ||
+          !beforeEnd.isEmpty())
+      {
+         return null;
+      }
+
+      JsObject rows = JsObject.createJsObject();
+      rows.setInteger("start", start.getRow() + 1);
+      rows.setInteger("end", end.getRow());
+      return rows;
+   }
+
+   /**
+    * Collects the previous lint for the given rows (in document order), moved
+    * to where those rows are now.
+    */
+   static void reuseLint(JsArray<LintItem> previous,
+                         DocumentDeltaTracker deltas,
+                         JsArray<JsObject> skipRows,
+                         JsArray<LintItem> lint)
+   {
+      for (int i = 0; i < previous.length(); i++)
+      {
+         LintItem item = previous.get(i);
+         int row = deltas.getRow(item.getStartRow());
+         if (row == -1)
+            continue;
+
+         for (int j = 0; j < skipRows.length(); j++)
+         {
+            JsObject rows = skipRows.get(j);
+            if (row < rows.getInteger("start"))
+               break;
+            if (row >= rows.getInteger("end"))
+               continue;
+
+            int rowsMoved = row - item.getStartRow();
+            lint.push(LintItem.create(
+                  row,
+                  item.getStartColumn(),
+                  item.getEndRow() + rowsMoved,
+                  item.getEndColumn(),
+                  item.getText(),
+                  item.getType()));
+            break;
+         }
+      }
+   }
    
    private void showLint(LintContext context, JsArray<LintItem> lint)
    {
       if (docDisplay_.isPopupVisible())
          return;
 
-      JsArray<LintItem> finalLint;
-
       // Filter out items at the last cursor position, if the cursor hasn't moved.
+      // (The lint passed in is left as is, since it may be reused later.)
+      JsArray<LintItem> finalLint = JsArray.createArray().cast();
+      Position pos = null;
       if (context.excludeCurrentStatement && docDisplay_.getCursorPosition().isEqualTo(context.cursorPosition))
-      {
-         finalLint = JsArray.createArray().cast();
-         Position pos = context.cursorPosition;
-         for (int i = 0; i < lint.length(); i++)
-            if (!lint.get(i).asRange().contains(pos))
-               finalLint.push(lint.get(i));
-      }
-      else
-         finalLint = lint;
+         pos = context.cursorPosition;
+      for (int i = 0; i < lint.length(); i++)
+         if (pos == null || !lint.get(i).asRange().contains(pos))
+            finalLint.push(lint.get(i));
 
       if (userPrefs_.realTimeSpellchecking().getValue() && TypoSpellChecker.isLoaded())
       {
@@ -404,6 +578,15 @@ public class LintManager
    private UserPrefs userPrefs_;
    private EventBus eventBus_;
    private final CppCompletionContext cppCompletionContext_;
+
+   // the last R lint for the whole document, the preferences it was made
+   // with, and the edits made since it was requested
+   private JsArray<LintItem> rLint_;
+   private String rLintPrefs_;
+   private DocumentDeltaTracker rLintDeltas_;
+
+   // the edits made since the pending R lint request was sent
+   private DocumentDeltaTracker requestDeltas_;
    
    static {
       LintResources.INSTANCE.styles().ensureInjected();
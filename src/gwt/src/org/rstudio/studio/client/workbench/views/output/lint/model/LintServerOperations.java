@@ -14,6 +14,7 @@
  */
 package org.rstudio.studio.client.workbench.views.output.lint.model;
 
+import org.rstudio.core.client.js.JsObject;
 import org.rstudio.studio.client.server.*;
 import org.rstudio.studio.client.workbench.snippets.model.SnippetData;
 import org.rstudio.studio.client.workbench.views.source.model.CppDiagnostic;
@@ -22,10 +23,16 @@ import com.google.gwt.core.client.JsArray;
 
 public interface LintServerOperations
 {
+   /**
+    * @param skipRows rows not to lint (e.g. those the client already has
+    *    lint for), as { start, end } objects in order; null to lint the
+    *    whole document
+    */
    void lintRSourceDocument(String documentId,
                             String documentPath,
                             boolean showMarkersPane,
                             boolean explicit,
+                            JsArray<JsObject> skipRows,
                             ServerRequestCallback<JsArray<LintItem>> requestCallback);
    
    void getCppDiagnostics(
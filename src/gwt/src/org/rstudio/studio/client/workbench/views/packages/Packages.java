@@ -88,6 +88,7 @@ import org.rstudio.studio.client.workbench.views.packages.ui.CleanUnusedDialog;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Set;
@@ -829,11 +830,13 @@ public class Packages
       view_.setPackageStatus(status);
       
       // also update the list of allPackages_
-      for (int i = 0; i<allPackages_.size(); i++)
+      List<Integer> indices = packageIndices_.get(status.getName());
+      if (indices == null)
+         return;
+      for (int i: indices)
       {
          PackageInfo packageInfo = allPackages_.get(i);
-         if (packageInfo.getName() == status.getName() &&
-             packageInfo.getLibrary() == status.getLib())
+         if (packageInfo.getLibrary() == status.getLib())
          {
             allPackages_.set(i, status.isLoaded() ? packageInfo.asLoaded() :
                                                     packageInfo.asUnloaded());
@@ -848,38 +851,57 @@ public class Packages
       // apply filter (if any)
       if (packageFilter_.length() > 0)
       {
-         packages = new ArrayList<PackageInfo>();
+         // a package that doesn't match the filter can't match a longer one,
+         // so if the filter was just extended (e.g. another character was
+         // typed) only the packages that matched before need to be searched
+         List<Integer> candidates = null;
+         if (filterMatches_ != null && packageFilter_.startsWith(matchedFilter_))
+            candidates = filterMatches_;
          
-         // first do prefix search
-         for (PackageInfo pkgInfo : allPackages_)
+         // find the packages whose name or desc contain the filter
+         int count = candidates == null ? allPackages_.size() : candidates.size();
+         ArrayList<Integer> matches = new ArrayList<Integer>();
+         for (int i = 0; i < count; i++)
          {
-            if (pkgInfo.getName().toLowerCase().startsWith(packageFilter_))
-               packages.add(pkgInfo);
+            int index = candidates == null ? i : candidates.get(i);
+            if (packageNames_[index].contains(packageFilter_) ||
+                packageDescs_[index].contains(packageFilter_))
+            {
+               matches.add(index);
+            }
          }
+         matchedFilter_ = packageFilter_;
+         filterMatches_ = matches;
          
-         // then do contains search on name & desc
-         for (PackageInfo pkgInfo : allPackages_)
-         { 
-            if (pkgInfo.getName().toLowerCase().contains(packageFilter_) ||
-                pkgInfo.getDesc().toLowerCase().contains(packageFilter_))
+         // list the prefix matches on name before the others, keeping each
+         // library's packages together (they're adjacent in allPackages_,
+         // and so in the matches)
+         packages = new ArrayList<PackageInfo>(matches.size());
+         int start = 0;
+         while (start < matches.size())
+         {
+            PackageLibraryType libraryType = libraryTypes_[matches.get(start)];
+            int end = start;
+            while (end < matches.size() &&
+                   libraryTypes_[matches.get(end)] == libraryType)
+            {
+               end++;
+            }
+            
+            for (int i = start; i < end; i++)
+            {
+               int index = matches.get(i);
+               if (packageNames_[index].startsWith(packageFilter_))
+                  packages.add(allPackages_.get(index));
+            }
+            for (int i = start; i < end; i++)
             {
-               if (!packages.contains(pkgInfo))
-                  packages.add(pkgInfo);
+               int index = matches.get(i);
+               if (!packageNames_[index].startsWith(packageFilter_))
+                  packages.add(allPackages_.get(index));
             }
+            start = end;
          }
-
-         // sort results by library (to preserve grouping)
-         Collections.sort(packages, new Comparator<PackageInfo>()
-               {
-                  @Override
-                  public int compare(PackageInfo o1, PackageInfo o2)
-                  {
-                     return PackageLibraryUtils.typeOfLibrary(
-                                   session_, o1.getLibrary()).compareTo(
-                             PackageLibraryUtils.typeOfLibrary(
-                                   session_, o2.getLibrary()));
-                  }
-               });
       }
       else
       {
@@ -1242,10 +1264,17 @@ public class Packages
       });
       
       // Mark  which packages are first in their respective libraries (used
-      // later to render headers)
+      // later to render headers), and index the packages for filtering and
+      // status changes
+      int count = allPackages_.size();
+      packageNames_ = new String[count];
+      packageDescs_ = new String[count];
+      libraryTypes_ = new PackageLibraryType[count];
+      packageIndices_ = new HashMap<String, List<Integer>>();
       PackageLibraryType libraryType = PackageLibraryType.None;
-      for (PackageInfo pkgInfo: allPackages_)
+      for (int i = 0; i < count; i++)
       {
+         PackageInfo pkgInfo = allPackages_.get(i);
          PackageLibraryType pkgLibraryType = PackageLibraryUtils.typeOfLibrary(
                session_, pkgInfo.getLibrary());
          if (pkgLibraryType != libraryType)
@@ -1253,8 +1282,24 @@ public class Packages
             pkgInfo.setFirstInLibrary(true);
             libraryType = pkgLibraryType;
          }
+         
+         packageNames_[i] = pkgInfo.getName().toLowerCase();
+         packageDescs_[i] = pkgInfo.getDesc().toLowerCase();
+         libraryTypes_[i] = pkgLibraryType;
+         
+         List<Integer> indices = packageIndices_.get(pkgInfo.getName());
+         if (indices == null)
+         {
+            indices = new ArrayList<Integer>();
+            packageIndices_.put(pkgInfo.getName(), indices);
+         }
+         indices.add(i);
       }
       
+      // earlier filter matches are indices into the old package list
+      matchedFilter_ = null;
+      filterMatches_ = null;
+      
       projectContext_ = newState.getProjectContext();
       view_.setProgress(false);
       setViewPackageList();
@@ -1278,6 +1323,20 @@ public class Packages
    private ArrayList<PackageInfo> allPackages_ = new ArrayList<PackageInfo>();
    private ProjectContext projectContext_;
    private String packageFilter_ = new String();
+   
+   // lowercased names and descriptions, and the library types, of the
+   // packages in allPackages_ (by index)
+   private String[] packageNames_ = new String[0];
+   private String[] packageDescs_ = new String[0];
+   private PackageLibraryType[] libraryTypes_ = new PackageLibraryType[0];
+   
+   // indices of the packages in allPackages_ with each name
+   private HashMap<String, List<Integer>> packageIndices_ =
+         new HashMap<String, List<Integer>>();
+   
+   // the last filter applied, and the indices of the packages it matched
+   private String matchedFilter_ = null;
+   private List<Integer> filterMatches_ = null;
    private HandlerRegistration consolePromptHandlerReg_ = null;
    private final EventBus events_;
    private final GlobalDisplay globalDisplay_;
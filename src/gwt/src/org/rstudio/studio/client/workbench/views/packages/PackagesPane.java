@@ -15,6 +15,7 @@
 package org.rstudio.studio.client.workbench.views.packages;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.ElementIds;
@@ -23,12 +24,12 @@ import org.rstudio.core.client.cellview.ImageButtonColumn;
 import org.rstudio.core.client.cellview.ImageButtonColumn.TitleProvider;
 import org.rstudio.core.client.cellview.LabeledBoolean;
 import org.rstudio.core.client.cellview.LinkColumn;
+import org.rstudio.core.client.cellview.ScrollingDataGrid;
 import org.rstudio.core.client.dom.DomUtils;
 import org.rstudio.core.client.resources.ImageResource2x;
 import org.rstudio.core.client.theme.res.ThemeResources;
 import org.rstudio.core.client.theme.res.ThemeStyles;
 import org.rstudio.core.client.widget.OperationWithInput;
-import org.rstudio.core.client.widget.RStudioDataGrid;
 import org.rstudio.core.client.widget.SearchWidget;
 import org.rstudio.core.client.widget.Toolbar;
 import org.rstudio.core.client.widget.ToolbarButton;
@@ -66,7 +67,6 @@ import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 import com.google.gwt.user.cellview.client.AbstractCellTable;
 import com.google.gwt.user.cellview.client.Column;
-import com.google.gwt.user.cellview.client.DataGrid;
 import com.google.gwt.user.cellview.client.DefaultCellTableBuilder;
 import com.google.gwt.user.cellview.client.HasKeyboardSelectionPolicy.KeyboardSelectionPolicy;
 import com.google.gwt.user.cellview.client.TextColumn;
@@ -109,8 +109,36 @@ public class PackagesPane extends WorkbenchPane implements Packages.Display
                                List<PackageInfo> packages)
    {
       projectContext_ = projectContext;
-      packagesDataProvider_.setList(packages);
-      createPackagesTable();
+      
+      // the table only needs to be re-created when its columns change (the
+      // project-local library columns); otherwise just show the new list
+      // from the top
+      if (packagesTable_ == null ||
+          extendedColumns_ != projectContext_.isActive())
+      {
+         packagesDataProvider_.setList(packages);
+         createPackagesTable();
+      }
+      else
+      {
+         packagesTable_.getScrollPanel().scrollToTop();
+         packagesTable_.setVisibleRange(0, RENDERED_ROWS);
+         packagesDataProvider_.setList(packages);
+      }
+      
+      // index the rows by package name (for status changes)
+      packageRows_ = new HashMap<String, List<Integer>>();
+      for (int i = 0; i < packages.size(); i++)
+      {
+         String name = packages.get(i).getName();
+         List<Integer> rows = packageRows_.get(name);
+         if (rows == null)
+         {
+            rows = new ArrayList<Integer>();
+            packageRows_.put(name, rows);
+         }
+         rows.add(i);
+      }
 
       // manage visibility of Packrat / renv menu buttons
       PackratContext packratContext = projectContext_.getPackratContext();
@@ -144,49 +172,29 @@ public class PackagesPane extends WorkbenchPane implements Packages.Display
    @Override
    public void setPackageStatus(PackageStatus status)
    {
-      int row = packageRow(status.getName(), status.getLib());
+      // if we haven't retrieved packages yet there's nothing to update
+      List<Integer> rows = packageRows_.get(status.getName());
+      if (rows == null)
+         return;
       
-      if (row != -1)
-      {
-         List<PackageInfo> packages = packagesDataProvider_.getList();
-        
-         packages.set(row, status.isLoaded() ? packages.get(row).asLoaded() :
-                                               packages.get(row).asUnloaded());
-      }
-      
-      // go through any duplicates to reconcile their status
+      // mark the package loaded (or not) in its library, and reconcile the
+      // status of any duplicates in other libraries
       List<PackageInfo> packages = packagesDataProvider_.getList();
-      for (int i=0; i<packages.size(); i++)
+      boolean found = false;
+      for (int row: rows)
       {
-         if (packages.get(i).getName() == status.getName() &&
-             i != row)
+         PackageInfo packageInfo = packages.get(row);
+         if (!found && packageInfo.getLibrary() == status.getLib())
          {
-            packages.set(i, packages.get(i).asUnloaded());
+            found = true;
+            packages.set(row, status.isLoaded() ? packageInfo.asLoaded() :
+                                                  packageInfo.asUnloaded());
          }
-      }
-   }
-   
-   private int packageRow(String packageName, String packageLib)
-   {
-      // if we haven't retrieved packages yet then return not found
-      if (packagesDataProvider_ == null)
-         return -1;
-      
-      List<PackageInfo> packages = packagesDataProvider_.getList();
-      
-      // figure out which row of the table includes this package
-      int row = -1;
-      for (int i=0; i<packages.size(); i++)
-      {
-         PackageInfo packageInfo = packages.get(i);
-         if (packageInfo.getName() == packageName &&
-             packageInfo.getLibrary() == packageLib)
+         else
          {
-            row = i;
-            break;
+            packages.set(row, packageInfo.asUnloaded());
          }
       }
-      return row;
    }
    
    @Override
@@ -334,8 +342,12 @@ public class PackagesPane extends WorkbenchPane implements Packages.Display
       try
       {
          packagesTableContainer_.clear();
-         packagesTable_ = new RStudioDataGrid<PackageInfo>(
-            packagesDataProvider_.getList().size(), dataGridRes_);
+         
+         // a site can have thousands of packages installed, so render only
+         // those in view
+         packagesTable_ = new ScrollingDataGrid<PackageInfo>(
+            RENDERED_ROWS, dataGridRes_, null);
+         packagesTable_.enableVirtualScrolling();
       }
       catch (Exception e)
       {
@@ -469,7 +481,8 @@ public class PackagesPane extends WorkbenchPane implements Packages.Display
       packagesTable_.setColumnWidth(loadedColumn, 30, Unit.PX);
 
       // add columns when using project-local library
-      if (projectContext_.isActive())
+      extendedColumns_ = projectContext_.isActive();
+      if (extendedColumns_)
       {
          Column<PackageInfo, PackageInfo> lockfileVersionColumn = 
             new Column<PackageInfo, PackageInfo>(new VersionCell(true)) {
@@ -683,8 +696,13 @@ public class PackagesPane extends WorkbenchPane implements Packages.Display
       }
    }
    
-   private DataGrid<PackageInfo> packagesTable_;
+   private ScrollingDataGrid<PackageInfo> packagesTable_;
    private ListDataProvider<PackageInfo> packagesDataProvider_;
+   private boolean extendedColumns_;
+   
+   // rows of the packages list with each package name
+   private HashMap<String, List<Integer>> packageRows_ =
+         new HashMap<String, List<Integer>>();
    private SearchWidget searchWidget_;
    private PackagesDisplayObserver observer_;
    
@@ -700,4 +718,6 @@ public class PackagesPane extends WorkbenchPane implements Packages.Display
    private final Session session_;
    private final GlobalDisplay display_;
    private final PackagesDataGridResources dataGridRes_;
+   
+   private static final int RENDERED_ROWS = 200;
 }
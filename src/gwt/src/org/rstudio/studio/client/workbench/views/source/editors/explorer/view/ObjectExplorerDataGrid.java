@@ -19,8 +19,6 @@ import java.util.List;
 
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.JsVectorString;
-import org.rstudio.core.client.ListUtil;
-import org.rstudio.core.client.ListUtil.FilterPredicate;
 import org.rstudio.core.client.command.KeyboardShortcut;
 import org.rstudio.core.client.SafeHtmlUtil;
 import org.rstudio.core.client.StringUtil;
@@ -111,11 +109,6 @@ public class ObjectExplorerDataGrid
                  RowHoverEvent.Handler,
                  CellPreviewEvent.Handler<ObjectExplorerDataGrid.Data>
 {
-   private static interface Filter<T>
-   {
-      public boolean accept(T data);
-   }
-   
    public static class Data extends ObjectExplorerInspectionResult
    {
       protected Data()
@@ -135,6 +128,79 @@ public class ObjectExplorerDataGrid
          return !!this["placeholder"];
       }-*/;
       
+      // A placeholder standing in for each of the children in a page of
+      // children that haven't been retrieved yet.
+      public static final native Data createPagePlaceholder(Data parent,
+                                                            int page)
+      /*-{
+         return {
+            "parent": parent,
+            "placeholder": true,
+            "page": page
+         };
+      }-*/;
+      
+      public final boolean isPagePlaceholder()
+      {
+         return getPlaceholderPage() != -1;
+      }
+      
+      public final native int getPlaceholderPage()
+      /*-{
+         var page = this["page"];
+         return typeof page === "number" ? page : -1;
+      }-*/;
+      
+      // The total number of children this node has, or -1 if not known.
+      // The server lists children a page (of DEFAULT_ROW_LIMIT children)
+      // at a time; the first page is held as the node's children, and the
+      // others are retrieved as they're scrolled into view.
+      public final native int getTotalChildren()
+      /*-{
+         var total = this["total"];
+         return typeof total === "number" ? total : -1;
+      }-*/;
+      
+      public final native void setTotalChildren(int total)
+      /*-{
+         this["total"] = total;
+      }-*/;
+      
+      public final native void setMoreAvailable(boolean more)
+      /*-{
+         this["more"] = more;
+      }-*/;
+      
+      public final boolean isPaged()
+      {
+         JsArray<Data> children = getChildrenData();
+         return children != null && getTotalChildren() > children.length();
+      }
+      
+      public final native JsArray<Data> getChildPage(int page)
+      /*-{
+         if (page === 0)
+            return this["children"] || null;
+         var pages = this["pages"];
+         return (pages && pages[page]) || null;
+      }-*/;
+      
+      public final native void setChildPage(int page, JsArray<Data> children)
+      /*-{
+         var pages = this["pages"] || {};
+         if (children == null)
+            delete pages[page];
+         else
+            pages[page] = children;
+         this["pages"] = pages;
+      }-*/;
+      
+      public final int getChildPageCount()
+      {
+         int total = getTotalChildren();
+         return (total + DEFAULT_ROW_LIMIT - 1) / DEFAULT_ROW_LIMIT;
+      }
+      
       public final boolean isAttributes()
       {
          return hasTag(TAG_ATTRIBUTES);
@@ -169,6 +235,53 @@ public class ObjectExplorerDataGrid
          return !!this["matched"];
       }-*/;
       
+      // Whether this node matches the given (lowercased) search query term.
+      // The result is cached until the term changes, and the lowercased
+      // fields searched are computed just once per node.
+      public final boolean matches(String filter)
+      {
+         if (!filter.equals(getMatchedFilter()))
+         {
+            setMatched(getSearchKey().indexOf(filter) != -1);
+            setMatchedFilter(filter);
+         }
+         return isMatched();
+      }
+      
+      private final native String getMatchedFilter()
+      /*-{
+         return this["matched_filter"] || null;
+      }-*/;
+      
+      private final native void setMatchedFilter(String filter)
+      /*-{
+         this["matched_filter"] = filter;
+      }-*/;
+      
+      private final String getSearchKey()
+      {
+         String key = getSearchKeyImpl();
+         if (key == null)
+         {
+            // separate the fields so that matches can't span them
+            key = (getDisplayName() + "\u0000" +
+                   getDisplayType() + "\u0000" +
+                   getDisplayDesc()).toLowerCase();
+            setSearchKeyImpl(key);
+         }
+         return key;
+      }
+      
+      private final native String getSearchKeyImpl()
+      /*-{
+         return this["search_key"] || null;
+      }-*/;
+      
+      private final native void setSearchKeyImpl(String key)
+      /*-{
+         this["search_key"] = key;
+      }-*/;
+      
       // The current expansion state of this row.
       // Rows can either be expanded (children are visible),
       // or not expanded (children are hidden).
@@ -357,7 +470,15 @@ public class ObjectExplorerDataGrid
          builder.append(TABLE_OPEN_TAG);
          builder.appendHtmlConstant("<tr>");
          
-         if (data == null || data.isMorePlaceholder())
+         if (data != null && data.isPagePlaceholder())
+         {
+            addIndent(builder, data);
+            onNotExpandable(builder);
+            builder.appendHtmlConstant("<td>");
+            builder.appendEscaped("Loading...");
+            builder.appendHtmlConstant("</td>");
+         }
+         else if (data == null || data.isMorePlaceholder())
          {
             onNotExpandable(builder);
             addViewMoreIcon(builder);
@@ -1004,23 +1125,21 @@ public class ObjectExplorerDataGrid
          public void execute()
          {
             // set all direct children as visible
-            JsArray<Data> children = data.getChildrenData();
-            for (int i = 0, n = children.length(); i < n; i++)
-               children.get(i).setVisible(true);
+            setChildrenVisible(data, true);
             
             // set attributes as visible if available
             Data attributes = data.getObjectAttributes().<Data>cast();
             if (attributes != null)
                attributes.setVisible(true);
             
-            // force update of data grid
-            synchronize();
+            // show the children in the data grid
+            synchronizeChildren(data, row);
             setFocusDeferred(true);
          }
       });
    }
    
-   private void closeRow(int row)
+   private void closeRow(final int row)
    {
       final Data data = getData().get(row);
       
@@ -1038,17 +1157,15 @@ public class ObjectExplorerDataGrid
          public void execute()
          {
             // set all direct children as invisible
-            JsArray<Data> children = data.getChildrenData();
-            for (int i = 0, n = children.length(); i < n; i++)
-               children.get(i).setVisible(false);
+            setChildrenVisible(data, false);
             
             // set attributes as invisible if available
             Data attributes = data.getObjectAttributes().<Data>cast();
             if (attributes != null)
                attributes.setVisible(false);
             
-            // force update of data grid
-            synchronize();
+            // hide the children in the data grid
+            synchronizeChildren(data, row);
             setFocusDeferred(true);
          }
       });
@@ -1084,13 +1201,19 @@ public class ObjectExplorerDataGrid
       events_.fireEvent(new SendToConsoleEvent(code, language, true));
    }
    
-   private void retrieveMore(int row)
+   private void retrieveMore(final int row)
    {
       Data data = getData().get(row);
       Data parent = data.getParentData();
       if (parent == null)
          return;
       
+      if (data.isPagePlaceholder())
+      {
+         retrievePage(parent, data.getPlaceholderPage(), row);
+         return;
+      }
+      
       // select the previous row (so that we don't end up scrolling all over the place)
       selectRowRelative(row);
       
@@ -1102,7 +1225,11 @@ public class ObjectExplorerDataGrid
          @Override
          public void execute()
          {
-            synchronize();
+            // the parent's row precedes its children's (and so this one)
+            int parentRow = row - 1;
+            while (parentRow >= 0 && getData().get(parentRow) != parent)
+               parentRow--;
+            synchronizeChildren(parent, parentRow);
          }
       });
    }
@@ -1134,6 +1261,11 @@ public class ObjectExplorerDataGrid
                @Override
                public void onResponseReceived(ObjectExplorerInspectionResult result)
                {
+                  // record how many children there are in all
+                  Data resultData = result.cast();
+                  data.setMoreAvailable(resultData.isMoreAvailable());
+                  data.setTotalChildren(resultData.getTotalChildren());
+                  
                   // set parent ownership for children
                   JsArray<Data> children = result.getChildren().cast();
                   data.addChildrenData(children);
@@ -1161,6 +1293,273 @@ public class ObjectExplorerDataGrid
             });
    }
    
+   private void setChildrenVisible(Data data, boolean visible)
+   {
+      int pages = data.isPaged() ? data.getChildPageCount() : 1;
+      for (int page = 0; page < pages; page++)
+      {
+         JsArray<Data> children = data.getChildPage(page);
+         if (children == null)
+            continue;
+         
+         for (int i = 0, n = children.length(); i < n; i++)
+            children.get(i).setVisible(visible);
+      }
+   }
+   
+   // Retrieves the pages of children shown in the active rows (those in
+   // view, or near it) that haven't been retrieved yet, and marks those
+   // that have as recently used.
+   private void retrieveActivePages()
+   {
+      if (dataProvider_ == null)
+         return;
+      
+      List<Data> rows = getData();
+      int last = Math.min(getLastActiveRow(), rows.size() - 1);
+      Data parent = null;
+      int page = -1;
+      for (int i = Math.max(0, getFirstActiveRow()); i <= last; i++)
+      {
+         Data row = rows.get(i);
+         Data rowParent = row.getParentData();
+         int rowPage = row.isPagePlaceholder()
+               ? row.getPlaceholderPage()
+               : getLoadedPage(row);
+         
+         // consecutive rows are usually on the same page
+         if (rowPage == -1 || (rowParent == parent && rowPage == page))
+            continue;
+         
+         parent = rowParent;
+         page = rowPage;
+         if (row.isPagePlaceholder())
+            retrievePage(parent, page, i);
+         else
+            touchPage(parent, page, i);
+      }
+   }
+   
+   private void retrievePage(final Data data, final int page, int row)
+   {
+      final ChildPage childPage = new ChildPage(data, page, row);
+      if (indexOfPage(pendingPages_, childPage) != -1)
+         return;
+      pendingPages_.add(childPage);
+      
+      String extractingCode = generateExtractingCode(data, "`__OBJECT__`");
+      server_.explorerInspectObject(
+            handle_.getId(),
+            extractingCode,
+            data.getDisplayName(),
+            data.getObjectAccess(),
+            data.getTags().<JsArrayString>cast(),
+            page * DEFAULT_ROW_LIMIT,
+            new ServerRequestCallback<ObjectExplorerInspectionResult>()
+            {
+               @Override
+               public void onResponseReceived(ObjectExplorerInspectionResult result)
+               {
+                  // ignore pages requested before the object was refreshed
+                  if (!pendingPages_.remove(childPage))
+                     return;
+                  
+                  JsArray<Data> children = result.getChildren().cast();
+                  if (children == null)
+                     return;
+                  
+                  boolean visible = data.getExpansionState() == ExpansionState.OPEN;
+                  for (int i = 0, n = children.length(); i < n; i++)
+                  {
+                     Data child = children.get(i);
+                     child.setParentData(data);
+                     child.setVisible(visible);
+                     setLoadedPage(child, page);
+                  }
+                  data.setChildPage(page, children);
+                  
+                  // cache the page, evicting others as needed, and show it
+                  // (and placeholders for those evicted) in place of the
+                  // rows it replaces
+                  touchPage(data, page, childPage.row);
+                  List<ChildPage> updated = evictPages();
+                  updated.add(childPage);
+                  synchronizePages(updated);
+               }
+               
+               @Override
+               public void onError(ServerError error)
+               {
+                  pendingPages_.remove(childPage);
+                  Debug.logError(error);
+               }
+            });
+   }
+   
+   // Marks a page as the most recently used, recording the row it was seen
+   // at (as a hint for finding its rows later).
+   private void touchPage(Data data, int page, int row)
+   {
+      ChildPage childPage = new ChildPage(data, page, row);
+      int index = indexOfPage(cachedPages_, childPage);
+      if (index != -1)
+         cachedPages_.remove(index);
+      cachedPages_.add(childPage);
+   }
+   
+   // Discards the least recently used pages (those that have been out of
+   // view longest) once more than MAX_CACHED_PAGES are held, so memory use
+   // doesn't grow as a large object is scrolled through. Pages with
+   // expanded children are kept, so their expansion state isn't lost.
+   // Returns the pages discarded.
+   private List<ChildPage> evictPages()
+   {
+      List<ChildPage> evicted = new ArrayList<ChildPage>();
+      int index = 0;
+      while (cachedPages_.size() > MAX_CACHED_PAGES &&
+             index < cachedPages_.size() - 1)
+      {
+         ChildPage childPage = cachedPages_.get(index);
+         if (hasExpandedChild(childPage.data.getChildPage(childPage.page)))
+         {
+            index++;
+            continue;
+         }
+         
+         cachedPages_.remove(index);
+         childPage.data.setChildPage(childPage.page, null);
+         evicted.add(childPage);
+      }
+      return evicted;
+   }
+   
+   // Replaces the rows showing each of the given pages of children (e.g.
+   // placeholders once a page has been retrieved, or children once it has
+   // been evicted); the work done is proportional to the size of the pages
+   // rather than the number of rows.
+   private void synchronizePages(List<ChildPage> pages)
+   {
+      String filter = StringUtil.notNull(filter_).trim().toLowerCase();
+      List<Data> rows = getData();
+      List<Data> unsynchronized = new ArrayList<Data>();
+      for (ChildPage childPage : pages)
+      {
+         Data data = childPage.data;
+         int start = findPageRow(rows, childPage);
+         if (start == -1)
+         {
+            // the page isn't shown; if its node is, show it the slow way
+            if (!unsynchronized.contains(data))
+               unsynchronized.add(data);
+            continue;
+         }
+         
+         // a page's rows are contiguous; since the page has no expanded
+         // children, they're just the children (or their placeholders)
+         while (start > 0 && isPageRow(rows.get(start - 1), childPage))
+            start--;
+         int end = start + 1;
+         while (end < rows.size() && isPageRow(rows.get(end), childPage))
+            end++;
+         
+         List<Data> pageRows = new ArrayList<Data>();
+         flattenPage(data, childPage.page, filter, isMatched(data, filter), pageRows);
+         rows.subList(start, end).clear();
+         rows.addAll(start, pageRows);
+      }
+      
+      dataProvider_.flush();
+      if (unsynchronized.isEmpty())
+      {
+         redraw();
+         return;
+      }
+      
+      for (Data data : unsynchronized)
+         synchronizeChildren(data, -1);
+   }
+   
+   // Finds a row showing the given page, trying the row it was last seen at
+   // before searching the rows of its node.
+   private static int findPageRow(List<Data> rows, ChildPage childPage)
+   {
+      int hint = childPage.row;
+      if (hint >= 0 && hint < rows.size() && isPageRow(rows.get(hint), childPage))
+         return hint;
+      
+      int row = rows.indexOf(childPage.data);
+      if (row == -1)
+         return -1;
+      
+      for (row++; row < rows.size() && rows.get(row).hasParentData(childPage.data); row++)
+      {
+         if (isPageRow(rows.get(row), childPage))
+            return row;
+      }
+      return -1;
+   }
+   
+   private static boolean isPageRow(Data row, ChildPage childPage)
+   {
+      if (row.getParentData() != childPage.data)
+         return false;
+      
+      int page = row.isPagePlaceholder()
+            ? row.getPlaceholderPage()
+            : getLoadedPage(row);
+      return page == childPage.page;
+   }
+   
+   private static boolean hasExpandedChild(JsArray<Data> children)
+   {
+      if (children == null)
+         return false;
+      
+      for (int i = 0, n = children.length(); i < n; i++)
+         if (children.get(i).getExpansionState() == ExpansionState.OPEN)
+            return true;
+      return false;
+   }
+   
+   private static int indexOfPage(List<ChildPage> pages, ChildPage page)
+   {
+      for (int i = 0, n = pages.size(); i < n; i++)
+      {
+         ChildPage other = pages.get(i);
+         if (other.data == page.data && other.page == page.page)
+            return i;
+      }
+      return -1;
+   }
+   
+   // The page (other than the first) a child was retrieved in, or -1.
+   private static final native int getLoadedPage(Data data)
+   /*-{
+      var page = data["loaded_page"];
+      return typeof page === "number" ? page : -1;
+   }-*/;
+   
+   private static final native void setLoadedPage(Data data, int page)
+   /*-{
+      data["loaded_page"] = page;
+   }-*/;
+   
+   private static class ChildPage
+   {
+      public ChildPage(Data data, int page, int row)
+      {
+         this.data = data;
+         this.page = page;
+         this.row = row;
+      }
+      
+      public final Data data;
+      public final int page;
+      
+      // the row the page was last seen at (which may since have changed)
+      public final int row;
+   }
+   
    private void initializeColumnWidths()
    {
       setColumnWidth(nameColumn_, DEFAULT_NAME_COLUMN_WIDTH + "px");
@@ -1180,6 +1579,8 @@ public class ObjectExplorerDataGrid
                {
                   root_ = result.cast();
                   root_.updateChildOwnership();
+                  cachedPages_.clear();
+                  pendingPages_.clear();
                   root_.setExpansionState(ExpansionState.OPEN);
                   synchronize();
                   
@@ -1209,68 +1610,55 @@ public class ObjectExplorerDataGrid
    {
       saveScrollPosition();
       
-      final String filter = StringUtil.notNull(filter_).trim();
-      
       // only include visible data in the table
-      // TODO: we should consider how to better handle
-      // piecewise updates to the table, rather than
-      // shunting a whole new list in
-      List<Data> data = flatten(root_, new Filter<Data>()
-      {
-         @Override
-         public boolean accept(Data data)
-         {
-            // detect if this matches the current filter
-            if (!filter.isEmpty())
-            { 
-               data.setMatched(false);
-               String[] fields = {
-                     data.getDisplayName(),
-                     data.getDisplayType(),
-                     data.getDisplayDesc()
-               };
-
-               for (String field : fields)
-               {
-                  int index = field.toLowerCase().indexOf(filter.toLowerCase());
-                  if (index != -1)
-                  {
-                     data.setMatched(true);
-                     break;
-                  }
-               }
-            }
-            
-            // otherwise, check whether it's currently visible
-            return data.isVisible();
-         }
-      });
+      setData(flatten(root_, false));
+      redraw();
+   }
+   
+   // Updates the rows showing the descendants of a node (e.g. after it was
+   // expanded or collapsed), leaving the other rows as they are; the work
+   // done is proportional to the number of rows added or removed.
+   private void synchronizeChildren(Data data, int row)
+   {
+      // find the node's row (the rows may have changed while its
+      // children were retrieved)
+      List<Data> rows = getData();
+      if (row < 0 || row >= rows.size() || rows.get(row) != data)
+         row = rows.indexOf(data);
       
-      // remove entries that don't match filter
-      if (!filter.isEmpty())
+      if (row == -1)
       {
-         data = ListUtil.filter(data, new FilterPredicate<Data>()
-         {
-            @Override
-            public boolean test(Data object)
-            {
-               for (Data self = object;
-                    self != null;
-                    self = self.getParentData())
-               {
-                  if (self.isMatched())
-                     return true;
-               }
-               
-               return false;
-            }
-         });
+         synchronize();
+         return;
       }
       
-      setData(data);
+      saveScrollPosition();
+      
+      // the node's descendants immediately follow it
+      int end = row + 1;
+      while (end < rows.size() && rows.get(end).hasParentData(data))
+         end++;
+      
+      // the node is shown, so it (or one of its parents) matches the
+      // filter; hence so do all of its descendants
+      List<Data> children = flatten(data, true);
+      children.remove(0);
+      
+      rows.subList(row + 1, end).clear();
+      rows.addAll(row + 1, children);
+      dataProvider_.flush();
       redraw();
    }
    
+   @Override
+   public void redraw()
+   {
+      super.redraw();
+      
+      // retrieve any children scrolled into view
+      retrieveActivePages();
+   }
+   
    @Override
    public int getRowHeight()
    {
@@ -1303,50 +1691,126 @@ public class ObjectExplorerDataGrid
       dataProvider_.setList(data);
    }
    
-   private final List<Data> flatten(Data data,
-                                    Filter<Data> filter) 
+   // Returns the rows to show for a node and its descendants: those that
+   // are visible, and which match the filter or have a parent that does.
+   private final List<Data> flatten(Data data, boolean parentMatched) 
    {
+      String filter = StringUtil.notNull(filter_).trim().toLowerCase();
       List<Data> list = new ArrayList<Data>();
-      flattenImpl(data, filter, list);
+      flattenImpl(data, filter, parentMatched, list);
       return list;
    }
    
    private final void flattenImpl(Data data,
-                                  Filter<Data> filter,
+                                  String filter,
+                                  boolean parentMatched,
                                   List<Data> output)
    {
-      // exit if we're not accepting data here
-      if (filter != null && !filter.accept(data))
+      // exit if this node (and hence its children) isn't visible
+      if (!data.isVisible())
          return;
       
-      // add data
-      output.add(data);
+      // add data if it (or a parent) matches the filter
+      boolean matched =
+            parentMatched ||
+            filter.isEmpty() ||
+            data.matches(filter);
+      
+      if (matched)
+         output.add(data);
       
       // recurse through children
       JsArray<Data> children = data.getChildrenData();
       if (children == null)
          return;
       
+      if (data.isPaged())
+      {
+         flattenPages(data, filter, matched, output);
+      }
+      else
+      {
+         flattenChildren(data, filter, matched, output);
+      }
+      
+      // add attributes if relevant
+      if (showAttributes_)
+      {
+         Data attributes = data.getObjectAttributes().<Data>cast();
+         if (attributes != null)
+            flattenImpl(attributes, filter, matched, output);
+      }
+   }
+   
+   private final void flattenChildren(Data data,
+                                      String filter,
+                                      boolean matched,
+                                      List<Data> output)
+   {
+      JsArray<Data> children = data.getChildrenData();
+      
       // only add children within the drawing limit to this list
       int n = Math.min(children.length(), data.getMaximumChildRowsShown());
       for (int i = 0; i < n; i++)
-         flattenImpl(children.get(i), filter, output);
+         flattenImpl(children.get(i), filter, matched, output);
       
       // add a dummy 'More...' element
       boolean drawMore = 
+            matched &&
             data.getExpansionState() == ExpansionState.OPEN &&
             data.isMoreAvailable();
       
       if (drawMore)
          output.add(Data.createMorePlaceholder(data));
+   }
+   
+   // Adds the rows for each page of children; children in pages that haven't
+   // been retrieved are represented by a placeholder, so that the table
+   // (and its scrollbar) has a row for every child.
+   private final void flattenPages(Data data,
+                                   String filter,
+                                   boolean matched,
+                                   List<Data> output)
+   {
+      for (int page = 0, n = data.getChildPageCount(); page < n; page++)
+         flattenPage(data, page, filter, matched, output);
+   }
+   
+   private final void flattenPage(Data data,
+                                  int page,
+                                  String filter,
+                                  boolean matched,
+                                  List<Data> output)
+   {
+      JsArray<Data> children = data.getChildPage(page);
+      if (children != null)
+      {
+         for (int i = 0, count = children.length(); i < count; i++)
+            flattenImpl(children.get(i), filter, matched, output);
+      }
+      else if (data.getExpansionState() == ExpansionState.OPEN && matched)
+      {
+         Data placeholder = Data.createPagePlaceholder(data, page);
+         int total = data.getTotalChildren();
+         int count = Math.min(DEFAULT_ROW_LIMIT, total - page * DEFAULT_ROW_LIMIT);
+         for (int i = 0; i < count; i++)
+            output.add(placeholder);
+      }
+   }
+   
+   // Whether a node's children are shown under the filter; that is, whether
+   // it or one of its parents matches.
+   private static boolean isMatched(Data data, String filter)
+   {
+      if (filter.isEmpty())
+         return true;
       
-      // add attributes if relevant
-      if (showAttributes_)
+      for (Data node = data; node != null; node = node.getParentData())
       {
-         Data attributes = data.getObjectAttributes().<Data>cast();
-         if (attributes != null)
-            flattenImpl(data.getObjectAttributes().<Data>cast(), filter, output);
+         if (node.matches(filter))
+            return true;
       }
+      return false;
    }
    
    private void saveScrollPosition()
@@ -1374,6 +1838,11 @@ public class ObjectExplorerDataGrid
    
    private final ListDataProvider<Data> dataProvider_;
    
+   // pages of children retrieved (other than the first of each node), in
+   // order of use, and those being retrieved
+   private final List<ChildPage> cachedPages_ = new ArrayList<ChildPage>();
+   private final List<ChildPage> pendingPages_ = new ArrayList<ChildPage>();
+   
    private int scrollPosition_ = -1;
    private TableRowElement hoveredRow_;
    private boolean showAttributes_;
@@ -1392,6 +1861,9 @@ public class ObjectExplorerDataGrid
    // SessionObjectExplorer.R
    private static final int DEFAULT_ROW_LIMIT = 1000;
    
+   // the number of pages of children (of DEFAULT_ROW_LIMIT) kept
+   private static final int MAX_CACHED_PAGES = 20;
+   
    private static final String ACTION_OPEN    = "open";
    private static final String ACTION_CLOSE   = "close";
    private static final String ACTION_EXTRACT = "extract";
@@ -15,7 +15,9 @@
 package org.rstudio.studio.client.workbench.views.source.editors.text;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.Scheduler;
@@ -1068,7 +1070,28 @@ public class AceEditorWidget extends Composite
    
    public void showLint(JsArray<LintItem> lint)
    {
-      clearAnnotations();
+      // Markers for lint that's still there are kept as they are, so that
+      // relinting only touches the markers that have changed.
+      ShownLint<AnchoredAceAnnotation> shown = new ShownLint<>();
+      for (AnchoredAceAnnotation annotation : annotations_)
+      {
+         // (the marker may have been removed while editing)
+         Marker marker = editor_.getSession().getMarker(annotation.getMarkerId());
+         if (marker == null)
+         {
+            annotation.detach();
+            continue;
+         }
+         
+         Range markerRange = marker.getRange();
+         shown.add(lintKey(markerRange.getStart(),
+                           markerRange.getEnd(),
+                           annotation.asAceAnnotation().text(),
+                           marker.getClazz()),
+                   annotation);
+      }
+      annotations_ = new ArrayList<>();
+      
       JsArray<AceAnnotation> annotations = LintItem.asAceAnnotations(lint);
       editor_.getSession().setAnnotations(annotations);
       
@@ -1076,9 +1099,6 @@ public class AceEditorWidget extends Composite
       for (int i = 0; i < lint.length(); i++)
       {
          LintItem item = lint.get(i);
-         AnchoredRange range = createAnchoredRange(
-               Position.create(item.getStartRow(), item.getStartColumn()),
-               Position.create(item.getEndRow(), item.getEndColumn()));
          
          String clazz = "unknown";
          if (item.getType() == "error")
@@ -1092,12 +1112,67 @@ public class AceEditorWidget extends Composite
          else if (item.getType() == "spelling")
             clazz = lintStyles_.warning();
          
+         Position start = Position.create(item.getStartRow(), item.getStartColumn());
+         Position end = Position.create(item.getEndRow(), item.getEndColumn());
+         AnchoredAceAnnotation kept =
+               shown.take(lintKey(start, end, item.getText(), clazz));
+         if (kept != null)
+         {
+            annotations_.add(kept);
+            continue;
+         }
+         
+         AnchoredRange range = createAnchoredRange(start, end);
+         
          int id = editor_.getSession().addMarker(range, clazz, "text", true);
             annotations_.add(new AnchoredAceAnnotation(
                annotations.get(i),
                range,
                id));
       }
+      
+      for (AnchoredAceAnnotation annotation : shown.remaining())
+         annotation.detach();
+   }
+   
+   static String lintKey(Position start, Position end, String text, String clazz)
+   {
+      return start.getRow() + ":" + start.getColumn() + ":" +
+             end.getRow() + ":" + end.getColumn() + ":" +
+             clazz + ":" + text;
+   }
+   
+   /**
+    * The lint markers already shown, by lint key, so that showLint can keep
+    * those for lint that's unchanged. Markers for the same key are taken in
+    * turn; those not taken are no longer needed.
+    */
+   static class ShownLint<T>
+   {
+      void add(String key, T marker)
+      {
+         if (!markers_.containsKey(key))
+            markers_.put(key, new ArrayList<>());
+         markers_.get(key).add(marker);
+      }
+      
+      T take(String key)
+      {
+         List<T> markers = markers_.get(key);
+         if (markers == null || markers.isEmpty())
+            return null;
+         return markers.remove(markers.size() - 1);
+      }
+      
+      List<T> remaining()
+      {
+         List<T> remaining = new ArrayList<>();
+         for (List<T> markers : markers_.values())
+            remaining.addAll(markers);
+         return remaining;
+      }
+      
+      private final Map<String, List<T>> markers_ = new HashMap<>();
    }
    
    public void clearLint()
@@ -20,9 +20,10 @@ import java.util.List;
 import java.util.Map;
 
 import org.rstudio.core.client.StringUtil;
-import org.rstudio.core.client.VirtualConsole;
+import org.rstudio.core.client.VirtualConsoleFactory;
 import org.rstudio.core.client.js.JsArrayEx;
 import org.rstudio.core.client.widget.FixedRatioWidget;
+import org.rstudio.core.client.widget.HyperlinkLabel;
 import org.rstudio.core.client.widget.PreWidget;
 import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.common.debugging.model.UnhandledError;
@@ -60,9 +61,22 @@ public class ChunkOutputStream extends FlowPanel
    }
    
    public ChunkOutputStream(ChunkOutputPresenter.Host host, ChunkOutputSize chunkOutputSize)
+   {
+      this(host, chunkOutputSize,
+            RStudioGinjector.INSTANCE.getVirtualConsoleFactory(),
+            Satellite.isCurrentWindowSatellite() ?
+                  SATELLITE_CONSOLE_PAGE_LINES : CONSOLE_PAGE_LINES);
+   }
+   
+   ChunkOutputStream(ChunkOutputPresenter.Host host,
+                     ChunkOutputSize chunkOutputSize,
+                     VirtualConsoleFactory vconsoleFactory,
+                     int consolePageLines)
    {
       host_ = host;
       chunkOutputSize_ = chunkOutputSize;
+      vconsoleFactory_ = vconsoleFactory;
+      consolePageLines_ = consolePageLines;
       metadata_ = new HashMap<Integer, JavaScriptObject>();
 
       if (chunkOutputSize_ == ChunkOutputSize.Full) {
@@ -102,10 +116,6 @@ public class ChunkOutputStream extends FlowPanel
    {
       initializeOutput(RmdChunkOutputUnit.TYPE_TEXT);
       
-      // track number of newlines in output
-      int newlineCount = 0;
-      int maxCount = Satellite.isCurrentWindowSatellite() ? 10000 : 2000;
-      
       for (int i = 0; i < output.length(); i++)
       {
          // the first element is the output, and the second is the text; if we
@@ -129,23 +139,12 @@ public class ChunkOutputStream extends FlowPanel
             // release any queued errors
             if (!queuedError_.isEmpty())
             {
-               vconsole_.submit(queuedError_, classOfOutput(
+               submitConsoleOutput(queuedError_, classOfOutput(
                      ChunkConsolePage.CONSOLE_ERROR));
                queuedError_ = "";
             }
 
-            vconsole_.submit(outputText, classOfOutput(outputType));
-         }
-         
-         // avoid hanging the IDE by displaying too much output
-         // https://github.com/rstudio/rstudio/issues/5518
-         newlineCount += StringUtil.countMatches(outputText, '\n');
-         if (newlineCount >= maxCount)
-         {
-            vconsole_.submit(
-                  "\n[Output truncated]",
-                  classOfOutput(ChunkConsolePage.CONSOLE_ERROR));
-            break;
+            submitConsoleOutput(outputText, classOfOutput(outputType));
          }
       }
    }
@@ -373,8 +372,9 @@ public class ChunkOutputStream extends FlowPanel
    public void clearOutput()
    {
       clear();
-      if (vconsole_ != null)
-         vconsole_.clear();
+      console_ = null;
+      pagedConsole_ = null;
+      pager_ = null;
       lastOutputType_ = RmdChunkOutputUnit.TYPE_NONE;
    }
 
@@ -652,31 +652,25 @@ public class ChunkOutputStream extends FlowPanel
       }
       else if (lastOutputType_ == RmdChunkOutputUnit.TYPE_TEXT)
       {
-         // if switching from textual input, clear the text accumulator
-         if (vconsole_ != null)
-            vconsole_.clear();
+         // if switching from textual input, leave the console (and any output
+         // it has yet to show) to the segment that's ending
          console_ = null;
+         pagedConsole_ = null;
+         pager_ = null;
       }
       lastOutputType_ = outputType;
    }
 
    private void initConsole()
    {
-      if (console_ == null)
-      {
-         console_ = new PreWidget();
-         console_.getElement().removeAttribute("tabIndex");
-         console_.getElement().getStyle().setMarginTop(0, Unit.PX);
-         console_.getElement().getStyle().setProperty("whiteSpace", "pre-wrap");
-      }
-      else
-      {
-         console_.getElement().setInnerHTML("");
-      }
-      if (vconsole_ == null)
-         vconsole_ = RStudioGinjector.INSTANCE.getVirtualConsoleFactory().create(console_.getElement());
-      else
-         vconsole_.clear();
+      // each run of textual output gets its own console, paged separately
+      console_ = new PreWidget();
+      console_.getElement().removeAttribute("tabIndex");
+      console_.getElement().getStyle().setMarginTop(0, Unit.PX);
+      console_.getElement().getStyle().setProperty("whiteSpace", "pre-wrap");
+      pagedConsole_ = new PagedConsoleOutput(
+            vconsoleFactory_.create(console_.getElement()), consolePageLines_);
+      pager_ = null;
 
       // attach the console
       addWithOrdinal(console_, maxOrdinal_ + 1);
@@ -685,10 +679,65 @@ public class ChunkOutputStream extends FlowPanel
    private void renderConsoleOutput(String text, String clazz)
    {
       initializeOutput(RmdChunkOutputUnit.TYPE_TEXT);
-      vconsole_.submit(text, clazz);
+      submitConsoleOutput(text, clazz);
       onHeightChanged();
    }
    
+   private void submitConsoleOutput(String text, String clazz)
+   {
+      if (pagedConsole_.submit(text, clazz))
+         return;
+      
+      // offer to show the output we didn't render, a page at a time
+      if (pager_ == null)
+      {
+         pager_ = new ConsolePager(pagedConsole_);
+         insert(pager_, getWidgetIndex(console_) + 1);
+      }
+      pager_.update();
+   }
+   
+   /**
+    * Links to move between the pages of a console's output.
+    */
+   class ConsolePager extends FlowPanel
+   {
+      ConsolePager(PagedConsoleOutput pagedConsole)
+      {
+         pagedConsole_ = pagedConsole;
+         previous_ = new HyperlinkLabel("Show previous page of output",
+               () -> showPreviousPage());
+         next_ = new HyperlinkLabel("Show next page of output",
+               () -> showNextPage());
+         add(previous_);
+         add(next_);
+      }
+      
+      void showPreviousPage()
+      {
+         pagedConsole_.showPreviousPage();
+         update();
+         onHeightChanged();
+      }
+      
+      void showNextPage()
+      {
+         pagedConsole_.showNextPage();
+         update();
+         onHeightChanged();
+      }
+      
+      void update()
+      {
+         previous_.setVisible(pagedConsole_.hasPreviousPage());
+         next_.setVisible(pagedConsole_.hasNextPage());
+      }
+      
+      private final PagedConsoleOutput pagedConsole_;
+      private final HyperlinkLabel previous_;
+      private final HyperlinkLabel next_;
+   }
+   
    private void onHeightChanged()
    {
       host_.notifyHeightChanged();
@@ -717,13 +766,19 @@ public class ChunkOutputStream extends FlowPanel
    
    private PreWidget console_;
    private String queuedError_ = "";
-   private VirtualConsole vconsole_;
+   private PagedConsoleOutput pagedConsole_;
+   private ConsolePager pager_;
    private int lastOutputType_ = RmdChunkOutputUnit.TYPE_NONE;
    private boolean hasErrors_ = false;
    private ChunkOutputSize chunkOutputSize_;
    private int maxOrdinal_ = 0;
+   
+   private final VirtualConsoleFactory vconsoleFactory_;
+   private final int consolePageLines_;
 
    private final static String ORDINAL_ATTRIBUTE = "data-ordinal";
+   private final static int CONSOLE_PAGE_LINES = 2000;
+   private final static int SATELLITE_CONSOLE_PAGE_LINES = 10000;
 
    private Command afterRender_;
    private Colors themeColors_;
@@ -375,6 +375,62 @@ public class ChunkOutputWidget extends Composite
       host_.onOutputHeightChanged(this, height + 7, ensureVisible);
    }
    
+   /**
+    * Reserves space for output that hasn't been loaded yet, so the document
+    * doesn't shift when it arrives.
+    *
+    * @param height The height last reported to the host for the output
+    */
+   public void showPlaceholder(int height)
+   {
+      if (state_ != CHUNK_EMPTY || isVisible() || height <= 0)
+         return;
+
+      setVisible(true);
+      if (expansionState_.getValue() == EXPANDED)
+      {
+         renderedHeight_ = Math.max(ChunkOutputUi.MIN_CHUNK_HEIGHT, height - 7);
+         if (chunkOutputSize_ != ChunkOutputSize.Full)
+            frame_.getElement().getStyle().setHeight(renderedHeight_, Unit.PX);
+      }
+      host_.onOutputHeightChanged(this, height, false);
+   }
+
+   /**
+    * Releases the space reserved by showPlaceholder if the chunk's output
+    * was replayed but turned out to be empty.
+    */
+   public void hidePlaceholder()
+   {
+      if (state_ != CHUNK_EMPTY || !isVisible())
+         return;
+
+      renderedHeight_ = 0;
+      setVisible(false);
+      host_.onOutputHeightChanged(this, 0, false);
+   }
+
+   /**
+    * Discards the rendered output (releasing e.g. the frames that host HTML
+    * widgets) but keeps the space it took up; the output can be restored by
+    * replaying it from the server.
+    */
+   public void unloadOutput()
+   {
+      if (state_ != CHUNK_READY)
+         return;
+
+      presenter_.clearOutput();
+      attachPresenter(new ChunkOutputStream(this, chunkOutputSize_));
+      lastOutputType_ = RmdChunkOutputUnit.TYPE_NONE;
+      state_ = CHUNK_EMPTY;
+   }
+
+   public boolean hasHtmlWidgets()
+   {
+      return presenter_.hasHtmlWidgets();
+   }
+
    public static boolean isEditorStyleCached()
    {
       return s_colors != null;
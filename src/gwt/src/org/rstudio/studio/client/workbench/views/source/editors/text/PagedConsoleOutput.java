@@ -0,0 +1,171 @@
+/*
+ * PagedConsoleOutput.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rstudio.core.client.VirtualConsole;
+
+/**
+ * Console output for a chunk, rendered a page of lines at a time; rendering
+ * all of a very large output at once can hang the IDE
+ * (https://github.com/rstudio/rstudio/issues/5518). All of the output is
+ * kept, but only the page shown is rendered, so the rendered output stays
+ * bounded; other pages are rendered in its place on request.
+ */
+public class PagedConsoleOutput
+{
+   public PagedConsoleOutput(VirtualConsole console, int pageLines)
+   {
+      console_ = console;
+      pageLines_ = pageLines;
+      pageStarts_.add(new Position(0, 0));
+   }
+
+   /**
+    * Renders as much of the given output as fits in the page shown, and
+    * keeps the rest.
+    *
+    * @return Whether all of the output was rendered
+    */
+   public boolean submit(String text, String clazz)
+   {
+      output_.add(new Output(text, clazz));
+      fillPage();
+      return !hasNextPage();
+   }
+
+   public boolean hasNextPage()
+   {
+      return end_.index < output_.size();
+   }
+
+   public boolean hasPreviousPage()
+   {
+      return page_ > 0;
+   }
+
+   /**
+    * Replaces the page shown with the one after it.
+    */
+   public void showNextPage()
+   {
+      if (!hasNextPage())
+         return;
+
+      page_++;
+      if (page_ == pageStarts_.size())
+         pageStarts_.add(end_);
+      showPage();
+   }
+
+   /**
+    * Replaces the page shown with the one before it.
+    */
+   public void showPreviousPage()
+   {
+      if (!hasPreviousPage())
+         return;
+
+      page_--;
+      showPage();
+   }
+
+   private void showPage()
+   {
+      console_.clear();
+      lines_ = 0;
+      end_ = pageStarts_.get(page_);
+      fillPage();
+   }
+
+   /**
+    * Renders output from the end of that rendered so far until the page
+    * shown is full or there's no more output.
+    */
+   private void fillPage()
+   {
+      while (hasNextPage() && lines_ < pageLines_)
+      {
+         Output output = output_.get(end_.index);
+         String text = output.text.substring(end_.offset);
+         int end = findLineLimit(text);
+         if (end == -1)
+         {
+            console_.submit(text, output.clazz);
+            end_ = new Position(end_.index + 1, 0);
+         }
+         else
+         {
+            console_.submit(text.substring(0, end), output.clazz);
+            end_ = new Position(end_.index, end_.offset + end);
+         }
+      }
+   }
+
+   /**
+    * @return The offset just past the newline that fills up the page shown,
+    *    or -1 if all of the text fits
+    */
+   private int findLineLimit(String text)
+   {
+      int pos = 0;
+      while (lines_ < pageLines_)
+      {
+         int newline = text.indexOf('\n', pos);
+         if (newline == -1)
+            return -1;
+
+         lines_++;
+         pos = newline + 1;
+      }
+      return pos < text.length() ? pos : -1;
+   }
+
+   private static class Output
+   {
+      Output(String text, String clazz)
+      {
+         this.text = text;
+         this.clazz = clazz;
+      }
+
+      final String text;
+      final String clazz;
+   }
+
+   // a position in the output kept: an offset into one of its entries
+   private static class Position
+   {
+      Position(int index, int offset)
+      {
+         this.index = index;
+         this.offset = offset;
+      }
+
+      final int index;
+      final int offset;
+   }
+
+   private final VirtualConsole console_;
+   private final int pageLines_;
+
+   private final List<Output> output_ = new ArrayList<Output>();
+   private final List<Position> pageStarts_ = new ArrayList<Position>();
+   private int page_ = 0;
+   private Position end_ = new Position(0, 0);
+   private int lines_ = 0;
+}
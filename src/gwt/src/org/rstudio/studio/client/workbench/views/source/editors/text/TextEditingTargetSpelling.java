@@ -16,6 +16,8 @@
 package org.rstudio.studio.client.workbench.views.source.editors.text;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 
 import com.google.gwt.core.client.JsArray;
@@ -28,6 +30,7 @@ import com.google.gwt.user.client.Window;
 import com.google.gwt.user.client.ui.MenuItem;
 import org.rstudio.core.client.CsvReader;
 import org.rstudio.core.client.CsvWriter;
+import org.rstudio.core.client.Mutable;
 import org.rstudio.core.client.ResultCallback;
 import org.rstudio.core.client.command.AppCommand;
 import org.rstudio.core.client.widget.NullProgressIndicator;
@@ -97,33 +100,61 @@ public class TextEditingTargetSpelling implements TypoSpellChecker.Context
          Position.create(docDisplay_.getFirstVisibleRow(), 0),
          Position.create(docDisplay_.getLastVisibleRow(), docDisplay_.getLength(docDisplay_.getLastVisibleRow())));
 
-      final ArrayList<Range> wordRanges = new ArrayList<>();
-      ArrayList<String> prefetchWords = new ArrayList<>();
+      // only check a certain number of words at once to not overwhelm the system
+      ArrayList<Range> wordRanges = typoSpellChecker_.getRangesToCheck(
+            docDisplay_,
+            wordSource,
+            prefs_.maxSpellcheckWords().getValue());
 
-      for (Range r : wordSource)
+      // words repeat a lot on a screen; check (and prefetch) each only once
+      final HashMap<String, Boolean> checkedWords = new HashMap<>();
+      ArrayList<String> uncheckedWords = new ArrayList<>();
+      for (Range r : wordRanges)
       {
-         if (!typoSpellChecker_.shouldCheckSpelling(docDisplay_, r))
+         String word = docDisplay_.getTextForRange(r);
+         if (checkedWords.containsKey(word))
             continue;
 
-         wordRanges.add(r);
+         Boolean correct = typoSpellChecker_.checkSpellingIfKnown(word);
+         checkedWords.put(word, correct);
+         if (correct == null)
+            uncheckedWords.add(word);
+      }
 
-         // only check a certain number of words at once to not overwhelm the system
-         if (wordRanges.size() > prefs_.maxSpellcheckWords().getValue())
-            break;
+      // Have the spelling worker check the words the dictionary hasn't been
+      // consulted about yet. If the results are available right away they're
+      // used below; otherwise, relint once they arrive if any are misspelled.
+      final Mutable<Boolean> linted = new Mutable<>(false);
+      typoSpellChecker_.lookUpSpelling(uncheckedWords, (HashMap<String, Boolean> results) ->
+      {
+         if (!linted.get())
+            checkedWords.putAll(results);
+         else if (results.containsValue(false))
+            lintManager_.relintAfterDelay(LintManager.DEFAULT_LINT_DELAY);
+      });
+      linted.set(true);
 
+      HashSet<String> misspelledWords = new HashSet<>();
+      ArrayList<String> prefetchWords = new ArrayList<>();
+      for (Range r : wordRanges)
+      {
          String word = docDisplay_.getTextForRange(r);
-         if (!typoSpellChecker_.checkSpelling(word)) {
-            if (prefetchWords.size() < prefs_.maxSpellcheckPrefetch().getValue())
-               prefetchWords.add(word);
-
-            lint.push(LintItem.create(
-               r.getStart().getRow(),
-               r.getStart().getColumn(),
-               r.getEnd().getRow(),
-               r.getEnd().getColumn(),
-               "Spellcheck",
-               "spelling"));
+         if (!Boolean.FALSE.equals(checkedWords.get(word)))
+            continue;
+
+         if (misspelledWords.add(word) &&
+             prefetchWords.size() < prefs_.maxSpellcheckPrefetch().getValue())
+         {
+            prefetchWords.add(word);
          }
+
+         lint.push(LintItem.create(
+            r.getStart().getRow(),
+            r.getStart().getColumn(),
+            r.getEnd().getRow(),
+            r.getEnd().getColumn(),
+            "Spellcheck",
+            "spelling"));
       }
 
       if (prefetchWords.size() > 0)
@@ -255,9 +286,11 @@ public class TextEditingTargetSpelling implements TypoSpellChecker.Context
          }
          word = docDisplay_.getTextForRange(wordRange);
 
+         // words the dictionary hasn't been consulted about yet aren't
+         // flagged as misspelled, so leave those to the default menu too
          if (word == null ||
              !typoSpellChecker_.shouldCheckSpelling(docDisplay_, wordRange) ||
-             typoSpellChecker_.checkSpelling(word))
+             !Boolean.FALSE.equals(typoSpellChecker_.checkSpellingIfKnown(word)))
          {
             return;
          }
@@ -266,70 +299,80 @@ public class TextEditingTargetSpelling implements TypoSpellChecker.Context
          final String replaceWord = word;
          final Range replaceRange = wordRange;
 
-         final ToolbarPopupMenu menu = new ToolbarPopupMenu();
-
-         String[] suggestions = typoSpellChecker_.suggestionList(word);
-
          // We now know we're going to show our menu, stop default context menu
          event.preventDefault();
          event.stopPropagation();
 
-         int i = 0;
-         for (String suggestion : suggestions)
-         {
-            // Only show a limited number of suggestions
-            if (i >= MAX_SUGGESTIONS)
-               break;
+         // suggestions are computed by the spelling worker, after the event
+         // has been handled
+         final int clientX = event.getNativeEvent().getClientX();
+         final int clientY = event.getNativeEvent().getClientY();
+         typoSpellChecker_.suggestionList(word, (String[] suggestions) ->
+            showSuggestionMenu(replaceWord, replaceRange, suggestions, clientX, clientY));
+      });
 
-            MenuItem suggestionItem = new MenuItem(
-               AppCommand.formatMenuLabel(null, suggestion, ""),
-               true,
-               () -> {
-                  docDisplay_.removeMarkersAtCursorPosition();
-                  docDisplay_.replaceRange(replaceRange, suggestion);
-                  lintManager_.relintAfterDelay(LintManager.DEFAULT_LINT_DELAY);
-               });
-
-            menu.addItem(suggestionItem);
-            i++;
-         }
+      // relint the viewport as the user scrolls around
+      docDisplay_.addScrollYHandler((event) -> lintManager_.relintAfterDelay(LintManager.DEFAULT_LINT_DELAY));
+   }
 
-         // Only add a separator if we have suggestions to separate from
-         if (suggestions.length > 0)
-            menu.addSeparator();
+   private void showSuggestionMenu(String replaceWord,
+                                   Range replaceRange,
+                                   String[] suggestions,
+                                   int clientX,
+                                   int clientY)
+   {
+      final ToolbarPopupMenu menu = new ToolbarPopupMenu();
 
-         MenuItem ignoreItem = new MenuItem(
-            AppCommand.formatMenuLabel(null, "Ignore word", ""),
+      int i = 0;
+      for (String suggestion : suggestions)
+      {
+         // Only show a limited number of suggestions
+         if (i >= MAX_SUGGESTIONS)
+            break;
+
+         MenuItem suggestionItem = new MenuItem(
+            AppCommand.formatMenuLabel(null, suggestion, ""),
             true,
             () -> {
-               typoSpellChecker_.addIgnoredWord(replaceWord);
                docDisplay_.removeMarkersAtCursorPosition();
+               docDisplay_.replaceRange(replaceRange, suggestion);
+               lintManager_.relintAfterDelay(LintManager.DEFAULT_LINT_DELAY);
             });
 
-         menu.addItem(ignoreItem);
+         menu.addItem(suggestionItem);
+         i++;
+      }
+
+      // Only add a separator if we have suggestions to separate from
+      if (suggestions.length > 0)
          menu.addSeparator();
 
-         MenuItem addToDictionaryItem = new MenuItem(
-            AppCommand.formatMenuLabel(RES.addToDictIcon(), "Add to user dictionary", ""),
-            true,
-            () -> {
-               typoSpellChecker_.addToUserDictionary(replaceWord);
-               docDisplay_.removeMarkersAtCursorPosition();
-            });
+      MenuItem ignoreItem = new MenuItem(
+         AppCommand.formatMenuLabel(null, "Ignore word", ""),
+         true,
+         () -> {
+            typoSpellChecker_.addIgnoredWord(replaceWord);
+            docDisplay_.removeMarkersAtCursorPosition();
+         });
 
-         menu.addItem(addToDictionaryItem);
+      menu.addItem(ignoreItem);
+      menu.addSeparator();
 
-         menu.setPopupPositionAndShow((offWidth, offHeight) -> {
-            int clientX = event.getNativeEvent().getClientX();
-            int clientY = event.getNativeEvent().getClientY();
-            int menuX = Math.min(clientX, Window.getClientWidth() - offWidth);
-            int menuY = Math.min(clientY, Window.getClientHeight() - offHeight);
-            menu.setPopupPosition(menuX, menuY);
+      MenuItem addToDictionaryItem = new MenuItem(
+         AppCommand.formatMenuLabel(RES.addToDictIcon(), "Add to user dictionary", ""),
+         true,
+         () -> {
+            typoSpellChecker_.addToUserDictionary(replaceWord);
+            docDisplay_.removeMarkersAtCursorPosition();
          });
-      });
 
-      // relint the viewport as the user scrolls around
-      docDisplay_.addScrollYHandler((event) -> lintManager_.relintAfterDelay(LintManager.DEFAULT_LINT_DELAY));
+      menu.addItem(addToDictionaryItem);
+
+      menu.setPopupPositionAndShow((offWidth, offHeight) -> {
+         int menuX = Math.min(clientX, Window.getClientWidth() - offWidth);
+         int menuY = Math.min(clientY, Window.getClientHeight() - offHeight);
+         menu.setPopupPosition(menuX, menuY);
+      });
    }
 
    private static final Resources RES = GWT.create(Resources.class);
@@ -161,6 +161,12 @@ public class ChunkOutputUi
       lineWidget_.getLineWidget().getElement().removeFromParent();
    }
    
+   public void showPlaceholder()
+   {
+      // reserve the space the output took up when last shown, if known
+      outputWidget_.showPlaceholder(def_.getOutputHeight());
+   }
+
    public boolean moving()
    {
       return lineWidget_.moving();
@@ -230,6 +236,11 @@ public class ChunkOutputUi
 
       widget.getElement().getStyle().setHeight(height, Unit.PX);
       display_.onLineWidgetChanged(lineWidget_.getLineWidget());
+
+      // remember the height of expanded output (which is persisted with the
+      // chunk definition) so we can reserve space for it when reopened
+      if (widget.getExpansionState() == ChunkOutputWidget.EXPANDED)
+         def_.setOutputHeight(widget.isVisible() ? outputHeight : 0);
       
       // if we need to ensure that this output is visible, wait for the event
       // loop to finish (so Ace gets a chance to adjust the line widgets and
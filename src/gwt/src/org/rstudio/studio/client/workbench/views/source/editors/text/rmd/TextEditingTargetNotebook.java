@@ -16,7 +16,10 @@
 package org.rstudio.studio.client.workbench.views.source.editors.text.rmd;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 
 import org.rstudio.core.client.CommandWithArg;
@@ -227,6 +230,12 @@ public class TextEditingTargetNotebook
       // render to ensure that ace places the line widgets correctly)
       renderReg_ = docDisplay_.addRenderFinishedHandler(this);
       
+      // load chunk output as it's scrolled into view
+      releaseOnDismiss.add(docDisplay_.addScrollYHandler((event) ->
+      {
+         loadVisibleChunkOutput_.schedule(LOAD_CHUNK_OUTPUT_DELAY_MS);
+      }));
+      
       releaseOnDismiss_.add(editingTarget_.addInterruptChunkHandler(new InterruptChunkEvent.Handler()
       {
          @Override
@@ -752,6 +761,20 @@ public class TextEditingTargetNotebook
       if (satelliteChunkRequestIds_.contains(event.getData().getRequestId()))
          return;
       
+      // replayed output didn't come from running the chunk, so there's no
+      // execution state to clean up; now that chunks are replayed as they
+      // scroll into view, this arrives once per chunk replayed
+      if (data.getType() == RmdChunkOutputFinishedEvent.TYPE_REPLAY)
+      {
+         if (data.getRequestId() == Integer.toHexString(requestId_))
+            state_ = STATE_INITIALIZED;
+
+         // a chunk with no output left behind only has its placeholder
+         if (outputs_.containsKey(data.getChunkId()))
+            outputs_.get(data.getChunkId()).getOutputWidget().hidePlaceholder();
+         return;
+      }
+      
       // clean up execution state
       cleanChunkExecState(event.getData().getChunkId());
       
@@ -776,12 +799,7 @@ public class TextEditingTargetNotebook
          }
       }
 
-      if (data.getType() == RmdChunkOutputFinishedEvent.TYPE_REPLAY &&
-          data.getRequestId() == Integer.toHexString(requestId_)) 
-      {
-         state_ = STATE_INITIALIZED;
-      }
-      else if (data.getType() == RmdChunkOutputFinishedEvent.TYPE_INTERACTIVE &&
+      if (data.getType() == RmdChunkOutputFinishedEvent.TYPE_INTERACTIVE &&
                data.getDocId() == docUpdateSentinel_.getId())
       {
          if (outputs_.containsKey(data.getChunkId()))
@@ -941,9 +959,15 @@ public class TextEditingTargetNotebook
       // first render to ensure that ace places the line widgets correctly)
       if (initialChunkDefs_ != null)
       {
+         // create placeholders for the output; it's loaded from the server
+         // as it comes into view, since building the output for every chunk
+         // at once can take a long time for large notebooks
          for (int i = 0; i < initialChunkDefs_.length(); i++)
          {
-            createChunkOutput(initialChunkDefs_.get(i));
+            ChunkDefinition def = initialChunkDefs_.get(i);
+            createChunkOutput(def);
+            outputs_.get(def.getChunkId()).showPlaceholder();
+            unloadedChunkIds_.add(def.getChunkId());
          }
          // if we got chunk content, load initial chunk output from server --
          // note that some outputs need the rmarkdown package to render, so 
@@ -1404,18 +1428,79 @@ public class TextEditingTargetNotebook
       
       state_ = STATE_INITIALIZING;
       requestId_ = nextRequestId_++;
+      replayRequestId_ = Integer.toHexString(requestId_);
+      
+      // replay the chunks near the viewport now; the rest are replayed when
+      // they're scrolled into view. the first request also gives us the
+      // execution queue, so make sure there's at least one.
+      List<String> chunkIds = getUnloadedChunksNearViewport();
+      if (chunkIds.isEmpty() && !unloadedChunkIds_.isEmpty())
+         chunkIds.add(unloadedChunkIds_.iterator().next());
+      
+      for (int i = 0; i < chunkIds.size(); i++)
+         replayChunkOutput(chunkIds.get(i), i == 0);
+   }
+   
+   private void loadVisibleChunkOutput()
+   {
+      // nothing to do until the initial output has been requested
+      if (replayRequestId_ == null)
+         return;
+      
+      for (String chunkId: getUnloadedChunksNearViewport())
+         replayChunkOutput(chunkId, false);
+      
+      unloadDistantChunkOutput();
+   }
+   
+   private List<String> getUnloadedChunksNearViewport()
+   {
+      int first = docDisplay_.getFirstVisibleRow();
+      int last = docDisplay_.getLastVisibleRow();
+      int margin = last - first + 1;
+      
+      List<String> chunkIds = new ArrayList<String>();
+      Iterator<String> it = unloadedChunkIds_.iterator();
+      while (it.hasNext())
+      {
+         String chunkId = it.next();
+         
+         // forget chunks that have gone away or that got new output (e.g.
+         // because they were run)
+         ChunkOutputUi output = outputs_.get(chunkId);
+         if (output == null || 
+             output.getOutputWidget().getState() != ChunkOutputWidget.CHUNK_EMPTY)
+         {
+            it.remove();
+            continue;
+         }
+         
+         // don't replay over output that's on its way
+         if (queue_.isChunkQueued(chunkId) || queue_.isChunkExecuting(chunkId))
+            continue;
+         
+         int row = output.getCurrentRow();
+         if (row >= first - margin && row <= last + margin)
+            chunkIds.add(chunkId);
+      }
+      return chunkIds;
+   }
+   
+   private void replayChunkOutput(String chunkId, final boolean syncQueue)
+   {
+      unloadedChunkIds_.remove(chunkId);
       server_.refreshChunkOutput(
             docUpdateSentinel_.getPath(),
             docUpdateSentinel_.getId(), 
             contextId_,
-            Integer.toHexString(requestId_), 
-            "",
+            replayRequestId_, 
+            chunkId,
             new ServerRequestCallback<NotebookDocQueue>()
             {
                @Override
                public void onResponseReceived(NotebookDocQueue queue)
                {
-                  if (queue != null)
+                  if (syncQueue && queue != null)
                      queue_.setQueue(queue);
                }
 
@@ -1427,6 +1512,47 @@ public class TextEditingTargetNotebook
             });
    }
    
+   // HTML widgets are hosted in frames, which are expensive to keep around;
+   // past a budget, drop the output of those far from the viewport (it's
+   // replayed if they come back into view)
+   private void unloadDistantChunkOutput()
+   {
+      List<ChunkOutputUi> loaded = new ArrayList<ChunkOutputUi>();
+      for (ChunkOutputUi output: outputs_.values())
+      {
+         ChunkOutputWidget widget = output.getOutputWidget();
+         if (widget.getState() == ChunkOutputWidget.CHUNK_READY &&
+             widget.hasHtmlWidgets())
+         {
+            loaded.add(output);
+         }
+      }
+      
+      if (loaded.size() <= MAX_LOADED_HTML_CHUNKS)
+         return;
+      
+      int first = docDisplay_.getFirstVisibleRow();
+      int last = docDisplay_.getLastVisibleRow();
+      int margin = last - first + 1;
+      final int center = (first + last) / 2;
+      
+      // farthest first
+      Collections.sort(loaded, (a, b) ->
+            Math.abs(b.getCurrentRow() - center) - 
+            Math.abs(a.getCurrentRow() - center));
+      
+      for (int i = 0; i < loaded.size() - MAX_LOADED_HTML_CHUNKS; i++)
+      {
+         ChunkOutputUi output = loaded.get(i);
+         int row = output.getCurrentRow();
+         if (row >= first - margin && row <= last + margin)
+            break;
+         
+         output.getOutputWidget().unloadOutput();
+         unloadedChunkIds_.add(output.getChunkId());
+      }
+   }
+   
    // look for a line widget associated with the given chunk ID (used to find
    // orphans)
    private LineWidget getLineWidget(String chunkId)
@@ -1661,6 +1787,15 @@ public class TextEditingTargetNotebook
       }
    };
    
+   private Timer loadVisibleChunkOutput_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         loadVisibleChunkOutput();
+      }
+   };
+   
    private Timer resizePlotsLocal_ = new Timer()
    {
       @Override
@@ -1841,6 +1976,7 @@ public class TextEditingTargetNotebook
    private JsArray<ChunkDefinition> initialChunkDefs_;
    private HashMap<String, ChunkOutputUi> outputs_;
    private ArrayList<String> satelliteChunkRequestIds_;
+   private HashSet<String> unloadedChunkIds_ = new HashSet<String>();
    private HandlerRegistration progressClickReg_;
    private HandlerRegistration scopeTreeReg_;
    private HandlerRegistration progressCancelReg_;
@@ -1877,6 +2013,7 @@ public class TextEditingTargetNotebook
    private static int nextRequestId_ = 0;
    private int requestId_ = 0;
    private String contextId_ = "";
+   private String replayRequestId_ = null;
    private ResizeEvent queuedResize_ = null;
    private boolean validateSetupChunk_ = false;
    private String setupCrc32_ = "";
@@ -1898,6 +2035,9 @@ public class TextEditingTargetNotebook
    private final static int STATE_INITIALIZED = 1;
    
    private final static String LAST_SETUP_CRC32 = "last_setup_crc32";
+   
+   private final static int LOAD_CHUNK_OUTPUT_DELAY_MS = 100;
+   private final static int MAX_LOADED_HTML_CHUNKS = 10;
    public final static String SETUP_CHUNK_ID = "csetup_chunk";
    
    // stored document properties/values
@@ -176,22 +176,14 @@ public class CheckSpelling
                currentPos_,
                wrapped_ ? initialCursorPos_.getPosition() : null);
 
-         final ArrayList<String> words = new ArrayList<String>();
-         final ArrayList<Range> wordRanges = new ArrayList<Range>();
-
-         for (Range r : wordSource)
-         {
-            if (!typoSpellChecker_.shouldCheckSpelling(docDisplay_, r))
-               continue;
+         // Check a maximum of N words at a time
+         final ArrayList<Range> wordRanges =
+               typoSpellChecker_.getRangesToCheck(docDisplay_, wordSource, 100);
 
-            wordRanges.add(r);
+         final ArrayList<String> words = new ArrayList<String>();
+         for (Range r : wordRanges)
             words.add(docDisplay_.getTextForRange(r));
 
-            // Check a maximum of N words at a time
-            if (wordRanges.size() == 100)
-               break;
-         }
-
          if (wordRanges.size() > 0)
          {
             typoSpellChecker_.checkSpelling(words, new SimpleRequestCallback<SpellCheckerResult>()
@@ -250,6 +242,7 @@ public class CheckSpelling
 
    private void close()
    {
+      misspelledRange_ = null;
       progressDisplay_.hide();
       view_.closeDialog();
    }
@@ -280,6 +273,7 @@ public class CheckSpelling
    {
       try
       {
+         misspelledRange_ = range;
          docDisplay_.setSelectionRange(range);
          docDisplay_.moveCursorNearTop();
          view_.clearSuggestions();
@@ -312,13 +306,10 @@ public class CheckSpelling
             // the legacy code can be removed.
             if (TypoSpellChecker.isLoaded())
             {
-               String[] suggestions = typoSpellChecker_.suggestionList(word);
-               view_.setSuggestions(suggestions);
-               if (suggestions.length > 0)
+               typoSpellChecker_.suggestionList(word, (String[] suggestions) ->
                {
-                  view_.getReplacement().setText(suggestions[0]);
-                  view_.focusReplacement();
-               }
+                  showSuggestions(range, suggestions);
+               });
             }
             else
             {
@@ -328,13 +319,7 @@ public class CheckSpelling
                   public void onResponseReceived(
                      JsArrayString response)
                   {
-                     String[] suggestions = JsUtil.toStringArray(response);
-                     view_.setSuggestions(suggestions);
-                     if (suggestions.length > 0)
-                     {
-                        view_.getReplacement().setText(suggestions[0]);
-                        view_.focusReplacement();
-                     }
+                     showSuggestions(range, JsUtil.toStringArray(response));
                   }
 
                   @Override
@@ -359,6 +344,22 @@ public class CheckSpelling
       }
    }
 
+   private void showSuggestions(Range range, String[] suggestions)
+   {
+      // the suggestions arrive asynchronously; by then the dialog may have
+      // moved on to another word (or been closed), in which case they no
+      // longer apply
+      if (canceled_ || range != misspelledRange_)
+         return;
+
+      view_.setSuggestions(suggestions);
+      if (suggestions.length > 0)
+      {
+         view_.getReplacement().setText(suggestions[0]);
+         view_.focusReplacement();
+      }
+   }
+
    private final TypoSpellChecker typoSpellChecker_;
    private final DocDisplay docDisplay_;
    private final Display view_;
@@ -369,6 +370,7 @@ public class CheckSpelling
    private final HashMap<String, String> changeAll_ = new HashMap<>();
 
    private Position currentPos_;
+   private Range misspelledRange_;
 
    private boolean wrapped_;
    private boolean canceled_;
@@ -29,7 +29,9 @@ import org.rstudio.core.client.Barrier.Token;
 import org.rstudio.core.client.CommandWithArg;
 import org.rstudio.core.client.DebouncedCommand;
 import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.js.JsObject;
+import org.rstudio.core.client.patch.DocumentPatch;
 import org.rstudio.core.client.patch.SubstringDiff;
 import org.rstudio.core.client.widget.Operation;
 import org.rstudio.core.client.widget.ProgressIndicator;
@@ -55,6 +57,7 @@ import org.rstudio.studio.client.workbench.views.source.events.SaveFailedEvent;
 import org.rstudio.studio.client.workbench.views.source.events.SaveFileEvent;
 import org.rstudio.studio.client.workbench.views.source.events.SaveInitiatedEvent;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -80,6 +83,7 @@ public class DocUpdateSentinel
       {
          sourceDoc_ = response;
          docDisplay_.setCode(sourceDoc_.getContents(), true);
+         savedDeltas_ = new DocumentDeltaTracker(sourceDoc_.getHash());
          dirtyState_.markClean();
 
          if (progress_ != null)
@@ -162,6 +166,14 @@ public class DocUpdateSentinel
       docDisplay_.addValueChangeHandler(this);
       docDisplay_.addFoldChangeHandler(this);
 
+      savedDeltas_ = new DocumentDeltaTracker(sourceDoc_.getHash());
+      docDisplay_.addDocumentChangedHandler(event ->
+      {
+         savedDeltas_.onDocumentChanged(event.getEvent());
+         for (DocumentDeltaTracker deltas : pendingDeltas_)
+            deltas.onDocumentChanged(event.getEvent());
+      });
+
       // Web only
       if (!Desktop.isDesktop())
       {
@@ -413,11 +425,24 @@ public class DocUpdateSentinel
       JsArray<ChunkDefinition> oldChunkDefs = 
             sourceDoc_.getNotebookDoc().getChunkDefs();
       
-      SubstringDiff diff = new SubstringDiff(oldContents, newContents);
+      // Prefer patching just the rows edited since the contents the server
+      // last acknowledged; fall back to diffing the whole document if those
+      // edits weren't all seen (or were made against other contents).
+      DocumentPatch patch = null;
+      boolean valid = true;
+      if (hash != null && hash.equals(savedDeltas_.getBaseHash()))
+         patch = savedDeltas_.createPatch(oldContents, newContents);
+      final boolean isDeltaPatch = patch != null;
+      if (patch == null)
+      {
+         SubstringDiff diff = new SubstringDiff(oldContents, newContents);
+         patch = diff.asPatch();
+         valid = diff.isValid();
+      }
 
       // Don't auto-save when there are no changes. In addition to being
       // wasteful, it causes the server to think the document is dirty.
-      if (path == null && fileType == null && diff.isValid() && diff.isEmpty()
+      if (path == null && fileType == null && valid && patch.isEmpty()
           && foldSpec == oldFoldSpec 
           && (newChunkDefs == null || 
               ChunkDefinition.equalTo(newChunkDefs, oldChunkDefs)))
@@ -453,6 +478,11 @@ public class DocUpdateSentinel
          Debug.logException(e);
       }
 
+      // track edits made from here on, so that once the server has these
+      // contents the next save can be a patch against them
+      final DocumentDeltaTracker sentDeltas = new DocumentDeltaTracker(null);
+      pendingDeltas_.add(sentDeltas);
+
       server_.saveDocumentDiff(
             sourceDoc_.getId(),
             path,
@@ -460,16 +490,16 @@ public class DocUpdateSentinel
             encoding,
             foldSpec,
             newChunkDefs,
-            diff.getReplacement(),
-            diff.getOffset(),
-            diff.getLength(),
-            diff.isValid(),
+            patch,
+            valid,
             hash,
+            isDeltaPatch ? StringUtil.crc32Utf8(newContents) : null,
             new ServerRequestCallback<String>()
             {
                @Override
                public void onError(ServerError error)
                {
+                  pendingDeltas_.remove(sentDeltas);
                   Debug.logError(error);
                   if (progress != null)
                      progress.onError(error.getUserMessage());
@@ -510,6 +540,7 @@ public class DocUpdateSentinel
                                            path,
                                            fileType,
                                            encoding);
+                        onDeltasSaved(sentDeltas, newHash);
                      }
                      catch(Exception ex)
                      {
@@ -530,6 +561,7 @@ public class DocUpdateSentinel
                   {
                      // We just hit a race condition where two updates
                      // happened at once. Try again
+                     pendingDeltas_.remove(sentDeltas);
                      doSave(path, fileType, encoding, progress);
                   }
                   else
@@ -552,6 +584,19 @@ public class DocUpdateSentinel
       return true;
    }
 
+   private void onDeltasSaved(DocumentDeltaTracker deltas, String hash)
+   {
+      int index = pendingDeltas_.indexOf(deltas);
+      if (index == -1)
+         return;
+
+      // edits are now tracked against the contents just saved; saves sent
+      // before this one can no longer become the base
+      deltas.setBaseHash(hash);
+      savedDeltas_ = deltas;
+      pendingDeltas_.subList(0, index + 1).clear();
+   }
+
    private void onSuccessfulUpdate(String contents,
                                    String hash,
                                    String path,
@@ -858,6 +903,11 @@ public class DocUpdateSentinel
    private final SourceServerOperations server_;
    private final DocDisplay docDisplay_;
    private SourceDocument sourceDoc_;
+   // edits since the contents the server last acknowledged, and since the
+   // contents of each save still awaiting a response
+   private DocumentDeltaTracker savedDeltas_;
+   private final ArrayList<DocumentDeltaTracker> pendingDeltas_ =
+         new ArrayList<>();
    private final ProgressIndicator progress_;
    private final DirtyState dirtyState_;
    private final EventBus eventBus_;
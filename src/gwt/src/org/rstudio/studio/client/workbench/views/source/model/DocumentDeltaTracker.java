@@ -0,0 +1,294 @@
+/*
+ * DocumentDeltaTracker.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.model;
+
+import java.util.ArrayList;
+
+import org.rstudio.core.client.patch.DocumentPatch;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceDocumentChangeEventNative;
+
+/**
+ * Keeps track of which rows of a document have changed since it had some
+ * base contents (e.g. those last saved), as runs of rows in the current
+ * document, each with the number of rows it replaced in the base contents.
+ * Rows outside of those runs are the same as in the base contents.
+ */
+public class DocumentDeltaTracker
+{
+   private static class Region
+   {
+      Region(int start, int end, int baseRows)
+      {
+         this.start = start;
+         this.end = end;
+         this.baseRows = baseRows;
+      }
+
+      // the rows of the current document, [start, end)
+      int start;
+      int end;
+
+      // the number of rows these replaced in the base contents
+      final int baseRows;
+   }
+
+   /**
+    * @param baseHash the hash of the base contents, if known
+    */
+   public DocumentDeltaTracker(String baseHash)
+   {
+      baseHash_ = baseHash;
+   }
+
+   public String getBaseHash()
+   {
+      return baseHash_;
+   }
+
+   public void setBaseHash(String baseHash)
+   {
+      baseHash_ = baseHash;
+   }
+
+   public void onDocumentChanged(AceDocumentChangeEventNative event)
+   {
+      int startRow = event.start.getRow();
+      int rows = event.end.getRow() - startRow;
+      if ("insert".equals(event.getAction()))
+         addChange(startRow, startRow + 1, rows);
+      else
+         addChange(startRow, startRow + rows + 1, -rows);
+   }
+
+   /**
+    * Records a change to the document.
+    *
+    * @param start the first row changed
+    * @param end the row after the last row changed (before the change)
+    * @param rowsAdded the number of rows the change added (or removed, if
+    *    negative)
+    */
+   void addChange(int start, int end, int rowsAdded)
+   {
+      // merge the change with the regions it touches (or abuts), and move
+      // those after it to account for added or removed rows
+      ArrayList<Region> regions = new ArrayList<>(regions_.size() + 1);
+      int mergedStart = start;
+      int mergedEnd = end;
+      int mergedBaseRows = 0;
+      int mergedRegionRows = 0;
+      int insertAt = -1;
+      for (Region region : regions_)
+      {
+         if (region.end < start)
+         {
+            regions.add(region);
+         }
+         else if (region.start > end)
+         {
+            if (insertAt == -1)
+               insertAt = regions.size();
+            region.start += rowsAdded;
+            region.end += rowsAdded;
+            regions.add(region);
+         }
+         else
+         {
+            mergedStart = Math.min(mergedStart, region.start);
+            mergedEnd = Math.max(mergedEnd, region.end);
+            mergedBaseRows += region.baseRows;
+            mergedRegionRows += region.end - region.start;
+         }
+      }
+
+      // rows of the merged span outside any region are unchanged, so each
+      // came from one row of the base contents
+      Region merged = new Region(
+            mergedStart,
+            mergedEnd + rowsAdded,
+            mergedBaseRows + (mergedEnd - mergedStart - mergedRegionRows));
+      regions.add(insertAt == -1 ? regions.size() : insertAt, merged);
+
+      // if edits are scattered all over the document, patches stop being
+      // much smaller than the whole document; keep a single region instead
+      if (regions.size() > MAX_REGIONS)
+      {
+         Region first = regions.get(0);
+         Region last = regions.get(regions.size() - 1);
+         int baseRows = 0;
+         int regionRows = 0;
+         for (Region region : regions)
+         {
+            baseRows += region.baseRows;
+            regionRows += region.end - region.start;
+         }
+         regions.clear();
+         regions.add(new Region(
+               first.start,
+               last.end,
+               baseRows + (last.end - first.start - regionRows)));
+      }
+
+      regions_ = regions;
+   }
+
+   /**
+    * @return the row of the current document holding the given row of the
+    *    base contents, or -1 if that row has changed
+    */
+   public int getRow(int baseRow)
+   {
+      int rowsAdded = 0;
+      for (Region region : regions_)
+      {
+         int baseStart = region.start - rowsAdded;
+         if (baseRow < baseStart)
+            break;
+         if (baseRow < baseStart + region.baseRows)
+            return -1;
+         rowsAdded += (region.end - region.start) - region.baseRows;
+      }
+      return baseRow + rowsAdded;
+   }
+
+   /**
+    * @return whether any of the rows of the current document from startRow
+    *    to endRow (inclusive) have changed
+    */
+   public boolean hasChanged(int startRow, int endRow)
+   {
+      for (Region region : regions_)
+      {
+         if (region.start > endRow)
+            break;
+         if (region.end > startRow)
+            return true;
+      }
+      return false;
+   }
+
+   /**
+    * Creates a patch that turns the base contents into the current contents.
+    *
+    * @return the patch, or null if the contents don't agree with the changes
+    *    recorded (i.e. some changes were missed)
+    */
+   public DocumentPatch createPatch(String baseContents, String contents)
+   {
+      DocumentPatch patch = new DocumentPatch();
+      RowCursor base = new RowCursor(baseContents);
+      RowCursor current = new RowCursor(contents);
+
+      int baseBytes = 0;
+      int basePos = 0;
+      int lengthChange = 0;
+
+      // rows outside of regions are the same in both, but offset by the rows
+      // added (or removed) by the regions before them
+      int rowsAdded = 0;
+      for (Region region : regions_)
+      {
+         int baseStart = base.seek(region.start - rowsAdded);
+         int baseEnd = base.seek(region.start - rowsAdded + region.baseRows);
+         int start = current.seek(region.start);
+         int end = current.seek(region.end);
+         if (baseStart == -1 || baseEnd == -1 || start == -1 || end == -1)
+            return null;
+
+         String text = contents.substring(start, end);
+         if (!text.equals(baseContents.substring(baseStart, baseEnd)))
+         {
+            baseBytes += DocumentPatch.utf8Length(baseContents, basePos, baseStart);
+            int length = DocumentPatch.utf8Length(baseContents, baseStart, baseEnd);
+            patch.add(baseBytes, length, text);
+            baseBytes += length;
+            basePos = baseEnd;
+         }
+
+         lengthChange += (end - start) - (baseEnd - baseStart);
+         rowsAdded += (region.end - region.start) - region.baseRows;
+      }
+
+      // the rest of the document should be the same in both
+      if (baseContents.length() + lengthChange != contents.length() ||
+          base.countRows() + rowsAdded != current.countRows())
+      {
+         return null;
+      }
+
+      return patch;
+   }
+
+   /**
+    * Finds the offsets at which rows start in some text; rows must be
+    * visited in order.
+    */
+   private static class RowCursor
+   {
+      RowCursor(String text)
+      {
+         text_ = text;
+      }
+
+      /**
+       * @return the offset at which the given row starts, or the length of
+       *    the text for the row after the last; -1 if there's no such row
+       */
+      int seek(int row)
+      {
+         while (row_ < row && pos_ != -1)
+         {
+            if (afterLast_)
+            {
+               pos_ = -1;
+               break;
+            }
+
+            int newline = text_.indexOf('\n', pos_);
+            if (newline == -1)
+            {
+               pos_ = text_.length();
+               afterLast_ = true;
+            }
+            else
+            {
+               pos_ = newline + 1;
+            }
+            row_++;
+         }
+         return row_ == row ? pos_ : -1;
+      }
+
+      /**
+       * @return the number of rows in the text
+       */
+      int countRows()
+      {
+         while (pos_ != -1 && !afterLast_)
+            seek(row_ + 1);
+         return row_;
+      }
+
+      private final String text_;
+      private int row_ = 0;
+      private int pos_ = 0;
+      private boolean afterLast_ = false;
+   }
+
+   private String baseHash_;
+   private ArrayList<Region> regions_ = new ArrayList<>();
+
+   private static final int MAX_REGIONS = 1000;
+}
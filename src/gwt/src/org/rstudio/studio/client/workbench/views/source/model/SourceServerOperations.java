@@ -18,6 +18,7 @@ import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.JsArrayString;
 
 import org.rstudio.core.client.js.JsObject;
+import org.rstudio.core.client.patch.DocumentPatch;
 import org.rstudio.studio.client.common.codetools.CodeToolsServerOperations;
 import org.rstudio.studio.client.common.crypto.CryptoServerOperations;
 import org.rstudio.studio.client.events.GetEditorContextEvent;
@@ -105,7 +106,9 @@ public interface SourceServerOperations extends FilesServerOperations,
    /**
     * Same as saveDocument, but instead of sending the full contents, just
     * a diff is sent, along with a hash of the contents it expects the server
-    * to currently have (before the diff is applied). 
+    * to currently have (before the diff is applied). If newHash is non-null,
+    * it is the hash the contents are expected to have once the diff is
+    * applied; if they don't, the save fails.
     *
     * Note in particular that the semantics for the path parameter is the
     * same as saveDocument.
@@ -120,11 +123,10 @@ public interface SourceServerOperations extends FilesServerOperations,
                          String encoding,
                          String foldSpec,
                          JsArray<ChunkDefinition> chunkOutput,
-                         String replacement,
-                         int offset,
-                         int length,
+                         DocumentPatch patch,
                          boolean valid,
                          String hash,
+                         String newHash,
                          ServerRequestCallback<String> requestCallback);
 
    void checkForExternalEdit(
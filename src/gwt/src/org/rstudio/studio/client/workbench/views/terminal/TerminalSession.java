@@ -54,6 +54,8 @@ import org.rstudio.studio.client.workbench.views.terminal.xterm.XTermOptions;
 import org.rstudio.studio.client.workbench.views.terminal.xterm.XTermTheme;
 import org.rstudio.studio.client.workbench.views.terminal.xterm.XTermWidget;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.core.client.Duration;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
@@ -269,6 +271,7 @@ public class TerminalSession extends XTermWidget
       connected_ = false;
       connecting_ = false;
       restartSequenceWritten_ = false;
+      cancelBufferReload();
       setNotReloading();
       deferredOutput_.clear();
    }
@@ -318,6 +321,18 @@ public class TerminalSession extends XTermWidget
       socket_.dispatchOutput(output, doLocalEcho());
    }
 
+   @Override
+   public void receivedBuffer(String buffer)
+   {
+      if (!awaitingBuffer_)
+         return;
+      awaitingBuffer_ = false;
+      bufferRequestTimer_.cancel();
+
+      onResize();
+      writeBuffer(buffer, 0, reloadSequence_, new Duration());
+   }
+
    @Override
    public void connectionDisconnected()
    {
@@ -539,6 +554,8 @@ public class TerminalSession extends XTermWidget
     */
    public void clearBuffer()
    {
+      // output coalesced before the clear would otherwise be written after it
+      socket_.discardPendingOutput();
       clear();
 
       // talk directly to the server so it will wake up if suspended and
@@ -571,6 +588,7 @@ public class TerminalSession extends XTermWidget
 
    protected void writeError(String msg)
    {
+      socket_.flushOutput();
       writeln(AnsiCode.ForeColor.RED + "Error: " + msg + AnsiCode.DEFAULTCOLORS);
    }
 
@@ -727,7 +745,11 @@ public class TerminalSession extends XTermWidget
     */
    public void reloadBuffer()
    {
+      cancelBufferReload();
       deferredOutput_.clear();
+
+      // the reloaded buffer includes any output still waiting to be written
+      socket_.discardPendingOutput();
       if (newTerminal_)
       {
          setNotReloading();
@@ -736,8 +758,71 @@ public class TerminalSession extends XTermWidget
       else
       {
          setReloading();
-         fetchNextChunk(0);
+
+         // when connected via websocket, have the whole buffer sent in one
+         // go rather than fetching it chunk by chunk
+         if (shellSupportsReload() && socket_.requestBuffer())
+         {
+            awaitingBuffer_ = true;
+            bufferRequestTimer_.schedule(BUFFER_REQUEST_TIMEOUT_MS);
+         }
+         else
+         {
+            fetchNextChunk(0);
+         }
+      }
+   }
+
+   /**
+    * Abandon any buffer reload in progress via the websocket.
+    */
+   private void cancelBufferReload()
+   {
+      reloadSequence_++;
+      awaitingBuffer_ = false;
+      bufferRequestTimer_.cancel();
+   }
+
+   /**
+    * Write a buffer received via the websocket to the terminal emulator, one
+    * batch per animation frame so a large buffer doesn't block the UI while
+    * xterm parses and renders it.
+    */
+   private void writeBuffer(final String buffer,
+                            final int start,
+                            final int reloadSequence,
+                            final Duration duration)
+   {
+      // abandoned by a disconnect or another reload
+      if (reloadSequence != reloadSequence_)
+         return;
+
+      final int end = Math.min(buffer.length(), start + BUFFER_WRITE_BATCH);
+      accept(buffer.substring(start, end));
+      socket_.logDiagnostic("Reloaded " + end + " of " + buffer.length() +
+            " characters (" + duration.elapsedMillis() + "ms)");
+
+      if (end < buffer.length())
+      {
+         AnimationScheduler.get().requestAnimationFrame(timestamp ->
+               writeBuffer(buffer, end, reloadSequence, duration));
+         return;
       }
+
+      finishReload();
+   }
+
+   private void finishReload()
+   {
+      writeRestartSequence();
+      if (procInfo_.getZombie())
+         showZombieMessage();
+      setNotReloading();
+      for (String outputStr : deferredOutput_)
+      {
+         socket_.dispatchOutput(outputStr, doLocalEcho());
+      }
+      deferredOutput_.clear();
    }
 
    private boolean shellSupportsReload()
@@ -796,15 +881,7 @@ public class TerminalSession extends XTermWidget
                   }
                   else
                   {
-                     writeRestartSequence();
-                     if (procInfo_.getZombie())
-                        showZombieMessage();
-                     setNotReloading();
-                     for (String outputStr : deferredOutput_)
-                     {
-                        socket_.dispatchOutput(outputStr, doLocalEcho());
-                     }
-                     deferredOutput_.clear();
+                     finishReload();
                   }
                }
 
@@ -823,6 +900,7 @@ public class TerminalSession extends XTermWidget
 
    public void showZombieMessage()
    {
+      socket_.flushOutput();
       writeln("[Process completed]");
       accept("[Exit code: ");
       if (procInfo_.getExitCode() != null)
@@ -950,6 +1028,8 @@ public class TerminalSession extends XTermWidget
    private boolean reloading_;
    private boolean haveLoadedBuffer_;
    private final ArrayList<String> deferredOutput_ = new ArrayList<>();
+   private boolean awaitingBuffer_;
+   private int reloadSequence_;
    private boolean restartSequenceWritten_;
    private final StringBuilder inputQueue_ = new StringBuilder();
    private int inputSequence_ = ShellInput.IGNORE_SEQUENCE;
@@ -957,10 +1037,28 @@ public class TerminalSession extends XTermWidget
    private boolean showAltAfterReload_;
    private final boolean createdByApi_;
 
+   // If the server doesn't answer a buffer request sent over the websocket,
+   // fall back to fetching the buffer via RPC
+   private final Timer bufferRequestTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         if (!awaitingBuffer_)
+            return;
+         awaitingBuffer_ = false;
+         socket_.logDiagnostic("Timeout waiting for buffer, fetching via RPC");
+         fetchNextChunk(0);
+      }
+   };
+
    // Injected ----
    private WorkbenchServerOperations server_;
    private EventBus eventBus_;
    private UserPrefs uiPrefs_;
    private SessionInfo sessionInfo_;
    private GlobalDisplay globalDisplay_;
+
+   private static final int BUFFER_REQUEST_TIMEOUT_MS = 5000;
+   private static final int BUFFER_WRITE_BATCH = 32768;
 }
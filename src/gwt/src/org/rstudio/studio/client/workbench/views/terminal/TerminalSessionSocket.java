@@ -31,6 +31,8 @@ import org.rstudio.studio.client.server.VoidServerRequestCallback;
 import org.rstudio.studio.client.workbench.views.terminal.events.TerminalDataInputEvent;
 import org.rstudio.studio.client.workbench.views.terminal.xterm.XTermWidget;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationHandle;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.sksamuel.gwt.websockets.CloseEvent;
@@ -58,6 +60,12 @@ public class TerminalSessionSocket
        */
       void receivedOutput(String output);
 
+      /**
+       * Called when the saved buffer requested via requestBuffer arrives.
+       * @param buffer saved buffer from server
+       */
+      void receivedBuffer(String buffer);
+
       /**
        * Called to disconnect the terminal
        */
@@ -163,31 +171,13 @@ public class TerminalSessionSocket
 
       case ConsoleProcessInfo.CHANNEL_WEBSOCKET:
 
-         // For desktop IDE, talk directly to the websocket, anything else, go
-         // through the server via the /p proxy.
-         String urlSuffix = consoleProcess_.getProcessInfo().getChannelId() + "/terminal/" +
-               consoleProcess_.getProcessInfo().getHandle() + "/";
-         String url;
-         if (Desktop.isDesktop())
-         {
-            url = "ws://127.0.0.1:" + urlSuffix;
-         }
-         else
+         String url = getWebSocketUrl(consoleProcess_.getProcessInfo().getChannelId(),
+                                      "terminal",
+                                      consoleProcess_.getProcessInfo().getHandle());
+         if (url == null)
          {
-            url = GWT.getHostPageBaseURL();
-            if (url.startsWith("https:"))
-            {
-               url = "wss:" + url.substring(6) + "p/" + urlSuffix;
-            }
-            else if (url.startsWith("http:"))
-            {
-               url = "ws:" + url.substring(5) + "p/" + urlSuffix;
-            }
-            else
-            {
-               callback.onError("Unable to discover websocket protocol");
-               return;
-            }
+            callback.onError("Unable to discover websocket protocol");
+            return;
          }
 
          diagnostic_.log("Connect WebSocket: '" + url + "'");
@@ -216,6 +206,11 @@ public class TerminalSessionSocket
                {
                   receivedKeepAlive();
                }
+               else if (TerminalSocketPacket.isBuffer(msg))
+               {
+                  diagnostic_.log("Received buffer (" + (msg.length() - 1) + " characters)");
+                  session_.receivedBuffer(TerminalSocketPacket.getBuffer(msg));
+               }
                else
                {
                   onConsoleOutput(new ConsoleOutputEvent(TerminalSocketPacket.getMessage(msg)));
@@ -257,6 +252,30 @@ public class TerminalSessionSocket
       }
    }
 
+   /**
+    * @param port port the session's websocket server is listening on
+    * @param path path identifying the kind of connection
+    * @param handle unique handle for the connection
+    * @return url for connecting to a websocket served by the session, or
+    *    null if the websocket protocol can't be determined
+    */
+   public static String getWebSocketUrl(String port, String path, String handle)
+   {
+      // For desktop IDE, talk directly to the websocket, anything else, go
+      // through the server via the /p proxy.
+      String urlSuffix = port + "/" + path + "/" + handle + "/";
+      if (Desktop.isDesktop())
+         return "ws://127.0.0.1:" + urlSuffix;
+
+      String url = GWT.getHostPageBaseURL();
+      if (url.startsWith("https:"))
+         return "wss:" + url.substring(6) + "p/" + urlSuffix;
+      else if (url.startsWith("http:"))
+         return "ws:" + url.substring(5) + "p/" + urlSuffix;
+      else
+         return null;
+   }
+
    private void switchToRPC()
    {
       socket_ = null;
@@ -295,6 +314,8 @@ public class TerminalSessionSocket
                              boolean localEcho,
                              VoidServerRequestCallback requestCallback)
    {
+      // echoed input must land after any output that preceded it
+      flushOutput();
       if (localEcho)
          localEcho_.echo(input);
       else
@@ -324,11 +345,91 @@ public class TerminalSessionSocket
    }
 
    /**
-    * Send output to the terminal emulator.
+    * Ask the server to send the whole saved buffer over the websocket, rather
+    * than fetching it a chunk at a time via RPC. The buffer is delivered to
+    * Session.receivedBuffer.
+    * @return true if the request was sent, false if there is no websocket
+    */
+   public boolean requestBuffer()
+   {
+      if (socket_ == null ||
+          consoleProcess_.getChannelMode() != ConsoleProcessInfo.CHANNEL_WEBSOCKET)
+      {
+         return false;
+      }
+
+      diagnostic_.log("Requesting buffer");
+      socket_.send(TerminalSocketPacket.bufferRequestPacket());
+      return true;
+   }
+
+   /**
+    * Add a message to the connection diagnostics.
+    */
+   public void logDiagnostic(String msg)
+   {
+      diagnostic_.log(msg);
+   }
+
+   /**
+    * Send output to the terminal emulator. Output is buffered and written
+    * once per animation frame (or sooner, if a lot of it arrives), so a
+    * stream of small messages costs one xterm write rather than many.
     * @param output text to send to the terminal
     * @param detectLocalEcho local-echo detection
     */
    public void dispatchOutput(String output, boolean detectLocalEcho)
+   {
+      if (pendingOutput_.length() > 0 && detectLocalEcho != pendingDetectLocalEcho_)
+         flushOutput();
+
+      pendingOutput_.append(output);
+      pendingDetectLocalEcho_ = detectLocalEcho;
+
+      if (pendingOutput_.length() >= MAX_PENDING_OUTPUT)
+         flushOutput();
+      else if (flushHandle_ == null)
+         flushHandle_ = AnimationScheduler.get().requestAnimationFrame(timestamp ->
+         {
+            flushHandle_ = null;
+            flushOutput();
+         });
+   }
+
+   /**
+    * Write any buffered output to the terminal emulator now.
+    */
+   public void flushOutput()
+   {
+      if (flushHandle_ != null)
+      {
+         flushHandle_.cancel();
+         flushHandle_ = null;
+      }
+
+      if (pendingOutput_.length() == 0)
+         return;
+
+      String output = pendingOutput_.toString();
+      pendingOutput_.setLength(0);
+      writeOutput(output, pendingDetectLocalEcho_);
+   }
+
+   /**
+    * Drop any buffered output without writing it, e.g. because the terminal
+    * is being cleared or its buffer reloaded.
+    */
+   public void discardPendingOutput()
+   {
+      if (flushHandle_ != null)
+      {
+         flushHandle_.cancel();
+         flushHandle_ = null;
+      }
+      pendingOutput_.setLength(0);
+   }
+
+   private void writeOutput(String output, boolean detectLocalEcho)
    {
       if (detectLocalEcho && PASSWORD_PATTERN.test(output))
       {
@@ -381,6 +482,7 @@ public class TerminalSessionSocket
    public void disconnect(boolean permanent)
    {
       diagnostic_.log(permanent ? "Permanently Disconnected" : "Disconnected");
+      flushOutput();
       if (socket_ != null)
          socket_.close();
       socket_ = null;
@@ -427,6 +529,11 @@ public class TerminalSessionSocket
    private final TerminalLocalEcho localEcho_;
    private final TerminalDiagnostics diagnostic_ = new TerminalDiagnostics();
 
+   // output waiting for the next animation frame to be written
+   private final StringBuilder pendingOutput_ = new StringBuilder();
+   private boolean pendingDetectLocalEcho_;
+   private AnimationHandle flushHandle_;
+
    // RegEx to match common password prompts
    private static final String PASSWORD_REGEX = "(?:password:)|(?:passphrase:)";
 
@@ -436,4 +543,7 @@ public class TerminalSessionSocket
    private final int webSocketPingInterval_;
    private final Timer connectWebSocketTimer_;
    private final int webSocketConnectTimeout_;
+
+   // write buffered output immediately once this much is pending
+   private static final int MAX_PENDING_OUTPUT = 65536;
 }
@@ -25,8 +25,10 @@ import org.rstudio.core.client.StringUtil;
  * First character is a method indicator, as follows:
  *    "a" = send text, e.g. "aHello"
  *    "b" = ping/pong, e.g. "b"
+ *    "c" = buffer; sent without a payload to request the saved terminal
+ *          buffer, which the server returns after the "c"
  *
- * Only the "send text" method has a payload (everything after the "a").
+ * Only the "send text" and server-sent "buffer" methods have a payload.
  *
  * See SessionConsoleProcessSocketPacket in session code for C++ side of this sophisticated
  * wire format.
@@ -57,6 +59,26 @@ public class TerminalSocketPacket
       return "";
    }
 
+   public static String bufferRequestPacket()
+   {
+      return bufferPrefix;
+   }
+
+   public static boolean isBuffer(String text)
+   {
+      return text.startsWith(bufferPrefix);
+   }
+
+   public static String getBuffer(String text)
+   {
+      if (isBuffer(text))
+      {
+         return text.substring(1);
+      }
+      return "";
+   }
+
    private static final String keepAlivePrefix = "b";
+   private static final String bufferPrefix = "c";
    private static final String textPrefix = "a";
 }
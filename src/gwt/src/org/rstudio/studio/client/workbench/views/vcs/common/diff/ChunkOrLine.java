@@ -15,6 +15,7 @@
 package org.rstudio.studio.client.workbench.views.vcs.common.diff;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public class ChunkOrLine
 {
@@ -28,16 +29,41 @@ public class ChunkOrLine
       return list;
    }
 
+   /**
+    * Creates the rows for a set of chunks. Chunks with more than
+    * COLLAPSE_LINE_COUNT lines are collapsed: only their header is included,
+    * and their lines aren't created until the chunk is expanded.
+    */
+   public static ArrayList<ChunkOrLine> fromChunks(List<DiffChunk> chunks)
+   {
+      ArrayList<ChunkOrLine> list = new ArrayList<ChunkOrLine>();
+      for (DiffChunk chunk : chunks)
+      {
+         if (!chunk.shouldIgnore() && chunk.getLineCount() > COLLAPSE_LINE_COUNT)
+            list.add(new ChunkOrLine(chunk, true));
+         else
+            list.addAll(fromChunk(chunk));
+      }
+      return list;
+   }
+
    public ChunkOrLine(DiffChunk chunk)
+   {
+      this(chunk, false);
+   }
+
+   public ChunkOrLine(DiffChunk chunk, boolean collapsed)
    {
       chunk_ = chunk;
       line_ = null;
+      collapsed_ = collapsed;
    }
 
    public ChunkOrLine(Line line)
    {
       line_ = line;
       chunk_ = null;
+      collapsed_ = false;
    }
 
    public DiffChunk getChunk()
@@ -50,6 +76,17 @@ public class ChunkOrLine
       return line_;
    }
 
+   /**
+    * @return true if this is the header of a chunk whose lines are hidden
+    */
+   public boolean isCollapsed()
+   {
+      return collapsed_;
+   }
+
    private final DiffChunk chunk_;
    private final Line line_;
+   private final boolean collapsed_;
+
+   public static final int COLLAPSE_LINE_COUNT = 1000;
 }
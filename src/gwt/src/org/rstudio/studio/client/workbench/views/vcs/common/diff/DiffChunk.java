@@ -18,6 +18,14 @@ import java.util.ArrayList;
 
 public class DiffChunk
 {
+   /**
+    * Creates the lines of a chunk when they're first needed.
+    */
+   public interface LineSource
+   {
+      ArrayList<Line> createLines();
+   }
+
    public DiffChunk(Range[] ranges,
                     String lineText,
                     ArrayList<Line> diffLines,
@@ -26,6 +34,20 @@ public class DiffChunk
       this.ranges_ = ranges;
       this.lineText_ = lineText;
       this.diffLines_ = diffLines;
+      this.lineCount_ = diffLines.size();
+      diffIndex_ = diffIndex;
+   }
+
+   public DiffChunk(Range[] ranges,
+                    String lineText,
+                    LineSource lineSource,
+                    int lineCount,
+                    int diffIndex)
+   {
+      this.ranges_ = ranges;
+      this.lineText_ = lineText;
+      this.lineSource_ = lineSource;
+      this.lineCount_ = lineCount;
       diffIndex_ = diffIndex;
    }
 
@@ -41,14 +63,27 @@ public class DiffChunk
 
       return new DiffChunk(newRanges,
                            lineText_,
-                           Line.reverseLines(diffLines_), diffIndex_);
+                           Line.reverseLines(getLines()), diffIndex_);
    }
 
    public ArrayList<Line> getLines()
    {
+      if (diffLines_ == null)
+      {
+         diffLines_ = lineSource_.createLines();
+         lineSource_ = null;
+      }
       return diffLines_;
    }
 
+   /**
+    * @return the number of lines in the chunk, without creating them
+    */
+   public int getLineCount()
+   {
+      return lineCount_;
+   }
+
    public Range[] getRanges()
    {
       return ranges_;
@@ -75,7 +110,9 @@ public class DiffChunk
    }
 
    private final String lineText_;
-   private final ArrayList<Line> diffLines_;
+   private ArrayList<Line> diffLines_;
+   private LineSource lineSource_;
+   private final int lineCount_;
    private final int diffIndex_;
    private final Range[] ranges_;
 }
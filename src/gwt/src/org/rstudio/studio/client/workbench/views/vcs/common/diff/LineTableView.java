@@ -17,6 +17,7 @@ package org.rstudio.studio.client.workbench.views.vcs.common.diff;
 import com.google.gwt.cell.client.AbstractCell;
 import com.google.gwt.cell.client.ValueUpdater;
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.NativeEvent;
 import com.google.gwt.dom.client.Node;
@@ -27,6 +28,8 @@ import com.google.gwt.user.cellview.client.CellTable;
 import com.google.gwt.user.cellview.client.Column;
 import com.google.gwt.user.cellview.client.RowStyles;
 import com.google.gwt.user.cellview.client.TextColumn;
+import com.google.gwt.user.client.ui.ScrollPanel;
+import com.google.gwt.user.client.ui.Widget;
 import com.google.gwt.view.client.MultiSelectionModel;
 import com.google.gwt.view.client.ProvidesKey;
 import com.google.gwt.view.client.SelectionChangeEvent;
@@ -74,6 +77,7 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
       String actions();
       String lineActions();
       String chunkActions();
+      String expandChunk();
 
       String start();
       String end();
@@ -114,6 +118,30 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
                      }
                   });
 
+            if (el == null && value.isCollapsed())
+            {
+               el = (Element) DomUtils.findNodeUpwards(
+                     event.getEventTarget().<Node>cast(),
+                     parent,
+                     new NodePredicate()
+                     {
+                        @Override
+                        public boolean test(Node n)
+                        {
+                           return n.getNodeType() == Node.ELEMENT_NODE &&
+                                  ((Element) n).hasAttribute("data-expand");
+                        }
+                     });
+
+               if (el != null)
+               {
+                  event.preventDefault();
+                  event.stopPropagation();
+                  expandChunk(value);
+                  return;
+               }
+            }
+
             if (el != null)
             {
                event.preventDefault();
@@ -157,6 +185,15 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
          else
          {
             sb.appendEscaped(UnifiedEmitter.createChunkString(value.getChunk()));
+            if (value.isCollapsed())
+            {
+               sb.append(SafeHtmlUtil.createOpenTag(
+                     "span",
+                     "class", RES.cellTableStyle().expandChunk(),
+                     "data-expand", "true"));
+               sb.appendEscaped("Show " + value.getChunk().getLineCount() + " lines");
+               sb.appendHtmlConstant("</span>");
+            }
             if (showActions_)
             {
                renderActionButtons(sb,
@@ -379,13 +416,40 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
       });
       setSelectionModel(selectionModel_);
 
+      // render more rows as the end of those already rendered is scrolled
+      // toward (see renderRowsInView)
+      addAttachHandler(event ->
+      {
+         if (scrollRegistration_ != null)
+         {
+            scrollRegistration_.removeHandler();
+            scrollRegistration_ = null;
+         }
+         scrollPanel_ = null;
+
+         if (event.isAttached())
+         {
+            Widget parent = getParent();
+            while (parent != null && !(parent instanceof ScrollPanel))
+               parent = parent.getParent();
+
+            if (parent != null)
+            {
+               scrollPanel_ = (ScrollPanel) parent;
+               scrollRegistration_ = scrollPanel_.addScrollHandler(
+                     scrollEvent -> renderRowsInView());
+            }
+            renderRowsInView();
+         }
+      });
+
       setData(new ArrayList<ChunkOrLine>(), PatchMode.Working);
    }
 
    private void refreshValue(ChunkOrLine value)
    {
       int index = lines_.indexOf(value);
-      if (index >= 0)
+      if (index >= 0 && index < renderedRows_)
       {
          ArrayList<ChunkOrLine> list = new ArrayList<ChunkOrLine>();
          list.add(value);
@@ -443,10 +507,23 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
       }
 
       lines_ = diffData;
-      setPageSize(diffData.size());
       selectionModel_.clear();
       firstSelectedLine_ = null;
-      setRowData(diffData);
+
+      // when the same diff is refreshed (e.g. after staging some of it),
+      // keep as many rows rendered as before, so the scroll position holds
+      renderedRows_ = Math.min(lines_.size(),
+                               Math.max(renderedRows_, RENDER_PAGE_SIZE));
+      refreshRows();
+      renderRowsInView();
+   }
+
+   // recomputes the row borders and re-renders the rendered rows
+   private void refreshRows()
+   {
+      setRowCount(lines_.size());
+      setVisibleRange(0, renderedRows_);
+      setRowData(0, lines_.subList(0, renderedRows_));
 
       startRows_.clear();
       endRows_.clear();
@@ -484,10 +561,73 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
       }
    }
 
+   /**
+    * Renders more rows if the end of those already rendered is within a
+    * screenful of being scrolled into view. Rows are only rendered all at
+    * once if the table isn't in a scroll panel.
+    */
+   private void renderRowsInView()
+   {
+      if (!isAttached() || renderedRows_ >= lines_.size())
+         return;
+
+      if (scrollPanel_ != null)
+      {
+         Element scrollEl = scrollPanel_.getElement();
+         int renderedBottom = getElement().getAbsoluteTop() + getOffsetHeight();
+         int viewBottom = scrollEl.getAbsoluteTop() + scrollEl.getClientHeight();
+         if (renderedBottom > viewBottom + scrollEl.getClientHeight())
+            return;
+      }
+      else
+      {
+         renderRows(lines_.size());
+         return;
+      }
+
+      // Grow by at least a quarter of the rows already rendered; the table
+      // appends that many rows without re-rendering those already there, and
+      // the number of times it grows stays small for very long diffs
+      renderRows(renderedRows_ + Math.max(RENDER_PAGE_SIZE, renderedRows_ / 4));
+
+      // the new rows may not have filled the view
+      Scheduler.get().scheduleDeferred(() -> renderRowsInView());
+   }
+
+   private void renderRows(int count)
+   {
+      int start = renderedRows_;
+      renderedRows_ = Math.min(count, lines_.size());
+      if (renderedRows_ <= start)
+         return;
+
+      setVisibleRange(0, renderedRows_);
+      setRowData(start, lines_.subList(start, renderedRows_));
+   }
+
+   // replaces a collapsed chunk's header with its lines
+   private void expandChunk(ChunkOrLine collapsed)
+   {
+      int index = lines_.indexOf(collapsed);
+      if (index < 0)
+         return;
+
+      ArrayList<ChunkOrLine> rows = ChunkOrLine.fromChunk(collapsed.getChunk());
+      lines_.remove(index);
+      lines_.addAll(index, rows);
+
+      // render the start of the chunk, but no more rows than were rendered
+      // before (unless that's too few to show any of it)
+      renderedRows_ = Math.min(lines_.size(),
+                               Math.max(renderedRows_, index + RENDER_PAGE_SIZE));
+      refreshRows();
+      renderRowsInView();
+   }
+
    @Override
    protected boolean canSelectVisibleRow(int visibleRow)
    {
-      if (visibleRow < 0 || visibleRow >= lines_.size())
+      if (visibleRow < 0 || visibleRow >= renderedRows_)
          return false;
 
       Line line = lines_.get(visibleRow).getLine();
@@ -498,6 +638,7 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
    @Override
    public void clear()
    {
+      renderedRows_ = 0;
       setData(new ArrayList<ChunkOrLine>(), PatchMode.Working);
    }
 
@@ -516,8 +657,12 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
    {
       ArrayList<Line> selected = new ArrayList<Line>();
       for (ChunkOrLine line : lines_)
+      {
          if (line.getLine() != null)
             selected.add(line.getLine());
+         else if (line.isCollapsed())
+            selected.addAll(line.getChunk().getLines());
+      }
       return selected;
    }
 
@@ -546,6 +691,10 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
 
    private boolean showActions_ = true;
    private ArrayList<ChunkOrLine> lines_;
+   // the number of rows (from the start of lines_) rendered so far
+   private int renderedRows_ = 0;
+   private ScrollPanel scrollPanel_;
+   private HandlerRegistration scrollRegistration_;
    private SwitchableSelectionModel<ChunkOrLine> selectionModel_;
    private HashSet<Integer> startRows_ = new HashSet<Integer>();
    private HashSet<Integer> endRows_ = new HashSet<Integer>();
@@ -556,4 +705,6 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
    private static final LineTableViewCellTableResources RES = GWT.create(LineTableViewCellTableResources.class);
    private static final LineActionButtonRenderer blueButtonRenderer_ = LineActionButtonRenderer.createBlue();
    private static final LineActionButtonRenderer grayButtonRenderer_ = LineActionButtonRenderer.createGray();
+
+   private static final int RENDER_PAGE_SIZE = 500;
 }
@@ -27,8 +27,14 @@ public class UnifiedParser implements DiffParser
    }
 
    public UnifiedParser(String data, int startDiffIndex)
+   {
+      this(data, 0, startDiffIndex);
+   }
+
+   private UnifiedParser(String data, int pos, int startDiffIndex)
    {
       data_ = data;
+      pos_ = pos;
       diffIndex_ = startDiffIndex;
    }
 
@@ -90,7 +96,37 @@ public class UnifiedParser implements DiffParser
 
       int chunkDiffIndex = diffIndex_++;
 
-      Range[] ranges = chunkHeaderInfo.ranges;
+      // Check the chunk's lines against the header now, so malformed diffs
+      // are reported as they're parsed, but only create the Line objects
+      // (and their text) if someone asks for them; large diffs often have
+      // chunks that are never looked at
+      final Range[] ranges = chunkHeaderInfo.ranges;
+      final int linesStart = pos_;
+      final int linesDiffIndex = diffIndex_;
+      readLines(ranges, null);
+
+      return new DiffChunk(ranges,
+                           chunkHeaderInfo.extraInfo,
+                           () ->
+                           {
+                              ArrayList<Line> lines = new ArrayList<Line>();
+                              new UnifiedParser(data_, linesStart, linesDiffIndex)
+                                    .readLines(ranges, lines);
+                              return lines;
+                           },
+                           diffIndex_ - linesDiffIndex,
+                           chunkDiffIndex);
+   }
+
+   /**
+    * Reads the lines of a chunk with the given ranges, starting at the
+    * current position.
+    *
+    * @param lines receives the lines read; if null, the lines are only
+    *    checked against the ranges
+    */
+   private void readLines(Range[] ranges, ArrayList<Line> lines)
+   {
       int[] counts = new int[ranges.length];
       int[] positions = new int[ranges.length];
       boolean[] MASK_NONE = new boolean[ranges.length];
@@ -105,26 +141,28 @@ public class UnifiedParser implements DiffParser
 
       boolean[] mask = new boolean[ranges.length];
 
-      ArrayList<Line> lines = new ArrayList<Line>();
       for (;
            !isEmpty(counts) || nextLineIsComment();
            diffIndex_++)
       {
-         String diffLine = nextLine();
-         if (diffLine == null)
+         if (isEOD())
             throw new DiffFormatException("Diff ended prematurely");
-         if (diffLine.length() < columns)
+
+         int lineStart = pos_;
+         int lineEnd = skipLine();
+         if (lineEnd - lineStart < columns)
             throw new DiffFormatException("Unexpected line format");
 
          int directive = ' ';
          for (int i = 0; i < columns; i++)
          {
-            mask[i] = StringUtil.charAt(diffLine, i) != ' ';
+            char c = StringUtil.charAt(data_, lineStart + i);
+            mask[i] = c != ' ';
             if (mask[i])
             {
                if (directive == ' ')
-                  directive = StringUtil.charAt(diffLine, i);
-               else if (directive != StringUtil.charAt(diffLine,i))
+                  directive = c;
+               else if (directive != c)
                   throw new DiffFormatException("Conflicting directives");
             }
          }
@@ -136,43 +174,47 @@ public class UnifiedParser implements DiffParser
 
                addToSelected(positions, MASK_ALL, +1);
                addToSelected(counts, MASK_ALL, -1);
-               lines.add(new Line(Type.Same,
-                                  MASK_ALL,
-                                  clone(positions),
-                                  diffLine.substring(columns),
-                                  diffIndex_));
+               if (lines != null)
+                  lines.add(new Line(Type.Same,
+                                     MASK_ALL,
+                                     clone(positions),
+                                     data_.substring(lineStart + columns, lineEnd),
+                                     diffIndex_));
                break;
             case '-':
                // Masked positions increase by one
 
                addToSelected(positions, mask, +1);
                addToSelected(counts, mask, -1);
-               lines.add(new Line(Type.Deletion,
-                                  clone(mask),
-                                  clone(positions),
-                                  diffLine.substring(columns),
-                                  diffIndex_));
+               if (lines != null)
+                  lines.add(new Line(Type.Deletion,
+                                     clone(mask),
+                                     clone(positions),
+                                     data_.substring(lineStart + columns, lineEnd),
+                                     diffIndex_));
                break;
             case '+':
                // Unmasked positions increase by one (including new)
 
                addToUnselected(positions, mask, +1);
                addToUnselected(counts, mask, -1);
-               lines.add(new Line(Type.Insertion,
-                                  complement(mask),
-                                  clone(positions),
-                                  diffLine.substring(columns),
-                                  diffIndex_));
+               if (lines != null)
+                  lines.add(new Line(Type.Insertion,
+                                     complement(mask),
+                                     clone(positions),
+                                     data_.substring(lineStart + columns, lineEnd),
+                                     diffIndex_));
                break;
             case '\\':
                // No positions move??
 
                // e.g. "\\ No newline at end of file"
-               lines.add(new Line(Type.Comment,
-                                  MASK_NONE,
-                                  clone(positions),
-                                  diffLine.substring(columns),
-                                  diffIndex_));
+               if (lines != null)
+                  lines.add(new Line(Type.Comment,
+                                     MASK_NONE,
+                                     clone(positions),
+                                     data_.substring(lineStart + columns, lineEnd),
+                                     diffIndex_));
                break;
             default:
                throw new DiffFormatException("Unexpected leading character");
@@ -181,8 +223,6 @@ public class UnifiedParser implements DiffParser
 
       if (!isZero(counts))
          throw new DiffFormatException("Diff didn't match header ranges");
-
-      return new DiffChunk(ranges, chunkHeaderInfo.extraInfo, lines, chunkDiffIndex);
    }
 
    private boolean isNewFileLine(String nextLine)
@@ -276,9 +316,23 @@ public class UnifiedParser implements DiffParser
          return null;
 
       int head = pos_;
-      // i will point to the tail (exclusive) of the string to be returned
-      int i = data_.indexOf('\n', head);
-      // length will indicate how far past i we should set pos_ to (unless peek)
+      int tail = skipLine();
+      if (peek)
+         pos_ = head;
+
+      return data_.substring(head, tail);
+   }
+
+   /**
+    * Moves past the current line (and its line ending).
+    *
+    * @return the end (exclusive) of the line's content
+    */
+   private int skipLine()
+   {
+      // i will point to the tail (exclusive) of the line
+      int i = data_.indexOf('\n', pos_);
+      // length will indicate how far past i we should set pos_ to
       int length;
 
       if (i == -1)
@@ -296,10 +350,8 @@ public class UnifiedParser implements DiffParser
          length = 1;
       }
 
-      if (!peek)
-         pos_ = i + length;
-
-      return data_.substring(head, i);
+      pos_ = i + length;
+      return i;
    }
 
    private final String data_;
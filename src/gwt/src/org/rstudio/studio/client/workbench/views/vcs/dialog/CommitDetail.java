@@ -121,14 +121,15 @@ public class CommitDetail extends Composite implements CommitDetailDisplay
                return false;
 
             int filesCompared = 2;
-            ArrayList<ChunkOrLine> lines = new ArrayList<ChunkOrLine>();
+            ArrayList<DiffChunk> chunks = new ArrayList<DiffChunk>();
             DiffChunk chunk;
             while (null != (chunk = unifiedParser.nextChunk()))
             {
                if (!chunk.shouldIgnore())
                   filesCompared = chunk.getRanges().length;
-               lines.addAll(ChunkOrLine.fromChunk(chunk));
+               chunks.add(chunk);
             }
+            ArrayList<ChunkOrLine> lines = ChunkOrLine.fromChunks(chunks);
 
             LineTableView view = new LineTableView(filesCompared);
             view.setUseStartBorder(true);
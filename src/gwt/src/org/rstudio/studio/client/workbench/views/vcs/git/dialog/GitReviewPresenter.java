@@ -815,18 +815,15 @@ public class GitReviewPresenter implements ReviewPresenter
                   UnifiedParser parser = new UnifiedParser(response);
                   parser.nextFilePair();
 
-                  ArrayList<ChunkOrLine> allLines = new ArrayList<ChunkOrLine>();
-
                   activeChunks_.clear();
                   for (DiffChunk chunk;
                        null != (chunk = parser.nextChunk());)
                   {
                      activeChunks_.add(chunk);
-                     allLines.add(new ChunkOrLine(chunk));
-                     for (Line line : chunk.getLines())
-                        allLines.add(new ChunkOrLine(line));
                   }
 
+                  ArrayList<ChunkOrLine> allLines = ChunkOrLine.fromChunks(activeChunks_);
+
                   view_.setShowActions(
                         !"??".equals(item.getStatus()) &&
                         !"UU".equals(item.getStatus()));
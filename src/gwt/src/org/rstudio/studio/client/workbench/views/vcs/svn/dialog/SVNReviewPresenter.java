@@ -413,22 +413,19 @@ public class SVNReviewPresenter implements ReviewPresenter
                   SVNDiffParser parser = new SVNDiffParser(response);
                   parser.nextFilePair();
 
-                  ArrayList<ChunkOrLine> allLines = new ArrayList<ChunkOrLine>();
+                  ArrayList<DiffChunk> chunks = new ArrayList<DiffChunk>();
 
                   activeChunks_.clear();
                   for (DiffChunk chunk;
                        null != (chunk = parser.nextChunk());)
                   {
                      if (!chunk.shouldIgnore())
-                     {
                         activeChunks_.add(chunk);
-                        allLines.add(new ChunkOrLine(chunk));
-                     }
-
-                     for (Line line : chunk.getLines())
-                        allLines.add(new ChunkOrLine(line));
+                     chunks.add(chunk);
                   }
 
+                  ArrayList<ChunkOrLine> allLines = ChunkOrLine.fromChunks(chunks);
+
                   view_.getLineTableDisplay().setShowActions(
                         !"?".equals(item.getStatus()));
                   view_.setData(allLines);
@@ -19,10 +19,12 @@ import java.util.List;
 import org.rstudio.core.client.dom.DomUtils;
 import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
 
+import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.SpanElement;
 import com.google.gwt.dom.client.Text;
 import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.ui.ScrollPanel;
 
 import junit.framework.Assert;
 
@@ -640,5 +642,123 @@ public class ConsoleOutputWriterTests extends GWTTestCase
       Assert.assertEquals(
             "<span class=\"myClass\">one\ntwo\nthree</span>",
             getInnerHTML(output));
-   } 
- }
+   }
+
+   public void testLineCountWithCarriageReturns()
+   {
+      // progress-bar style output overwrites the current line; the line
+      // count must only move when a newline is actually written
+      ConsoleOutputWriter output = getCOW();
+
+      output.outputToConsole("first\n", myClass, notError, checkLineCount, false);
+      for (int i = 0; i <= 100; i += 10)
+      {
+         output.outputToConsole("\rProgress: " + i + "%", myClass, notError,
+               checkLineCount, false);
+         Assert.assertEquals(1, output.getCurrentLines());
+      }
+      output.outputToConsole("\n", myClass, notError, checkLineCount, false);
+      Assert.assertEquals(2, output.getCurrentLines());
+      Assert.assertEquals(DomUtils.countLines(output.getElement(), true),
+            output.getCurrentLines());
+
+      // overwrite text spanning a newline by backing up over it
+      output.outputToConsole("ab\n\b\b\bXYZ", myClass, notError,
+            checkLineCount, false);
+      Assert.assertEquals(2, output.getCurrentLines());
+      Assert.assertEquals(DomUtils.countLines(output.getElement(), true),
+            output.getCurrentLines());
+   }
+
+   public void testLineCountWithFormFeed()
+   {
+      ConsoleOutputWriter output = getCOW();
+
+      output.outputToConsole("1\n2\n3\n", myClass, notError, checkLineCount, false);
+      Assert.assertEquals(3, output.getCurrentLines());
+
+      // text before the form feed is cleared along with prior output
+      output.outputToConsole("4\n5\n\f6\n7", myClass, notError,
+            checkLineCount, false);
+      Assert.assertEquals(1, output.getCurrentLines());
+      Assert.assertEquals(DomUtils.countLines(output.getElement(), true),
+            output.getCurrentLines());
+
+      output.outputToConsole("\n8\n", myClass, notError, checkLineCount, false);
+      Assert.assertEquals(3, output.getCurrentLines());
+      Assert.assertEquals(DomUtils.countLines(output.getElement(), true),
+            output.getCurrentLines());
+   }
+
+   public void testLineCountWithAnsiCodes()
+   {
+      // ANSI codes, including ones split across calls, contribute no lines
+      ConsoleOutputWriter output = getCOW();
+
+      output.outputToConsole("\033[31mred\n\033[39m", myClass, notError,
+            checkLineCount, false);
+      Assert.assertEquals(1, output.getCurrentLines());
+
+      output.outputToConsole("plain\033[", myClass, notError,
+            checkLineCount, false);
+      Assert.assertEquals(1, output.getCurrentLines());
+
+      output.outputToConsole("32mgreen\n\033[39m\033[1mbold\n\033[22m",
+            myClass, notError, checkLineCount, false);
+      Assert.assertEquals(3, output.getCurrentLines());
+      Assert.assertEquals(DomUtils.countLines(output.getElement(), true),
+            output.getCurrentLines());
+
+      output.outputToConsole("\033[43mwarn\033[49m\r\033[32mdone\033[39m\n",
+            myErrorClass, isError, checkLineCount, false);
+      Assert.assertEquals(4, output.getCurrentLines());
+      Assert.assertEquals(DomUtils.countLines(output.getElement(), true),
+            output.getCurrentLines());
+   }
+
+   public void testLineCountTrimming()
+   {
+      // trimming driven by the incremental count keeps the DOM at the limit
+      ConsoleOutputWriter output = getCOW();
+      final int maxLines = 10;
+      output.setMaxOutputLines(maxLines);
+
+      for (int i = 0; i < maxLines * 3; i++)
+      {
+         output.outputToConsole("\033[1m" + numberedLine(i) + "\033[22m",
+               myClass, notError, checkLineCount, false);
+         Assert.assertEquals(Math.min(i + 1, maxLines), output.getCurrentLines());
+      }
+      Assert.assertEquals(maxLines, DomUtils.countLines(output.getElement(), true));
+
+      output.ensureStartingOnNewLine();
+      output.outputToConsole("partial", myClass, notError, checkLineCount, false);
+      output.ensureStartingOnNewLine();
+      Assert.assertEquals(DomUtils.countLines(output.getElement(), true),
+            output.getCurrentLines());
+   }
+
+   public void testVirtualizedErrorRange()
+   {
+      ConsoleOutputWriter output = getCOW();
+      output.setVirtualized(new ScrollPanel());
+      output.setMaxOutputLines(100);
+
+      output.outputToConsole("some output\n", myClass, notError, checkLineCount, false);
+      output.outputToConsole("Error: oops\n", myErrorClass, isError, checkLineCount, false);
+      Assert.assertTrue(output.getNewElements().isEmpty());
+
+      int[] range = output.getNewRange();
+      Assert.assertNotNull(range);
+      Assert.assertEquals(12, range[0]);
+      Assert.assertEquals(24, range[1]);
+      Assert.assertTrue(output.replaceOutput(range,
+            Document.get().createDivElement()));
+
+      // once the error has been trimmed away, it can no longer be replaced
+      for (int i = 0; i < 300; i++)
+         output.outputToConsole(numberedLine(i), myClass, notError, checkLineCount, false);
+      Assert.assertFalse(output.replaceOutput(range,
+            Document.get().createDivElement()));
+   }
+}
@@ -0,0 +1,279 @@
+/*
+ * LegacyConsoleModel.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.rstudio.core.client.regex.Match;
+import org.rstudio.core.client.regex.Pattern;
+
+/**
+ * The output model used by VirtualConsole before its ranges moved to an
+ * OffsetMap and its text to a ChunkedText: a TreeMap of ranges keyed by
+ * start offset, updated through per-overwrite accumulators, and a single
+ * StringBuilder holding the output. Kept (without DOM or ANSI support) as a
+ * reference for VirtualConsoleProgressTests and VirtualConsoleBenchmarkTests.
+ */
+class LegacyConsoleModel
+{
+   public void submit(String data, String clazz)
+   {
+      Match match = CONTROL.match(data, 0);
+      int tail = 0;
+      while (match != null)
+      {
+         int pos = match.getIndex();
+         if (tail != pos)
+            text(data.substring(tail, pos), clazz);
+         tail = pos + 1;
+
+         switch (data.charAt(pos))
+         {
+            case '\r':
+               while (cursor_ > 0 && output_.charAt(cursor_ - 1) != '\n')
+                  cursor_--;
+               break;
+            case '\b':
+               if (cursor_ > 0)
+                  cursor_--;
+               break;
+            case '\n':
+               while (cursor_ < output_.length() && output_.charAt(cursor_) != '\n')
+                  cursor_++;
+               text("\n", clazz);
+               break;
+            case '\f':
+               output_.setLength(0);
+               cursor_ = 0;
+               class_.clear();
+               break;
+         }
+
+         match = match.nextMatch();
+      }
+
+      if (tail < data.length())
+         text(data.substring(tail), clazz);
+   }
+
+   public String getText()
+   {
+      return output_.toString();
+   }
+
+   public void visitRanges(VirtualConsole.RangeVisitor visitor)
+   {
+      for (Entry<Integer, ClassRange> entry: class_.entrySet())
+      {
+         int l = entry.getKey();
+         int r = l + entry.getValue().length;
+         if (l < r)
+            visitor.visit(output_.substring(l, r), entry.getValue().clazz);
+      }
+   }
+
+   private void text(String text, String clazz)
+   {
+      int start = cursor_;
+      int end = cursor_ + text.length();
+
+      if (cursor_ == output_.length() && !class_.isEmpty())
+         appendText(text, clazz);
+      else
+         insertText(new ClassRange(start, clazz, text));
+
+      output_.replace(start, end, text);
+      cursor_ += text.length();
+   }
+
+   private void appendText(String text, String clazz)
+   {
+      ClassRange range = class_.lastEntry().getValue();
+      if (StringUtil.equals(range.clazz, clazz))
+         range.appendRight(text, 0);
+      else
+         class_.put(cursor_, new ClassRange(cursor_, clazz, text));
+   }
+
+   private void insertText(ClassRange range)
+   {
+      int start = range.start;
+      int end = start + range.length;
+
+      Entry<Integer, ClassRange> left = class_.floorEntry(start);
+      Entry<Integer, ClassRange> right = class_.floorEntry(end);
+
+      SortedMap<Integer, ClassRange> view = null;
+      if (left != null && right != null)
+         view = class_.subMap(left.getKey(), true, right.getKey(), true);
+      else if (left == null && right != null)
+         view = class_.tailMap(right.getKey(), true);
+      else if (left != null)
+         view = class_.headMap(left.getKey(), true);
+
+      if (view == null)
+      {
+         class_.put(start, range);
+         return;
+      }
+
+      Set<Integer> deletions = new TreeSet<>();
+      List<ClassRange> insertions = new ArrayList<>();
+      Map<Integer, Integer> moves = new TreeMap<>();
+
+      boolean haveInsertedRange = false;
+
+      for (Entry<Integer, ClassRange> entry: view.entrySet())
+      {
+         ClassRange overlap = entry.getValue();
+         int l = entry.getKey();
+         int r = l + overlap.length;
+         boolean matches = StringUtil.equals(range.clazz, overlap.clazz);
+         if (start >= l && start < r && end >= r)
+         {
+            int delta = r - start;
+            if (matches)
+            {
+               overlap.appendRight(range.text, delta);
+               range.text = "";
+            }
+            else
+            {
+               overlap.trimRight(delta);
+               insertions.add(range);
+               haveInsertedRange = true;
+            }
+         }
+         else if (start <= l && end <= r && end > l)
+         {
+            int delta = end - l;
+            if (matches)
+            {
+               overlap.appendLeft(range.text, delta);
+               range.text = "";
+               if (haveInsertedRange)
+               {
+                  insertions.remove(range);
+                  haveInsertedRange = false;
+               }
+               moves.put(l, start);
+            }
+            else
+            {
+               overlap.trimLeft(delta);
+               if (!range.text.isEmpty())
+                  insertions.add(range);
+               moves.put(l, overlap.start);
+            }
+         }
+         else if (l > start && r < end)
+         {
+            deletions.add(l);
+         }
+         else if (start > l && end < r)
+         {
+            if (matches)
+            {
+               overlap.overwrite(range.text, start - l);
+            }
+            else
+            {
+               String text = overlap.text;
+               int amountTrimmed = overlap.length - (start - l);
+               overlap.trimRight(amountTrimmed);
+               insertions.add(range);
+               insertions.add(new ClassRange(
+                     end,
+                     overlap.clazz,
+                     text.substring((text.length() - (amountTrimmed - range.length)))));
+            }
+         }
+      }
+
+      for (Integer key: deletions)
+         class_.remove(key);
+
+      for (Integer key: moves.keySet())
+      {
+         ClassRange moved = class_.get(key);
+         class_.remove(key);
+         class_.put(moves.get(key), moved);
+      }
+
+      for (ClassRange val: insertions)
+         class_.put(val.start, val);
+   }
+
+   private static class ClassRange
+   {
+      public ClassRange(int pos, String className, String content)
+      {
+         clazz = className;
+         start = pos;
+         length = content.length();
+         text = content;
+      }
+
+      public void trimLeft(int delta)
+      {
+         length -= delta;
+         start += delta;
+         text = text.substring(delta);
+      }
+
+      public void trimRight(int delta)
+      {
+         length -= delta;
+         text = text.substring(0, text.length() - delta);
+      }
+
+      public void appendLeft(String content, int delta)
+      {
+         length += content.length() - delta;
+         start -= (content.length() - delta);
+         text = content + text.substring(delta);
+      }
+
+      public void appendRight(String content, int delta)
+      {
+         length += content.length() - delta;
+         text = text.substring(0, text.length() - delta) + content;
+      }
+
+      public void overwrite(String content, int pos)
+      {
+         text = text.substring(0, pos) + content +
+                text.substring(pos + content.length());
+      }
+
+      public final String clazz;
+      public int length;
+      public int start;
+      public String text;
+   }
+
+   private static final Pattern CONTROL = Pattern.create("[\r\b\f\n]");
+
+   private final StringBuilder output_ = new StringBuilder();
+   private final TreeMap<Integer, ClassRange> class_ = new TreeMap<>();
+   private int cursor_ = 0;
+}
@@ -0,0 +1,92 @@
+/*
+ * VirtualConsoleBenchmarkTests.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client;
+
+import org.rstudio.core.client.VirtualConsoleProgressTests.Stream;
+import org.rstudio.core.client.VirtualConsoleProgressTests.Target;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.junit.client.GWTTestCase;
+
+// Replays the progress streams of VirtualConsoleProgressTests, at a size
+// closer to a long-running job, through both VirtualConsole and
+// LegacyConsoleModel, and logs how long each takes. Nothing is asserted;
+// this isn't part of RStudioUnitTestSuite and is meant to be run by hand
+// when comparing the two.
+
+public class VirtualConsoleBenchmarkTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   private static double time(Stream stream, Target target)
+   {
+      Duration duration = new Duration();
+      VirtualConsoleProgressTests.replay(stream, target);
+      return duration.elapsedMillis();
+   }
+
+   private void benchmark(String name, Stream stream)
+   {
+      final LegacyConsoleModel legacy = new LegacyConsoleModel();
+      double legacyMs = time(stream, new Target()
+      {
+         @Override
+         public void submit(String data, String clazz)
+         {
+            legacy.submit(data, clazz);
+         }
+      });
+
+      final VirtualConsole vc = new VirtualConsole(
+            null, new VirtualConsoleProgressTests.FakePrefs());
+      vc.setRetainRanges(true);
+      double currentMs = time(stream, new Target()
+      {
+         @Override
+         public void submit(String data, String clazz)
+         {
+            vc.submit(data, clazz);
+         }
+      });
+
+      Debug.log(name + ": " + stream.chunks_.size() + " chunks, " +
+                "legacy " + legacyMs + "ms, current " + currentMs + "ms");
+   }
+
+   public void testTxtProgressBar()
+   {
+      benchmark("txtProgressBar",
+            VirtualConsoleProgressTests.txtProgressBar(HISTORY_LINES, TICKS));
+   }
+
+   public void testCliProgressBar()
+   {
+      benchmark("cli",
+            VirtualConsoleProgressTests.cliProgressBar(HISTORY_LINES, TICKS));
+   }
+
+   public void testDplyrProgress()
+   {
+      benchmark("dplyr",
+            VirtualConsoleProgressTests.dplyrProgress(HISTORY_LINES, TICKS));
+   }
+
+   private static final int HISTORY_LINES = 5000;
+   private static final int TICKS = 2000;
+}
@@ -0,0 +1,231 @@
+/*
+ * VirtualConsoleProgressTests.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+import junit.framework.Assert;
+
+// Replays progress bar output, as written by txtProgressBar, cli and dplyr,
+// through both VirtualConsole and the TreeMap/StringBuilder model it replaced
+// (LegacyConsoleModel). The resulting output and styled ranges must match.
+// VirtualConsoleBenchmarkTests times the same streams, at a larger size.
+
+public class VirtualConsoleProgressTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   static class FakePrefs implements VirtualConsole.Preferences
+   {
+      @Override
+      public int truncateLongLinesInConsoleHistory()
+      {
+         return 0;
+      }
+
+      @Override
+      public String consoleAnsiMode()
+      {
+         return UserPrefs.ANSI_CONSOLE_MODE_OFF;
+      }
+
+      @Override
+      public boolean screenReaderEnabled()
+      {
+         return false;
+      }
+   }
+
+   // a captured stream; chunks are submitted one at a time, each with the
+   // class at the same position in clazzes
+   static class Stream
+   {
+      public void add(String data, String clazz)
+      {
+         chunks_.add(data);
+         clazzes_.add(clazz);
+      }
+
+      public final List<String> chunks_ = new ArrayList<>();
+      public final List<String> clazzes_ = new ArrayList<>();
+   }
+
+   private static void addHistory(Stream stream, int lines)
+   {
+      for (int i = 0; i < lines; i++)
+         stream.add("[" + i + "] preceding output line\n", null);
+   }
+
+   private static String repeat(String text, int times)
+   {
+      StringBuilder result = new StringBuilder();
+      for (int i = 0; i < times; i++)
+         result.append(text);
+      return result.toString();
+   }
+
+   // utils::txtProgressBar(style = 3)
+   static Stream txtProgressBar(int history, int ticks)
+   {
+      Stream stream = new Stream();
+      addHistory(stream, history);
+      int width = 60;
+      stream.add("  |" + repeat(" ", width) + "|   0%", null);
+      for (int i = 1; i <= ticks; i++)
+      {
+         int done = i * width / ticks;
+         int pct = i * 100 / ticks;
+         stream.add("\r  |" + repeat("=", done) + repeat(" ", width - done) +
+                    "| " + (pct < 10 ? "  " : pct < 100 ? " " : "") + pct + "%",
+                    null);
+      }
+      stream.add("\n", null);
+      return stream;
+   }
+
+   // cli::cli_progress_bar(); the bar and status are styled separately
+   static Stream cliProgressBar(int history, int ticks)
+   {
+      Stream stream = new Stream();
+      addHistory(stream, history);
+      int width = 30;
+      for (int i = 0; i <= ticks; i++)
+      {
+         int done = i * width / ticks;
+         stream.add("\r", null);
+         stream.add(repeat("\u25A0", done), "xtermColor2");
+         stream.add(repeat(" ", width - done), "xtermColor8");
+         stream.add(" " + (i * 100 / ticks) + "% | ETA: " + (ticks - i) + "s",
+                    null);
+      }
+      stream.add("\n", null);
+      return stream;
+   }
+
+   // dplyr::progress_estimated(), written to stderr, with messages (and
+   // occasional backspace-erased spinners) interleaved
+   static Stream dplyrProgress(int history, int ticks)
+   {
+      Stream stream = new Stream();
+      addHistory(stream, history);
+      int width = 40;
+      String spinner = "|/-\\";
+      for (int i = 0; i <= ticks; i++)
+      {
+         int done = i * width / ticks;
+         stream.add("\r|" + repeat("=", done) + repeat(" ", width - done) + "|" +
+                    (i * 100 / ticks) + "% ~" + (ticks - i) + " s remaining     ",
+                    "error");
+         stream.add(spinner.charAt(i % spinner.length()) + "\b", "error");
+         if (i % 100 == 99)
+            stream.add("\nBatch " + i + " complete\n", null);
+      }
+      stream.add("\n", "error");
+      return stream;
+   }
+
+   interface Target
+   {
+      void submit(String data, String clazz);
+   }
+
+   static void replay(Stream stream, Target target)
+   {
+      for (int i = 0; i < stream.chunks_.size(); i++)
+         target.submit(stream.chunks_.get(i), stream.clazzes_.get(i));
+   }
+
+   private static String dumpRanges(VirtualConsole vc)
+   {
+      final StringBuilder result = new StringBuilder();
+      vc.visitRanges(0, vc.getLength(), new VirtualConsole.RangeVisitor()
+      {
+         @Override
+         public void visit(String text, String clazz)
+         {
+            result.append("[" + clazz + ":" + text + "]");
+         }
+      });
+      return result.toString();
+   }
+
+   private static String dumpRanges(LegacyConsoleModel model)
+   {
+      final StringBuilder result = new StringBuilder();
+      model.visitRanges(new VirtualConsole.RangeVisitor()
+      {
+         @Override
+         public void visit(String text, String clazz)
+         {
+            result.append("[" + clazz + ":" + text + "]");
+         }
+      });
+      return result.toString();
+   }
+
+   private void assertSameOutput(Stream stream)
+   {
+      final LegacyConsoleModel legacy = new LegacyConsoleModel();
+      replay(stream, new Target()
+      {
+         @Override
+         public void submit(String data, String clazz)
+         {
+            legacy.submit(data, clazz);
+         }
+      });
+
+      final VirtualConsole vc = new VirtualConsole(null, new FakePrefs());
+      vc.setRetainRanges(true);
+      replay(stream, new Target()
+      {
+         @Override
+         public void submit(String data, String clazz)
+         {
+            vc.submit(data, clazz);
+         }
+      });
+
+      Assert.assertEquals(legacy.getText(), vc.getText(0, vc.getLength()));
+      Assert.assertEquals(dumpRanges(legacy), dumpRanges(vc));
+   }
+
+   public void testTxtProgressBar()
+   {
+      assertSameOutput(txtProgressBar(HISTORY_LINES, TICKS));
+   }
+
+   public void testCliProgressBar()
+   {
+      assertSameOutput(cliProgressBar(HISTORY_LINES, TICKS));
+   }
+
+   public void testDplyrProgress()
+   {
+      assertSameOutput(dplyrProgress(HISTORY_LINES, TICKS));
+   }
+
+   private static final int HISTORY_LINES = 100;
+   private static final int TICKS = 300;
+}
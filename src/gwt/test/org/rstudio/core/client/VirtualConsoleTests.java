@@ -1079,4 +1079,74 @@ public class VirtualConsoleTests extends GWTTestCase
       Assert.assertEquals(expected, ele.getInnerHTML());
       Assert.assertEquals("one two", vc.toString());
    }
+
+   private static String dumpRanges(VirtualConsole vc, int line)
+   {
+      final StringBuilder result = new StringBuilder();
+      vc.visitRanges(vc.getLineStart(line), vc.getLineEnd(line),
+            new VirtualConsole.RangeVisitor()
+      {
+         @Override
+         public void visit(String text, String clazz)
+         {
+            result.append("[" + clazz + ":" + text + "]");
+         }
+      });
+      return result.toString();
+   }
+
+   private VirtualConsole getRetainingVC()
+   {
+      VirtualConsole vc = getVC(null);
+      vc.setRetainRanges(true);
+      return vc;
+   }
+
+   public void testRetainedLineIndex()
+   {
+      VirtualConsole vc = getRetainingVC();
+      vc.submit("one\ntwo\nthree");
+      Assert.assertEquals(2, vc.getLineCount());
+      Assert.assertEquals("one", vc.getText(vc.getLineStart(0), vc.getLineEnd(0)));
+      Assert.assertEquals("two", vc.getText(vc.getLineStart(1), vc.getLineEnd(1)));
+      Assert.assertEquals("three", vc.getText(vc.getLineStart(2), vc.getLineEnd(2)));
+      Assert.assertEquals(1, vc.getLineForOffset(vc.getLineStart(1)));
+      Assert.assertEquals(1, vc.getLineForOffset(vc.getLineEnd(1)));
+
+      // overwrite across a newline
+      vc.submit("\b\b\b\b\b\b\bXYZ");
+      Assert.assertEquals(1, vc.getLineCount());
+      Assert.assertEquals("twXYZhree", vc.getText(vc.getLineStart(1), vc.getLineEnd(1)));
+      Assert.assertEquals(vc.getLineStart(1) + 2, vc.getChangedFrom());
+   }
+
+   public void testRetainedRanges()
+   {
+      VirtualConsole vc = getRetainingVC();
+      vc.submit("plain " + setCsiCode(AnsiCode.FOREGROUND_MIN + 1) + "red\nmore red" +
+            setCsiCode(AnsiCode.RESET_FOREGROUND) + " plain");
+      Assert.assertEquals("[null:plain ][xtermColor1:red]", dumpRanges(vc, 0));
+      Assert.assertEquals("[xtermColor1:more red][null: plain]", dumpRanges(vc, 1));
+
+      // progress bar style overwrite of the last line
+      vc.submit("\r" + setCsiCode(AnsiCode.FOREGROUND_MIN + 2) + "done");
+      Assert.assertEquals("[xtermColor2:done][xtermColor1: red][null: plain]",
+            dumpRanges(vc, 1));
+   }
+
+   public void testDiscardLines()
+   {
+      VirtualConsole vc = getRetainingVC();
+      vc.submit("1\n2\n3\n4", "myclass");
+      vc.discardLines(2);
+      Assert.assertEquals(1, vc.getLineCount());
+      Assert.assertEquals("3\n4", vc.toString());
+      Assert.assertEquals("[myclass:3]", dumpRanges(vc, 0));
+      Assert.assertEquals("[myclass:4]", dumpRanges(vc, 1));
+
+      // output continues at the (shifted) cursor
+      vc.submit("\r5\n6");
+      Assert.assertEquals("3\n5\n6", vc.toString());
+      Assert.assertEquals(2, vc.getLineCount());
+   }
 }
@@ -20,17 +20,24 @@ import org.rstudio.core.client.ElementIdsTests;
 import org.rstudio.core.client.SafeHtmlUtilTests;
 import org.rstudio.core.client.StringUtilTests;
 import org.rstudio.core.client.URIUtilsTests;
+import org.rstudio.core.client.VirtualConsoleProgressTests;
 import org.rstudio.core.client.VirtualConsoleTests;
 import org.rstudio.core.client.dom.DomUtilsTests;
 import org.rstudio.studio.client.application.model.SessionScopeTests;
 import org.rstudio.studio.client.common.r.RTokenizerTests;
+import org.rstudio.studio.client.common.spelling.TypoSpellCheckerTests;
+import org.rstudio.studio.client.palette.model.CommandPaletteIndexTests;
 import org.rstudio.studio.client.workbench.views.jobs.model.JobManagerTests;
 import org.rstudio.studio.client.workbench.views.jobs.view.JobsListTests;
+import org.rstudio.studio.client.workbench.views.output.lint.LintManagerTests;
 // Disabled in v1.3 due to failures. See #4249.
 // import org.rstudio.studio.client.workbench.views.source.editors.text.assist.RChunkHeaderParserTests;
 import org.rstudio.studio.client.workbench.views.terminal.TerminalLocalEchoTests;
 import org.rstudio.studio.client.workbench.views.terminal.TerminalSessionSocketTests;
+import org.rstudio.studio.client.workbench.views.source.editors.text.LintMarkerTests;
+import org.rstudio.studio.client.workbench.views.source.editors.text.PagedConsoleOutputTests;
 import org.rstudio.studio.client.workbench.views.source.editors.text.rmd.ChunkContextUiTests;
+import org.rstudio.studio.client.workbench.views.source.model.DocumentDeltaTrackerTests;
 
 import com.google.gwt.junit.tools.GWTTestSuite;
 
@@ -43,6 +50,7 @@ public class RStudioUnitTestSuite extends GWTTestSuite
       GWTTestSuite suite = new GWTTestSuite("RStudio Unit Test Suite");
       suite.addTestSuite(RTokenizerTests.class);
       suite.addTestSuite(VirtualConsoleTests.class);
+      suite.addTestSuite(VirtualConsoleProgressTests.class);
       suite.addTestSuite(ConsoleOutputWriterTests.class);
       suite.addTestSuite(StringUtilTests.class);
       suite.addTestSuite(DomUtilsTests.class);
@@ -57,7 +65,13 @@ public class RStudioUnitTestSuite extends GWTTestSuite
       suite.addTestSuite(JobsListTests.class);
       suite.addTestSuite(ElementIdsTests.class);
       suite.addTestSuite(ChunkContextUiTests.class);
+      suite.addTestSuite(PagedConsoleOutputTests.class);
+      suite.addTestSuite(CommandPaletteIndexTests.class);
       suite.addTestSuite(SafeHtmlUtilTests.class);
+      suite.addTestSuite(TypoSpellCheckerTests.class);
+      suite.addTestSuite(DocumentDeltaTrackerTests.class);
+      suite.addTestSuite(LintManagerTests.class);
+      suite.addTestSuite(LintMarkerTests.class);
 
       return suite;
    }
@@ -0,0 +1,187 @@
+/*
+ * TypoSpellCheckerTests.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.common.spelling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.JsVectorInteger;
+import org.rstudio.core.client.regex.Match;
+import org.rstudio.core.client.regex.Pattern;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.junit.client.GWTTestCase;
+
+import junit.framework.Assert;
+
+public class TypoSpellCheckerTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   private static List<String> sampleRmd(int sections)
+   {
+      List<String> lines = new ArrayList<>();
+      lines.add("---");
+      lines.add("title: \"Quarterly Analysis\"");
+      lines.add("output: html_document");
+      lines.add("---");
+      for (int i = 0; i < sections; i++)
+      {
+         lines.add("");
+         lines.add("## Section " + i + " {#section-" + i + " .tabset}");
+         lines.add("");
+         lines.add("The analysis in this section summarises the measurements, " +
+                   "see [the appendix]{.smallcaps} and {@fig-overview} for details.");
+         lines.add("Values were recorded {daily} and aggregated {weekly}, with " +
+                   "outliers removed {before} modelling {asdf}asdf.");
+         lines.add("Nested {braces {like this} are} handled {too}.");
+         lines.add("");
+         lines.add("```{r chunk-" + i + ", echo=FALSE}");
+         lines.add("summary(data)");
+         lines.add("```");
+      }
+      return lines;
+   }
+
+   // the [start, end) columns of each word on a line, as consecutive pairs
+   private static List<Integer> words(String line)
+   {
+      List<Integer> words = new ArrayList<>();
+      int start = -1;
+      for (int i = 0, n = line.length(); i <= n; i++)
+      {
+         boolean isWordChar = i < n && Character.isLetter(line.charAt(i));
+         if (isWordChar && start == -1)
+         {
+            start = i;
+         }
+         else if (!isWordChar && start != -1)
+         {
+            words.add(start);
+            words.add(i);
+            start = -1;
+         }
+      }
+      return words;
+   }
+
+   // braced-word detection as shouldCheckSpelling used to do it, with a
+   // regex compiled for each word
+   private static boolean legacyIsBraced(String line, int start, int end)
+   {
+      String word = line.substring(start, end);
+      Pattern p = Pattern.create("\\{[^\\{\\}]*" + word + "[^\\{\\}]*\\}");
+      Match m = p.match(line, 0);
+      while (m != null)
+      {
+         if (m.getIndex() < start &&
+             (m.getIndex() + m.getValue().length()) > end)
+            return true;
+
+         m = m.nextMatch();
+      }
+      return false;
+   }
+
+   public void testBracedWordsMatchLegacy()
+   {
+      String[] lines = {
+         "",
+         "## Section 1 {#section-one .tabset}",
+         "see [the appendix]{.smallcaps} and {@fig-overview} for details.",
+         "Values were recorded {daily} and aggregated {weekly}, with " +
+               "outliers removed {before} modelling {asdf}asdf.",
+         "Nested {braces {like this} are} handled {too}.",
+         "```{r chunk, echo=FALSE}",
+         "adjacent {spans}{touch} here",
+         "repeated word {word} word {other word}",
+         "{{double}} braces",
+         "an {unclosed brace here",
+         "a stray} closing {brace}",
+         "closing} before {opening",
+         "{} empty {  } spans {x}",
+         "word{word}word",
+      };
+
+      for (String line : lines)
+      {
+         JsVectorInteger spans = TypoSpellChecker.getBracedSpans(line);
+         List<Integer> words = words(line);
+         for (int i = 0; i < words.size(); i += 2)
+         {
+            int start = words.get(i);
+            int end = words.get(i + 1);
+            Assert.assertEquals(
+                  "'" + line.substring(start, end) + "' at " + start + " in: " + line,
+                  legacyIsBraced(line, start, end),
+                  TypoSpellChecker.isBraced(spans, start, end));
+         }
+      }
+   }
+
+   // Runs braced-word detection over every word of a generated R Markdown
+   // document of a few thousand lines, both with the per-word regex and with
+   // braced spans computed once per line, and logs how long each takes. Only
+   // the results are checked; the timings are for comparison by hand.
+   public void testBracedWordsBenchmark()
+   {
+      List<String> lines = sampleRmd(SECTIONS);
+
+      List<Boolean> legacy = new ArrayList<>();
+      Duration legacyDuration = new Duration();
+      for (String line : lines)
+      {
+         List<Integer> words = words(line);
+         for (int i = 0; i < words.size(); i += 2)
+            legacy.add(legacyIsBraced(line, words.get(i), words.get(i + 1)));
+      }
+      double legacyMs = legacyDuration.elapsedMillis();
+
+      List<Boolean> current = new ArrayList<>();
+      Duration currentDuration = new Duration();
+      for (String line : lines)
+      {
+         JsVectorInteger spans = TypoSpellChecker.getBracedSpans(line);
+         List<Integer> words = words(line);
+         for (int i = 0; i < words.size(); i += 2)
+            current.add(TypoSpellChecker.isBraced(spans, words.get(i), words.get(i + 1)));
+      }
+      double currentMs = currentDuration.elapsedMillis();
+
+      Debug.log("braced words: " + lines.size() + " lines, " + legacy.size() +
+                " words, legacy " + legacyMs + "ms, current " + currentMs + "ms");
+
+      Assert.assertEquals(legacy, current);
+   }
+
+   public void testBracedSpans()
+   {
+      String line = "a {b} c {d {e} f} {g}h";
+      JsVectorInteger spans = TypoSpellChecker.getBracedSpans(line);
+      Assert.assertEquals("2,4,11,13,18,20", spans.join(","));
+
+      Assert.assertTrue(TypoSpellChecker.isBraced(spans, 3, 4));   // b
+      Assert.assertFalse(TypoSpellChecker.isBraced(spans, 9, 10)); // d
+      Assert.assertTrue(TypoSpellChecker.isBraced(spans, 12, 13)); // e
+      Assert.assertFalse(TypoSpellChecker.isBraced(spans, 21, 22)); // h
+   }
+
+   private static final int SECTIONS = 500;
+}
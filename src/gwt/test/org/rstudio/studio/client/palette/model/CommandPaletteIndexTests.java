@@ -0,0 +1,148 @@
+/*
+ * CommandPaletteIndexTests.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.palette.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rstudio.studio.client.palette.events.PaletteItemInvokedEvent;
+
+import com.google.gwt.event.shared.GwtEvent;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.ui.Widget;
+
+public class CommandPaletteIndexTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   private static class FakeItem implements CommandPaletteItem
+   {
+      FakeItem(String text)
+      {
+         text_ = text;
+      }
+
+      @Override
+      public Widget asWidget()
+      {
+         return null;
+      }
+
+      @Override
+      public void fireEvent(GwtEvent<?> event)
+      {
+      }
+
+      @Override
+      public boolean isRendered()
+      {
+         return false;
+      }
+
+      @Override
+      public void invoke(InvocationSource source)
+      {
+      }
+
+      @Override
+      public HandlerRegistration addInvokeHandler(PaletteItemInvokedEvent.Handler handler)
+      {
+         return null;
+      }
+
+      @Override
+      public String getSearchText()
+      {
+         return text_;
+      }
+
+      @Override
+      public void setSearchHighlight(String[] keywords)
+      {
+      }
+
+      @Override
+      public boolean dismissOnInvoke()
+      {
+         return true;
+      }
+
+      @Override
+      public void setSelected(boolean selected)
+      {
+      }
+
+      private final String text_;
+   }
+
+   private CommandPaletteIndex createIndex(String... texts)
+   {
+      List<CommandPaletteItem> items = new ArrayList<CommandPaletteItem>();
+      for (String text: texts)
+         items.add(new FakeItem(text));
+      CommandPaletteIndex index = new CommandPaletteIndex();
+      index.addAll(items);
+      return index;
+   }
+
+   private String search(CommandPaletteIndex index, String text)
+   {
+      StringBuilder result = new StringBuilder();
+      for (CommandPaletteItem item: index.search(CommandPaletteIndex.parseKeywords(text)))
+      {
+         if (result.length() > 0)
+            result.append("|");
+         result.append(item.getSearchText());
+      }
+      return result.toString();
+   }
+
+   public void testEmptySearch()
+   {
+      CommandPaletteIndex index = createIndex("New File", "Open File");
+      assertEquals("New File|Open File", search(index, "  "));
+   }
+
+   public void testRanking()
+   {
+      CommandPaletteIndex index = createIndex(
+            "Reindent Lines", "Insert Pipe", "Go to Line", "Knit Document");
+
+      // word prefixes rank above substrings; equal matches keep their order
+      assertEquals("Insert Pipe|Reindent Lines|Go to Line",
+            search(index, "in"));
+
+      // fuzzy matches start at a word
+      assertEquals("Knit Document", search(index, "kdoc"));
+      assertEquals("", search(index, "ndoc"));
+   }
+
+   public void testNarrowing()
+   {
+      CommandPaletteIndex index = createIndex(
+            "New File", "New Project", "Open File", "Save File");
+
+      assertEquals("New File|New Project", search(index, "new"));
+      assertEquals("New File", search(index, "new fi"));
+
+      // widening the search again must consider all of the items
+      assertEquals("New File|Open File|Save File", search(index, "fi"));
+   }
+}
@@ -0,0 +1,143 @@
+/*
+ * LintManagerTests.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.output.lint;
+
+import org.rstudio.core.client.js.JsObject;
+import org.rstudio.studio.client.workbench.views.output.lint.model.LintItem;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceDocumentChangeEventNative;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
+import org.rstudio.studio.client.workbench.views.source.model.DocumentDeltaTracker;
+
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.junit.client.GWTTestCase;
+
+import junit.framework.Assert;
+
+public class LintManagerTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   private static JsObject bodyRows(int startRow, String startLine,
+                                    int endRow, String endLine)
+   {
+      return LintManager.getBodyRows(
+            Position.create(startRow, startLine.lastIndexOf('{')),
+            Position.create(endRow, endLine.indexOf('}') + 1),
+            startLine,
+            endLine);
+   }
+
+   private static JsObject rows(int start, int end)
+   {
+      JsObject rows = JsObject.createJsObject();
+      rows.setInteger("start", start);
+      rows.setInteger("end", end);
+      return rows;
+   }
+
+   private static void insertRows(DocumentDeltaTracker deltas, int row, int rows)
+   {
+      AceDocumentChangeEventNative event = new AceDocumentChangeEventNative();
+      event.action = "insert";
+      event.start = Position.create(row, 0);
+      event.end = Position.create(row + rows, 0);
+      deltas.onDocumentChanged(event);
+   }
+
+   public void testBodyRows()
+   {
+      JsObject rows = bodyRows(2, "f <- function(x) {", 6, "}");
+      Assert.assertNotNull(rows);
+      Assert.assertEquals(3, rows.getInteger("start").intValue());
+      Assert.assertEquals(6, rows.getInteger("end").intValue());
+
+      // a comment may follow the opening brace, and space precede the
+      // closing one
+      rows = bodyRows(0, "f <- function(x) { # comment", 3, "   }");
+      Assert.assertNotNull(rows);
+      Assert.assertEquals(1, rows.getInteger("start").intValue());
+      Assert.assertEquals(3, rows.getInteger("end").intValue());
+   }
+
+   public void testBodyRowsNotSkipped()
+   {
+      // code shares a row with a brace
+      Assert.assertNull(bodyRows(0, "f <- function(x) { x <- 1", 3, "}"));
+      Assert.assertNull(bodyRows(0, "f <- function(x) {", 3, "   x }"));
+
+      // no rows between the braces
+      Assert.assertNull(bodyRows(0, "f <- function(x) {", 1, "}"));
+
+      // the body isn't braced
+      Assert.assertNull(LintManager.getBodyRows(
+            Position.create(0, 17),
+            Position.create(3, 5),
+            "f <- function(x) x + 1",
+            "   2"));
+   }
+
+   public void testReuseLint()
+   {
+      JsArray<LintItem> previous = JsArray.createArray().cast();
+      previous.push(LintItem.create(0, 0, 0, 4, "changed", "warning"));
+      previous.push(LintItem.create(2, 3, 3, 1, "first body", "style"));
+      previous.push(LintItem.create(6, 0, 6, 2, "between bodies", "warning"));
+      previous.push(LintItem.create(8, 2, 8, 5, "second body", "error"));
+
+      // two rows are added at the top of the document, and the first row
+      // changes
+      DocumentDeltaTracker deltas = new DocumentDeltaTracker(null);
+      insertRows(deltas, 0, 2);
+
+      JsArray<JsObject> skipRows = JsArray.createArray().cast();
+      skipRows.push(rows(3, 7));
+      skipRows.push(rows(9, 12));
+
+      JsArray<LintItem> lint = JsArray.createArray().cast();
+      LintManager.reuseLint(previous, deltas, skipRows, lint);
+
+      Assert.assertEquals(2, lint.length());
+
+      LintItem first = lint.get(0);
+      Assert.assertEquals("first body", first.getText());
+      Assert.assertEquals(4, first.getStartRow());
+      Assert.assertEquals(3, first.getStartColumn());
+      Assert.assertEquals(5, first.getEndRow());
+      Assert.assertEquals(1, first.getEndColumn());
+      Assert.assertEquals("style", first.getType());
+
+      LintItem second = lint.get(1);
+      Assert.assertEquals("second body", second.getText());
+      Assert.assertEquals(10, second.getStartRow());
+      Assert.assertEquals(10, second.getEndRow());
+   }
+
+   public void testReuseLintNothingSkipped()
+   {
+      JsArray<LintItem> previous = JsArray.createArray().cast();
+      previous.push(LintItem.create(2, 0, 2, 1, "lint", "warning"));
+
+      JsArray<LintItem> lint = JsArray.createArray().cast();
+      LintManager.reuseLint(previous,
+                            new DocumentDeltaTracker(null),
+                            JsArray.createArray().<JsArray<JsObject>>cast(),
+                            lint);
+      Assert.assertEquals(0, lint.length());
+   }
+}
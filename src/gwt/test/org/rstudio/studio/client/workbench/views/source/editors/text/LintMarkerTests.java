@@ -0,0 +1,90 @@
+/*
+ * LintMarkerTests.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text;
+
+import java.util.List;
+
+import org.rstudio.studio.client.workbench.views.source.editors.text.AceEditorWidget.ShownLint;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+import junit.framework.Assert;
+
+public class LintMarkerTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   private static String key(int row, int column, String text, String clazz)
+   {
+      return AceEditorWidget.lintKey(Position.create(row, column),
+                                     Position.create(row, column + 1),
+                                     text,
+                                     clazz);
+   }
+
+   public void testLintKey()
+   {
+      Assert.assertEquals(key(1, 2, "lint", "warning"),
+                          key(1, 2, "lint", "warning"));
+      Assert.assertFalse(key(1, 2, "lint", "warning").equals(
+                         key(1, 3, "lint", "warning")));
+      Assert.assertFalse(key(1, 2, "lint", "warning").equals(
+                         key(2, 2, "lint", "warning")));
+      Assert.assertFalse(key(1, 2, "lint", "warning").equals(
+                         key(1, 2, "other", "warning")));
+      Assert.assertFalse(key(1, 2, "lint", "warning").equals(
+                         key(1, 2, "lint", "error")));
+   }
+
+   public void testUnchangedMarkersKept()
+   {
+      ShownLint<String> shown = new ShownLint<>();
+      shown.add(key(1, 0, "a", "warning"), "marker a");
+      shown.add(key(2, 0, "b", "warning"), "marker b");
+      shown.add(key(3, 0, "c", "error"), "marker c");
+
+      // the lint for row 2 is gone, and there is new lint on row 4
+      Assert.assertEquals("marker a", shown.take(key(1, 0, "a", "warning")));
+      Assert.assertEquals("marker c", shown.take(key(3, 0, "c", "error")));
+      Assert.assertNull(shown.take(key(4, 0, "d", "warning")));
+
+      List<String> remaining = shown.remaining();
+      Assert.assertEquals(1, remaining.size());
+      Assert.assertEquals("marker b", remaining.get(0));
+   }
+
+   public void testDuplicateLint()
+   {
+      // identical lint has a marker each, and each marker is kept only once
+      ShownLint<String> shown = new ShownLint<>();
+      shown.add(key(1, 0, "a", "warning"), "first");
+      shown.add(key(1, 0, "a", "warning"), "second");
+
+      Assert.assertNotNull(shown.take(key(1, 0, "a", "warning")));
+      Assert.assertNotNull(shown.take(key(1, 0, "a", "warning")));
+      Assert.assertNull(shown.take(key(1, 0, "a", "warning")));
+      Assert.assertTrue(shown.remaining().isEmpty());
+
+      // a marker whose lint changed class is replaced
+      shown.add(key(5, 2, "b", "warning"), "old");
+      Assert.assertNull(shown.take(key(5, 2, "b", "error")));
+      Assert.assertEquals("old", shown.remaining().get(0));
+   }
+}
@@ -0,0 +1,148 @@
+/*
+ * PagedConsoleOutputTests.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rstudio.core.client.VirtualConsole;
+import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.ui.Widget;
+
+public class PagedConsoleOutputTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   private static class FakePrefs implements VirtualConsole.Preferences
+   {
+      @Override
+      public int truncateLongLinesInConsoleHistory()
+      {
+         return 0;
+      }
+
+      @Override
+      public String consoleAnsiMode()
+      {
+         return UserPrefs.ANSI_CONSOLE_MODE_ON;
+      }
+
+      @Override
+      public boolean screenReaderEnabled()
+      {
+         return false;
+      }
+   }
+
+   public void testOutputWithinPage()
+   {
+      VirtualConsole console = new VirtualConsole(null, new FakePrefs());
+      PagedConsoleOutput paged = new PagedConsoleOutput(console, 3);
+      assertTrue(paged.submit("a\nb\n", null));
+      assertTrue(paged.submit("c", null));
+      assertFalse(paged.hasNextPage());
+      assertFalse(paged.hasPreviousPage());
+      assertEquals("a\nb\nc", console.toString());
+   }
+
+   public void testOutputPastPage()
+   {
+      VirtualConsole console = new VirtualConsole(null, new FakePrefs());
+      PagedConsoleOutput paged = new PagedConsoleOutput(console, 2);
+      assertFalse(paged.submit("a\nb\nc\n", null));
+      assertFalse(paged.submit("d\ne\n", null));
+      assertTrue(paged.hasNextPage());
+      assertEquals("a\nb\n", console.toString());
+
+      // each page replaces the one before it
+      paged.showNextPage();
+      assertTrue(paged.hasNextPage());
+      assertTrue(paged.hasPreviousPage());
+      assertEquals("c\nd\n", console.toString());
+
+      paged.showNextPage();
+      assertFalse(paged.hasNextPage());
+      assertEquals("e\n", console.toString());
+
+      // earlier pages can be shown again
+      paged.showPreviousPage();
+      assertEquals("c\nd\n", console.toString());
+
+      paged.showPreviousPage();
+      assertFalse(paged.hasPreviousPage());
+      assertEquals("a\nb\n", console.toString());
+   }
+
+   public void testOutputWhileOnEarlierPage()
+   {
+      VirtualConsole console = new VirtualConsole(null, new FakePrefs());
+      PagedConsoleOutput paged = new PagedConsoleOutput(console, 2);
+      assertFalse(paged.submit("a\nb\nc\n", null));
+      paged.showNextPage();
+      paged.showPreviousPage();
+
+      // output arriving while an earlier page is shown is kept for later
+      assertFalse(paged.submit("d\n", null));
+      assertEquals("a\nb\n", console.toString());
+
+      // the last page picks up the output as it arrives
+      paged.showNextPage();
+      assertEquals("c\nd\n", console.toString());
+      assertFalse(paged.submit("e", null));
+      assertEquals("c\nd\n", console.toString());
+      paged.showNextPage();
+      assertTrue(paged.submit("f\n", null));
+      assertEquals("ef\n", console.toString());
+   }
+
+   public void testTextPlotText()
+   {
+      ChunkOutputStream stream = new ChunkOutputStream(
+            () -> {},
+            ChunkOutputSize.Default,
+            (elem) -> new VirtualConsole(elem, new FakePrefs()),
+            2);
+
+      // a plot between two runs of text output starts a new console, but
+      // the first console keeps the output it has yet to show
+      stream.showConsoleText("a\nb\nc\n");
+      stream.showPlotOutput("plot.png", null, 1, () -> {});
+      stream.showConsoleText("d\ne\nf\n");
+      assertEquals("a\nb\nd\ne\n", stream.getAllConsoleText());
+
+      List<ChunkOutputStream.ConsolePager> pagers = new ArrayList<>();
+      for (Widget w: stream)
+      {
+         if (w instanceof ChunkOutputStream.ConsolePager)
+            pagers.add((ChunkOutputStream.ConsolePager) w);
+      }
+      assertEquals(2, pagers.size());
+
+      pagers.get(0).showNextPage();
+      assertEquals("c\nd\ne\n", stream.getAllConsoleText());
+
+      pagers.get(1).showNextPage();
+      assertEquals("c\nf\n", stream.getAllConsoleText());
+
+      pagers.get(0).showPreviousPage();
+      assertEquals("a\nb\nf\n", stream.getAllConsoleText());
+   }
+}
@@ -0,0 +1,252 @@
+/*
+ * DocumentDeltaTrackerTests.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.model;
+
+import org.rstudio.core.client.patch.DocumentPatch;
+
+import com.google.gwt.json.client.JSONArray;
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.junit.client.GWTTestCase;
+
+import junit.framework.Assert;
+
+public class DocumentDeltaTrackerTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   // a document whose edits are recorded the way onDocumentChanged records
+   // those made in the editor
+   private static class Document
+   {
+      Document(String text)
+      {
+         base_ = text;
+         text_ = text;
+      }
+
+      void insert(int row, int column, String text)
+      {
+         int offset = offset(row, column);
+         text_ = text_.substring(0, offset) + text + text_.substring(offset);
+         int rows = text.split("\n", -1).length - 1;
+         tracker_.addChange(row, row + 1, rows);
+      }
+
+      void remove(int startRow, int startColumn, int endRow, int endColumn)
+      {
+         int start = offset(startRow, startColumn);
+         int end = offset(endRow, endColumn);
+         text_ = text_.substring(0, start) + text_.substring(end);
+         tracker_.addChange(startRow, endRow + 1, -(endRow - startRow));
+      }
+
+      DocumentPatch createPatch()
+      {
+         return tracker_.createPatch(base_, text_);
+      }
+
+      private int offset(int row, int column)
+      {
+         int offset = 0;
+         for (int i = 0; i < row; i++)
+            offset = text_.indexOf('\n', offset) + 1;
+         return offset + column;
+      }
+
+      final String base_;
+      String text_;
+      final DocumentDeltaTracker tracker_ = new DocumentDeltaTracker(null);
+   }
+
+   // applies a patch the way the server does, to the UTF-8 encoding of text
+   private static String applyPatch(String text, DocumentPatch patch)
+   {
+      StringBuilder result = new StringBuilder();
+      int pos = 0;
+      int bytes = 0;
+      JSONArray changes = patch.toJson();
+      for (int i = 0; i < changes.size(); i++)
+      {
+         JSONObject change = changes.get(i).isObject();
+         int offset = intValue(change, "offset");
+         int length = intValue(change, "length");
+
+         int start = charOffset(text, pos, bytes, offset);
+         result.append(text, pos, start);
+         int end = charOffset(text, start, offset, offset + length);
+         result.append(change.get("text").isString().stringValue());
+         pos = end;
+         bytes = offset + length;
+      }
+      result.append(text.substring(pos));
+      return result.toString();
+   }
+
+   // the character offset of the given byte offset, counting on from a known
+   // character and byte offset
+   private static int charOffset(String text, int pos, int bytes, int offset)
+   {
+      while (bytes < offset)
+      {
+         int next = Character.isHighSurrogate(text.charAt(pos)) ? pos + 2 : pos + 1;
+         bytes += DocumentPatch.utf8Length(text, pos, next);
+         pos = next;
+      }
+      Assert.assertEquals("offset splits a character", offset, bytes);
+      return pos;
+   }
+
+   private static int intValue(JSONObject change, String key)
+   {
+      return (int) change.get(key).isNumber().doubleValue();
+   }
+
+   private static void assertPatched(Document doc)
+   {
+      DocumentPatch patch = doc.createPatch();
+      Assert.assertNotNull(patch);
+      Assert.assertEquals(doc.text_, applyPatch(doc.base_, patch));
+   }
+
+   private static final String TEXT = "zero\none\ntwo\nthree\nfour\nfive\n";
+
+   public void testNoChanges()
+   {
+      Document doc = new Document(TEXT);
+      Assert.assertTrue(doc.createPatch().isEmpty());
+      Assert.assertFalse(doc.tracker_.hasChanged(0, 6));
+      Assert.assertEquals(3, doc.tracker_.getRow(3));
+   }
+
+   public void testSingleRowEdit()
+   {
+      Document doc = new Document(TEXT);
+      doc.insert(2, 3, "!");
+
+      DocumentPatch patch = doc.createPatch();
+      JSONArray changes = patch.toJson();
+      Assert.assertEquals(1, changes.size());
+      JSONObject change = changes.get(0).isObject();
+      Assert.assertEquals(9, intValue(change, "offset"));
+      Assert.assertEquals(4, intValue(change, "length"));
+      Assert.assertEquals("two!\n", change.get("text").isString().stringValue());
+
+      Assert.assertTrue(doc.tracker_.hasChanged(2, 2));
+      Assert.assertFalse(doc.tracker_.hasChanged(3, 6));
+      Assert.assertEquals(-1, doc.tracker_.getRow(2));
+      Assert.assertEquals(3, doc.tracker_.getRow(3));
+   }
+
+   public void testSeparateEdits()
+   {
+      Document doc = new Document(TEXT);
+      doc.insert(1, 0, "new\nrows\n");
+      doc.insert(6, 4, "!");
+
+      Assert.assertEquals(2, doc.createPatch().toJson().size());
+      assertPatched(doc);
+
+      Assert.assertEquals(0, doc.tracker_.getRow(0));
+      Assert.assertEquals(-1, doc.tracker_.getRow(1));
+      Assert.assertEquals(4, doc.tracker_.getRow(2));
+      Assert.assertEquals(-1, doc.tracker_.getRow(4));
+      Assert.assertEquals(7, doc.tracker_.getRow(5));
+   }
+
+   public void testAdjacentEdits()
+   {
+      Document doc = new Document(TEXT);
+      doc.insert(2, 0, "a");
+      doc.insert(3, 0, "b");
+
+      // edits on neighbouring rows become a single replacement
+      Assert.assertEquals(1, doc.createPatch().toJson().size());
+      assertPatched(doc);
+
+      Assert.assertEquals(1, doc.tracker_.getRow(1));
+      Assert.assertEquals(-1, doc.tracker_.getRow(2));
+      Assert.assertEquals(-1, doc.tracker_.getRow(3));
+      Assert.assertEquals(4, doc.tracker_.getRow(4));
+   }
+
+   public void testOverlappingEdits()
+   {
+      Document doc = new Document(TEXT);
+      doc.insert(2, 1, "x\ny\nz");
+      doc.remove(1, 2, 3, 1);
+      doc.insert(1, 0, "\n");
+
+      assertPatched(doc);
+
+      Assert.assertEquals(0, doc.tracker_.getRow(0));
+      Assert.assertEquals(-1, doc.tracker_.getRow(1));
+      Assert.assertEquals(-1, doc.tracker_.getRow(2));
+      Assert.assertEquals(4, doc.tracker_.getRow(3));
+      Assert.assertEquals(6, doc.tracker_.getRow(5));
+   }
+
+   public void testInsertThenDelete()
+   {
+      Document doc = new Document(TEXT);
+      doc.insert(3, 2, "inserted\nrows\n");
+      doc.remove(3, 2, 5, 0);
+
+      // the rows are recorded as changed, but are back to their base text
+      Assert.assertEquals(TEXT, doc.text_);
+      Assert.assertTrue(doc.createPatch().isEmpty());
+
+      doc.insert(4, 0, "x\n");
+      doc.remove(3, 0, 5, 0);
+      assertPatched(doc);
+      Assert.assertEquals(4, doc.tracker_.getRow(5));
+   }
+
+   public void testMultiByteOffsets()
+   {
+      // 'é' and 'ö' are 2 bytes in UTF-8, the emoji a 4 byte surrogate pair
+      Document doc = new Document("héllo\n😀 wörld\nend\n");
+      doc.insert(2, 0, "finé ");
+
+      JSONArray changes = doc.createPatch().toJson();
+      Assert.assertEquals(1, changes.size());
+      JSONObject change = changes.get(0).isObject();
+      Assert.assertEquals(19, intValue(change, "offset"));
+      Assert.assertEquals(4, intValue(change, "length"));
+      assertPatched(doc);
+
+      // removing the emoji from the row before joins the two replacements
+      doc.remove(1, 0, 1, 2);
+      changes = doc.createPatch().toJson();
+      Assert.assertEquals(1, changes.size());
+      change = changes.get(0).isObject();
+      Assert.assertEquals(7, intValue(change, "offset"));
+      Assert.assertEquals(16, intValue(change, "length"));
+      assertPatched(doc);
+   }
+
+   public void testMissedChange()
+   {
+      Document doc = new Document(TEXT);
+      doc.insert(1, 0, "x");
+
+      // contents changed outside the rows recorded
+      Assert.assertNull(doc.tracker_.createPatch(TEXT, "x" + doc.text_));
+      Assert.assertNull(doc.tracker_.createPatch(TEXT, doc.text_ + "five\n"));
+   }
+}
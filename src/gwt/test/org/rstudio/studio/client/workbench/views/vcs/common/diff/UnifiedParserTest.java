@@ -62,6 +62,21 @@ public class UnifiedParserTest extends TestCase
       testFile("diff2");
    }
 
+   public void testLineCount() throws Exception
+   {
+      for (String testName : new String[] {"diff1", "diff2"})
+      {
+         UnifiedParser parser = new UnifiedParser(readFileResource(testName + ".txt"));
+         DiffChunk chunk;
+         while (null != (chunk = parser.nextChunk()))
+         {
+            // lines are created on demand; the count must be known up front
+            int lineCount = chunk.getLineCount();
+            assertEquals(lineCount, chunk.getLines().size());
+         }
+      }
+   }
+
    private void testFile(String testName) throws Exception
    {
       StringWriter stringWriter = new StringWriter();